@@ -0,0 +1,74 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.corpus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.Parser;
+import net.sourceforge.pmd.lang.ast.Node;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * The synthetic Java sources the benchmarks run against. They are checked in
+ * next to this class, so results stay comparable between runs and machines.
+ */
+public final class Corpus {
+
+    private static final String[] FILES = { "Inventory.java", "ExpressionParser.java", "OrderStatus.java",
+        "EventBus.java" };
+
+    private static final Map<String, String> SOURCES = load();
+
+    private Corpus() {
+    }
+
+    private static Map<String, String> load() {
+        Map<String, String> sources = new LinkedHashMap<String, String>();
+        for (String file : FILES) {
+            InputStream in = Corpus.class.getResourceAsStream(file);
+            if (in == null) {
+                throw new IllegalStateException("Corpus file " + file + " not found");
+            }
+            try {
+                sources.put(file, IOUtils.toString(in, "UTF-8"));
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't read corpus file " + file, e);
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
+        }
+        return Collections.unmodifiableMap(sources);
+    }
+
+    /**
+     * @return the source code of each corpus file, keyed by file name
+     */
+    public static Map<String, String> sources() {
+        return SOURCES;
+    }
+
+    /**
+     * Parses every corpus file.
+     *
+     * @param handler the language version to parse with
+     * @return fresh ASTs, one per file, without symbol table or data flow
+     */
+    public static List<Node> parse(LanguageVersionHandler handler) {
+        Parser parser = handler.getParser(handler.getDefaultParserOptions());
+        List<Node> nodes = new ArrayList<Node>(SOURCES.size());
+        for (Map.Entry<String, String> entry : SOURCES.entrySet()) {
+            nodes.add(parser.parse(entry.getKey(), new StringReader(entry.getValue())));
+        }
+        return nodes;
+    }
+}
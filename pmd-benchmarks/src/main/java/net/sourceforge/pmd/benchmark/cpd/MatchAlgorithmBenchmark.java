@@ -0,0 +1,72 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.cpd;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.benchmark.corpus.Corpus;
+import net.sourceforge.pmd.cpd.JavaTokenizer;
+import net.sourceforge.pmd.cpd.MatchAlgorithm;
+import net.sourceforge.pmd.cpd.SourceCode;
+import net.sourceforge.pmd.cpd.TokenEntry;
+import net.sourceforge.pmd.cpd.Tokens;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the CPD {@link MatchAlgorithm} over the tokens of several copies of the
+ * corpus, so there are duplicates to find. Tokenizing happens once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchAlgorithmBenchmark {
+
+    private static final int COPIES = 3;
+
+    @Param({ "25", "100" })
+    public int minimumTileSize;
+
+    private Map<String, SourceCode> sources;
+    private Tokens tokens;
+
+    @Setup(Level.Trial)
+    public void tokenize() {
+        TokenEntry.clearImages();
+        sources = new HashMap<String, SourceCode>();
+        tokens = new Tokens();
+        JavaTokenizer tokenizer = new JavaTokenizer();
+        for (int copy = 0; copy < COPIES; copy++) {
+            for (Map.Entry<String, String> entry : Corpus.sources().entrySet()) {
+                String name = "copy" + copy + "/" + entry.getKey();
+                SourceCode sourceCode = new SourceCode(new SourceCode.StringCodeLoader(entry.getValue(), name));
+                tokenizer.tokenize(sourceCode, tokens);
+                sources.put(name, sourceCode);
+            }
+        }
+    }
+
+    @Benchmark
+    public MatchAlgorithm findMatches() {
+        MatchAlgorithm matchAlgorithm = new MatchAlgorithm(sources, tokens, minimumTileSize);
+        matchAlgorithm.findMatches();
+        return matchAlgorithm;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.dfa;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.lang.dfa.CompactDataFlow;
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.dfa.VariableAccess;
+import net.sourceforge.pmd.lang.dfa.pathfinder.AccessSequenceHandler;
+import net.sourceforge.pmd.lang.dfa.pathfinder.DAAWorklistAnalyzer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading the linked data flow built by the Linker with reading its
+ * {@link CompactDataFlow} copy, for a generated method with thousands of
+ * statements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class DataFlowBenchmark {
+
+    @Param({ "1000", "4000" })
+    public int statements;
+
+    @Param({ JavaDataFlowFixture.LINKED, JavaDataFlowFixture.COMPACT })
+    public String layout;
+
+    private List<DataFlowNode> flow;
+
+    @Setup(Level.Trial)
+    public void buildDataFlow() {
+        JavaDataFlowFixture fixture = new JavaDataFlowFixture(statements);
+        flow = fixture.buildDataFlow(fixture.parse(), layout);
+    }
+
+    @Benchmark
+    public void anomalies(final Blackhole bh) {
+        new DAAWorklistAnalyzer(flow.get(0), new AccessSequenceHandler() {
+            public void execute(DataFlowNode previousNode, int previousAccessType, DataFlowNode node,
+                    VariableAccess access) {
+                bh.consume(access);
+            }
+        }).run();
+    }
+
+    @Benchmark
+    public int traverse() {
+        int edges = 0;
+        for (DataFlowNode node : flow) {
+            for (DataFlowNode child : node.getChildren()) {
+                edges += child.getIndex();
+            }
+            edges += node.getVariableAccess().size();
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.dfa;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.dfa.CompactDataFlow;
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to build (and optionally compact, see {@link CompactDataFlow}) the
+ * data flow of a generated method with thousands of statements. Run with
+ * <code>-prof gc</code> to compare the allocation too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class DataFlowBuildBenchmark {
+
+    @Param({ "1000", "4000" })
+    public int statements;
+
+    @Param({ JavaDataFlowFixture.LINKED, JavaDataFlowFixture.COMPACT })
+    public String layout;
+
+    private JavaDataFlowFixture fixture;
+    private Node root;
+
+    @Setup(Level.Trial)
+    public void generateSource() {
+        fixture = new JavaDataFlowFixture(statements);
+    }
+
+    /**
+     * Each build needs a fresh AST, the data flow is attached to its nodes.
+     */
+    @Setup(Level.Invocation)
+    public void parseSource() {
+        root = fixture.parse();
+    }
+
+    @Benchmark
+    public List<DataFlowNode> build() {
+        return fixture.buildDataFlow(root, layout);
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.dfa;
+
+/**
+ * Generates a Java class with a single method consisting of a mix of
+ * assignments, if/else, for and while statements.
+ */
+public final class HugeMethodGenerator {
+
+    private HugeMethodGenerator() {
+    }
+
+    /**
+     * @param statements the number of top level statements of the method
+     * @return the source code
+     */
+    public static String generate(int statements) {
+        StringBuilder sb = new StringBuilder(statements * 40);
+        sb.append("public class Huge {\n");
+        sb.append("    int run(int a) {\n");
+        sb.append("        int x = 0;\n");
+        sb.append("        int y = 1;\n");
+        for (int i = 0; i < statements; i++) {
+            switch (i % 4) {
+            case 0:
+                sb.append("        x = x + a;\n");
+                break;
+            case 1:
+                sb.append("        if (x > ").append(i).append(") { y = x; } else { x = y; }\n");
+                break;
+            case 2:
+                sb.append("        for (int i").append(i).append(" = 0; i").append(i).append(" < a; i").append(i)
+                        .append("++) { y += i").append(i).append("; }\n");
+                break;
+            default:
+                sb.append("        while (y > x) { y--; }\n");
+                break;
+            }
+        }
+        sb.append("        return x + y;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
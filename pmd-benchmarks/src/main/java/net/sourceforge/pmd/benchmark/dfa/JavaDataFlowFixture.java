@@ -0,0 +1,51 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.dfa;
+
+import java.io.StringReader;
+import java.util.List;
+
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.dfa.CompactDataFlow;
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+
+/**
+ * Parses the generated source and builds the data flow of its method.
+ */
+final class JavaDataFlowFixture {
+
+    static final String LINKED = "linked";
+    static final String COMPACT = "compact";
+
+    private final LanguageVersionHandler handler = LanguageRegistry.getLanguage(JavaLanguageModule.NAME)
+            .getDefaultVersion().getLanguageVersionHandler();
+    private final String source;
+
+    JavaDataFlowFixture(int statements) {
+        source = HugeMethodGenerator.generate(statements);
+    }
+
+    /**
+     * @return a fresh AST with symbol table, the data flow is attached to its nodes
+     */
+    Node parse() {
+        Node node = handler.getParser(handler.getDefaultParserOptions()).parse("Huge.java", new StringReader(source));
+        handler.getSymbolFacade().start(node);
+        return node;
+    }
+
+    List<DataFlowNode> buildDataFlow(Node node, String layout) {
+        handler.getDataFlowFacade().start(node);
+        ASTMethodDeclaration method = node.getFirstDescendantOfType(ASTMethodDeclaration.class);
+        List<DataFlowNode> flow = method.getDataFlowNode().getFlow();
+        if (COMPACT.equals(layout)) {
+            flow = CompactDataFlow.compact(flow);
+        }
+        return flow;
+    }
+}
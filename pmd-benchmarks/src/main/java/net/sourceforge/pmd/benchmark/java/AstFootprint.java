@@ -0,0 +1,65 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.benchmark.corpus.Corpus;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+
+/**
+ * Measures the heap retained by the ASTs of the corpus, per 1000 lines of
+ * Java. This is no JMH benchmark: it parses the corpus a number of times,
+ * keeps the ASTs and compares the used heap after full garbage collections.
+ * <p>
+ * Usage: <code>java -cp benchmarks.jar net.sourceforge.pmd.benchmark.java.AstFootprint [copies] [version]</code>
+ */
+public final class AstFootprint {
+
+    private AstFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int copies = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        LanguageVersionHandler handler = args.length > 1 ? JavaFixture.handler(args[1]) : JavaFixture
+                .defaultHandler();
+
+        int lines = 0;
+        for (Map.Entry<String, String> entry : Corpus.sources().entrySet()) {
+            lines += entry.getValue().split("\n", -1).length;
+        }
+
+        // warm up, so that the parser classes and caches don't count
+        Corpus.parse(handler);
+
+        long before = usedHeap();
+        List<List<Node>> retained = new ArrayList<List<Node>>(copies);
+        for (int i = 0; i < copies; i++) {
+            retained.add(Corpus.parse(handler));
+        }
+        long after = usedHeap();
+
+        long bytesPerCopy = (after - before) / copies;
+        System.out.printf("%d copies of %d lines retain %d bytes, %d bytes per 1000 lines%n", retained.size(), lines,
+                after - before, bytesPerCopy * 1000 / lines);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
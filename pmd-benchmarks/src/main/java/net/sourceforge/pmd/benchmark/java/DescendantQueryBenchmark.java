@@ -0,0 +1,123 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.java;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.benchmark.corpus.Corpus;
+import net.sourceforge.pmd.benchmark.dfa.HugeMethodGenerator;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTAssignmentOperator;
+import net.sourceforge.pmd.lang.java.ast.ASTBlockStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceBody;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceType;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTName;
+import net.sourceforge.pmd.lang.java.ast.ASTPrimaryExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTReturnStatement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the descendant queries rules typically issue per node over freshly
+ * parsed ASTs. For the corpus: whether the parent of a type reference has a
+ * class body, the names and primary expressions of each method and whether a
+ * block statement returns. For a huge method: the assignments of the
+ * enclosing method for every name, which is quadratic when the subtree is
+ * walked for each query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class DescendantQueryBenchmark {
+
+    private final LanguageVersionHandler handler = JavaFixture.defaultHandler();
+    private List<Node> types;
+    private List<Node> methods;
+    private List<Node> statements;
+    private List<ASTName> names;
+
+    @Setup(Level.Invocation)
+    public void parse() {
+        types = new ArrayList<Node>();
+        methods = new ArrayList<Node>();
+        statements = new ArrayList<Node>();
+        for (Node node : Corpus.parse(handler)) {
+            collect(node);
+        }
+        Node huge = handler.getParser(handler.getDefaultParserOptions()).parse("Huge",
+                new StringReader(HugeMethodGenerator.generate(200)));
+        names = new ArrayList<ASTName>();
+        collectNames(huge);
+    }
+
+    private void collectNames(Node node) {
+        if (node instanceof ASTName) {
+            names.add((ASTName) node);
+        }
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            collectNames(node.jjtGetChild(i));
+        }
+    }
+
+    private void collect(Node node) {
+        if (node instanceof ASTClassOrInterfaceType) {
+            types.add(node);
+        } else if (node instanceof ASTMethodDeclaration) {
+            methods.add(node);
+        } else if (node instanceof ASTBlockStatement) {
+            statements.add(node);
+        }
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            collect(node.jjtGetChild(i));
+        }
+    }
+
+    @Benchmark
+    public int queries() {
+        int found = 0;
+        for (Node type : types) {
+            if (type.jjtGetParent().hasDescendantOfType(ASTClassOrInterfaceBody.class)) {
+                found++;
+            }
+        }
+        for (Node method : methods) {
+            found += method.findDescendantsOfType(ASTName.class).size();
+            found += method.findDescendantsOfType(ASTPrimaryExpression.class).size();
+        }
+        for (Node statement : statements) {
+            if (statement.hasDescendantOfType(ASTReturnStatement.class)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int usagesInHugeMethod() {
+        int found = 0;
+        for (ASTName name : names) {
+            found += name.getFirstParentOfType(ASTMethodDeclaration.class)
+                    .findDescendantsOfType(ASTAssignmentOperator.class).size();
+        }
+        return found;
+    }
+}
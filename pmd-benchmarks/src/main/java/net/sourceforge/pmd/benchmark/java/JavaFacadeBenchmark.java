@@ -0,0 +1,81 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.java;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.benchmark.corpus.Corpus;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.VisitorStarter;
+import net.sourceforge.pmd.lang.ast.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the symbol table, data flow and type resolution facades over the
+ * corpus. The facades decorate the AST they visit, so every invocation gets a
+ * freshly parsed one, prepared up to the stage before the facade.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JavaFacadeBenchmark {
+
+    @State(Scope.Thread)
+    public static class Parsed {
+        LanguageVersionHandler handler = JavaFixture.defaultHandler();
+        List<Node> nodes;
+
+        @Setup(Level.Invocation)
+        public void parse() {
+            nodes = Corpus.parse(handler);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class WithSymbols {
+        LanguageVersionHandler handler = JavaFixture.defaultHandler();
+        List<Node> nodes;
+
+        @Setup(Level.Invocation)
+        public void parse() {
+            nodes = JavaFixture.parseWithSymbols(handler);
+        }
+    }
+
+    @Benchmark
+    public List<Node> symbolFacade(Parsed state) {
+        return run(state.handler.getSymbolFacade(JavaFacadeBenchmark.class.getClassLoader()), state.nodes);
+    }
+
+    @Benchmark
+    public List<Node> dataFlowFacade(WithSymbols state) {
+        return run(state.handler.getDataFlowFacade(), state.nodes);
+    }
+
+    @Benchmark
+    public List<Node> typeResolution(WithSymbols state) {
+        return run(state.handler.getTypeResolutionFacade(JavaFacadeBenchmark.class.getClassLoader()), state.nodes);
+    }
+
+    private static List<Node> run(VisitorStarter facade, List<Node> nodes) {
+        for (Node node : nodes) {
+            facade.start(node);
+        }
+        return nodes;
+    }
+}
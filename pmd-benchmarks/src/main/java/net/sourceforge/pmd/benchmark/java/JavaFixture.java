@@ -0,0 +1,53 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.java;
+
+import java.util.List;
+
+import net.sourceforge.pmd.benchmark.corpus.Corpus;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+
+/**
+ * Prepares the corpus ASTs up to the stage a benchmark starts at.
+ */
+final class JavaFixture {
+
+    private JavaFixture() {
+    }
+
+    static LanguageVersion version(String version) {
+        LanguageVersion languageVersion = LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getVersion(version);
+        if (languageVersion == null) {
+            throw new IllegalArgumentException("Unknown Java version " + version);
+        }
+        return languageVersion;
+    }
+
+    static LanguageVersionHandler handler(String version) {
+        return version(version).getLanguageVersionHandler();
+    }
+
+    static LanguageVersion defaultVersion() {
+        return LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion();
+    }
+
+    static LanguageVersionHandler defaultHandler() {
+        return defaultVersion().getLanguageVersionHandler();
+    }
+
+    /**
+     * @return the parsed corpus, with symbol table
+     */
+    static List<Node> parseWithSymbols(LanguageVersionHandler handler) {
+        List<Node> nodes = Corpus.parse(handler);
+        for (Node node : nodes) {
+            handler.getSymbolFacade(JavaFixture.class.getClassLoader()).start(node);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.java;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceType;
+import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTIfStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTLiteral;
+import net.sourceforge.pmd.lang.java.ast.ASTLocalVariableDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTName;
+import net.sourceforge.pmd.lang.java.ast.ASTPrimaryExpression;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.java.rule.JavaRuleChainVisitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the dispatch overhead of the {@link JavaRuleChainVisitor}: indexing
+ * the nodes by type and handing each node to the rules interested in it. The
+ * rules don't look at the nodes they get, so the rule logic itself doesn't show.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleChainBenchmark {
+
+    private static final Class<?>[] VISITED_TYPES = { ASTMethodDeclaration.class, ASTName.class,
+        ASTPrimaryExpression.class, ASTIfStatement.class, ASTLocalVariableDeclaration.class,
+        ASTFieldDeclaration.class, ASTClassOrInterfaceType.class, ASTLiteral.class };
+
+    @Param({ "1", "10", "50" })
+    public int rules;
+
+    private List<Node> nodes;
+    private JavaRuleChainVisitor visitor;
+    private RuleContext ctx;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setUp() {
+        nodes = JavaFixture.parseWithSymbols(JavaFixture.defaultHandler());
+        RuleSet ruleSet = new RuleSet();
+        visitor = new JavaRuleChainVisitor();
+        for (int i = 0; i < rules; i++) {
+            NoopRule rule = new NoopRule();
+            rule.setName("NoopRule" + i);
+            rule.addRuleChainVisit((Class<? extends Node>) VISITED_TYPES[i % VISITED_TYPES.length]);
+            ruleSet.addRule(rule);
+            visitor.add(ruleSet, rule);
+        }
+        ctx = new RuleContext();
+        ctx.setLanguageVersion(JavaFixture.defaultVersion());
+        ctx.setReport(new Report());
+    }
+
+    @Benchmark
+    public RuleContext visitAll() {
+        visitor.visitAll(nodes, ctx);
+        return ctx;
+    }
+
+    public static class NoopRule extends AbstractJavaRule {
+        @Override
+        public Object visit(JavaNode node, Object data) {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.java;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.XPathRule;
+import net.sourceforge.pmd.lang.rule.xpath.XPathRuleQuery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluates the same XPath rules with Jaxen (XPath 1.0) and Saxon (XPath 2.0)
+ * over the whole corpus. The queries avoid boolean attributes, which compare
+ * differently in both versions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class XPathBenchmark {
+
+    private static final Map<String, String> QUERIES = new HashMap<String, String>();
+    static {
+        QUERIES.put("multiParamMethods", "//ClassOrInterfaceBodyDeclaration/MethodDeclaration"
+                + "/MethodDeclarator[count(FormalParameters/FormalParameter) > 1]");
+        QUERIES.put("nestedIfs", "//IfStatement[ancestor::IfStatement]/Statement[not(Block)]");
+        QUERIES.put("stringCompare",
+                "//PrimaryExpression[PrimaryPrefix/Name[contains(@Image, '.equals')]]"
+                        + "[PrimarySuffix/Arguments//Literal[starts-with(@Image, '\"')]]");
+    }
+
+    @Param({ XPathRuleQuery.XPATH_1_0, XPathRuleQuery.XPATH_2_0 })
+    public String version;
+
+    @Param({ "multiParamMethods", "nestedIfs", "stringCompare" })
+    public String query;
+
+    private List<Node> nodes;
+    private XPathRule rule;
+    private RuleContext ctx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        nodes = JavaFixture.parseWithSymbols(JavaFixture.defaultHandler());
+        rule = new XPathRule(QUERIES.get(query));
+        rule.setVersion(version);
+        rule.setMessage("{0}");
+        ctx = new RuleContext();
+        ctx.setLanguageVersion(JavaFixture.defaultVersion());
+        ctx.setSourceCodeFilename("corpus");
+    }
+
+    @Benchmark
+    public Report evaluate() {
+        Report report = new Report();
+        ctx.setReport(report);
+        rule.apply(nodes, ctx);
+        return report;
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.renderers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.renderers.AbstractAccumulatingRenderer;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.renderers.SummaryHTMLRenderer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Accumulates 1M synthetic violations from per file reports and renders them
+ * at the end: with the {@link SummaryHTMLRenderer}, which reads the sorted
+ * violations, and by walking the violation tree like the YAHTML renderer does.
+ * The file reports are handed over in file name order, as with a single
+ * thread, or shuffled, as with several threads.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class AccumulatingRendererBenchmark {
+
+    static final int VIOLATIONS = 1000000;
+    static final int VIOLATIONS_PER_FILE = 100;
+
+    @Param({ "sorted", "shuffled" })
+    public String fileOrder;
+
+    private List<Report> reports;
+
+    @Setup(Level.Trial)
+    public void createReports() {
+        reports = ReportFixture.createReports(VIOLATIONS, VIOLATIONS_PER_FILE);
+        if ("shuffled".equals(fileOrder)) {
+            reports = new ArrayList<Report>(reports);
+            Collections.shuffle(reports, new Random(42));
+        }
+    }
+
+    @Benchmark
+    public long summaryHtml() throws IOException {
+        return render(new SummaryHTMLRenderer());
+    }
+
+    @Benchmark
+    public long violationTree() throws IOException {
+        return render(new AbstractAccumulatingRenderer("tree", "Walks the violation tree") {
+            public String defaultFileExtension() {
+                return "txt";
+            }
+
+            @Override
+            public void end() throws IOException {
+                for (Iterator<RuleViolation> i = report.treeIterator(); i.hasNext();) {
+                    writer.write(i.next().getFilename());
+                }
+            }
+        });
+    }
+
+    private long render(Renderer renderer) throws IOException {
+        ReportFixture.CountingWriter writer = new ReportFixture.CountingWriter();
+        renderer.setWriter(writer);
+        renderer.start();
+        for (Report report : reports) {
+            renderer.renderFileReport(report);
+        }
+        renderer.end();
+        return writer.count;
+    }
+}
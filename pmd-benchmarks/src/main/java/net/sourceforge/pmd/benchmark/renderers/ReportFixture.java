@@ -0,0 +1,88 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.renderers;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.benchmark.corpus.Corpus;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTName;
+import net.sourceforge.pmd.lang.java.rule.JavaRuleViolation;
+import net.sourceforge.pmd.lang.rule.MockRule;
+
+/**
+ * Creates per file reports with synthetic violations on the names of the
+ * corpus, as PMD hands them to the renderers.
+ */
+final class ReportFixture {
+
+    private ReportFixture() {
+    }
+
+    /**
+     * @param violations the total number of violations
+     * @param violationsPerFile the number of violations of each file report
+     * @return the file reports, in file name order
+     */
+    static List<Report> createReports(int violations, int violationsPerFile) {
+        LanguageVersionHandler handler = LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion()
+                .getLanguageVersionHandler();
+        List<ASTName> nodes = new ArrayList<ASTName>();
+        for (Node root : Corpus.parse(handler)) {
+            handler.getSymbolFacade().start(root);
+            root.findDescendantsOfType(ASTName.class, nodes, true);
+        }
+        MockRule[] rules = { new MockRule("FirstRule", "first", "first message", "benchmark", RulePriority.HIGH),
+            new MockRule("SecondRule", "second", "second <message> & more", "benchmark", RulePriority.MEDIUM),
+            new MockRule("ThirdRule", "third", "third message", "benchmark", RulePriority.LOW) };
+
+        List<Report> reports = new ArrayList<Report>();
+        RuleContext ctx = new RuleContext();
+        Report report = null;
+        for (int i = 0; i < violations; i++) {
+            if (i % violationsPerFile == 0) {
+                report = new Report();
+                reports.add(report);
+                ctx.setSourceCodeFilename(String.format("src/main/java/corpus/File%07d.java", reports.size()));
+            }
+            ASTName node = nodes.get(i % nodes.size());
+            MockRule rule = rules[i % rules.length];
+            report.addRuleViolation(new JavaRuleViolation(rule, ctx, node, rule.getMessage()));
+        }
+        return reports;
+    }
+
+    /**
+     * Counts and discards the output.
+     */
+    static class CountingWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
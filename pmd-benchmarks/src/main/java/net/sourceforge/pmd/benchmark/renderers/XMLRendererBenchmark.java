@@ -0,0 +1,63 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.renderers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.renderers.XMLRenderer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Renders reports with a given number of violations, spread over files of
+ * {@value #VIOLATIONS_PER_FILE} violations each, with the {@link XMLRenderer}.
+ * The output is counted and discarded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class XMLRendererBenchmark {
+
+    static final int VIOLATIONS_PER_FILE = 50;
+
+    @Param({ "1000", "100000" })
+    public int violations;
+
+    private List<Report> reports;
+
+    @Setup(Level.Trial)
+    public void createReports() {
+        reports = ReportFixture.createReports(violations, VIOLATIONS_PER_FILE);
+    }
+
+    @Benchmark
+    public long render() throws IOException {
+        ReportFixture.CountingWriter writer = new ReportFixture.CountingWriter();
+        XMLRenderer renderer = new XMLRenderer();
+        renderer.setWriter(writer);
+        renderer.start();
+        for (Report report : reports) {
+            renderer.renderFileReport(report);
+        }
+        renderer.end();
+        return writer.count;
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark.template;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.Parser;
+import net.sourceforge.pmd.lang.ast.Node;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses a small Velocity or JSP template, as PMD does for each file: with a
+ * parser obtained from the language version handler. The score is the number
+ * of files parsed per second; for many small templates the setup per file
+ * dominates the parsing itself.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class TemplateParserBenchmark {
+
+    @Param({ "vm", "jsp" })
+    public String language;
+
+    private LanguageVersionHandler handler;
+    private String fileName;
+    private String source;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Language lang = LanguageRegistry.findLanguageByTerseName(language);
+        if (lang == null) {
+            throw new IllegalArgumentException("Unknown language " + language);
+        }
+        handler = lang.getDefaultVersion().getLanguageVersionHandler();
+        fileName = "order." + language;
+        InputStream in = TemplateParserBenchmark.class.getResourceAsStream(fileName);
+        if (in == null) {
+            throw new IllegalStateException("Template " + fileName + " not found");
+        }
+        try {
+            source = IOUtils.toString(in, "UTF-8");
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    @Benchmark
+    public Node parse() {
+        Parser parser = handler.getParser(handler.getDefaultParserOptions());
+        return parser.parse(fileName, new StringReader(source));
+    }
+}
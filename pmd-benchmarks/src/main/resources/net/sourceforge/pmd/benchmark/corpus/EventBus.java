@@ -0,0 +1,168 @@
+package corpus.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Dispatches events to the handlers registered for their type or one of its super types.
+ */
+public class EventBus {
+
+    private static final Logger LOG = Logger.getLogger(EventBus.class.getName());
+
+    public interface Handler<E> {
+        void handle(E event) throws Exception;
+    }
+
+    public abstract static class Event {
+        private final long timestamp = System.currentTimeMillis();
+        private boolean consumed;
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public void consume() {
+            consumed = true;
+        }
+
+        public boolean isConsumed() {
+            return consumed;
+        }
+    }
+
+    public static class MessageEvent extends Event {
+        private final String message;
+
+        public MessageEvent(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public static class ErrorEvent extends MessageEvent {
+        private final Throwable cause;
+
+        public ErrorEvent(String message, Throwable cause) {
+            super(message);
+            this.cause = cause;
+        }
+
+        public Throwable getCause() {
+            return cause;
+        }
+    }
+
+    private static final class Registration<E> {
+        final Class<E> type;
+        final Handler<? super E> handler;
+        final int priority;
+
+        Registration(Class<E> type, Handler<? super E> handler, int priority) {
+            this.type = type;
+            this.handler = handler;
+            this.priority = priority;
+        }
+
+        void dispatch(Object event) throws Exception {
+            handler.handle(type.cast(event));
+        }
+    }
+
+    private final Map<Class<?>, List<Registration<?>>> registrations = new ConcurrentHashMap<Class<?>, List<Registration<?>>>();
+    private final Executor executor;
+    private volatile int dispatched;
+
+    public EventBus() {
+        this(new Executor() {
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+    }
+
+    public EventBus(Executor executor) {
+        this.executor = executor;
+    }
+
+    public <E> void register(Class<E> type, Handler<? super E> handler) {
+        register(type, handler, 0);
+    }
+
+    public synchronized <E> void register(Class<E> type, Handler<? super E> handler, int priority) {
+        List<Registration<?>> list = registrations.get(type);
+        if (list == null) {
+            list = new CopyOnWriteArrayList<Registration<?>>();
+            registrations.put(type, list);
+        }
+        int index = 0;
+        while (index < list.size() && list.get(index).priority >= priority) {
+            index++;
+        }
+        list.add(index, new Registration<E>(type, handler, priority));
+    }
+
+    public synchronized boolean unregister(Handler<?> handler) {
+        boolean removed = false;
+        for (List<Registration<?>> list : registrations.values()) {
+            for (Registration<?> registration : list) {
+                if (registration.handler == handler) {
+                    list.remove(registration);
+                    removed = true;
+                }
+            }
+        }
+        return removed;
+    }
+
+    public void post(final Event event) {
+        final List<Registration<?>> targets = collect(event.getClass());
+        if (targets.isEmpty()) {
+            LOG.fine("No handler for " + event.getClass().getName());
+            return;
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                for (Registration<?> registration : targets) {
+                    if (event.isConsumed()) {
+                        break;
+                    }
+                    try {
+                        registration.dispatch(event);
+                        dispatched++;
+                    } catch (Exception e) {
+                        if (event instanceof ErrorEvent) {
+                            LOG.log(Level.SEVERE, "Error handler failed", e);
+                        } else {
+                            post(new ErrorEvent("Handler failed for " + event.getClass().getSimpleName(), e));
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private List<Registration<?>> collect(Class<?> type) {
+        List<Registration<?>> result = new ArrayList<Registration<?>>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            List<Registration<?>> list = registrations.get(c);
+            if (list != null) {
+                result.addAll(list);
+            }
+        }
+        return result;
+    }
+
+    public int getDispatched() {
+        return dispatched;
+    }
+}
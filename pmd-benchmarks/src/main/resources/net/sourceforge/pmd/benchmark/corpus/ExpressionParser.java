@@ -0,0 +1,231 @@
+package corpus.calc;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A small recursive descent parser and evaluator for arithmetic expressions.
+ */
+public final class ExpressionParser {
+
+    private final String input;
+    private final Map<String, Double> variables;
+    private int pos;
+    private char current;
+
+    public ExpressionParser(String input, Map<String, Double> variables) {
+        this.input = input;
+        this.variables = variables == null ? new HashMap<String, Double>() : variables;
+        this.pos = -1;
+        advance();
+    }
+
+    public static double evaluate(String expression) {
+        return new ExpressionParser(expression, null).parse();
+    }
+
+    public double parse() {
+        double value = parseExpression();
+        if (pos < input.length()) {
+            throw error("Unexpected character '" + current + "'");
+        }
+        return value;
+    }
+
+    private void advance() {
+        pos++;
+        current = pos < input.length() ? input.charAt(pos) : '\0';
+    }
+
+    private void skipWhitespace() {
+        while (current == ' ' || current == '\t' || current == '\n' || current == '\r') {
+            advance();
+        }
+    }
+
+    private boolean accept(char c) {
+        skipWhitespace();
+        if (current == c) {
+            advance();
+            return true;
+        }
+        return false;
+    }
+
+    private double parseExpression() {
+        double value = parseTerm();
+        for (;;) {
+            if (accept('+')) {
+                value += parseTerm();
+            } else if (accept('-')) {
+                value -= parseTerm();
+            } else {
+                return value;
+            }
+        }
+    }
+
+    private double parseTerm() {
+        double value = parseFactor();
+        for (;;) {
+            if (accept('*')) {
+                value *= parseFactor();
+            } else if (accept('/')) {
+                double divisor = parseFactor();
+                if (divisor == 0.0) {
+                    throw error("Division by zero");
+                }
+                value /= divisor;
+            } else if (accept('%')) {
+                value %= parseFactor();
+            } else {
+                return value;
+            }
+        }
+    }
+
+    private double parseFactor() {
+        if (accept('+')) {
+            return parseFactor();
+        }
+        if (accept('-')) {
+            return -parseFactor();
+        }
+        double value;
+        int start = pos;
+        if (accept('(')) {
+            value = parseExpression();
+            if (!accept(')')) {
+                throw error("Missing ')'");
+            }
+        } else if (Character.isDigit(current) || current == '.') {
+            while (Character.isDigit(current) || current == '.') {
+                advance();
+            }
+            value = Double.parseDouble(input.substring(start, pos));
+        } else if (Character.isLetter(current)) {
+            while (Character.isLetterOrDigit(current) || current == '_') {
+                advance();
+            }
+            String name = input.substring(start, pos);
+            if (accept('(')) {
+                value = callFunction(name, parseExpression());
+                if (!accept(')')) {
+                    throw error("Missing ')' after argument of " + name);
+                }
+            } else {
+                Double variable = variables.get(name);
+                if (variable == null) {
+                    throw error("Unknown variable " + name);
+                }
+                value = variable.doubleValue();
+            }
+        } else {
+            throw error("Unexpected character '" + current + "'");
+        }
+        if (accept('^')) {
+            value = Math.pow(value, parseFactor());
+        }
+        return value;
+    }
+
+    private double callFunction(String name, double argument) {
+        switch (name.charAt(0)) {
+        case 'a':
+            if ("abs".equals(name)) {
+                return Math.abs(argument);
+            }
+            break;
+        case 'c':
+            if ("cos".equals(name)) {
+                return Math.cos(argument);
+            } else if ("ceil".equals(name)) {
+                return Math.ceil(argument);
+            }
+            break;
+        case 'f':
+            if ("floor".equals(name)) {
+                return Math.floor(argument);
+            }
+            break;
+        case 'l':
+            if ("log".equals(name)) {
+                return Math.log(argument);
+            }
+            break;
+        case 's':
+            if ("sin".equals(name)) {
+                return Math.sin(argument);
+            } else if ("sqrt".equals(name)) {
+                return Math.sqrt(argument);
+            }
+            break;
+        case 't':
+            if ("tan".equals(name)) {
+                return Math.tan(argument);
+            }
+            break;
+        default:
+            break;
+        }
+        throw error("Unknown function " + name);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " of \"" + input + "\"");
+    }
+
+    /**
+     * Converts an infix expression into reverse polish notation, using the shunting yard algorithm.
+     */
+    public static String toPostfix(String infix) {
+        StringBuilder out = new StringBuilder();
+        Deque<Character> operators = new ArrayDeque<Character>();
+        for (int i = 0; i < infix.length(); i++) {
+            char c = infix.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c) || c == '.') {
+                out.append(c);
+                if (i + 1 == infix.length() || !Character.isLetterOrDigit(infix.charAt(i + 1))) {
+                    out.append(' ');
+                }
+            } else if (c == '(') {
+                operators.push(Character.valueOf(c));
+            } else if (c == ')') {
+                while (!operators.isEmpty() && operators.peek().charValue() != '(') {
+                    out.append(operators.pop()).append(' ');
+                }
+                operators.pop();
+            } else {
+                while (!operators.isEmpty() && precedence(operators.peek().charValue()) >= precedence(c)) {
+                    out.append(operators.pop()).append(' ');
+                }
+                operators.push(Character.valueOf(c));
+            }
+        }
+        while (!operators.isEmpty()) {
+            out.append(operators.pop()).append(' ');
+        }
+        return out.toString().trim();
+    }
+
+    private static int precedence(char operator) {
+        switch (operator) {
+        case '+':
+        case '-':
+            return 1;
+        case '*':
+        case '/':
+        case '%':
+            return 2;
+        case '^':
+            return 3;
+        default:
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package corpus.store;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of the items in stock, grouped by category.
+ */
+public class Inventory implements Serializable, Iterable<Inventory.Item> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Map<String, List<Item>> itemsByCategory = new HashMap<String, List<Item>>(DEFAULT_CAPACITY);
+    private int modifications;
+    private transient Listener listener;
+
+    public interface Listener {
+        void itemAdded(Item item);
+
+        void itemRemoved(Item item);
+    }
+
+    public static class Item implements Comparable<Item>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final String category;
+        private final BigDecimal price;
+        private int quantity;
+
+        public Item(String name, String category, BigDecimal price, int quantity) {
+            if (name == null || category == null) {
+                throw new IllegalArgumentException("name and category are required");
+            }
+            this.name = name;
+            this.category = category;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        void adjust(int delta) {
+            int newQuantity = quantity + delta;
+            if (newQuantity < 0) {
+                throw new IllegalStateException("Not enough " + name + " in stock: " + quantity);
+            }
+            quantity = newQuantity;
+        }
+
+        public BigDecimal getValue() {
+            return price.multiply(BigDecimal.valueOf(quantity));
+        }
+
+        public int compareTo(Item other) {
+            int cmp = category.compareTo(other.category);
+            if (cmp == 0) {
+                cmp = name.compareTo(other.name);
+            }
+            return cmp;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Item)) {
+                return false;
+            }
+            Item other = (Item) obj;
+            return name.equals(other.name) && category.equals(other.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + category.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + category + "): " + quantity + " x " + price;
+        }
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void add(Item item) {
+        List<Item> items = itemsByCategory.get(item.getCategory());
+        if (items == null) {
+            items = new ArrayList<Item>();
+            itemsByCategory.put(item.getCategory(), items);
+        }
+        int index = Collections.binarySearch(items, item);
+        if (index >= 0) {
+            items.get(index).adjust(item.getQuantity());
+        } else {
+            items.add(-index - 1, item);
+        }
+        modifications++;
+        if (listener != null) {
+            listener.itemAdded(item);
+        }
+    }
+
+    public boolean remove(String category, String name, int quantity) {
+        List<Item> items = itemsByCategory.get(category);
+        if (items == null) {
+            return false;
+        }
+        for (Iterator<Item> i = items.iterator(); i.hasNext();) {
+            Item item = i.next();
+            if (item.getName().equals(name)) {
+                item.adjust(-quantity);
+                if (item.getQuantity() == 0) {
+                    i.remove();
+                    if (listener != null) {
+                        listener.itemRemoved(item);
+                    }
+                }
+                modifications++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public BigDecimal getTotalValue() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (List<Item> items : itemsByCategory.values()) {
+            for (Item item : items) {
+                total = total.add(item.getValue());
+            }
+        }
+        return total;
+    }
+
+    public List<Item> findCheaperThan(BigDecimal limit, int maxResults) {
+        List<Item> result = new ArrayList<Item>();
+        for (Item item : this) {
+            if (item.getPrice().compareTo(limit) < 0) {
+                result.add(item);
+                if (result.size() >= maxResults) {
+                    break;
+                }
+            }
+        }
+        Collections.sort(result, new Comparator<Item>() {
+            public int compare(Item o1, Item o2) {
+                return o1.getPrice().compareTo(o2.getPrice());
+            }
+        });
+        return result;
+    }
+
+    public Map<String, Integer> countByCategory() {
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (Map.Entry<String, List<Item>> entry : itemsByCategory.entrySet()) {
+            int count = 0;
+            for (Item item : entry.getValue()) {
+                count += item.getQuantity();
+            }
+            counts.put(entry.getKey(), Integer.valueOf(count));
+        }
+        return counts;
+    }
+
+    public Iterator<Item> iterator() {
+        final int expectedModifications = modifications;
+        final Iterator<List<Item>> categories = itemsByCategory.values().iterator();
+        return new Iterator<Item>() {
+            private Iterator<Item> current = Collections.<Item> emptyList().iterator();
+
+            public boolean hasNext() {
+                checkModifications();
+                while (!current.hasNext() && categories.hasNext()) {
+                    current = categories.next().iterator();
+                }
+                return current.hasNext();
+            }
+
+            public Item next() {
+                if (!hasNext()) {
+                    throw new java.util.NoSuchElementException();
+                }
+                return current.next();
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            private void checkModifications() {
+                if (modifications != expectedModifications) {
+                    throw new java.util.ConcurrentModificationException();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package corpus.orders;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The life cycle of an order.
+ */
+public enum OrderStatus {
+
+    NEW("N") {
+        @Override
+        public boolean isFinal() {
+            return false;
+        }
+    },
+    PAID("P"),
+    SHIPPED("S"),
+    DELIVERED("D"),
+    CANCELLED("C"),
+    RETURNED("R");
+
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.METHOD, ElementType.FIELD })
+    public @interface Transition {
+        OrderStatus[] from();
+
+        String reason() default "";
+    }
+
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS;
+
+    static {
+        Map<OrderStatus, Set<OrderStatus>> transitions = new EnumMap<OrderStatus, Set<OrderStatus>>(OrderStatus.class);
+        transitions.put(NEW, EnumSet.of(PAID, CANCELLED));
+        transitions.put(PAID, EnumSet.of(SHIPPED, CANCELLED));
+        transitions.put(SHIPPED, EnumSet.of(DELIVERED, RETURNED));
+        transitions.put(DELIVERED, EnumSet.of(RETURNED));
+        transitions.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+        transitions.put(RETURNED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS = Collections.unmodifiableMap(transitions);
+    }
+
+    private final String code;
+
+    private OrderStatus(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public boolean isFinal() {
+        return TRANSITIONS.get(this).isEmpty();
+    }
+
+    public boolean canBecome(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    public static OrderStatus fromCode(String code) {
+        for (OrderStatus status : values()) {
+            if (status.code.equals(code)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown order status: " + code);
+    }
+
+    public static final class Order {
+        private final long id;
+        private OrderStatus status = NEW;
+        private String note;
+
+        public Order(long id) {
+            this.id = id;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public OrderStatus getStatus() {
+            return status;
+        }
+
+        @Transition(from = { NEW })
+        public void pay() {
+            moveTo(PAID, null);
+        }
+
+        @Transition(from = { PAID })
+        public void ship() {
+            moveTo(SHIPPED, null);
+        }
+
+        @Transition(from = { SHIPPED })
+        public void deliver() {
+            moveTo(DELIVERED, null);
+        }
+
+        @Transition(from = { NEW, PAID }, reason = "customer request")
+        public void cancel(String reason) {
+            moveTo(CANCELLED, reason);
+        }
+
+        @Transition(from = { SHIPPED, DELIVERED }, reason = "damaged or unwanted")
+        public void giveBack(String reason) {
+            moveTo(RETURNED, reason);
+        }
+
+        private void moveTo(OrderStatus next, String reason) {
+            if (!status.canBecome(next)) {
+                throw new IllegalStateException("Order " + id + " can't become " + next + ", it is " + status);
+            }
+            status = next;
+            if (reason != null && reason.length() > 0) {
+                note = note == null ? reason : note + "; " + reason;
+            }
+        }
+
+        public String getNote() {
+            return note;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Order ");
+            sb.append(id).append(' ').append(status);
+            if (note != null) {
+                sb.append(" (").append(note).append(')');
+            }
+            return sb.toString();
+        }
+    }
+
+    public static int count(Iterable<Order> orders, OrderStatus... statuses) {
+        Set<OrderStatus> wanted = statuses.length == 0 ? EnumSet.allOf(OrderStatus.class) : EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : statuses) {
+            wanted.add(status);
+        }
+        int count = 0;
+        for (Order order : orders) {
+            if (wanted.contains(order.getStatus())) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
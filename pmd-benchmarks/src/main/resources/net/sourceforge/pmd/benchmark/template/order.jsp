@@ -0,0 +1,36 @@
+<%@ page contentType="text/html; charset=UTF-8" import="java.util.List,com.example.Order" %>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
+<%-- Order confirmation page --%>
+<html>
+<head>
+  <title>Order ${order.number}</title>
+  <script type="text/javascript">
+    function toggle(id) { var e = document.getElementById(id); e.style.display = e.style.display == 'none' ? '' : 'none'; }
+  </script>
+</head>
+<body>
+  <h1>Thank you, <c:out value="${order.customer.firstName}"/></h1>
+  <c:choose>
+    <c:when test="${empty order.items}">
+      <p>Your order is empty.</p>
+    </c:when>
+    <c:otherwise>
+      <table id="items">
+        <tr><th>Item</th><th>Quantity</th><th>Price</th></tr>
+        <c:forEach var="item" items="${order.items}" varStatus="status">
+          <tr class="${status.index % 2 == 0 ? 'even' : 'odd'}">
+            <td><c:out value="${item.name}"/></td>
+            <td>${item.quantity}</td>
+            <td><fmt:formatNumber value="${item.price}" type="currency"/></td>
+          </tr>
+        </c:forEach>
+      </table>
+    </c:otherwise>
+  </c:choose>
+  <% List<String> notes = ((Order) request.getAttribute("order")).getNotes(); %>
+  <p>Notes: <%= notes.size() %></p>
+  <a href="#" onclick="toggle('items')">Toggle items</a>
+  <jsp:include page="footer.jsp"/>
+</body>
+</html>
@@ -4,16 +4,18 @@
 package net.sourceforge.pmd;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintStream;
 import java.net.URISyntaxException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
@@ -23,24 +25,32 @@ import java.util.logging.Logger;
 
 import net.sourceforge.pmd.benchmark.Benchmark;
 import net.sourceforge.pmd.benchmark.Benchmarker;
+import net.sourceforge.pmd.benchmark.CsvProfileReport;
+import net.sourceforge.pmd.benchmark.JsonProfileReport;
+import net.sourceforge.pmd.benchmark.ProfileReport;
+import net.sourceforge.pmd.benchmark.RuleProfiler;
 import net.sourceforge.pmd.benchmark.TextReport;
 import net.sourceforge.pmd.cli.PMDCommandLineInterface;
 import net.sourceforge.pmd.cli.PMDParameters;
 import net.sourceforge.pmd.lang.*;
+import net.sourceforge.pmd.lang.rule.RuleWatchdog;
 import net.sourceforge.pmd.processor.MonoThreadProcessor;
 import net.sourceforge.pmd.processor.MultiThreadProcessor;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.util.FileUtil;
-import net.sourceforge.pmd.util.IOUtil;
 import net.sourceforge.pmd.util.SystemUtils;
 import net.sourceforge.pmd.util.database.DBMSMetadata;
 import net.sourceforge.pmd.util.database.DBURI;
+import net.sourceforge.pmd.util.database.SourceCodeFetcher;
 import net.sourceforge.pmd.util.database.SourceObject;
+import net.sourceforge.pmd.util.database.SourceObjectManifest;
 import net.sourceforge.pmd.util.datasource.DataSource;
-import net.sourceforge.pmd.util.datasource.ReaderDataSource;
+import net.sourceforge.pmd.util.datasource.SourceObjectDataSource;
 import net.sourceforge.pmd.util.log.ConsoleLogHandler;
 import net.sourceforge.pmd.util.log.ScopedLogHandlersManager;
 
+import org.apache.commons.io.IOUtils;
+
 /**
  * This is the main class for interacting with PMD. The primary flow of all Rule
  * process is controlled via interactions with this class. A command line
@@ -73,18 +83,24 @@ public class PMD {
             LOG.log(Level.FINE, "DBMSMetadata retrieved");
             List<SourceObject> sourceObjectList = dbmsMetadata.getSourceObjectList();
             LOG.log(Level.FINE, "Located {0} database source objects", sourceObjectList.size());
-            for (SourceObject sourceObject : sourceObjectList) {
-                String falseFilePath = sourceObject.getPseudoFileName();
-                LOG.log(Level.FINEST, "Adding database source object {0}", falseFilePath);
-
-                try {
-                    dataSources.add(new ReaderDataSource(dbmsMetadata.getSourceCode(sourceObject), falseFilePath));
-                } catch (SQLException ex) {
-                    if (LOG.isLoggable(Level.WARNING)) {
-                        LOG.log(Level.WARNING, "Cannot get SourceCode for " + falseFilePath + "  - skipping ...", ex);
-                    }
+            if (null != dbUri.getParameters() && dbUri.getParameters().containsKey(SourceObjectManifest.MANIFEST)) {
+                if (dbmsMetadata.hasSourceObjectTimestampsStatement()) {
+                    dbmsMetadata.assignTimestamps(sourceObjectList);
+                } else {
+                    LOG.warning("The DBType has no getSourceObjectTimestampsStatement - analyzing all source objects");
                 }
             }
+            // the order in which the files are analyzed, so that batches are retrieved in order
+            Collections.sort(sourceObjectList, new Comparator<SourceObject>() {
+                public int compare(SourceObject o1, SourceObject o2) {
+                    return o1.getPseudoFileName().compareTo(o2.getPseudoFileName());
+                }
+            });
+            SourceCodeFetcher fetcher = new SourceCodeFetcher(dbmsMetadata, dbUri, sourceObjectList);
+            for (SourceObject sourceObject : sourceObjectList) {
+                LOG.log(Level.FINEST, "Adding database source object {0}", sourceObject.getPseudoFileName());
+                dataSources.add(new SourceObjectDataSource(fetcher, sourceObject));
+            }
         } catch (URISyntaxException e) {
             throw new PMDException("Cannot get DataSources from DBURI - \"" + uriString + "\"", e);
         } catch (SQLException e) {
@@ -220,16 +236,22 @@ public class PMD {
         }
 
         Set<Language> languages = getApplicableLanguages(configuration, ruleSets);
-        List<DataSource> files = getApplicableFiles(configuration, languages);
+        List<DataSource> files = getApplicableFiles(configuration, languages, ruleSets);
+        SourceObjectManifest manifest = SourceObjectManifest.forConfiguration(configuration, ruleSets);
+        if (manifest != null) {
+            files = manifest.selectChanged(files);
+        }
 
         long reportStart = System.nanoTime();
         try {
-            Renderer renderer = configuration.createRenderer();
-            List<Renderer> renderers = new LinkedList<Renderer>();
-            renderers.add(renderer);
-
-            renderer.setWriter(IOUtil.createWriter(configuration.getReportFile()));
-            renderer.start();
+            List<Renderer> renderers = configuration.createRenderers();
+            for (Renderer renderer : renderers) {
+                renderer.start();
+            }
+            if (manifest != null) {
+                manifest.replayUnchanged(renderers);
+                renderers.add(manifest.createRecorder());
+            }
 
             Benchmarker.mark(Benchmark.Reporting, System.nanoTime() - reportStart, 0);
 
@@ -238,8 +260,10 @@ public class PMD {
             processFiles(configuration, ruleSetFactory, files, ctx, renderers);
 
             reportStart = System.nanoTime();
-            renderer.end();
-            renderer.flush();
+            for (Renderer renderer : renderers) {
+                renderer.end();
+                renderer.flush();
+            }
         } catch (Exception e) {
             String message = e.getMessage();
             if (message != null) {
@@ -328,15 +352,28 @@ public class PMD {
 
         sortFiles(configuration, files);
 
-        /*
-         * Check if multithreaded support is available. ExecutorService can also
-         * be disabled if threadCount is not positive, e.g. using the
-         * "-threads 0" command line option.
-         */
-        if (SystemUtils.MT_SUPPORTED && configuration.getThreads() > 0) {
-            new MultiThreadProcessor(configuration).processFiles(ruleSetFactory, files, ctx, renderers);
-        } else {
-            new MonoThreadProcessor(configuration).processFiles(ruleSetFactory, files, ctx, renderers);
+        RuleWatchdog watchdog = null;
+        if (configuration.getRuleTimeout() > 0) {
+            watchdog = new RuleWatchdog(configuration.getRuleTimeout());
+            ctx.setRuleWatchdog(watchdog);
+        }
+
+        try {
+            /*
+             * Check if multithreaded support is available. ExecutorService can also
+             * be disabled if threadCount is not positive, e.g. using the
+             * "-threads 0" command line option.
+             */
+            if (SystemUtils.MT_SUPPORTED && configuration.getThreads() > 0) {
+                new MultiThreadProcessor(configuration).processFiles(ruleSetFactory, files, ctx, renderers);
+            } else {
+                new MonoThreadProcessor(configuration).processFiles(ruleSetFactory, files, ctx, renderers);
+            }
+        } finally {
+            if (watchdog != null) {
+                watchdog.shutdown();
+                ctx.setRuleWatchdog(null);
+            }
         }
     }
 
@@ -345,15 +382,32 @@ public class PMD {
             // randomize processing order
             Collections.shuffle(files);
         } else {
+            // the file names are determined once, not for every comparison
             final boolean useShortNames = configuration.isReportShortNames();
             final String inputPaths = configuration.getInputPaths();
-            Collections.sort(files, new Comparator<DataSource>() {
-                public int compare(DataSource left, DataSource right) {
-                    String leftString = left.getNiceFileName(useShortNames, inputPaths);
-                    String rightString = right.getNiceFileName(useShortNames, inputPaths);
-                    return leftString.compareTo(rightString);
-                }
-            });
+            SortKey[] keys = new SortKey[files.size()];
+            for (int i = 0; i < keys.length; i++) {
+                DataSource file = files.get(i);
+                keys[i] = new SortKey(file.getNiceFileName(useShortNames, inputPaths), file);
+            }
+            Arrays.sort(keys);
+            for (int i = 0; i < keys.length; i++) {
+                files.set(i, keys[i].file);
+            }
+        }
+    }
+
+    private static final class SortKey implements Comparable<SortKey> {
+        private final String name;
+        private final DataSource file;
+
+        SortKey(String name, DataSource file) {
+            this.name = name;
+            this.file = file;
+        }
+
+        public int compareTo(SortKey other) {
+            return name.compareTo(other.name);
         }
     }
 
@@ -364,12 +418,39 @@ public class PMD {
      * @return List<DataSource> of files
      */
     public static List<DataSource> getApplicableFiles(PMDConfiguration configuration, Set<Language> languages) {
+        return getApplicableFiles(configuration, languages, null);
+    }
+
+    /**
+     * Determines all the files, that should be analyzed by PMD. Files, which
+     * are excluded by the exclude patterns of all the RuleSets, are skipped.
+     * The directories are listed with the configured number of threads.
+     * @param configuration contains either the file path or the DB URI, from where to load the files
+     * @param languages used to filter by file extension
+     * @param ruleSets used to filter by the exclude patterns, may be <code>null</code>
+     * @return List<DataSource> of files
+     */
+    public static List<DataSource> getApplicableFiles(PMDConfiguration configuration, Set<Language> languages,
+            RuleSets ruleSets) {
         long startFiles = System.nanoTime();
         LanguageFilenameFilter fileSelector = new LanguageFilenameFilter(languages);
         List<DataSource> files = new ArrayList<DataSource>();
 
         if (null != configuration.getInputPaths()) {
-            files.addAll(FileUtil.collectFiles(configuration.getInputPaths(), fileSelector));
+            List<DataSource> collected = FileUtil.collectFiles(configuration.getInputPaths(), fileSelector,
+                    Math.max(1, configuration.getThreads()));
+            if (ruleSets != null && hasExcludePatterns(ruleSets)) {
+                // like RuleSets.applies(File) on the RuleContext of the file
+                boolean useShortNames = configuration.isReportShortNames();
+                String inputPaths = configuration.getInputPaths();
+                for (DataSource dataSource : collected) {
+                    if (ruleSets.applies(new File(dataSource.getNiceFileName(useShortNames, inputPaths)))) {
+                        files.add(dataSource);
+                    }
+                }
+            } else {
+                files.addAll(collected);
+            }
         }
 
         if (null != configuration.getInputUri()) {
@@ -388,6 +469,15 @@ public class PMD {
         return files;
     }
 
+    private static boolean hasExcludePatterns(RuleSets ruleSets) {
+        for (RuleSet ruleSet : ruleSets.getAllRuleSets()) {
+            if (!ruleSet.getExcludePatterns().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static Set<Language> getApplicableLanguages(PMDConfiguration configuration, RuleSets ruleSets) {
         Set<Language> languages = new HashSet<Language>();
         LanguageVersionDiscoverer discoverer = configuration.getLanguageVersionDiscoverer();
@@ -434,6 +524,9 @@ public class PMD {
         final Level oldLogLevel = LOG.getLevel();
         LOG.setLevel(logLevel); // Need to do this, since the static logger has
                                 // already been initialized at this point
+        if (configuration.getProfileFile() != null) {
+            RuleProfiler.setEnabled(true);
+        }
         try {
             PMD.doPMD(configuration);
         } catch (Exception e) {
@@ -453,10 +546,26 @@ public class PMD {
                                                       // config
                 report.generate(Benchmarker.values(), System.err);
             }
+            if (configuration.getProfileFile() != null) {
+                writeProfile(configuration.getProfileFile());
+            }
         }
         return status;
     }
 
+    private static void writeProfile(String profileFile) {
+        ProfileReport report = profileFile.endsWith(".csv") ? new CsvProfileReport() : new JsonProfileReport();
+        PrintStream out = null;
+        try {
+            out = new PrintStream(new FileOutputStream(profileFile), false, "UTF-8");
+            report.generate(RuleProfiler.results(), out);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Unable to write the rule profile to " + profileFile, e);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
     /**
      * Constant that contains always the current version of PMD.
      */
@@ -4,6 +4,7 @@
 package net.sourceforge.pmd;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
@@ -11,6 +12,7 @@ import java.util.Properties;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.renderers.RendererFactory;
 import net.sourceforge.pmd.util.ClasspathClassLoader;
@@ -28,6 +30,8 @@ import net.sourceforge.pmd.util.IOUtil;
  *  <li>The number of threads to create when invoking on multiple files,
  *      defaults one thread per available processor.
  *          {@link #getThreads()}</li>
+ *  <li>The time budget of a single Rule on a single source file.
+ *          {@link #getRuleTimeout()}</li>
  *  <li>A ClassLoader to use when loading classes during Rule processing
  *      (e.g. during type resolution), defaults to ClassLoader of the
  *      Configuration class.
@@ -61,6 +65,9 @@ import net.sourceforge.pmd.util.IOUtil;
  *          {@link #getReportFormat()}</li>
  *  <li>The file to which the Report should render.
  *          {@link #getReportFile()}</li>
+ *  <li>Additional reports rendered from the same analysis, each as
+ *      <code>{format}:{file}</code>.
+ *          {@link #getAdditionalReports()}</li>
  *  <li>An indicator of whether to use File short names in Reports, defaults
  *      to <code>false</code>.
  *          {@link #isReportShortNames()}</li>
@@ -79,6 +86,8 @@ import net.sourceforge.pmd.util.IOUtil;
  *          {@link #isStressTest()}</li>
  *  <li>An indicator of whether PMD should log benchmarking information.
  *          {@link #isBenchmark()}</li>
+ *  <li>The file to which PMD writes the rule profile.
+ *          {@link #getProfileFile()}</li>
  * </ul>
  */
 public class PMDConfiguration extends AbstractConfiguration {
@@ -86,6 +95,7 @@ public class PMDConfiguration extends AbstractConfiguration {
     // General behavior options
     private String suppressMarker = PMD.SUPPRESS_MARKER;
     private int threads = Runtime.getRuntime().availableProcessors();
+    private long ruleTimeout;
     private ClassLoader classLoader = getClass().getClassLoader();
     private LanguageVersionDiscoverer languageVersionDiscoverer = new LanguageVersionDiscoverer();
 
@@ -98,12 +108,14 @@ public class PMDConfiguration extends AbstractConfiguration {
     // Reporting options
     private String reportFormat;
     private String reportFile;
+    private List<String> additionalReports = new ArrayList<String>();
     private boolean reportShortNames = false;
     private Properties reportProperties = new Properties();
     private boolean showSuppressedViolations = false;
 
     private boolean stressTest;
     private boolean benchmark;
+    private String profileFile;
 
     /**
      * Get the suppress marker. This is the source level marker used to indicate a
@@ -144,6 +156,28 @@ public class PMDConfiguration extends AbstractConfiguration {
         this.threads = threads;
     }
 
+    /**
+     * Get the time budget of a single Rule on a single source file.
+     * 
+     * @return The timeout in milliseconds, <code>0</code> if the Rules are
+     *         not time limited.
+     */
+    public long getRuleTimeout() {
+        return ruleTimeout;
+    }
+
+    /**
+     * Set the time budget of a single Rule on a single source file. A Rule
+     * exceeding it is cancelled and reported as a processing error, the
+     * processing continues with the next Rule.
+     * 
+     * @param ruleTimeout
+     *            The timeout in milliseconds, <code>0</code> to disable it.
+     */
+    public void setRuleTimeout(long ruleTimeout) {
+        this.ruleTimeout = ruleTimeout;
+    }
+
     /**
      * Get the ClassLoader being used by PMD when processing Rules.
      * 
@@ -362,10 +396,38 @@ public class PMDConfiguration extends AbstractConfiguration {
      * @return A Renderer instance.
      */
     public Renderer createRenderer(boolean withReportWriter) {
-        Renderer renderer = RendererFactory.createRenderer(reportFormat, reportProperties);
+        return createRenderer(reportFormat, reportFile, withReportWriter);
+    }
+
+    /**
+     * Create the Renderer instances for the report and all additional
+     * reports, each one configured with a writer for its file.
+     * 
+     * @return The Renderer instances, the one of the report first.
+     * @see #getAdditionalReports()
+     */
+    public List<Renderer> createRenderers() {
+        List<Renderer> renderers = new ArrayList<Renderer>(additionalReports.size() + 1);
+        renderers.add(createRenderer(true));
+        for (String report : additionalReports) {
+            int separator = report.indexOf(':');
+            if (separator <= 0 || separator == report.length() - 1) {
+                throw new IllegalArgumentException("Report must be given as {format}:{file}, got: " + report);
+            }
+            renderers.add(createRenderer(report.substring(0, separator), report.substring(separator + 1), true));
+        }
+        return renderers;
+    }
+
+    private Renderer createRenderer(String format, String file, boolean withReportWriter) {
+        Renderer renderer = RendererFactory.createRenderer(format, reportProperties);
         renderer.setShowSuppressedViolations(showSuppressedViolations);
         if (withReportWriter) {
-            renderer.setWriter(IOUtil.createWriter(reportFile));
+            if (renderer instanceof BinaryRenderer) {
+                ((BinaryRenderer) renderer).setOutputStream(IOUtil.createOutputStream(file));
+            } else {
+                renderer.setWriter(IOUtil.createWriter(file));
+            }
         }
         return renderer;
     }
@@ -409,6 +471,26 @@ public class PMDConfiguration extends AbstractConfiguration {
         this.reportFile = reportFile;
     }
 
+    /**
+     * Get the additional reports, which are rendered from the same analysis
+     * as the report. Each one is given as <code>{format}:{file}</code>.
+     * 
+     * @return The additional reports.
+     */
+    public List<String> getAdditionalReports() {
+        return additionalReports;
+    }
+
+    /**
+     * Set the additional reports, each one as <code>{format}:{file}</code>,
+     * e.g. <code>html:target/pmd.html</code>.
+     * 
+     * @param additionalReports the additional reports to set
+     */
+    public void setAdditionalReports(List<String> additionalReports) {
+        this.additionalReports = additionalReports;
+    }
+
     /**
      * Get whether the report should show suppressed violations.
      * 
@@ -493,4 +575,29 @@ public class PMDConfiguration extends AbstractConfiguration {
     public void setBenchmark(boolean benchmark) {
         this.benchmark = benchmark;
     }
+
+    /**
+     * Get the file to which the rule profile is written. The profile contains
+     * the time, CPU time and allocated bytes of each rule, the visited node
+     * types and the slowest files per rule.
+     * 
+     * @return The profile file, <code>null</code> if the rules are not
+     *         profiled.
+     */
+    public String getProfileFile() {
+        return profileFile;
+    }
+
+    /**
+     * Set the file to which the rule profile is written. The profile is
+     * written as CSV if the file name ends with <code>.csv</code>, otherwise
+     * as JSON.
+     * 
+     * @param profileFile
+     *            The profile file, <code>null</code> to disable profiling.
+     * @see #getProfileFile()
+     */
+    public void setProfileFile(String profileFile) {
+        this.profileFile = profileFile;
+    }
 }
\ No newline at end of file
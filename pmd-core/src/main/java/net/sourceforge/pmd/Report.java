@@ -5,7 +5,6 @@ package net.sourceforge.pmd;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -193,15 +192,13 @@ public class Report implements Iterable<RuleViolation> {
     }
 
     /*
-     * The idea is to store the violations in a tree instead of a list, to do
-     * better and faster sort and filter mechanism and to visualize the result
-     * as tree. (ide plugins).
+     * The violations are stored column wise and sorted when they are read. The
+     * tree is only built on demand, for ide plugins and the renderers, which
+     * visualize the result as tree.
      */
-    private final ReportTree violationTree = new ReportTree();
+    private final ViolationStore violations = new ViolationStore();
+    private ReportTree violationTree;
 
-    // Note that this and the above data structure are both being maintained for
-    // a bit
-    private final List<RuleViolation> violations = new ArrayList<RuleViolation>();
     private final Set<Metric> metrics = new HashSet<Metric>();
     private final List<SynchronizedReportListener> listeners = new ArrayList<SynchronizedReportListener>();
     private List<ProcessingError> errors;
@@ -233,7 +230,7 @@ public class Report implements Iterable<RuleViolation> {
      */
     public Map<String, Integer> getCountSummary() {
         Map<String, Integer> summary = new HashMap<String, Integer>();
-        for (RuleViolation rv : violationTree) {
+        for (RuleViolation rv : getViolationTree()) {
             String key = keyFor(rv);
             Integer o = summary.get(key);
             summary.put(key, o == null ? NumericConstants.ONE : o + 1);
@@ -241,8 +238,22 @@ public class Report implements Iterable<RuleViolation> {
         return summary;
     }
 
+    /**
+     * Gets the violations grouped by package and class. The tree is built on
+     * the first call and kept up to date afterwards.
+     *
+     * @return the violation tree
+     */
     public ReportTree getViolationTree() {
-        return this.violationTree;
+        if (violationTree == null) {
+            ReportTree tree = new ReportTree();
+            Iterator<RuleViolation> i = violations.insertionOrder();
+            while (i.hasNext()) {
+                tree.addRuleViolation(i.next());
+            }
+            violationTree = tree;
+        }
+        return violationTree;
     }
 
     /**
@@ -252,16 +263,7 @@ public class Report implements Iterable<RuleViolation> {
      *         of violations)
      */
     public Map<String, Integer> getSummary() {
-        Map<String, Integer> summary = new HashMap<String, Integer>();
-        for (RuleViolation rv : violations) {
-            String name = rv.getRule().getName();
-            if (!summary.containsKey(name)) {
-                summary.put(name, NumericConstants.ZERO);
-            }
-            Integer count = summary.get(name);
-            summary.put(name, count + 1);
-        }
-        return summary;
+        return violations.countByRuleName();
     }
 
     /**
@@ -296,9 +298,10 @@ public class Report implements Iterable<RuleViolation> {
             return;
         }
 
-        int index = Collections.binarySearch(violations, violation, RuleViolationComparator.INSTANCE);
-        violations.add(index < 0 ? -index - 1 : index, violation);
-        violationTree.addRuleViolation(violation);
+        violations.add(violation);
+        if (violationTree != null) {
+            violationTree.addRuleViolation(violations.get(violations.size() - 1));
+        }
         for (ReportListener listener : listeners) {
             listener.ruleViolationAdded(violation);
         }
@@ -357,12 +360,12 @@ public class Report implements Iterable<RuleViolation> {
         while (m.hasNext()) {
             addMetric(m.next());
         }
-        Iterator<RuleViolation> v = r.iterator();
-        while (v.hasNext()) {
-            RuleViolation violation = v.next();
-            int index = Collections.binarySearch(violations, violation, RuleViolationComparator.INSTANCE);
-            violations.add(index < 0 ? -index - 1 : index, violation);
-            violationTree.addRuleViolation(violation);
+        int from = violations.size();
+        violations.addAll(r.violations);
+        if (violationTree != null) {
+            for (int index = from; index < violations.size(); index++) {
+                violationTree.addRuleViolation(violations.get(index));
+            }
         }
         Iterator<SuppressedViolation> s = r.getSuppressedRuleViolations().iterator();
         while (s.hasNext()) {
@@ -390,7 +393,7 @@ public class Report implements Iterable<RuleViolation> {
     }
 
     public boolean isEmpty() {
-        return !violations.iterator().hasNext() && !hasErrors();
+        return violations.size() == 0 && !hasErrors();
     }
 
     /**
@@ -420,7 +423,7 @@ public class Report implements Iterable<RuleViolation> {
      *         <code>false</code> otherwise
      */
     public boolean treeIsEmpty() {
-        return !violationTree.iterator().hasNext();
+        return !getViolationTree().iterator().hasNext();
     }
 
     /**
@@ -429,12 +432,18 @@ public class Report implements Iterable<RuleViolation> {
      * @return an iterator
      */
     public Iterator<RuleViolation> treeIterator() {
-        return violationTree.iterator();
+        return getViolationTree().iterator();
     }
 
+    /**
+     * Returns an iteration over the reported violations, sorted by
+     * {@link RuleViolationComparator}.
+     *
+     * @return an iterator
+     */
     @Override
     public Iterator<RuleViolation> iterator() {
-        return violations.iterator();
+        return violations.sortedOrder();
     }
 
     /**
@@ -461,7 +470,7 @@ public class Report implements Iterable<RuleViolation> {
      * @return number of violations.
      */
     public int treeSize() {
-        return violationTree.size();
+        return getViolationTree().size();
     }
 
     /**
@@ -294,6 +294,30 @@ public interface Rule extends PropertySource {
      */
     void addRuleChainVisit(String astNodeName);
 
+    /**
+     * Gets the names of the AST nodes, of which at least one must be present
+     * in a file for the Rule to find a violation. The Rule is not applied to
+     * files without any of these nodes.
+     * 
+     * @return the list of AST node names, empty if the Rule applies to every
+     *         file
+     */
+    List<String> getRequiredNodes();
+
+    /**
+     * Adds an AST node by class to the nodes required by the Rule.
+     * 
+     * @param nodeClass the AST node to add to the required nodes
+     */
+    void addRequiredNode(Class<? extends Node> nodeClass);
+
+    /**
+     * Adds an AST node by name to the nodes required by the Rule.
+     * 
+     * @param astNodeName the AST node to add to the required nodes as string
+     */
+    void addRequiredNode(String astNodeName);
+
     /**
      * Start processing. Called once, before apply() is first called.
      * 
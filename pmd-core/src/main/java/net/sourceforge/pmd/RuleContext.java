@@ -8,6 +8,8 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.rule.PresentNodes;
+import net.sourceforge.pmd.lang.rule.RuleWatchdog;
 
 /**
  * The RuleContext provides access to Rule processing state.  This information
@@ -34,6 +36,8 @@ public class RuleContext {
     private LanguageVersion languageVersion;
     private final Map<String, Object> attributes;
     private boolean ignoreExceptions = true;
+    private RuleWatchdog ruleWatchdog;
+    private PresentNodes presentNodes;
 
     /**
      * Default constructor.
@@ -43,12 +47,13 @@ public class RuleContext {
     }
 
     /**
-     * Constructor which shares attributes and report listeners with the given RuleContext.
+     * Constructor which shares attributes, report listeners and the rule watchdog with the given RuleContext.
      * @param ruleContext the context from which the values are shared
      */
     public RuleContext(RuleContext ruleContext) {
 	this.attributes = ruleContext.attributes;
 	this.report.addSynchronizedListeners(ruleContext.getReport().getSynchronizedListeners());
+	this.ruleWatchdog = ruleContext.ruleWatchdog;
     }
 
     /**
@@ -215,4 +220,37 @@ public class RuleContext {
     public boolean isIgnoreExceptions() {
         return ignoreExceptions;
     }
+
+    /**
+     * Get the watchdog, which enforces the time budget of each rule.
+     * @return The watchdog, <code>null</code> if the rules are not time limited.
+     */
+    public RuleWatchdog getRuleWatchdog() {
+        return ruleWatchdog;
+    }
+
+    /**
+     * Set the watchdog, which enforces the time budget of each rule.
+     * @param ruleWatchdog The watchdog, may be <code>null</code>.
+     */
+    public void setRuleWatchdog(RuleWatchdog ruleWatchdog) {
+        this.ruleWatchdog = ruleWatchdog;
+    }
+
+    /**
+     * Get the names of the AST nodes present in the source file, as found by
+     * the RuleChain.
+     * @return The present nodes, <code>null</code> if they are not known.
+     */
+    public PresentNodes getPresentNodes() {
+        return presentNodes;
+    }
+
+    /**
+     * Set the names of the AST nodes present in the source file.
+     * @param presentNodes The present nodes, may be <code>null</code>.
+     */
+    public void setPresentNodes(PresentNodes presentNodes) {
+        this.presentNodes = presentNodes;
+    }
 }
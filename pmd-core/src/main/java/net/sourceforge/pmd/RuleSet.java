@@ -15,10 +15,13 @@ import java.util.logging.Logger;
 
 import net.sourceforge.pmd.benchmark.Benchmark;
 import net.sourceforge.pmd.benchmark.Benchmarker;
+import net.sourceforge.pmd.benchmark.RuleProfiler;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.rule.RuleReference;
+import net.sourceforge.pmd.lang.rule.RuleTimeoutException;
+import net.sourceforge.pmd.lang.rule.RuleWatchdog;
 import net.sourceforge.pmd.util.CollectionUtil;
 import net.sourceforge.pmd.util.StringUtil;
 import net.sourceforge.pmd.util.filter.Filter;
@@ -300,15 +303,36 @@ public class RuleSet {
      * @param ctx the current context
      */
     public void apply(List<? extends Node> acuList, RuleContext ctx) {
+        RuleWatchdog watchdog = ctx.getRuleWatchdog();
+        boolean profile = RuleProfiler.isEnabled();
         long start = System.nanoTime();
         for (Rule rule : rules) {
             try {
-                if (!rule.usesRuleChain() && applies(rule, ctx.getLanguageVersion())) {
-                    rule.apply(acuList, ctx);
+                if (!rule.usesRuleChain() && applies(rule, ctx.getLanguageVersion())
+                        && (ctx.getPresentNodes() == null || ctx.getPresentNodes().applies(rule))) {
+                    if (watchdog != null) {
+                        watchdog.start(rule, ctx);
+                    }
+                    if (profile) {
+                        RuleProfiler.ruleStarted();
+                    }
+                    try {
+                        rule.apply(acuList, ctx);
+                    } finally {
+                        if (profile) {
+                            RuleProfiler.ruleFinished(rule.getName(), ctx.getSourceCodeFilename());
+                        }
+                        if (watchdog != null) {
+                            watchdog.stop();
+                        }
+                    }
                     long end = System.nanoTime();
                     Benchmarker.mark(Benchmark.Rule, rule.getName(), end - start, 1);
                     start = end;
                 }
+            } catch (RuleTimeoutException e) {
+                ctx.getReport().addError(new Report.ProcessingError(e.getMessage(), ctx.getSourceCodeFilename()));
+                start = System.nanoTime();
             } catch (Throwable t) {
                 if (t instanceof ThreadDeath) {
                     throw (ThreadDeath)t;
@@ -3,6 +3,7 @@
  */
 package net.sourceforge.pmd;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -23,6 +24,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
 import net.sourceforge.pmd.lang.rule.MockRule;
 import net.sourceforge.pmd.lang.rule.RuleReference;
 import net.sourceforge.pmd.lang.rule.properties.PropertyDescriptorWrapper;
@@ -30,6 +32,7 @@ import net.sourceforge.pmd.lang.rule.properties.factories.PropertyDescriptorUtil
 import net.sourceforge.pmd.util.ResourceLoader;
 import net.sourceforge.pmd.util.StringUtil;
 
+import org.apache.commons.io.IOUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -40,6 +43,15 @@ import org.xml.sax.SAXException;
  * RuleSetFactory is responsible for creating RuleSet instances from XML content.
  * By default Rules will be loaded using the ClassLoader for this class, using
  * the {@link RulePriority#LOW} priority, with Rule deprecation warnings off.
+ * <p>
+ * The parsed XML documents and the created RuleSets are cached by the factory,
+ * so that a RuleSet file, which is referenced several times, is only parsed
+ * once. The cached RuleSets are used as prototypes: each call returns copies
+ * of their Rules, as Rules are not shared between RuleSets.
+ * <p>
+ * Besides XML configurations, the factory loads RuleSet snapshots written by
+ * the {@link RuleSetSnapshotWriter}, which contain the already resolved Rules
+ * of one or more RuleSets.
  */
 public class RuleSetFactory {
 
@@ -48,6 +60,7 @@ public class RuleSetFactory {
 	private ClassLoader classLoader = RuleSetFactory.class.getClassLoader();
 	private RulePriority minimumPriority = RulePriority.LOW;
 	private boolean warnDeprecated = false;
+	private Cache cache = new Cache();
 
 	/**
 	 * Set the ClassLoader to use when loading Rules.
@@ -56,6 +69,7 @@ public class RuleSetFactory {
 	 */
 	public void setClassLoader(ClassLoader classLoader) {
 		this.classLoader = classLoader;
+		this.cache = new Cache();
 	}
 
 	/**
@@ -127,8 +141,14 @@ public class RuleSetFactory {
 	throws RuleSetNotFoundException {
 		RuleSets ruleSets = new RuleSets();
 		for (RuleSetReferenceId ruleSetReferenceId : ruleSetReferenceIds) {
-			RuleSet ruleSet = createRuleSet(ruleSetReferenceId);
-			ruleSets.addRuleSet(ruleSet);
+			if (isSnapshot(ruleSetReferenceId)) {
+				for (RuleSet ruleSet : createRuleSetsFromSnapshot(ruleSetReferenceId)) {
+					ruleSets.addRuleSet(ruleSet);
+				}
+			} else {
+				RuleSet ruleSet = createRuleSet(ruleSetReferenceId);
+				ruleSets.addRuleSet(ruleSet);
+			}
 		}
 		return ruleSets;
 	}
@@ -160,9 +180,130 @@ public class RuleSetFactory {
 	 * @param ruleSetReferenceId The RuleSetReferenceId of the RuleSet to create.
 	 * @return A new RuleSet.
 	 * @throws RuleSetNotFoundException if unable to find a resource.
+	 * @throws IllegalArgumentException if the reference is a RuleSet snapshot with
+	 *             several RuleSets, use {@link #createRuleSets(List)} for it.
 	 */
 	public synchronized RuleSet createRuleSet(RuleSetReferenceId ruleSetReferenceId) throws RuleSetNotFoundException {
-		return parseRuleSetNode(ruleSetReferenceId, ruleSetReferenceId.getInputStream(this.classLoader));
+		if (isSnapshot(ruleSetReferenceId)) {
+			List<RuleSet> ruleSets = createRuleSetsFromSnapshot(ruleSetReferenceId);
+			if (ruleSets.size() > 1) {
+				throw new IllegalArgumentException("The RuleSet snapshot <" + ruleSetReferenceId + "> contains "
+						+ ruleSets.size() + " RuleSets.");
+			}
+			if (ruleSets.isEmpty()) {
+				RuleSet ruleSet = new RuleSet();
+				ruleSet.setFileName(ruleSetReferenceId.getRuleSetFileName());
+				return ruleSet;
+			}
+			return ruleSets.get(0);
+		}
+		String documentKey = getDocumentKey(ruleSetReferenceId);
+		if (documentKey == null) {
+			return parseRuleSetNode(ruleSetReferenceId);
+		}
+		// the RuleSet depends on the settings of this factory
+		String key = minimumPriority.getPriority() + ":" + warnDeprecated + ":" + documentKey + "/"
+				+ (ruleSetReferenceId.isAllRules() ? "" : ruleSetReferenceId.getRuleName());
+		RuleSet prototype = cache.ruleSets.get(key);
+		if (prototype == null) {
+			RuleSet ruleSet = parseRuleSetNode(ruleSetReferenceId);
+			RuleSet copy = copyRuleSet(ruleSet);
+			if (copy == null) {
+				// can't be used as prototype
+				return ruleSet;
+			}
+			cache.ruleSets.put(key, ruleSet);
+			return copy;
+		}
+		RuleSet ruleSet = copyRuleSet(prototype);
+		ruleSet.setFileName(ruleSetReferenceId.getRuleSetFileName());
+		return ruleSet;
+	}
+
+	private static boolean isSnapshot(RuleSetReferenceId ruleSetReferenceId) {
+		return ruleSetReferenceId.isExternal() && ruleSetReferenceId.getRuleSetFileName() != null
+				&& ruleSetReferenceId.getRuleSetFileName().endsWith(RuleSetSnapshotWriter.EXTENSION);
+	}
+
+	/**
+	 * Create the RuleSets of a RuleSet snapshot. The Rules below the minimum
+	 * priority are left out, unless a single Rule is referenced.
+	 *
+	 * @param ruleSetReferenceId The RuleSetReferenceId of the snapshot.
+	 * @return The RuleSets, only those with the Rule if a single Rule is
+	 *         referenced.
+	 * @throws RuleSetNotFoundException if unable to find the snapshot.
+	 */
+	private List<RuleSet> createRuleSetsFromSnapshot(RuleSetReferenceId ruleSetReferenceId)
+			throws RuleSetNotFoundException {
+		String key = getDocumentKey(ruleSetReferenceId);
+		List<RuleSet> prototypes = key == null ? null : cache.snapshots.get(key);
+		boolean copy = prototypes != null;
+		if (prototypes == null) {
+			prototypes = readSnapshot(ruleSetReferenceId);
+			copy = key != null && canCopy(prototypes);
+			if (copy) {
+				cache.snapshots.put(key, prototypes);
+			}
+		}
+
+		List<RuleSet> ruleSets = new ArrayList<RuleSet>(prototypes.size());
+		for (RuleSet prototype : prototypes) {
+			RuleSet ruleSet = copyRuleSetWithoutRules(prototype);
+			for (Rule rule : prototype.getRules()) {
+				if (ruleSetReferenceId.isAllRules() ? rule.getPriority().compareTo(minimumPriority) <= 0
+						: rule.getName().equals(ruleSetReferenceId.getRuleName())) {
+					ruleSet.addRule(copy ? copyRule(rule) : rule);
+				}
+			}
+			if (ruleSetReferenceId.isAllRules() || ruleSet.size() > 0) {
+				ruleSets.add(ruleSet);
+			}
+		}
+		return ruleSets;
+	}
+
+	private List<RuleSet> readSnapshot(RuleSetReferenceId ruleSetReferenceId) throws RuleSetNotFoundException {
+		InputStream inputStream = ruleSetReferenceId.getInputStream(classLoader);
+		try {
+			return new RuleSetSnapshotReader(inputStream, classLoader).read();
+		} catch (IOException ioe) {
+			throw new IllegalArgumentException("Couldn't read the RuleSet snapshot <" + ruleSetReferenceId + ">: "
+					+ ioe.getMessage(), ioe);
+		} catch (ClassNotFoundException cnfe) {
+			return classNotFoundProblem(cnfe);
+		} catch (InstantiationException ie) {
+			return classNotFoundProblem(ie);
+		} catch (IllegalAccessException iae) {
+			return classNotFoundProblem(iae);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
+	private static boolean canCopy(List<RuleSet> ruleSets) {
+		for (RuleSet ruleSet : ruleSets) {
+			for (Rule rule : ruleSet.getRules()) {
+				if (!(rule instanceof AbstractRule)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Create a factory for the RuleSets referenced by the RuleSet being parsed.
+	 * It uses the default settings, but shares the ClassLoader and the cache
+	 * with this factory.
+	 *
+	 * @return The new RuleSetFactory.
+	 */
+	private RuleSetFactory createReferencedRuleSetFactory() {
+		RuleSetFactory ruleSetFactory = new RuleSetFactory();
+		ruleSetFactory.classLoader = classLoader;
+		ruleSetFactory.cache = cache;
+		return ruleSetFactory;
 	}
 
 	/**
@@ -188,17 +329,25 @@ public class RuleSetFactory {
 	 * Parse a ruleset node to construct a RuleSet.
 	 * 
 	 * @param ruleSetReferenceId The RuleSetReferenceId of the RuleSet being parsed.
-	 * @param inputStream InputStream containing the RuleSet XML configuration.
 	 * @return The new RuleSet.
+	 * @throws RuleSetNotFoundException if unable to find the RuleSet XML configuration.
 	 */
-	private RuleSet parseRuleSetNode(RuleSetReferenceId ruleSetReferenceId, InputStream inputStream) {
+	private RuleSet parseRuleSetNode(RuleSetReferenceId ruleSetReferenceId) throws RuleSetNotFoundException {
+		Document document;
+		try {
+			document = getDocument(ruleSetReferenceId);
+		} catch (ParserConfigurationException pce) {
+			return classNotFoundProblem(pce);
+		} catch (IOException ioe) {
+			return classNotFoundProblem(ioe);
+		} catch (SAXException se) {
+			return classNotFoundProblem(se);
+		}
 		if (!ruleSetReferenceId.isExternal()) {
 			throw new IllegalArgumentException("Cannot parse a RuleSet from a non-external reference: <"
 					+ ruleSetReferenceId + ">.");
 		}
 		try {
-			DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-			Document document = builder.parse(inputStream);
 			Element ruleSetElement = document.getDocumentElement();
 
 			RuleSet ruleSet = new RuleSet();
@@ -232,18 +381,119 @@ public class RuleSetFactory {
 			return classNotFoundProblem(ie);
 		} catch (IllegalAccessException iae) {
 			return classNotFoundProblem(iae);
-		} catch (ParserConfigurationException pce) {
-			return classNotFoundProblem(pce);
 		} catch (RuleSetNotFoundException rsnfe) {
 			return classNotFoundProblem(rsnfe);
-		} catch (IOException ioe) {
-			return classNotFoundProblem(ioe);
-		} catch (SAXException se) {
-			return classNotFoundProblem(se);
 		}
 	}
 
-	private static RuleSet classNotFoundProblem(Exception ex) throws RuntimeException {
+	/**
+	 * Get the parsed RuleSet XML configuration, from the cache if it has been
+	 * parsed before.
+	 *
+	 * @param ruleSetReferenceId The RuleSetReferenceId of the RuleSet.
+	 * @return The document.
+	 */
+	private Document getDocument(RuleSetReferenceId ruleSetReferenceId) throws RuleSetNotFoundException,
+			ParserConfigurationException, SAXException, IOException {
+		String key = getDocumentKey(ruleSetReferenceId);
+		Document document = key == null ? null : cache.documents.get(key);
+		if (document == null) {
+			InputStream inputStream = ruleSetReferenceId.getInputStream(classLoader);
+			try {
+				if (cache.documentBuilder == null) {
+					cache.documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+				}
+				document = cache.documentBuilder.parse(inputStream);
+			} finally {
+				IOUtils.closeQuietly(inputStream);
+			}
+			if (key != null) {
+				cache.documents.put(key, document);
+			}
+		}
+		return document;
+	}
+
+	/**
+	 * The key of a RuleSet XML configuration is the path and modification
+	 * time for files, and the resource name otherwise.
+	 *
+	 * @return The key, or <code>null</code> if the RuleSet XML configuration
+	 *         is not cached, because it doesn't come from a named resource.
+	 */
+	private static String getDocumentKey(RuleSetReferenceId ruleSetReferenceId) {
+		String fileName = ruleSetReferenceId.getRuleSetFileName();
+		if (fileName == null || ruleSetReferenceId.getClass() != RuleSetReferenceId.class) {
+			return null;
+		}
+		File file = new File(fileName);
+		if (file.isFile()) {
+			return file.getAbsolutePath() + '@' + file.lastModified();
+		}
+		return fileName;
+	}
+
+	/**
+	 * Copy a RuleSet together with its Rules.
+	 *
+	 * @param ruleSet The RuleSet to copy.
+	 * @return The copy, or <code>null</code> if a Rule can't be copied.
+	 */
+	private static RuleSet copyRuleSet(RuleSet ruleSet) {
+		RuleSet copy = copyRuleSetWithoutRules(ruleSet);
+		for (Rule rule : ruleSet.getRules()) {
+			Rule ruleCopy = copyRule(rule);
+			if (ruleCopy == null) {
+				return null;
+			}
+			copy.addRule(ruleCopy);
+		}
+		return copy;
+	}
+
+	private static RuleSet copyRuleSetWithoutRules(RuleSet ruleSet) {
+		RuleSet copy = new RuleSet();
+		copy.setFileName(ruleSet.getFileName());
+		copy.setName(ruleSet.getName());
+		copy.setDescription(ruleSet.getDescription());
+		copy.setIncludePatterns(ruleSet.getIncludePatterns());
+		copy.setExcludePatterns(ruleSet.getExcludePatterns());
+		return copy;
+	}
+
+	/**
+	 * Copy a Rule, which is either an {@link AbstractRule} or a
+	 * {@link RuleReference} to such a Rule.
+	 *
+	 * @param rule The Rule to copy.
+	 * @return The copy, or <code>null</code> if the Rule can't be copied.
+	 */
+	private static Rule copyRule(Rule rule) {
+		if (rule.getClass() == RuleReference.class) {
+			RuleReference ruleReference = (RuleReference) rule;
+			Rule referencedRule = copyRule(ruleReference.getRule());
+			if (referencedRule == null) {
+				return null;
+			}
+			RuleReference copy = new RuleReference();
+			copy.setRule(referencedRule);
+			ruleReference.deepCopyValuesTo(copy);
+			return copy;
+		} else if (rule instanceof AbstractRule) {
+			try {
+				AbstractRule copy = (AbstractRule) rule.getClass().newInstance();
+				((AbstractRule) rule).deepCopyValuesTo(copy);
+				return copy;
+			} catch (InstantiationException ie) {
+				return null;
+			} catch (IllegalAccessException iae) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private static <T> T classNotFoundProblem(Exception ex) throws RuntimeException {
 		ex.printStackTrace();
 		throw new RuntimeException("Couldn't find the class " + ex.getMessage());
 	}
@@ -299,8 +549,7 @@ public class RuleSetFactory {
 			}
 		}
 
-		RuleSetFactory ruleSetFactory = new RuleSetFactory();
-		ruleSetFactory.setClassLoader(classLoader);
+		RuleSetFactory ruleSetFactory = createReferencedRuleSetFactory();
 		RuleSet otherRuleSet = ruleSetFactory.createRuleSet(RuleSetReferenceId.parse(ref).get(0));
 		for (Rule rule : otherRuleSet.getRules()) {
 		    excludedRulesCheck.remove(rule.getName());
@@ -460,8 +709,7 @@ public class RuleSetFactory {
 			return;
 		}
 
-		RuleSetFactory ruleSetFactory = new RuleSetFactory();
-		ruleSetFactory.setClassLoader(classLoader);
+		RuleSetFactory ruleSetFactory = createReferencedRuleSetFactory();
 
 		RuleSetReferenceId otherRuleSetReferenceId = RuleSetReferenceId.parse(ref).get(0);
 	    if (!otherRuleSetReferenceId.isExternal() && containsRule(ruleSetReferenceId, otherRuleSetReferenceId.getRuleName())) {
@@ -549,8 +797,7 @@ public class RuleSetFactory {
     private boolean containsRule(RuleSetReferenceId ruleSetReferenceId, String ruleName) {
         boolean found = false;
         try {
-            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-            Document document = builder.parse(ruleSetReferenceId.getInputStream(classLoader));
+            Document document = getDocument(ruleSetReferenceId);
             Element ruleSetElement = document.getDocumentElement();
 
             NodeList rules = ruleSetElement.getElementsByTagName("rule");
@@ -739,4 +986,15 @@ public class RuleSetFactory {
 			return false;
 		}
 	}
+
+	/**
+	 * The parsed RuleSet XML configurations and the created RuleSets, shared
+	 * by a factory and the factories for the referenced RuleSets.
+	 */
+	private static final class Cache {
+		private DocumentBuilder documentBuilder;
+		private final Map<String, Document> documents = new HashMap<String, Document>();
+		private final Map<String, RuleSet> ruleSets = new HashMap<String, RuleSet>();
+		private final Map<String, List<RuleSet>> snapshots = new HashMap<String, List<RuleSet>>();
+	}
 }
@@ -26,7 +26,8 @@ import org.apache.commons.lang3.StringUtils;
  * 
  * For an external RuleSet, referring to the entire RuleSet, the format is <i>ruleSetName</i>,
  * where the RuleSet name is either a resource file path to a RuleSet that ends with
- * <code>'.xml'</code>.</li>, or a simple RuleSet name.
+ * <code>'.xml'</code>.</li>, a RuleSet snapshot that ends with <code>'.pmdrs'</code>
+ * (see {@link RuleSetSnapshotWriter}), or a simple RuleSet name.
  * 
  * A simple RuleSet name, is one which contains no path separators, and either contains a '-' or is
  * entirely numeric release number.  A simple name of the form <code>[language]-[name]</code> is
@@ -301,7 +302,7 @@ public class RuleSetReferenceId {
     
     private static boolean isFullRuleSetName(String name) {
     	
-        return name != null && name.endsWith(".xml");
+        return name != null && (name.endsWith(".xml") || name.endsWith(RuleSetSnapshotWriter.EXTENSION));
     }
 
     /**
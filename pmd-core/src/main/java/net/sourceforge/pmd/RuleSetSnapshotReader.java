@@ -0,0 +1,192 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.rule.properties.PropertyDescriptorWrapper;
+import net.sourceforge.pmd.lang.rule.properties.factories.PropertyDescriptorUtil;
+
+/**
+ * Reads RuleSets from a snapshot written by the {@link RuleSetSnapshotWriter}.
+ * The Rules are created with the given ClassLoader and configured with the
+ * values stored in the snapshot, no RuleSet XML configuration is parsed.
+ */
+public class RuleSetSnapshotReader {
+
+	private final DataInputStream in;
+	private final ClassLoader classLoader;
+
+	/**
+	 * @param in The snapshot, it is not closed by the reader.
+	 * @param classLoader The ClassLoader to load the Rules with.
+	 */
+	public RuleSetSnapshotReader(InputStream in, ClassLoader classLoader) {
+		this.in = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * Read the RuleSets of the snapshot.
+	 *
+	 * @return The RuleSets, in the order they have been written.
+	 * @throws IOException if the snapshot can't be read, or has been written
+	 *             by another PMD version.
+	 * @throws ClassNotFoundException if a Rule class can't be found.
+	 * @throws InstantiationException if a Rule can't be created.
+	 * @throws IllegalAccessException if a Rule can't be created.
+	 */
+	public List<RuleSet> read() throws IOException, ClassNotFoundException, InstantiationException,
+			IllegalAccessException {
+		if (in.readInt() != RuleSetSnapshotWriter.MAGIC) {
+			throw new IOException("Not a RuleSet snapshot");
+		}
+		int version = in.readUnsignedShort();
+		if (version != RuleSetSnapshotWriter.VERSION) {
+			throw new IOException("Unsupported RuleSet snapshot version " + version);
+		}
+		String pmdVersion = readString();
+		if (!PMD.VERSION.equals(pmdVersion)) {
+			throw new IOException("The RuleSet snapshot has been compiled with PMD " + pmdVersion
+					+ ", it must be compiled again for PMD " + PMD.VERSION);
+		}
+
+		int count = in.readInt();
+		List<RuleSet> ruleSets = new ArrayList<RuleSet>(count);
+		for (int i = 0; i < count; i++) {
+			ruleSets.add(readRuleSet());
+		}
+		return ruleSets;
+	}
+
+	private RuleSet readRuleSet() throws IOException, ClassNotFoundException, InstantiationException,
+			IllegalAccessException {
+		RuleSet ruleSet = new RuleSet();
+		ruleSet.setFileName(readString());
+		ruleSet.setName(readString());
+		ruleSet.setDescription(readString());
+		ruleSet.setIncludePatterns(readStrings());
+		ruleSet.setExcludePatterns(readStrings());
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			ruleSet.addRule(readRule());
+		}
+		return ruleSet;
+	}
+
+	private Rule readRule() throws IOException, ClassNotFoundException, InstantiationException,
+			IllegalAccessException {
+		Rule rule = (Rule) classLoader.loadClass(readString()).newInstance();
+		rule.setName(readString());
+		String languageName = readString();
+		if (languageName != null) {
+			Language language = LanguageRegistry.findLanguageByTerseName(languageName);
+			if (language == null) {
+				throw new IOException("Unknown Language '" + languageName + "' for Rule " + rule.getName());
+			}
+			rule.setLanguage(language);
+		}
+		String minimumLanguageVersion = readString();
+		if (minimumLanguageVersion != null) {
+			rule.setMinimumLanguageVersion(languageVersion(rule, minimumLanguageVersion));
+		}
+		String maximumLanguageVersion = readString();
+		if (maximumLanguageVersion != null) {
+			rule.setMaximumLanguageVersion(languageVersion(rule, maximumLanguageVersion));
+		}
+		rule.setDeprecated(in.readBoolean());
+		rule.setSince(readString());
+		rule.setRuleSetName(readString());
+		rule.setMessage(readString());
+		rule.setDescription(readString());
+		for (String example : readStrings()) {
+			rule.addExample(example);
+		}
+		rule.setExternalInfoUrl(readString());
+		rule.setPriority(RulePriority.valueOf(in.readInt()));
+		if (in.readBoolean()) {
+			rule.setUsesDFA();
+		}
+		if (in.readBoolean()) {
+			rule.setUsesTypeResolution();
+		}
+		readProperties(rule);
+		return rule;
+	}
+
+	private static LanguageVersion languageVersion(Rule rule, String version) throws IOException {
+		LanguageVersion languageVersion = rule.getLanguage().getVersion(version);
+		if (languageVersion == null) {
+			throw new IOException("Unknown Language Version '" + version + "' for Rule " + rule.getName());
+		}
+		return languageVersion;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void readProperties(Rule rule) throws IOException {
+		int definitions = in.readInt();
+		for (int i = 0; i < definitions; i++) {
+			String typeId = readString();
+			PropertyDescriptorFactory factory = PropertyDescriptorUtil.factoryFor(typeId);
+			if (factory == null) {
+				throw new IOException("No property descriptor factory for type: " + typeId);
+			}
+			Map<String, String> attributes = new HashMap<String, String>();
+			int count = in.readInt();
+			for (int j = 0; j < count; j++) {
+				attributes.put(readString(), readString());
+			}
+			// like an XML attribute, which is not there
+			Map<String, String> values = new HashMap<String, String>();
+			for (String key : ((Map<String, Boolean>) factory.expectedFields()).keySet()) {
+				values.put(key, attributes.containsKey(key) ? attributes.get(key) : "");
+			}
+			PropertyDescriptor<?> propertyDescriptor = factory.createWith(values);
+			rule.definePropertyDescriptor(new PropertyDescriptorWrapper(propertyDescriptor));
+			rule.setProperty((PropertyDescriptor) propertyDescriptor, propertyDescriptor.valueFrom(readString()));
+		}
+
+		int values = in.readInt();
+		for (int i = 0; i < values; i++) {
+			String name = readString();
+			PropertyDescriptor propertyDescriptor = rule.getPropertyDescriptor(name);
+			if (propertyDescriptor == null) {
+				throw new IOException("Cannot set non-existant property '" + name + "' on Rule " + rule.getName());
+			}
+			rule.setProperty(propertyDescriptor, propertyDescriptor.valueFrom(readString()));
+		}
+	}
+
+	private List<String> readStrings() throws IOException {
+		int count = in.readInt();
+		List<String> strings = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			strings.add(readString());
+		}
+		return strings;
+	}
+
+	/**
+	 * @see RuleSetSnapshotWriter#writeString(String)
+	 */
+	private String readString() throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, RuleSetSnapshotWriter.ENCODING);
+	}
+}
@@ -0,0 +1,239 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.rule.ImmutableLanguage;
+import net.sourceforge.pmd.lang.rule.properties.PropertyDescriptorWrapper;
+import net.sourceforge.pmd.lang.rule.properties.factories.PropertyDescriptorUtil;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Writes RuleSets into a binary snapshot, which the {@link RuleSetFactory} can
+ * load without parsing and resolving the RuleSet XML configurations again. The
+ * snapshot is used like any RuleSet file, it is recognized by its file
+ * extension {@link #EXTENSION}.
+ * <p>
+ * All references are resolved when the snapshot is written: every Rule is
+ * stored with its effective values, as if it had been defined in the snapshot
+ * itself. The snapshot is only valid for the PMD version it was written with.
+ * <p>
+ * The {@link #main(String[])} method compiles RuleSets into a snapshot. The
+ * Rules are validated before, so that broken property values and XPath
+ * expressions are detected when compiling.
+ *
+ * @see RuleSetSnapshotReader
+ */
+public class RuleSetSnapshotWriter {
+
+	/** The first four bytes of a snapshot: "PMDS". */
+	public static final int MAGIC = 0x504D4453;
+
+	public static final int VERSION = 1;
+
+	public static final String EXTENSION = ".pmdrs";
+
+	static final String ENCODING = "UTF-8";
+
+	private final DataOutputStream out;
+
+	public RuleSetSnapshotWriter(OutputStream outputStream) {
+		this.out = new DataOutputStream(outputStream);
+	}
+
+	public void close() {
+		IOUtils.closeQuietly(out);
+	}
+
+	/**
+	 * Write the RuleSets into the snapshot.
+	 *
+	 * @param ruleSets The RuleSets.
+	 * @throws IOException if the snapshot can't be written.
+	 */
+	public void write(RuleSets ruleSets) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		writeString(PMD.VERSION);
+		RuleSet[] allRuleSets = ruleSets.getAllRuleSets();
+		out.writeInt(allRuleSets.length);
+		for (RuleSet ruleSet : allRuleSets) {
+			writeRuleSet(ruleSet);
+		}
+		out.flush();
+	}
+
+	private void writeRuleSet(RuleSet ruleSet) throws IOException {
+		writeString(ruleSet.getFileName());
+		writeString(ruleSet.getName());
+		writeString(ruleSet.getDescription());
+		writeStrings(ruleSet.getIncludePatterns());
+		writeStrings(ruleSet.getExcludePatterns());
+		out.writeInt(ruleSet.getRules().size());
+		for (Rule rule : ruleSet.getRules()) {
+			writeRule(rule);
+		}
+	}
+
+	private void writeRule(Rule rule) throws IOException {
+		writeString(rule.getRuleClass());
+		writeString(rule.getName());
+		Language language = rule instanceof ImmutableLanguage ? null : rule.getLanguage();
+		writeString(language == null ? null : language.getTerseName());
+		writeString(versionOf(rule.getMinimumLanguageVersion()));
+		writeString(versionOf(rule.getMaximumLanguageVersion()));
+		out.writeBoolean(rule.isDeprecated());
+		writeString(rule.getSince());
+		writeString(rule.getRuleSetName());
+		writeString(rule.getMessage());
+		writeString(rule.getDescription());
+		writeStrings(rule.getExamples());
+		writeString(rule.getExternalInfoUrl());
+		out.writeInt(rule.getPriority().getPriority());
+		out.writeBoolean(rule.usesDFA());
+		out.writeBoolean(rule.usesTypeResolution());
+		writeProperties(rule);
+	}
+
+	/**
+	 * Writes the definitions of the properties, which have been defined in a
+	 * RuleSet, followed by the values which differ from the default values.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void writeProperties(Rule rule) throws IOException {
+		List<PropertyDescriptor<?>> definitions = new ArrayList<PropertyDescriptor<?>>();
+		List<PropertyDescriptor<?>> values = new ArrayList<PropertyDescriptor<?>>();
+		Map<PropertyDescriptor<?>, Object> valuesByDescriptor = rule.getPropertiesByPropertyDescriptor();
+		for (PropertyDescriptor<?> propertyDescriptor : rule.getPropertyDescriptors()) {
+			if (propertyDescriptor instanceof PropertyDescriptorWrapper) {
+				definitions.add(propertyDescriptor);
+			} else if (valuesByDescriptor.containsKey(propertyDescriptor)) {
+				Object defaultValue = propertyDescriptor.defaultValue();
+				Object value = valuesByDescriptor.get(propertyDescriptor);
+				if (value != defaultValue && (value == null || !value.equals(defaultValue))) {
+					values.add(propertyDescriptor);
+				}
+			}
+		}
+
+		out.writeInt(definitions.size());
+		for (PropertyDescriptor<?> propertyDescriptor : definitions) {
+			PropertyDescriptor<?> wrapped = ((PropertyDescriptorWrapper<?>) propertyDescriptor).getPropertyDescriptor();
+			writeString(PropertyDescriptorUtil.typeIdFor(wrapped.type()));
+			Map<String, String> attributes = wrapped.attributeValuesById();
+			out.writeInt(attributes.size());
+			for (Map.Entry<String, String> entry : attributes.entrySet()) {
+				writeString(entry.getKey());
+				writeString(entry.getValue());
+			}
+			writeString(((PropertyDescriptor) wrapped).asDelimitedString(rule.getProperty(propertyDescriptor)));
+		}
+
+		out.writeInt(values.size());
+		for (PropertyDescriptor propertyDescriptor : values) {
+			writeString(propertyDescriptor.name());
+			writeString(propertyDescriptor.asDelimitedString(valuesByDescriptor.get(propertyDescriptor)));
+		}
+	}
+
+	private static String versionOf(LanguageVersion languageVersion) {
+		return languageVersion == null ? null : languageVersion.getVersion();
+	}
+
+	private void writeStrings(List<String> strings) throws IOException {
+		out.writeInt(strings.size());
+		for (String string : strings) {
+			writeString(string);
+		}
+	}
+
+	/**
+	 * Strings are written as the length of their UTF-8 encoding, -1 for
+	 * <code>null</code>, followed by the bytes. Unlike
+	 * {@link DataOutputStream#writeUTF(String)}, the length is not limited.
+	 */
+	private void writeString(String string) throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = string.getBytes(ENCODING);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Check the Rules before they are compiled into a snapshot.
+	 *
+	 * @param rules The Rules.
+	 * @return The problems found, one per line.
+	 */
+	static List<String> validate(Collection<Rule> rules) {
+		List<String> problems = new ArrayList<String>();
+		for (Rule rule : rules) {
+			String dysfunctionReason = rule.dysfunctionReason();
+			if (dysfunctionReason != null) {
+				problems.add(rule.getName() + ": " + dysfunctionReason);
+			}
+			for (PropertyDescriptor<?> propertyDescriptor : rule.getPropertyDescriptors()) {
+				String error = propertyDescriptor.propertyErrorFor(rule);
+				if (error != null) {
+					problems.add(rule.getName() + ": " + error);
+				}
+			}
+			try {
+				// compiles XPath expressions, which are used to determine the visits
+				rule.getRuleChainVisits();
+			} catch (RuntimeException e) {
+				problems.add(rule.getName() + ": " + e.getMessage());
+			}
+		}
+		return problems;
+	}
+
+	/**
+	 * Compiles RuleSets into a snapshot.
+	 * <p>
+	 * Usage: <code>RuleSetSnapshotWriter &lt;rulesets&gt; &lt;snapshot file&gt;</code>
+	 * @param args The comma separated RuleSets and the snapshot file.
+	 * @throws RuleSetNotFoundException if a RuleSet can't be found
+	 * @throws IOException if the snapshot can't be written
+	 */
+	public static void main(String[] args) throws RuleSetNotFoundException, IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: " + RuleSetSnapshotWriter.class.getName() + " <rulesets> <snapshot file>");
+			System.exit(1);
+		}
+		if (!args[1].endsWith(EXTENSION)) {
+			System.err.println("The snapshot file must have the extension " + EXTENSION);
+			System.exit(1);
+		}
+		RuleSets ruleSets = new RuleSetFactory().createRuleSets(args[0]);
+		List<String> problems = validate(ruleSets.getAllRules());
+		if (!problems.isEmpty()) {
+			for (String problem : problems) {
+				System.err.println(problem);
+			}
+			System.exit(1);
+		}
+		RuleSetSnapshotWriter writer = new RuleSetSnapshotWriter(new BufferedOutputStream(new FileOutputStream(args[1])));
+		try {
+			writer.write(ruleSets);
+		} finally {
+			writer.close();
+		}
+	}
+}
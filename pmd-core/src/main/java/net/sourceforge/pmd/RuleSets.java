@@ -119,11 +119,16 @@ public class RuleSets {
      * @param language the Language of the source
      */
     public void apply(List<Node> acuList, RuleContext ctx, Language language) {
-		ruleChain.apply(acuList, ctx, language);
-		for (RuleSet ruleSet : ruleSets) {
-		    if (ruleSet.applies(ctx.getSourceCodeFile())) {
-			ruleSet.apply(acuList, ctx);
+		try {
+		    ruleChain.apply(acuList, ctx, language);
+		    for (RuleSet ruleSet : ruleSets) {
+			if (ruleSet.applies(ctx.getSourceCodeFile())) {
+			    ruleSet.apply(acuList, ctx);
+			}
 		    }
+		} finally {
+		    // the nodes found by the RuleChain only apply to this file
+		    ctx.setPresentNodes(null);
 		}
     }
 
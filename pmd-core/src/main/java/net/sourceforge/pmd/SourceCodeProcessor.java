@@ -3,6 +3,8 @@
  */
 package net.sourceforge.pmd;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
@@ -16,6 +18,8 @@ import net.sourceforge.pmd.lang.*;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.ParseException;
 import net.sourceforge.pmd.lang.xpath.Initializer;
+import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.datasource.FileDataSource;
 
 import org.apache.commons.io.IOUtils;
 
@@ -45,6 +49,34 @@ public class SourceCodeProcessor {
 		    throw new PMDException("Unsupported encoding exception: " + uee.getMessage());
 		}
     }
+
+    /**
+     * Processes the data source against a rule set using the given input encoding.
+     * Files are read and decoded completely at once, other data sources are
+     * processed as input stream.
+     *
+     * @param dataSource The DataSource to analyze.
+     * @param ruleSets The collection of rules to process against the file.
+     * @param ctx The context in which PMD is operating.
+     * @throws PMDException if the input encoding is unsupported, the input stream could
+     *                      not be parsed, or other error is encountered.
+     * @throws IOException if the data source can't be read
+     * @see #processSourceCode(Reader, RuleSets, RuleContext)
+     */
+    public void processSourceCode(DataSource dataSource, RuleSets ruleSets, RuleContext ctx) throws PMDException,
+            IOException {
+        if (!(dataSource instanceof FileDataSource)) {
+            processSourceCode(new BufferedInputStream(dataSource.getInputStream()), ruleSets, ctx);
+            return;
+        }
+        Reader reader;
+        try {
+            reader = ((FileDataSource) dataSource).getReader(configuration.getSourceEncoding());
+        } catch (UnsupportedEncodingException uee) {
+            throw new PMDException("Unsupported encoding exception: " + uee.getMessage());
+        }
+        processSourceCode(reader, ruleSets, ctx);
+    }
     
     
     /**
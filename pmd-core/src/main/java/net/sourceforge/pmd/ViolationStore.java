@@ -0,0 +1,462 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Column oriented storage of the violations of a {@link Report}.
+ * <p/>
+ * Instead of keeping the {@link RuleViolation} objects, the store copies their
+ * values once into parallel arrays, one entry per violation in insertion
+ * order. Strings (file, package, class, method and variable names and the
+ * expanded description) are interned per store and referenced by id, the rule
+ * is referenced by its ordinal in this store. Adding a violation is an append.
+ * The order of {@link RuleViolationComparator} is computed when it is read for
+ * the first time; violations added afterwards are sorted and merged into it.
+ * <p/>
+ * The violations of another store are appended in their sorted order, so
+ * merging the per file reports of a run leaves one sorted run per file. The
+ * sort merges these runs, which is linear if the files were processed in order
+ * and O(n log r) for r runs otherwise.
+ * <p/>
+ * The violations are returned as light weight {@link RuleViolation} views on
+ * the columns.
+ */
+final class ViolationStore {
+
+    private static final int INITIAL_CAPACITY = 16;
+    /** the id of a <code>null</code> string */
+    private static final int NULL = -1;
+
+    private final Map<String, Integer> stringIds = new HashMap<String, Integer>();
+    private String[] strings = new String[INITIAL_CAPACITY];
+    private final Map<Rule, Integer> ruleIds = new IdentityHashMap<Rule, Integer>();
+    private Rule[] rules = new Rule[INITIAL_CAPACITY];
+
+    private int size;
+    private int[] rule = new int[INITIAL_CAPACITY];
+    private int[] file = new int[INITIAL_CAPACITY];
+    private int[] description = new int[INITIAL_CAPACITY];
+    private int[] packageName = new int[INITIAL_CAPACITY];
+    private int[] className = new int[INITIAL_CAPACITY];
+    private int[] methodName = new int[INITIAL_CAPACITY];
+    private int[] variableName = new int[INITIAL_CAPACITY];
+    private int[] beginLine = new int[INITIAL_CAPACITY];
+    private int[] beginColumn = new int[INITIAL_CAPACITY];
+    private int[] endLine = new int[INITIAL_CAPACITY];
+    private int[] endColumn = new int[INITIAL_CAPACITY];
+    private boolean[] suppressed = new boolean[INITIAL_CAPACITY];
+
+    /** indexes of the first <code>sortedCount</code> violations, in comparator order */
+    private int[] sorted = new int[0];
+    private int sortedCount;
+
+    public int size() {
+        return size;
+    }
+
+    public void add(RuleViolation violation) {
+        ensureCapacity(size + 1);
+        rule[size] = ruleId(violation.getRule());
+        file[size] = stringId(violation.getFilename());
+        description[size] = stringId(violation.getDescription());
+        packageName[size] = stringId(violation.getPackageName());
+        className[size] = stringId(violation.getClassName());
+        methodName[size] = stringId(violation.getMethodName());
+        variableName[size] = stringId(violation.getVariableName());
+        beginLine[size] = violation.getBeginLine();
+        beginColumn[size] = violation.getBeginColumn();
+        endLine[size] = violation.getEndLine();
+        endColumn[size] = violation.getEndColumn();
+        suppressed[size] = violation.isSuppressed();
+        size++;
+    }
+
+    /**
+     * Appends all violations of the other store in its sorted order. The
+     * strings and rules of the other store are mapped to this store's ids
+     * once, the columns are copied.
+     *
+     * @param other the store to copy
+     */
+    public void addAll(ViolationStore other) {
+        if (other.size == 0) {
+            return;
+        }
+        other.sort();
+        int[] stringMap = new int[other.stringIds.size()];
+        for (int i = 0; i < stringMap.length; i++) {
+            stringMap[i] = stringId(other.strings[i]);
+        }
+        int[] ruleMap = new int[other.ruleIds.size()];
+        for (int i = 0; i < ruleMap.length; i++) {
+            ruleMap[i] = ruleId(other.rules[i]);
+        }
+        ensureCapacity(size + other.size);
+        for (int k = 0; k < other.size; k++) {
+            int i = other.sorted[k];
+            int j = size + k;
+            rule[j] = ruleMap[other.rule[i]];
+            file[j] = map(stringMap, other.file[i]);
+            description[j] = map(stringMap, other.description[i]);
+            packageName[j] = map(stringMap, other.packageName[i]);
+            className[j] = map(stringMap, other.className[i]);
+            methodName[j] = map(stringMap, other.methodName[i]);
+            variableName[j] = map(stringMap, other.variableName[i]);
+            beginLine[j] = other.beginLine[i];
+            beginColumn[j] = other.beginColumn[i];
+            endLine[j] = other.endLine[i];
+            endColumn[j] = other.endColumn[i];
+            suppressed[j] = other.suppressed[i];
+        }
+        size += other.size;
+    }
+
+    private static int map(int[] stringMap, int id) {
+        return id == NULL ? NULL : stringMap[id];
+    }
+
+    /**
+     * @param index the insertion index
+     * @return a view of the violation
+     */
+    public RuleViolation get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new ViolationView(index);
+    }
+
+    /**
+     * @return the violations in the order they were added
+     */
+    public Iterator<RuleViolation> insertionOrder() {
+        return new ViolationIterator(null, size);
+    }
+
+    /**
+     * @return the violations in the order of {@link RuleViolationComparator}
+     */
+    public Iterator<RuleViolation> sortedOrder() {
+        sort();
+        return new ViolationIterator(sorted, size);
+    }
+
+    /**
+     * @return the number of violations per rule name
+     */
+    public Map<String, Integer> countByRuleName() {
+        int[] counts = new int[ruleIds.size()];
+        for (int i = 0; i < size; i++) {
+            counts[rule[i]]++;
+        }
+        Map<String, Integer> summary = new HashMap<String, Integer>();
+        for (int i = 0; i < counts.length; i++) {
+            String name = rules[i].getName();
+            Integer count = summary.get(name);
+            summary.put(name, count == null ? counts[i] : count + counts[i]);
+        }
+        return summary;
+    }
+
+    private int stringId(String s) {
+        if (s == null) {
+            return NULL;
+        }
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = stringIds.size();
+            if (id == strings.length) {
+                String[] newStrings = new String[id * 2];
+                System.arraycopy(strings, 0, newStrings, 0, id);
+                strings = newStrings;
+            }
+            strings[id] = s;
+            stringIds.put(s, id);
+        }
+        return id;
+    }
+
+    private int ruleId(Rule r) {
+        Integer id = ruleIds.get(r);
+        if (id == null) {
+            id = ruleIds.size();
+            if (id == rules.length) {
+                Rule[] newRules = new Rule[id * 2];
+                System.arraycopy(rules, 0, newRules, 0, id);
+                rules = newRules;
+            }
+            rules[id] = r;
+            ruleIds.put(r, id);
+        }
+        return id;
+    }
+
+    private String string(int id) {
+        return id == NULL ? null : strings[id];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= rule.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, rule.length * 2);
+        rule = grow(rule, newCapacity);
+        file = grow(file, newCapacity);
+        description = grow(description, newCapacity);
+        packageName = grow(packageName, newCapacity);
+        className = grow(className, newCapacity);
+        methodName = grow(methodName, newCapacity);
+        variableName = grow(variableName, newCapacity);
+        beginLine = grow(beginLine, newCapacity);
+        beginColumn = grow(beginColumn, newCapacity);
+        endLine = grow(endLine, newCapacity);
+        endColumn = grow(endColumn, newCapacity);
+        boolean[] newSuppressed = new boolean[newCapacity];
+        System.arraycopy(suppressed, 0, newSuppressed, 0, size);
+        suppressed = newSuppressed;
+    }
+
+    private int[] grow(int[] column, int newCapacity) {
+        int[] newColumn = new int[newCapacity];
+        System.arraycopy(column, 0, newColumn, 0, size);
+        return newColumn;
+    }
+
+    /**
+     * Sorts the violations added since the last sort and merges them into the
+     * already sorted ones. Both sorts are stable, so equal violations stay in
+     * insertion order.
+     */
+    private void sort() {
+        if (sortedCount == size) {
+            return;
+        }
+        int added = size - sortedCount;
+        int[] tail = new int[added];
+        for (int i = 0; i < added; i++) {
+            tail[i] = sortedCount + i;
+        }
+        tail = mergeRuns(tail);
+
+        int[] merged = new int[size];
+        merge(sorted, 0, sortedCount, tail, 0, added, merged, 0);
+        sorted = merged;
+        sortedCount = size;
+    }
+
+    /**
+     * Natural merge sort: finds the ascending runs and merges neighbouring
+     * runs until one is left.
+     *
+     * @return the sorted indexes, either <code>a</code> or a new array
+     */
+    private int[] mergeRuns(int[] a) {
+        int n = a.length;
+        // bounds[r] is the start of run r, bounds[runs] the end of the last one
+        int[] bounds = new int[n + 1];
+        int runs = 1;
+        for (int i = 1; i < n; i++) {
+            if (compare(a[i - 1], a[i]) > 0) {
+                bounds[runs++] = i;
+            }
+        }
+        bounds[runs] = n;
+
+        int[] source = a;
+        int[] target = runs > 1 ? new int[n] : null;
+        while (runs > 1) {
+            int merged = 0;
+            for (int r = 0; r < runs; r += 2) {
+                int from = bounds[r];
+                int mid = bounds[Math.min(r + 1, runs)];
+                int to = bounds[Math.min(r + 2, runs)];
+                merge(source, from, mid, source, mid, to, target, from);
+                bounds[merged++] = from;
+            }
+            bounds[merged] = n;
+            runs = merged;
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        return source;
+    }
+
+    private void merge(int[] left, int leftFrom, int leftTo, int[] right, int rightFrom, int rightTo, int[] target,
+            int targetFrom) {
+        int l = leftFrom;
+        int r = rightFrom;
+        int t = targetFrom;
+        if (l < leftTo && r < rightTo && compare(right[r], left[leftTo - 1]) >= 0) {
+            // already in order, e.g. the runs of files processed in order
+            System.arraycopy(left, l, target, t, leftTo - l);
+            System.arraycopy(right, r, target, t + leftTo - l, rightTo - r);
+            return;
+        }
+        while (l < leftTo && r < rightTo) {
+            if (compare(right[r], left[l]) < 0) {
+                target[t++] = right[r++];
+            } else {
+                target[t++] = left[l++];
+            }
+        }
+        while (l < leftTo) {
+            target[t++] = left[l++];
+        }
+        while (r < rightTo) {
+            target[t++] = right[r++];
+        }
+    }
+
+    /**
+     * Same order as {@link RuleViolationComparator}, on the columns.
+     */
+    private int compare(int a, int b) {
+        int cmp = compareStrings(file[a], file[b]);
+        if (cmp == 0) {
+            cmp = beginLine[a] - beginLine[b];
+            if (cmp == 0) {
+                cmp = compareStrings(description[a], description[b]);
+                if (cmp == 0) {
+                    cmp = beginColumn[a] - beginColumn[b];
+                    if (cmp == 0) {
+                        cmp = endLine[a] - endLine[b];
+                        if (cmp == 0) {
+                            cmp = endColumn[a] - endColumn[b];
+                            if (cmp == 0 && rule[a] != rule[b]) {
+                                cmp = rules[rule[a]].getName().compareTo(rules[rule[b]].getName());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return cmp;
+    }
+
+    /**
+     * Interned strings are equal if their ids are, <code>null</code> is larger
+     * than any other string.
+     */
+    private int compareStrings(int a, int b) {
+        if (a == b) {
+            return 0;
+        } else if (a == NULL) {
+            return 1;
+        } else if (b == NULL) {
+            return -1;
+        }
+        return strings[a].compareTo(strings[b]);
+    }
+
+    private final class ViolationIterator implements Iterator<RuleViolation> {
+        private final int[] order;
+        private final int end;
+        private int next;
+
+        ViolationIterator(int[] order, int end) {
+            this.order = order;
+            this.end = end;
+        }
+
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        public RuleViolation next() {
+            if (next >= end) {
+                throw new NoSuchElementException();
+            }
+            int index = order == null ? next : order[next];
+            next++;
+            return new ViolationView(index);
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private final class ViolationView implements RuleViolation {
+        private final int index;
+
+        ViolationView(int index) {
+            this.index = index;
+        }
+
+        public Rule getRule() {
+            return rules[rule[index]];
+        }
+
+        public String getDescription() {
+            return string(description[index]);
+        }
+
+        public boolean isSuppressed() {
+            return suppressed[index];
+        }
+
+        public String getFilename() {
+            return string(file[index]);
+        }
+
+        public int getBeginLine() {
+            return beginLine[index];
+        }
+
+        public int getBeginColumn() {
+            return beginColumn[index];
+        }
+
+        public int getEndLine() {
+            return endLine[index];
+        }
+
+        public int getEndColumn() {
+            return endColumn[index];
+        }
+
+        public String getPackageName() {
+            return string(packageName[index]);
+        }
+
+        public String getClassName() {
+            return string(className[index]);
+        }
+
+        public String getMethodName() {
+            return string(methodName[index]);
+        }
+
+        public String getVariableName() {
+            return string(variableName[index]);
+        }
+
+        private ViolationStore store() {
+            return ViolationStore.this;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ViolationView && ((ViolationView) obj).store() == store()
+                    && ((ViolationView) obj).index == index;
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return getFilename() + ':' + getRule() + ':' + getDescription() + ':' + getBeginLine();
+        }
+    }
+}
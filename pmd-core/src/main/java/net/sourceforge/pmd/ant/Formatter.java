@@ -3,8 +3,10 @@
  */
 package net.sourceforge.pmd.ant;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
@@ -14,6 +16,7 @@ import java.util.List;
 import java.util.Properties;
 
 import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.renderers.RendererFactory;
 import net.sourceforge.pmd.util.StringUtil;
@@ -59,14 +62,20 @@ public class Formatter {
 
     public void start(String baseDir) {
         try {
-            if (toConsole) {
-                writer = new BufferedWriter(new OutputStreamWriter(System.out));
-            }
-            if (toFile != null) {
-                writer = getToFileWriter(baseDir);
-            }
             renderer = createRenderer();
-            renderer.setWriter(writer);
+            if (isBinaryToFile()) {
+                // binary reports are written to the file only
+                ((BinaryRenderer) renderer).setOutputStream(new BufferedOutputStream(new FileOutputStream(
+                        getToFile(baseDir))));
+            } else {
+                if (toConsole) {
+                    writer = new BufferedWriter(new OutputStreamWriter(System.out));
+                }
+                if (toFile != null) {
+                    writer = getToFileWriter(baseDir);
+                }
+                renderer.setWriter(writer);
+            }
             renderer.start();
         } catch (IOException ioe) {
             throw new BuildException(ioe.getMessage(), ioe);
@@ -77,7 +86,9 @@ public class Formatter {
         try {
             renderer.renderFileReport(errorReport);
             renderer.end();
-            if (toConsole) {
+            if (isBinaryToFile()) {
+                renderer.flush();
+            } else if (toConsole) {
                 writer.flush();
             } else {
                 writer.close();
@@ -87,6 +98,10 @@ public class Formatter {
         }
     }
 
+    private boolean isBinaryToFile() {
+        return renderer instanceof BinaryRenderer && toFile != null;
+    }
+
     public boolean isNoOutputSupplied() {
         return toFile == null && !toConsole;
     }
@@ -134,9 +149,13 @@ public class Formatter {
     }
 
     private Writer getToFileWriter(String baseDir) throws IOException {
+        return new BufferedWriter(new FileWriter(getToFile(baseDir)));
+    }
+
+    private File getToFile(String baseDir) {
         if (!toFile.isAbsolute()) {
-            return new BufferedWriter(new FileWriter(new File(baseDir + System.getProperty("file.separator") + toFile.getPath())));
+            return new File(baseDir + System.getProperty("file.separator") + toFile.getPath());
         }
-        return new BufferedWriter(new FileWriter(toFile));
+        return toFile;
     }
 }
@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import net.sourceforge.pmd.PMD;
 import net.sourceforge.pmd.PMDConfiguration;
@@ -185,7 +186,20 @@ public class Benchmarker {
         }
     }
 
-    private static final Map<String, BenchmarkResult> BENCHMARKS_BY_NAME = new HashMap<String, BenchmarkResult>();
+    /**
+     * Each thread accumulates into its own map, so that the worker threads
+     * don't serialize on a shared lock. The maps are merged by {@link #values()}.
+     */
+    private static final List<Map<String, BenchmarkResult>> THREAD_BENCHMARKS = new CopyOnWriteArrayList<Map<String, BenchmarkResult>>();
+
+    private static final ThreadLocal<Map<String, BenchmarkResult>> BENCHMARKS_BY_NAME = new ThreadLocal<Map<String, BenchmarkResult>>() {
+        @Override
+        protected Map<String, BenchmarkResult> initialValue() {
+            Map<String, BenchmarkResult> benchmarks = new HashMap<String, BenchmarkResult>();
+            THREAD_BENCHMARKS.add(benchmarks);
+            return benchmarks;
+        }
+    };
 
     /**
      * @param type Benchmark
@@ -203,7 +217,7 @@ public class Benchmarker {
      * @param time long
      * @param count long
      */
-    public synchronized static void mark(Benchmark type, String name, long time, long count) {
+    public static void mark(Benchmark type, String name, long time, long count) {
         String typeName = type.name;
         if (typeName != null && name != null) {
             throw new IllegalArgumentException("Name cannot be given for type: " + type);
@@ -212,23 +226,44 @@ public class Benchmarker {
         } else if (typeName == null) {
             typeName = name;
         }
-        BenchmarkResult benchmarkResult = BENCHMARKS_BY_NAME.get(typeName);
+        Map<String, BenchmarkResult> benchmarks = BENCHMARKS_BY_NAME.get();
+        // only contended while the results are merged
+        synchronized (benchmarks) {
+            update(benchmarks, type, typeName, time, count);
+        }
+    }
+
+    private static void update(Map<String, BenchmarkResult> benchmarks, Benchmark type, String typeName, long time,
+            long count) {
+        BenchmarkResult benchmarkResult = benchmarks.get(typeName);
         if (benchmarkResult == null) {
             benchmarkResult = new BenchmarkResult(type, typeName);
-            BENCHMARKS_BY_NAME.put(typeName, benchmarkResult);
+            benchmarks.put(typeName, benchmarkResult);
         }
         benchmarkResult.update(time, count);
     }
 
     public static void reset() {
-        BENCHMARKS_BY_NAME.clear();
+        for (Map<String, BenchmarkResult> benchmarks : THREAD_BENCHMARKS) {
+            synchronized (benchmarks) {
+                benchmarks.clear();
+            }
+        }
     }
 
     /**
      *
-     * @return Map<String,BenchmarkResult>
+     * @return Map<String,BenchmarkResult> the results of all threads merged
      */
     public static Map<String, BenchmarkResult> values() {
-    	return BENCHMARKS_BY_NAME;
+        Map<String, BenchmarkResult> merged = new HashMap<String, BenchmarkResult>();
+        for (Map<String, BenchmarkResult> benchmarks : THREAD_BENCHMARKS) {
+            synchronized (benchmarks) {
+                for (BenchmarkResult result : benchmarks.values()) {
+                    update(merged, result.type, result.name, result.getTime(), result.getCount());
+                }
+            }
+        }
+        return merged;
     }
 }
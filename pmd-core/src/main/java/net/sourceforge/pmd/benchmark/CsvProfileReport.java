@@ -0,0 +1,65 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.PMD;
+
+/**
+ * Writes the rule profiles as CSV, one record per line. The first column
+ * tells the kind of the record:
+ * <ul>
+ * <li><code>rule</code>: the totals of a rule, the count is the number of files</li>
+ * <li><code>nodeType</code>: the visits of a rule chain rule to the node type in the key column</li>
+ * <li><code>file</code>: one of the slowest files of the rule</li>
+ * </ul>
+ */
+public class CsvProfileReport implements ProfileReport {
+
+    public void generate(List<RuleProfile> profiles, PrintStream out) {
+        StringBuilder buf = new StringBuilder(1024);
+        buf.append("record,rule,key,count,wallNanos,cpuNanos,allocatedBytes").append(PMD.EOL);
+        for (RuleProfile profile : profiles) {
+            record(buf, "rule", profile.getRuleName(), "", profile.getApplications());
+            costs(buf, profile.getWallNanos(), profile.getCpuNanos(), profile.getAllocatedBytes());
+            for (Map.Entry<String, Long> entry : profile.getVisitsByNodeType().entrySet()) {
+                record(buf, "nodeType", profile.getRuleName(), entry.getKey(), entry.getValue());
+                buf.append(",,,").append(PMD.EOL);
+            }
+            for (RuleProfile.FileSample sample : profile.getSlowestFiles()) {
+                record(buf, "file", profile.getRuleName(), sample.fileName, 1);
+                costs(buf, sample.wallNanos, sample.cpuNanos, sample.allocatedBytes);
+            }
+            out.print(buf);
+            buf.setLength(0);
+        }
+    }
+
+    private static void record(StringBuilder buf, String record, String rule, String key, long count) {
+        buf.append(record).append(',');
+        quote(buf, rule);
+        buf.append(',');
+        quote(buf, key);
+        buf.append(',').append(count);
+    }
+
+    private static void costs(StringBuilder buf, long wallNanos, long cpuNanos, long allocatedBytes) {
+        buf.append(',').append(wallNanos).append(',').append(cpuNanos).append(',').append(allocatedBytes)
+                .append(PMD.EOL);
+    }
+
+    private static void quote(StringBuilder buf, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            buf.append(value);
+        } else {
+            buf.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+}
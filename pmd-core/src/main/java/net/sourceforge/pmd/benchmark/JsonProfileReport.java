@@ -0,0 +1,102 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark;
+
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.PMD;
+
+/**
+ * Writes the rule profiles as a JSON document:
+ * <pre>
+ * {"rules": [
+ *   {"name": "...", "applications": 1, "wallNanos": 1, "cpuNanos": 1, "allocatedBytes": 1,
+ *    "visits": {"ASTName": 1},
+ *    "slowestFiles": [{"file": "...", "wallNanos": 1, "cpuNanos": 1, "allocatedBytes": 1}]}
+ * ]}
+ * </pre>
+ */
+public class JsonProfileReport implements ProfileReport {
+
+    public void generate(List<RuleProfile> profiles, PrintStream out) {
+        StringBuilder buf = new StringBuilder(1024);
+        buf.append("{\"rules\": [");
+        for (Iterator<RuleProfile> i = profiles.iterator(); i.hasNext();) {
+            RuleProfile profile = i.next();
+            buf.append(PMD.EOL).append("  {\"name\": ");
+            string(buf, profile.getRuleName());
+            buf.append(", \"applications\": ").append(profile.getApplications());
+            costs(buf, profile.getWallNanos(), profile.getCpuNanos(), profile.getAllocatedBytes());
+            buf.append(',').append(PMD.EOL).append("   \"visits\": {");
+            for (Iterator<Map.Entry<String, Long>> j = profile.getVisitsByNodeType().entrySet().iterator(); j.hasNext();) {
+                Map.Entry<String, Long> entry = j.next();
+                string(buf, entry.getKey());
+                buf.append(": ").append(entry.getValue());
+                if (j.hasNext()) {
+                    buf.append(", ");
+                }
+            }
+            buf.append("},").append(PMD.EOL).append("   \"slowestFiles\": [");
+            for (Iterator<RuleProfile.FileSample> j = profile.getSlowestFiles().iterator(); j.hasNext();) {
+                RuleProfile.FileSample sample = j.next();
+                buf.append("{\"file\": ");
+                string(buf, sample.fileName);
+                costs(buf, sample.wallNanos, sample.cpuNanos, sample.allocatedBytes);
+                buf.append('}');
+                if (j.hasNext()) {
+                    buf.append(", ");
+                }
+            }
+            buf.append("]}");
+            if (i.hasNext()) {
+                buf.append(',');
+            }
+            out.print(buf);
+            buf.setLength(0);
+        }
+        out.print(PMD.EOL + "]}" + PMD.EOL);
+    }
+
+    private static void costs(StringBuilder buf, long wallNanos, long cpuNanos, long allocatedBytes) {
+        buf.append(", \"wallNanos\": ").append(wallNanos);
+        buf.append(", \"cpuNanos\": ").append(cpuNanos);
+        buf.append(", \"allocatedBytes\": ").append(allocatedBytes);
+    }
+
+    private static void string(StringBuilder buf, String value) {
+        buf.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                case '"':
+                    buf.append("\\\"");
+                    break;
+                case '\\':
+                    buf.append("\\\\");
+                    break;
+                case '\n':
+                    buf.append("\\n");
+                    break;
+                case '\r':
+                    buf.append("\\r");
+                    break;
+                case '\t':
+                    buf.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        buf.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        buf.append(c);
+                    }
+                }
+            }
+        }
+        buf.append('"');
+    }
+}
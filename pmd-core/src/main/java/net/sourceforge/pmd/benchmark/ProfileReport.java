@@ -0,0 +1,19 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Writes the results of the {@link RuleProfiler}.
+ */
+public interface ProfileReport {
+
+    /**
+     * @param profiles the rule profiles, see {@link RuleProfiler#results()}
+     * @param out the target
+     */
+    void generate(List<RuleProfile> profiles, PrintStream out);
+}
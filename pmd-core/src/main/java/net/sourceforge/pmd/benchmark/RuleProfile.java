@@ -0,0 +1,134 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The costs of a single rule, collected by the {@link RuleProfiler}. CPU
+ * time and allocated bytes are <code>-1</code> if the JVM can't measure them.
+ */
+public class RuleProfile {
+
+    /** Number of slowest files kept per rule. */
+    public static final int OUTLIERS = 5;
+
+    private static final Comparator<FileSample> SLOWEST_FIRST = new Comparator<FileSample>() {
+        public int compare(FileSample o1, FileSample o2) {
+            return o1.wallNanos < o2.wallNanos ? 1 : o1.wallNanos > o2.wallNanos ? -1 : 0;
+        }
+    };
+
+    private final String ruleName;
+    private long applications;
+    private long wallNanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+    private final Map<String, Long> visitsByNodeType = new TreeMap<String, Long>();
+    private final List<FileSample> slowestFiles = new ArrayList<FileSample>(OUTLIERS + 1);
+
+    public RuleProfile(String ruleName) {
+        this.ruleName = ruleName;
+    }
+
+    /**
+     * The costs of a rule on a single file.
+     */
+    public static class FileSample {
+        public final String fileName;
+        public final long wallNanos;
+        public final long cpuNanos;
+        public final long allocatedBytes;
+
+        public FileSample(String fileName, long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.fileName = fileName;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    void add(FileSample sample) {
+        applications++;
+        wallNanos += sample.wallNanos;
+        cpuNanos = sum(cpuNanos, sample.cpuNanos);
+        allocatedBytes = sum(allocatedBytes, sample.allocatedBytes);
+        addOutlier(sample);
+    }
+
+    void addVisits(String nodeType, long visits) {
+        Long total = visitsByNodeType.get(nodeType);
+        visitsByNodeType.put(nodeType, total == null ? visits : total + visits);
+    }
+
+    void merge(RuleProfile other) {
+        applications += other.applications;
+        wallNanos += other.wallNanos;
+        cpuNanos = sum(cpuNanos, other.cpuNanos);
+        allocatedBytes = sum(allocatedBytes, other.allocatedBytes);
+        for (Map.Entry<String, Long> entry : other.visitsByNodeType.entrySet()) {
+            addVisits(entry.getKey(), entry.getValue());
+        }
+        for (FileSample sample : other.slowestFiles) {
+            addOutlier(sample);
+        }
+    }
+
+    private void addOutlier(FileSample sample) {
+        if (slowestFiles.size() == OUTLIERS && slowestFiles.get(OUTLIERS - 1).wallNanos >= sample.wallNanos) {
+            return;
+        }
+        slowestFiles.add(sample);
+        Collections.sort(slowestFiles, SLOWEST_FIRST);
+        if (slowestFiles.size() > OUTLIERS) {
+            slowestFiles.remove(OUTLIERS);
+        }
+    }
+
+    private static long sum(long total, long value) {
+        return total < 0 || value < 0 ? -1 : total + value;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    /**
+     * @return the number of files the rule has been applied to
+     */
+    public long getApplications() {
+        return applications;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return the number of nodes visited by node type, only known for rule chain rules
+     */
+    public Map<String, Long> getVisitsByNodeType() {
+        return Collections.unmodifiableMap(visitsByNodeType);
+    }
+
+    /**
+     * @return the files the rule took the longest on, slowest first
+     */
+    public List<FileSample> getSlowestFiles() {
+        return Collections.unmodifiableList(slowestFiles);
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects the wall time, CPU time and allocated bytes of each rule on each
+ * file, as well as the visited node types of the rule chain rules.
+ * <p/>
+ * Each thread accumulates into its own profile, the profiles are merged by
+ * {@link #results()} once the processing is done. CPU time and allocations
+ * are read from the {@link ThreadMXBean} of the current thread; the
+ * allocations are only available on HotSpot based JVMs.
+ * <p/>
+ * The rule set and the rule chain call {@link #ruleStarted()} and
+ * {@link #ruleFinished(String, String)} around each rule, if the profiler is
+ * {@link #isEnabled() enabled}.
+ */
+public final class RuleProfiler {
+
+    private static final Logger LOG = Logger.getLogger(RuleProfiler.class.getName());
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final List<ThreadProfile> THREAD_PROFILES = new CopyOnWriteArrayList<ThreadProfile>();
+
+    private static final ThreadLocal<ThreadProfile> CURRENT = new ThreadLocal<ThreadProfile>() {
+        @Override
+        protected ThreadProfile initialValue() {
+            ThreadProfile profile = new ThreadProfile();
+            THREAD_PROFILES.add(profile);
+            return profile;
+        }
+    };
+
+    private static volatile boolean enabled;
+    private static boolean cpuTime;
+    private static com.sun.management.ThreadMXBean allocations;
+
+    private RuleProfiler() {
+    }
+
+    /**
+     * Enables or disables the profiler. Enabling it also turns on the CPU time
+     * and allocation measurement of the JVM, if supported.
+     *
+     * @param enable whether to profile the rules
+     */
+    public static synchronized void setEnabled(boolean enable) {
+        if (enable && !enabled) {
+            cpuTime = THREADS.isCurrentThreadCpuTimeSupported();
+            if (cpuTime && !THREADS.isThreadCpuTimeEnabled()) {
+                THREADS.setThreadCpuTimeEnabled(true);
+            }
+            allocations = allocationBean();
+        }
+        enabled = enable;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            if (THREADS instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREADS;
+                if (bean.isThreadAllocatedMemorySupported()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                    return bean;
+                }
+            }
+        } catch (LinkageError e) {
+            LOG.log(Level.FINE, "Allocated bytes per thread are not available", e);
+        }
+        return null;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts measuring a rule on the current thread.
+     */
+    public static void ruleStarted() {
+        CURRENT.get().start();
+    }
+
+    /**
+     * Counts the nodes of a type visited by the current rule.
+     *
+     * @param nodeType the node type, as used by the rule chain
+     * @param visits the number of visited nodes
+     */
+    public static void nodesVisited(String nodeType, int visits) {
+        if (visits > 0) {
+            CURRENT.get().visit(nodeType, visits);
+        }
+    }
+
+    /**
+     * Stops measuring the current rule and adds the costs to its profile.
+     *
+     * @param ruleName the rule
+     * @param fileName the file the rule has been applied to
+     */
+    public static void ruleFinished(String ruleName, String fileName) {
+        CURRENT.get().finish(ruleName, fileName);
+    }
+
+    /**
+     * @return the profiles of all threads merged by rule, the most expensive rules first
+     */
+    public static List<RuleProfile> results() {
+        Map<String, RuleProfile> merged = new HashMap<String, RuleProfile>();
+        for (ThreadProfile thread : THREAD_PROFILES) {
+            synchronized (thread) {
+                for (RuleProfile profile : thread.profiles.values()) {
+                    RuleProfile total = merged.get(profile.getRuleName());
+                    if (total == null) {
+                        total = new RuleProfile(profile.getRuleName());
+                        merged.put(profile.getRuleName(), total);
+                    }
+                    total.merge(profile);
+                }
+            }
+        }
+        List<RuleProfile> results = new ArrayList<RuleProfile>(merged.values());
+        Collections.sort(results, new Comparator<RuleProfile>() {
+            public int compare(RuleProfile o1, RuleProfile o2) {
+                long t1 = o1.getCpuNanos() < 0 ? o1.getWallNanos() : o1.getCpuNanos();
+                long t2 = o2.getCpuNanos() < 0 ? o2.getWallNanos() : o2.getCpuNanos();
+                return t1 < t2 ? 1 : t1 > t2 ? -1 : o1.getRuleName().compareTo(o2.getRuleName());
+            }
+        });
+        return results;
+    }
+
+    public static void reset() {
+        for (ThreadProfile thread : THREAD_PROFILES) {
+            synchronized (thread) {
+                thread.profiles.clear();
+            }
+        }
+    }
+
+    private static long cpuNanos() {
+        return cpuTime ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        return allocations == null ? -1 : allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * The profile of one thread. Only its thread modifies it, the lock is
+     * only contended while the results are merged.
+     */
+    private static final class ThreadProfile {
+        private final Map<String, RuleProfile> profiles = new HashMap<String, RuleProfile>();
+        private final Map<String, long[]> visits = new HashMap<String, long[]>();
+        private long startWall;
+        private long startCpu;
+        private long startAllocated;
+
+        void start() {
+            visits.clear();
+            startAllocated = allocatedBytes();
+            startCpu = cpuNanos();
+            startWall = System.nanoTime();
+        }
+
+        void visit(String nodeType, int count) {
+            long[] total = visits.get(nodeType);
+            if (total == null) {
+                visits.put(nodeType, new long[] { count });
+            } else {
+                total[0] += count;
+            }
+        }
+
+        synchronized void finish(String ruleName, String fileName) {
+            long wall = System.nanoTime() - startWall;
+            long cpu = startCpu < 0 ? -1 : cpuNanos() - startCpu;
+            long allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+            RuleProfile profile = profiles.get(ruleName);
+            if (profile == null) {
+                profile = new RuleProfile(ruleName);
+                profiles.put(ruleName, profile);
+            }
+            profile.add(new RuleProfile.FileSample(fileName, wall, cpu, allocated));
+            for (Map.Entry<String, long[]> entry : visits.entrySet()) {
+                profile.addVisits(entry.getKey(), entry.getValue()[0]);
+            }
+            visits.clear();
+        }
+    }
+}
@@ -4,6 +4,8 @@
 package net.sourceforge.pmd.cli;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import net.sourceforge.pmd.PMDConfiguration;
@@ -42,9 +44,15 @@ public class PMDParameters {
     @Parameter(names = { "-threads", "-t" }, description = "set the number of threads used by PMD", validateWith = PositiveInteger.class)
     private Integer threads = 1;
 
+    @Parameter(names = "-ruletimeout", description = "cancel a rule, if it runs longer than the given number of milliseconds on a single file; default is no limit")
+    private long ruletimeout = 0;
+
     @Parameter(names = { "-benchmark", "-b" }, description = "Benchmark mode - output a benchmark report upon completion; default to System.err")
     private boolean benchmark = false;
 
+    @Parameter(names = "-profile", description = "profile the rules and write the time, CPU time, allocations, visited node types and slowest files of each rule to the given file; CSV if the file name ends with .csv, JSON otherwise")
+    private String profile = null;
+
     @Parameter(names = { "-stress", "-S" }, description = "performs a stress test")
     private boolean stress = false;
 
@@ -66,6 +74,9 @@ public class PMDParameters {
     @Parameter(names = { "-reportfile", "-r" }, description = "send report output to a file; default to System.out")
     private String reportfile = null;
 
+    @Parameter(names = "-reports", description = "comma separated list of additional reports as {format}:{file}, rendered from the same analysis")
+    private List<String> reports = new ArrayList<String>();
+
     @Parameter(names = { "-version", "-v" }, description = "specify version of a language PMD should use")
     private String version = null;
 
@@ -121,9 +132,11 @@ public class PMDParameters {
         configuration.setInputUri(params.getUri());
         configuration.setReportFormat(params.getFormat());
         configuration.setBenchmark(params.isBenchmark());
+        configuration.setProfileFile(params.getProfile());
         configuration.setDebug(params.isDebug());
         configuration.setMinimumPriority(params.getMinimumPriority());
         configuration.setReportFile(params.getReportfile());
+        configuration.setAdditionalReports(params.getReports());
         configuration.setReportProperties(params.getProperties());
         configuration.setReportShortNames(params.isShortnames());
         configuration.setRuleSets(params.getRulesets());
@@ -132,6 +145,7 @@ public class PMDParameters {
         configuration.setStressTest(params.isStress());
         configuration.setSuppressMarker(params.getSuppressmarker());
         configuration.setThreads(params.getThreads());
+        configuration.setRuleTimeout(params.getRuletimeout());
 
         LanguageVersion languageVersion = LanguageRegistry.findLanguageVersionByTerseName(params.getLanguage() + " " + params.getVersion());
         if(languageVersion != null) {
@@ -161,10 +175,18 @@ public class PMDParameters {
         return threads;
     }
 
+    public long getRuletimeout() {
+        return ruletimeout;
+    }
+
     public boolean isBenchmark() {
         return benchmark;
     }
 
+    public String getProfile() {
+        return profile;
+    }
+
     public boolean isStress() {
         return stress;
     }
@@ -193,6 +215,10 @@ public class PMDParameters {
         return reportfile;
     }
 
+    public List<String> getReports() {
+        return reports;
+    }
+
     public String getVersion() {
         return version != null ? version : LanguageRegistry.getDefaultLanguage().getDefaultVersion().getVersion();
     }
@@ -38,10 +38,11 @@ public class TokenEntry implements Comparable<TokenEntry> {
     }
 
     public TokenEntry(String image, String tokenSrcID, int beginLine) {
-        Integer i = TOKENS.get().get(image);
+        Map<String, Integer> tokens = TOKENS.get();
+        Integer i = tokens.get(image);
         if (i == null) {
-            i = TOKENS.get().size() + 1;
-            TOKENS.get().put(image, i);
+            i = tokens.size() + 1;
+            tokens.put(image, i);
         }
         this.identifier = i.intValue();
         this.tokenSrcID = tokenSrcID;
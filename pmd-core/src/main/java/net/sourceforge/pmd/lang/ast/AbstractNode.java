@@ -31,8 +31,10 @@ public abstract class AbstractNode implements Node {
     protected int endLine;
     protected int beginColumn = -1;
     protected int endColumn;
-    private DataFlowNode dataFlowNode;
-    private Object userData;
+    /** The rarely used data flow node and user data, allocated when one of them is set. */
+    private Extras extras;
+    /** The number of this node in the {@link DescendantIndex} of its tree. */
+    int preOrder;
 
     public AbstractNode(int id) {
     	this.id = id;
@@ -61,6 +63,10 @@ public abstract class AbstractNode implements Node {
 
     public void jjtSetParent(Node parent) {
     	this.parent = parent;
+    	// no longer the root of a tree
+    	if (extras != null) {
+    	    extras.descendantIndex = null;
+    	}
     }
 
     public Node jjtGetParent() {
@@ -76,6 +82,10 @@ public abstract class AbstractNode implements Node {
 		    children = newChildren;
 		}
 		children[index] = child;
+		Node root = getRoot();
+		if (root instanceof AbstractNode && ((AbstractNode) root).extras != null) {
+		    ((AbstractNode) root).extras.descendantIndex = null;
+		}
     }
 
     public Node jjtGetChild(int index) {
@@ -105,6 +115,15 @@ public abstract class AbstractNode implements Node {
 	this.image = image;
     }
 
+    /**
+     * Replaces the image by an equal instance shared within the AST.
+     */
+    void internImage(ImageInterner interner) {
+	if (image != null) {
+	    image = interner.intern(image);
+	}
+    }
+
     public boolean hasImageEqualTo(String image) {
 	return this.image != null && this.image.equals(image);
     }
@@ -150,17 +169,50 @@ public abstract class AbstractNode implements Node {
     }
 
     public DataFlowNode getDataFlowNode() {
-	if (this.dataFlowNode == null) {
+	if (extras == null || extras.dataFlowNode == null) {
 	    if (this.parent != null) {
 		return parent.getDataFlowNode();
 	    }
 	    return null; //TODO wise?
 	}
-	return dataFlowNode;
+	return extras.dataFlowNode;
     }
 
     public void setDataFlowNode(DataFlowNode dataFlowNode) {
-	this.dataFlowNode = dataFlowNode;
+	extras().dataFlowNode = dataFlowNode;
+    }
+
+    private Node getRoot() {
+	Node root = this;
+	while (root.jjtGetParent() != null) {
+	    root = root.jjtGetParent();
+	}
+	return root;
+    }
+
+    /**
+     * Returns the index of the tree, which contains this node. The index is
+     * built on the first call and kept by the root.
+     *
+     * @return the index or <code>null</code>, if the tree can't be indexed
+     */
+    private DescendantIndex getDescendantIndex() {
+	Node root = getRoot();
+	if (!(root instanceof AbstractNode)) {
+	    return null;
+	}
+	Extras rootExtras = ((AbstractNode) root).extras();
+	if (rootExtras.descendantIndex == null) {
+	    rootExtras.descendantIndex = DescendantIndex.build((AbstractNode) root);
+	}
+	return rootExtras.descendantIndex.contains(this, preOrder) ? rootExtras.descendantIndex : null;
+    }
+
+    private Extras extras() {
+	if (extras == null) {
+	    extras = new Extras();
+	}
+	return extras;
     }
 
     /**
@@ -221,7 +273,7 @@ public abstract class AbstractNode implements Node {
      */
     public <T> List<T> findDescendantsOfType(Class<T> targetType) {
 	List<T> list = new ArrayList<T>();
-	findDescendantsOfType(this, targetType, list, true);
+	findDescendantsOfType(targetType, list, true);
 	return list;
     }
 
@@ -229,6 +281,13 @@ public abstract class AbstractNode implements Node {
      * {@inheritDoc}
      */
     public <T> void findDescendantsOfType(Class<T> targetType, List<T> results, boolean crossBoundaries) {
+	if (crossBoundaries && children != null) {
+	    DescendantIndex index = getDescendantIndex();
+	    if (index != null) {
+		index.findDescendantsOfType(preOrder, targetType, results);
+		return;
+	    }
+	}
 	findDescendantsOfType(this, targetType, results, crossBoundaries);
     }
 
@@ -305,6 +364,13 @@ public abstract class AbstractNode implements Node {
      * {@inheritDoc}
      */
     public <T> T getFirstDescendantOfType(Class<T> descendantType) {
+	if (children == null) {
+	    return null;
+	}
+	DescendantIndex index = getDescendantIndex();
+	if (index != null) {
+	    return index.getFirstDescendantOfType(preOrder, descendantType);
+	}
 	return getFirstDescendantOfType(descendantType, this);
     }
 
@@ -380,13 +446,24 @@ public abstract class AbstractNode implements Node {
      * {@inheritDoc}
      */
     public Object getUserData() {
-        return userData;
+        return extras == null ? null : extras.userData;
     }
 
     /**
      * {@inheritDoc}
      */
     public void setUserData(Object userData) {
-        this.userData = userData;
+        extras().userData = userData;
+    }
+
+    /**
+     * Fields, which only few nodes use. Keeping them out of the node saves a
+     * reference on every node.
+     */
+    private static final class Extras {
+        private DataFlowNode dataFlowNode;
+        private Object userData;
+        /** Only set on the root of a tree. */
+        private DescendantIndex descendantIndex;
     }
 }
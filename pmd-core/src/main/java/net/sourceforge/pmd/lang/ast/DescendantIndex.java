@@ -0,0 +1,139 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.ast;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers "descendants of type T below node N" for one AST without walking
+ * the subtree. The nodes are numbered in pre-order, so the descendants of a
+ * node are the nodes numbered after it up to its last descendant. For each
+ * node type the index keeps the sorted numbers of its nodes, which turns the
+ * query into a binary search and a range scan.
+ * <p>
+ * The index is built by {@link AbstractNode} on the first query and
+ * discarded, when a child is added to the tree.
+ */
+final class DescendantIndex {
+
+    private static final int[] NONE = new int[0];
+
+    /** Used for trees, which contain nodes not extending {@link AbstractNode}. */
+    static final DescendantIndex UNINDEXABLE = new DescendantIndex(new Node[0], new int[0]);
+
+    /** The nodes in pre-order. */
+    private final Node[] nodes;
+    /** The pre-order number of the last descendant of each node. */
+    private final int[] lastDescendants;
+    /** The sorted pre-order numbers of the nodes of each type queried so far. */
+    private final Map<Class<?>, int[]> preOrdersByType = new HashMap<Class<?>, int[]>();
+
+    private DescendantIndex(Node[] nodes, int[] lastDescendants) {
+        this.nodes = nodes;
+        this.lastDescendants = lastDescendants;
+    }
+
+    /**
+     * Numbers the nodes of the given tree. The nodes of a type are collected
+     * when the type is queried for the first time.
+     *
+     * @param root the root of the tree
+     * @return the index, or {@link #UNINDEXABLE}
+     */
+    static DescendantIndex build(AbstractNode root) {
+        Builder builder = new Builder();
+        if (!builder.number(root)) {
+            return UNINDEXABLE;
+        }
+        return new DescendantIndex(Arrays.copyOf(builder.nodes, builder.size), Arrays.copyOf(
+                builder.lastDescendants, builder.size));
+    }
+
+    private static final class Builder {
+        private Node[] nodes = new Node[256];
+        private int[] lastDescendants = new int[256];
+        private int size;
+
+        private boolean number(Node node) {
+            if (!(node instanceof AbstractNode)) {
+                return false;
+            }
+            int preOrder = size++;
+            if (preOrder == nodes.length) {
+                nodes = Arrays.copyOf(nodes, preOrder * 2);
+                lastDescendants = Arrays.copyOf(lastDescendants, preOrder * 2);
+            }
+            ((AbstractNode) node).preOrder = preOrder;
+            nodes[preOrder] = node;
+            int n = node.jjtGetNumChildren();
+            for (int i = 0; i < n; i++) {
+                if (!number(node.jjtGetChild(i))) {
+                    return false;
+                }
+            }
+            lastDescendants[preOrder] = size - 1;
+            return true;
+        }
+    }
+
+    /**
+     * Whether the given node is part of the indexed tree with the given
+     * pre-order number.
+     */
+    boolean contains(Node node, int preOrder) {
+        return preOrder >= 0 && preOrder < nodes.length && nodes[preOrder] == node;
+    }
+
+    /**
+     * Adds the descendants of the given type in document order.
+     */
+    <T> void findDescendantsOfType(int preOrder, Class<T> type, List<T> results) {
+        int[] preOrders = preOrders(type);
+        int last = lastDescendants[preOrder];
+        for (int i = firstAfter(preOrders, preOrder); i < preOrders.length && preOrders[i] <= last; i++) {
+            results.add((T) nodes[preOrders[i]]);
+        }
+    }
+
+    /**
+     * Returns the first descendant of the given type in document order, or
+     * <code>null</code>.
+     */
+    <T> T getFirstDescendantOfType(int preOrder, Class<T> type) {
+        int[] preOrders = preOrders(type);
+        int i = firstAfter(preOrders, preOrder);
+        if (i < preOrders.length && preOrders[i] <= lastDescendants[preOrder]) {
+            return (T) nodes[preOrders[i]];
+        }
+        return null;
+    }
+
+    private int[] preOrders(Class<?> type) {
+        int[] preOrders = preOrdersByType.get(type);
+        if (preOrders == null) {
+            int count = 0;
+            for (Node node : nodes) {
+                if (node.getClass() == type) {
+                    count++;
+                }
+            }
+            preOrders = count == 0 ? NONE : new int[count];
+            for (int i = 0, j = 0; j < count; i++) {
+                if (nodes[i].getClass() == type) {
+                    preOrders[j++] = i;
+                }
+            }
+            preOrdersByType.put(type, preOrders);
+        }
+        return preOrders;
+    }
+
+    private static int firstAfter(int[] preOrders, int preOrder) {
+        int i = Arrays.binarySearch(preOrders, preOrder + 1);
+        return i < 0 ? -i - 1 : i;
+    }
+}
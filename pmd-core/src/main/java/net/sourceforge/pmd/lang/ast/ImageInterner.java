@@ -0,0 +1,53 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.ast;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the equal images of the nodes of one AST by a single String
+ * instance. The token manager creates a new String for every token, so an
+ * identifier used a hundred times in a file is otherwise kept a hundred
+ * times by the AST.
+ * <p>
+ * The strings are not interned globally with {@link String#intern()}, the
+ * pool only lives while the tree is traversed.
+ */
+public final class ImageInterner {
+
+    private final Map<String, String> images = new HashMap<String, String>();
+
+    private ImageInterner() {
+    }
+
+    /**
+     * Interns the images of the given node and its descendants, which extend
+     * {@link AbstractNode}.
+     *
+     * @param root the root of the AST
+     */
+    public static void intern(Node root) {
+        new ImageInterner().visit(root);
+    }
+
+    private void visit(Node node) {
+        if (node instanceof AbstractNode) {
+            ((AbstractNode) node).internImage(this);
+        }
+        int n = node.jjtGetNumChildren();
+        for (int i = 0; i < n; i++) {
+            visit(node.jjtGetChild(i));
+        }
+    }
+
+    String intern(String image) {
+        String interned = images.get(image);
+        if (interned == null) {
+            images.put(image, image);
+            return image;
+        }
+        return interned;
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.ast;
+
+import java.util.Arrays;
+
+/**
+ * Calculates from an absolute offset in the source file the line/column coordinate.
+ * This is needed for parsers, which only offer absolute positions for each node.
+ * The offsets of the line starts are determined once, then each lookup is a
+ * binary search. Lines and columns are 1-based.
+ * 
+ * Idea from: http://code.google.com/p/closure-compiler/source/browse/trunk/src/com/google/javascript/jscomp/SourceFile.java
+ */
+public class SourceCodePositioner {
+
+    private final int[] lineOffsets;
+
+    public SourceCodePositioner(CharSequence sourceCode) {
+        int length = sourceCode.length();
+        int lines = 1;
+        for (int i = 0; i < length; i++) {
+            if (sourceCode.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+
+        lineOffsets = new int[lines];
+        int lineNumber = 1;
+        for (int i = 0; i < length; i++) {
+            if (sourceCode.charAt(i) == '\n') {
+                lineOffsets[lineNumber++] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * @param offset the offset in the source code
+     * @return the line of the offset, <code>0</code> for negative offsets
+     */
+    public int lineNumberFromOffset(int offset) {
+        int search = Arrays.binarySearch(lineOffsets, offset);
+        int lineNumber;
+        if (search >= 0) {
+            lineNumber = search;
+        } else {
+            int insertionPoint = search;
+            insertionPoint += 1;
+            insertionPoint *= -1;
+            lineNumber = insertionPoint - 1; // take the insertion point one before
+        }
+        return lineNumber + 1; // 1-based line numbers
+    }
+
+    /**
+     * @param offset the offset in the source code
+     * @return the column of the offset in its line
+     */
+    public int columnFromOffset(int offset) {
+        int lineNumber = lineNumberFromOffset(offset);
+        int lineOffset = lineNumber > 0 ? lineOffsets[lineNumber - 1] : 0;
+        int columnOffset = offset - lineOffset;
+        return columnOffset + 1; // 1-based column offsets
+    }
+
+    /**
+     * @param lineNumber the 1-based line number
+     * @return the offset of the first character of the line
+     */
+    public int lineStartOffset(int lineNumber) {
+        return lineOffsets[lineNumber - 1];
+    }
+
+    /**
+     * @return the number of lines, a line break at the end starts another
+     *         (empty) line
+     */
+    public int getLineCount() {
+        return lineOffsets.length;
+    }
+}
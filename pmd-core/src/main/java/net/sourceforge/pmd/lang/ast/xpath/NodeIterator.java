@@ -7,6 +7,7 @@ import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.RuleWatchdog;
 
 /**
  * @author daniels
@@ -27,6 +28,7 @@ public abstract class NodeIterator implements Iterator<Node> {
         if (node == null) {
             throw new NoSuchElementException();
         }
+        RuleWatchdog.checkCancelled();
         Node ret = node;
         node = getNextNode(node);
         return ret;
@@ -96,7 +96,7 @@ public class ElementNode extends AbstractNodeInfo {
 
     @Override
     public int compareOrder(NodeInfo other) {
-	return Integer.signum(this.node.jjtGetId() - ((ElementNode) other).node.jjtGetId());
+	return Integer.signum(this.id - ((ElementNode) other).id);
     }
 
     @SuppressWarnings("PMD.MissingBreakInSwitch")
@@ -25,6 +25,8 @@ public abstract class AbstractDataFlowNode implements DataFlowNode {
     protected List<VariableAccess> variableAccess = new ArrayList<VariableAccess>();
     protected List<DataFlowNode> dataFlow;
     protected int line;
+    // nodes are only ever appended to the data flow, so the position never changes
+    private final int index;
 
     public AbstractDataFlowNode(List<DataFlowNode> dataFlow) {
 	this.dataFlow = dataFlow;
@@ -32,6 +34,7 @@ public abstract class AbstractDataFlowNode implements DataFlowNode {
 	    DataFlowNode parent = this.dataFlow.get(this.dataFlow.size() - 1);
 	    parent.addPathToChild(this);
 	}
+	this.index = this.dataFlow.size();
 	this.dataFlow.add(this);
     }
 
@@ -100,7 +103,7 @@ public abstract class AbstractDataFlowNode implements DataFlowNode {
     }
 
     public int getIndex() {
-	return this.dataFlow.indexOf(this);
+	return this.index;
     }
 
     public void setVariableAccess(List<VariableAccess> variableAccess) {
@@ -0,0 +1,311 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.dfa;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.lang.ast.Node;
+
+/**
+ * Read-only, array based copy of the data flow of one method.
+ * <p/>
+ * Nodes are identified by their index in the flow. Edges are kept in
+ * compressed sparse row form: the children of node <code>n</code> are
+ * <code>children[childOffsets[n]]</code> up to (excluding)
+ * <code>children[childOffsets[n + 1]]</code>, likewise for parents, node types
+ * and variable accesses. Variable names are interned per method and equal
+ * {@link VariableAccess} instances are shared.
+ * <p/>
+ * The nodes are exposed through the {@link DataFlowNode} interface as light
+ * weight views, so rules and the path finders work unchanged. All methods
+ * which would modify the graph throw an {@link UnsupportedOperationException}.
+ * <p/>
+ * Compaction is enabled with the system property
+ * <code>net.sourceforge.pmd.dfa.compact=yes</code>.
+ */
+public final class CompactDataFlow {
+
+    private static final boolean ENABLED = System.getProperty("net.sourceforge.pmd.dfa.compact", "no").equals("yes");
+
+    private final Node[] nodes;
+    private final int[] lines;
+    private final int[] typeOffsets;
+    private final byte[] types;
+    private final int[] childOffsets;
+    private final int[] children;
+    private final int[] parentOffsets;
+    private final int[] parents;
+    private final int[] accessOffsets;
+    /** index into accessPool */
+    private final int[] accesses;
+    private final VariableAccess[] accessPool;
+    private final CompactDataFlowNode[] views;
+    private final List<DataFlowNode> flow;
+
+    private CompactDataFlow(List<DataFlowNode> source) {
+        int nodeCount = source.size();
+        Map<DataFlowNode, Integer> indexes = new IdentityHashMap<DataFlowNode, Integer>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            indexes.put(source.get(i), i);
+        }
+
+        nodes = new Node[nodeCount];
+        lines = new int[nodeCount];
+        typeOffsets = new int[nodeCount + 1];
+        childOffsets = new int[nodeCount + 1];
+        parentOffsets = new int[nodeCount + 1];
+        accessOffsets = new int[nodeCount + 1];
+        int typeCount = 0;
+        int childCount = 0;
+        int parentCount = 0;
+        int accessCount = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            DataFlowNode node = source.get(i);
+            nodes[i] = node.getNode();
+            lines[i] = node.getLine();
+            typeCount += countTypes(node);
+            childCount += countIndexed(node.getChildren(), indexes);
+            parentCount += countIndexed(node.getParents(), indexes);
+            accessCount += node.getVariableAccess() == null ? 0 : node.getVariableAccess().size();
+            typeOffsets[i + 1] = typeCount;
+            childOffsets[i + 1] = childCount;
+            parentOffsets[i + 1] = parentCount;
+            accessOffsets[i + 1] = accessCount;
+        }
+
+        types = new byte[typeCount];
+        children = new int[childCount];
+        parents = new int[parentCount];
+        accesses = new int[accessCount];
+        Map<String, Integer> poolIndexes = new HashMap<String, Integer>();
+        VariableAccess[] pool = new VariableAccess[Math.min(accessCount, 16)];
+        int poolSize = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            DataFlowNode node = source.get(i);
+            int t = typeOffsets[i];
+            for (int type = 0; type <= NodeType.THROW_STATEMENT; type++) {
+                if (node.isType(type)) {
+                    types[t++] = (byte) type;
+                }
+            }
+            copyIndexed(node.getChildren(), indexes, children, childOffsets[i]);
+            copyIndexed(node.getParents(), indexes, parents, parentOffsets[i]);
+            int a = accessOffsets[i];
+            if (node.getVariableAccess() != null) {
+                for (VariableAccess va : node.getVariableAccess()) {
+                    String key = va.getAccessType() + va.getVariableName();
+                    Integer poolIndex = poolIndexes.get(key);
+                    if (poolIndex == null) {
+                        poolIndex = poolSize;
+                        poolIndexes.put(key, poolIndex);
+                        if (poolSize == pool.length) {
+                            VariableAccess[] newPool = new VariableAccess[poolSize * 2];
+                            System.arraycopy(pool, 0, newPool, 0, poolSize);
+                            pool = newPool;
+                        }
+                        pool[poolSize++] = va;
+                    }
+                    accesses[a++] = poolIndex;
+                }
+            }
+        }
+        accessPool = new VariableAccess[poolSize];
+        System.arraycopy(pool, 0, accessPool, 0, poolSize);
+
+        views = new CompactDataFlowNode[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            views[i] = new CompactDataFlowNode(i);
+        }
+        flow = Collections.unmodifiableList(new IndexList(0, nodeCount, null));
+    }
+
+    /**
+     * @return whether the data flow facades should compact each method's data flow
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Replaces a fully built and linked data flow by its compact copy. The AST
+     * nodes are pointed to the new {@link DataFlowNode} views, so the original
+     * nodes can be garbage collected afterwards.
+     *
+     * @param source the data flow of one method, in flow order
+     * @return the compact data flow
+     */
+    public static List<DataFlowNode> compact(List<DataFlowNode> source) {
+        CompactDataFlow compact = new CompactDataFlow(source);
+        for (int i = 0; i < compact.nodes.length; i++) {
+            if (compact.nodes[i] != null) {
+                compact.nodes[i].setDataFlowNode(compact.views[i]);
+            }
+        }
+        return compact.flow;
+    }
+
+    private static int countTypes(DataFlowNode node) {
+        int count = 0;
+        for (int type = 0; type <= NodeType.THROW_STATEMENT; type++) {
+            if (node.isType(type)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countIndexed(List<DataFlowNode> list, Map<DataFlowNode, Integer> indexes) {
+        int count = 0;
+        for (DataFlowNode n : list) {
+            if (indexes.containsKey(n)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void copyIndexed(List<DataFlowNode> list, Map<DataFlowNode, Integer> indexes, int[] target,
+            int offset) {
+        for (DataFlowNode n : list) {
+            Integer index = indexes.get(n);
+            if (index != null) {
+                target[offset++] = index;
+            }
+        }
+    }
+
+    /**
+     * List of views, either the whole flow (targets == null) or a slice of an edge array.
+     */
+    private final class IndexList extends AbstractList<DataFlowNode> {
+        private final int from;
+        private final int to;
+        private final int[] targets;
+
+        IndexList(int from, int to, int[] targets) {
+            this.from = from;
+            this.to = to;
+            this.targets = targets;
+        }
+
+        @Override
+        public DataFlowNode get(int i) {
+            if (i < 0 || i >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size());
+            }
+            return views[targets == null ? from + i : targets[from + i]];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    private final class CompactDataFlowNode implements DataFlowNode {
+        private final int index;
+
+        CompactDataFlowNode(int index) {
+            this.index = index;
+        }
+
+        public List<VariableAccess> getVariableAccess() {
+            int from = accessOffsets[index];
+            final int to = accessOffsets[index + 1];
+            if (from == to) {
+                return Collections.emptyList();
+            }
+            final int start = from;
+            return new AbstractList<VariableAccess>() {
+                @Override
+                public VariableAccess get(int i) {
+                    if (i < 0 || i >= to - start) {
+                        throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size());
+                    }
+                    return accessPool[accesses[start + i]];
+                }
+
+                @Override
+                public int size() {
+                    return to - start;
+                }
+            };
+        }
+
+        public int getLine() {
+            return lines[index];
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public boolean isType(int type) {
+            for (int t = typeOffsets[index]; t < typeOffsets[index + 1]; t++) {
+                if (types[t] == type) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public List<DataFlowNode> getChildren() {
+            return new IndexList(childOffsets[index], childOffsets[index + 1], children);
+        }
+
+        public List<DataFlowNode> getParents() {
+            return new IndexList(parentOffsets[index], parentOffsets[index + 1], parents);
+        }
+
+        public List<DataFlowNode> getFlow() {
+            return flow;
+        }
+
+        public Node getNode() {
+            return nodes[index];
+        }
+
+        public void setType(int type) {
+            throw new UnsupportedOperationException("compact data flow is read-only");
+        }
+
+        public void setVariableAccess(List<VariableAccess> variableAccess) {
+            throw new UnsupportedOperationException("compact data flow is read-only");
+        }
+
+        public void addPathToChild(DataFlowNode child) {
+            throw new UnsupportedOperationException("compact data flow is read-only");
+        }
+
+        public boolean removePathToChild(DataFlowNode child) {
+            throw new UnsupportedOperationException("compact data flow is read-only");
+        }
+
+        public void reverseParentPathsTo(DataFlowNode destination) {
+            throw new UnsupportedOperationException("compact data flow is read-only");
+        }
+
+        @Override
+        public String toString() {
+            Node node = getNode();
+            if (node == null) {
+                return index == 0 ? "Start node" : "End node";
+            }
+            StringBuilder res = new StringBuilder("DataFlowNode: line ").append(getLine()).append(", ");
+            for (int t = typeOffsets[index]; t < typeOffsets[index + 1]; t++) {
+                res.append('(').append(NodeType.stringFromType(types[t])).append(')');
+            }
+            res.append(", ").append(node.getClass().getSimpleName());
+            if (node.getImage() != null) {
+                res.append('(').append(node.getImage()).append(')');
+            }
+            return res.toString();
+        }
+    }
+}
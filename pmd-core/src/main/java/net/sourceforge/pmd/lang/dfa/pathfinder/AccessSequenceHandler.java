@@ -0,0 +1,23 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.dfa.pathfinder;
+
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.dfa.VariableAccess;
+
+/**
+ * Will be executed by the {@link DAAWorklistAnalyzer} for each variable access
+ * which directly follows another access to the same variable on at least one
+ * path through the data flow.
+ */
+public interface AccessSequenceHandler {
+
+    /**
+     * @param previousNode the node holding the preceding access
+     * @param previousAccessType the access type of the preceding access, see {@link VariableAccess}
+     * @param node the node holding the current access
+     * @param access the current access
+     */
+    void execute(DataFlowNode previousNode, int previousAccessType, DataFlowNode node, VariableAccess access);
+}
@@ -7,6 +7,7 @@ import javax.swing.tree.DefaultMutableTreeNode;
 
 import net.sourceforge.pmd.lang.dfa.DataFlowNode;
 import net.sourceforge.pmd.lang.dfa.NodeType;
+import net.sourceforge.pmd.lang.rule.RuleWatchdog;
 
 /**
  *         Finds all paths of a data flow. Each loop will be 0 or 2 times traversed ->
@@ -47,6 +48,7 @@ public class DAAPathFinder {
         int i = 0;
         boolean flag = true;
         do {
+            RuleWatchdog.checkCancelled();
             i++;
 //            System.out.println("Building path from " + currentPath.getLast());
             phase2(flag);
@@ -60,6 +62,7 @@ public class DAAPathFinder {
      * */
     private void phase2(boolean flag) {
         while (!currentPath.isEndNode()) { 
+            RuleWatchdog.checkCancelled();
             if (currentPath.isBranch() || currentPath.isFirstDoStatement()) {
                 if (flag) {
                     addNodeToTree();
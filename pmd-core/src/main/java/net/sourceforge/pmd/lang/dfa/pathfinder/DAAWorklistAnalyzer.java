@@ -0,0 +1,230 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.dfa.pathfinder;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.dfa.VariableAccess;
+
+/**
+ * Alternative to the {@link DAAPathFinder} which does not enumerate paths.
+ * <p/>
+ * Every variable access of the data flow is numbered and a forward "reaching
+ * accesses" analysis (the reaching definitions problem, extended to references
+ * and undefinitions) is solved with a worklist until a fixpoint is reached.
+ * Afterwards each access is paired with all accesses to the same variable that
+ * can directly precede it on some path, which is exactly the information the
+ * data flow anomaly analysis needs to detect DD, DU and UR anomalies.
+ * <p/>
+ * The cost is roughly linear in the number of nodes times the number of
+ * accesses, independent of the number of branches, and the result is never
+ * truncated. Each pair is reported once, no matter how many paths it lies on.
+ */
+public class DAAWorklistAnalyzer {
+
+    private final DataFlowNode rootNode;
+    private final AccessSequenceHandler handler;
+
+    private List<DataFlowNode> flow;
+    private Map<DataFlowNode, Integer> indexes;
+
+    private VariableAccess[] siteAccess;
+    private int[] siteNode;
+    private int[] siteVariable;
+    /** sites of node n are firstSite[n] .. firstSite[n + 1] - 1 */
+    private int[] firstSite;
+    private BitSet[] sitesByVariable;
+
+    public DAAWorklistAnalyzer(DataFlowNode rootNode, AccessSequenceHandler handler) {
+        this.rootNode = rootNode;
+        this.handler = handler;
+    }
+
+    public void run() {
+        flow = rootNode.getFlow();
+        int nodeCount = flow.size();
+        indexes = new IdentityHashMap<DataFlowNode, Integer>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            indexes.put(flow.get(i), i);
+        }
+
+        numberSites();
+        boolean[] reachable = findReachableNodes();
+        BitSet[] in = solve(reachable);
+        report(reachable, in);
+    }
+
+    /*
+     * Assigns an id to every variable access and interns the variable names.
+     * */
+    private void numberSites() {
+        int nodeCount = flow.size();
+        firstSite = new int[nodeCount + 1];
+        int siteCount = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            firstSite[n] = siteCount;
+            List<VariableAccess> accesses = flow.get(n).getVariableAccess();
+            if (accesses != null) {
+                siteCount += accesses.size();
+            }
+        }
+        firstSite[nodeCount] = siteCount;
+
+        siteAccess = new VariableAccess[siteCount];
+        siteNode = new int[siteCount];
+        siteVariable = new int[siteCount];
+        Map<String, Integer> variableIds = new HashMap<String, Integer>();
+        for (int n = 0; n < nodeCount; n++) {
+            List<VariableAccess> accesses = flow.get(n).getVariableAccess();
+            for (int s = firstSite[n]; s < firstSite[n + 1]; s++) {
+                VariableAccess va = accesses.get(s - firstSite[n]);
+                Integer id = variableIds.get(va.getVariableName());
+                if (id == null) {
+                    id = variableIds.size();
+                    variableIds.put(va.getVariableName(), id);
+                }
+                siteAccess[s] = va;
+                siteNode[s] = n;
+                siteVariable[s] = id;
+            }
+        }
+
+        sitesByVariable = new BitSet[variableIds.size()];
+        for (int v = 0; v < sitesByVariable.length; v++) {
+            sitesByVariable[v] = new BitSet(siteCount);
+        }
+        for (int s = 0; s < siteCount; s++) {
+            sitesByVariable[siteVariable[s]].set(s);
+        }
+    }
+
+    /*
+     * Only nodes reachable from the root node lie on a path, the others are ignored.
+     * */
+    private boolean[] findReachableNodes() {
+        boolean[] reachable = new boolean[flow.size()];
+        int[] stack = new int[flow.size()];
+        int top = 0;
+        Integer root = indexes.get(rootNode);
+        if (root == null) {
+            return reachable;
+        }
+        reachable[root] = true;
+        stack[top++] = root;
+        while (top > 0) {
+            DataFlowNode node = flow.get(stack[--top]);
+            for (DataFlowNode child : node.getChildren()) {
+                Integer c = indexes.get(child);
+                if (c != null && !reachable[c]) {
+                    reachable[c] = true;
+                    stack[top++] = c;
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /*
+     * Computes for each node the set of accesses which reach its entry,
+     * i.e. which are the last access to their variable on some path.
+     * */
+    private BitSet[] solve(boolean[] reachable) {
+        int nodeCount = flow.size();
+        BitSet[] gen = new BitSet[nodeCount];
+        BitSet[] kill = new BitSet[nodeCount];
+        BitSet[] in = new BitSet[nodeCount];
+        BitSet[] out = new BitSet[nodeCount];
+
+        // queue of node indexes, a node is never queued twice at the same time
+        int[] queue = new int[nodeCount];
+        boolean[] queued = new boolean[nodeCount];
+        int head = 0;
+        int size = 0;
+
+        for (int n = 0; n < nodeCount; n++) {
+            in[n] = new BitSet();
+            out[n] = new BitSet();
+            if (!reachable[n]) {
+                continue;
+            }
+            gen[n] = new BitSet();
+            kill[n] = new BitSet();
+            for (int s = firstSite[n + 1] - 1; s >= firstSite[n]; s--) {
+                // only the last access of each variable leaves the node
+                if (!kill[n].get(s)) {
+                    gen[n].set(s);
+                    kill[n].or(sitesByVariable[siteVariable[s]]);
+                }
+            }
+            queue[size++] = n;
+            queued[n] = true;
+        }
+
+        while (size > 0) {
+            int n = queue[head];
+            head = (head + 1) % nodeCount;
+            size--;
+            queued[n] = false;
+
+            DataFlowNode node = flow.get(n);
+            BitSet newIn = new BitSet();
+            for (DataFlowNode parent : node.getParents()) {
+                Integer p = indexes.get(parent);
+                if (p != null) {
+                    newIn.or(out[p]);
+                }
+            }
+            in[n] = newIn;
+
+            BitSet newOut = (BitSet) newIn.clone();
+            newOut.andNot(kill[n]);
+            newOut.or(gen[n]);
+            if (newOut.equals(out[n])) {
+                continue;
+            }
+            out[n] = newOut;
+            for (DataFlowNode child : node.getChildren()) {
+                Integer c = indexes.get(child);
+                if (c != null && reachable[c] && !queued[c]) {
+                    queue[(head + size) % nodeCount] = c;
+                    size++;
+                    queued[c] = true;
+                }
+            }
+        }
+        return in;
+    }
+
+    private void report(boolean[] reachable, BitSet[] in) {
+        // last site of a variable within the current node, valid if stamp matches
+        int[] lastSite = new int[sitesByVariable.length];
+        int[] stamp = new int[sitesByVariable.length];
+
+        for (int n = 0; n < flow.size(); n++) {
+            if (!reachable[n]) {
+                continue;
+            }
+            DataFlowNode node = flow.get(n);
+            for (int s = firstSite[n]; s < firstSite[n + 1]; s++) {
+                int v = siteVariable[s];
+                if (stamp[v] == n + 1) {
+                    handler.execute(node, siteAccess[lastSite[v]].getAccessType(), node, siteAccess[s]);
+                } else {
+                    BitSet reaching = (BitSet) in[n].clone();
+                    reaching.and(sitesByVariable[v]);
+                    for (int t = reaching.nextSetBit(0); t >= 0; t = reaching.nextSetBit(t + 1)) {
+                        handler.execute(flow.get(siteNode[t]), siteAccess[t].getAccessType(), node, siteAccess[s]);
+                    }
+                }
+                stamp[v] = n + 1;
+                lastSite[v] = s;
+            }
+        }
+    }
+}
@@ -9,6 +9,8 @@ import java.util.List;
 public abstract class AbstractReportNode {
     private List<AbstractReportNode> childNodes = new ArrayList<AbstractReportNode>();
     private AbstractReportNode parentNode = null;
+    /** the index of this node in the child list of its parent */
+    private int childIndex;
 
     /*
     * Number of all RuleViolations down to this node. At the moment it will
@@ -38,34 +40,22 @@ public abstract class AbstractReportNode {
         if (parentNode == null) {
             return null;
         }
-        int index = parentNode.getChildIndex(this);
-        if (index < 0) {
-            return null;
-        }
+        int index = childIndex;
         if (index >= parentNode.childNodes.size() - 1) {
             return null;
         }
         return parentNode.childNodes.get(index + 1);
     }
 
-    /**
-     * @return index The index of the x-th child of his parent.
-     */
-    private int getChildIndex(AbstractReportNode child) {
-        for (int i = 0; i < childNodes.size(); i++) {
-            if (childNodes.get(i).equals(child)) {
-                return i;
-            }
-        }
-        return -1;
-    }
-
     /**
      * Adds the child in front of any other childs.
      */
     public void addFirst(AbstractReportNode child) {
         childNodes.add(0, child);
         child.parentNode = this;
+        for (int i = 0; i < childNodes.size(); i++) {
+            childNodes.get(i).childIndex = i;
+        }
     }
 
     /**
@@ -74,6 +64,7 @@ public abstract class AbstractReportNode {
     public void add(AbstractReportNode child) {
         childNodes.add(child);
         child.parentNode = this;
+        child.childIndex = childNodes.size() - 1;
     }
 
     public void addNumberOfViolation(int number) {
@@ -3,7 +3,11 @@
  */
 package net.sourceforge.pmd.lang.dfa.report;
 
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
 import net.sourceforge.pmd.RuleViolation;
 
@@ -11,6 +15,45 @@ public class ReportTree implements Iterable<RuleViolation> {
 
 	private PackageNode rootNode = new PackageNode("");
 	private AbstractReportNode level;
+	/** the violations of each class node, to find duplicates without comparing every child */
+	private Map<AbstractReportNode, Set<ViolationKey>> violationsByClass = new IdentityHashMap<AbstractReportNode, Set<ViolationKey>>();
+
+	/**
+	 * The values {@link ViolationNode#equalsNode(AbstractReportNode)} compares.
+	 */
+	private static final class ViolationKey {
+		private final String filename;
+		private final int beginLine;
+		private final int beginColumn;
+		private final int endLine;
+		private final int endColumn;
+		private final String variableName;
+
+		ViolationKey(RuleViolation violation) {
+			filename = violation.getFilename();
+			beginLine = violation.getBeginLine();
+			beginColumn = violation.getBeginColumn();
+			endLine = violation.getEndLine();
+			endColumn = violation.getEndColumn();
+			variableName = violation.getVariableName();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ViolationKey)) {
+				return false;
+			}
+			ViolationKey other = (ViolationKey) obj;
+			return filename.equals(other.filename) && beginLine == other.beginLine
+					&& beginColumn == other.beginColumn && endLine == other.endLine
+					&& endColumn == other.endColumn && variableName.equals(other.variableName);
+		}
+
+		@Override
+		public int hashCode() {
+			return ((filename.hashCode() * 31 + beginLine) * 31 + beginColumn) * 31 + variableName.hashCode();
+		}
+	}
 
 	private class TreeIterator implements Iterator<RuleViolation> {
 
@@ -149,23 +192,14 @@ public class ReportTree implements Iterable<RuleViolation> {
 		 * Filters duplicated rule violations. Like the comparator in
 		 * RuleViolation if he already exists.
 		 */
-		ViolationNode tmp = new ViolationNode(violation);
-		if (!equalsNodeInLevel(level, tmp)) {
-			level.add(tmp);
+		Set<ViolationKey> violations = violationsByClass.get(level);
+		if (violations == null) {
+			violations = new HashSet<ViolationKey>();
+			violationsByClass.put(level, violations);
 		}
-	}
-
-	/**
-	 * Checks if node is a child of the level node.
-	 */
-	private boolean equalsNodeInLevel(AbstractReportNode level,
-			AbstractReportNode node) {
-		for (int i = 0; i < level.getChildCount(); i++) {
-			if (level.getChildAt(i).equalsNode(node)) {
-				return true;
-			}
+		if (violations.add(new ViolationKey(violation))) {
+			level.add(new ViolationNode(violation));
 		}
-		return false;
 	}
 
 	/**
@@ -207,6 +207,18 @@ public abstract class AbstractDelegateRule implements Rule {
 		 rule.addRuleChainVisit(astNodeName);
 	 }
 
+	 public List<String> getRequiredNodes() {
+		 return rule.getRequiredNodes();
+	 }
+
+	 public void addRequiredNode(Class<? extends Node> nodeClass) {
+		 rule.addRequiredNode(nodeClass);
+	 }
+
+	 public void addRequiredNode(String astNodeName) {
+		 rule.addRequiredNode(astNodeName);
+	 }
+
 	 public void start(RuleContext ctx) {
 		 rule.start(ctx);
 	 }
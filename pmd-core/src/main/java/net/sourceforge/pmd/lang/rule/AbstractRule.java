@@ -40,6 +40,7 @@ public abstract class AbstractRule extends AbstractPropertySource implements Rul
 	private boolean usesDFA;
 	private boolean usesTypeResolution;
 	private List<String> ruleChainVisits = new ArrayList<String>();
+	private List<String> requiredNodes = new ArrayList<String>();
 
 	public AbstractRule() {
 		definePropertyDescriptor(Rule.VIOLATION_SUPPRESS_REGEX_DESCRIPTOR);
@@ -65,6 +66,7 @@ public abstract class AbstractRule extends AbstractPropertySource implements Rul
 		otherRule.usesDFA = usesDFA;
 		otherRule.usesTypeResolution = usesTypeResolution;
 		otherRule.ruleChainVisits = copyRuleChainVisits();
+		otherRule.requiredNodes = new ArrayList<String>(requiredNodes);
 	}
 
 	private List<String> copyExamples() {
@@ -321,10 +323,7 @@ public abstract class AbstractRule extends AbstractPropertySource implements Rul
 	  * @see Rule#addRuleChainVisit(Class)
 	  */
 	 public void addRuleChainVisit(Class<? extends Node> nodeClass) {
-		 if (!nodeClass.getSimpleName().startsWith("AST")) {
-			 throw new IllegalArgumentException("Node class does not start with 'AST' prefix: " + nodeClass);
-		 }
-		 addRuleChainVisit(nodeClass.getSimpleName().substring("AST".length()));
+		 addRuleChainVisit(nodeName(nodeClass));
 	 }
 
 	 /**
@@ -336,6 +335,36 @@ public abstract class AbstractRule extends AbstractPropertySource implements Rul
 		 }
 	 }
 
+	 /**
+	  * @see Rule#getRequiredNodes()
+	  */
+	 public List<String> getRequiredNodes() {
+		 return requiredNodes;
+	 }
+
+	 /**
+	  * @see Rule#addRequiredNode(Class)
+	  */
+	 public void addRequiredNode(Class<? extends Node> nodeClass) {
+		 addRequiredNode(nodeName(nodeClass));
+	 }
+
+	 /**
+	  * @see Rule#addRequiredNode(String)
+	  */
+	 public void addRequiredNode(String astNodeName) {
+		 if (!requiredNodes.contains(astNodeName)) {
+			 requiredNodes.add(astNodeName);
+		 }
+	 }
+
+	 private static String nodeName(Class<? extends Node> nodeClass) {
+		 if (!nodeClass.getSimpleName().startsWith("AST")) {
+			 throw new IllegalArgumentException("Node class does not start with 'AST' prefix: " + nodeClass);
+		 }
+		 return nodeClass.getSimpleName().substring("AST".length());
+	 }
+
 	 /**
 	  * @see Rule#start(RuleContext)
 	  */
@@ -12,11 +12,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.RuleSet;
 import net.sourceforge.pmd.benchmark.Benchmark;
 import net.sourceforge.pmd.benchmark.Benchmarker;
+import net.sourceforge.pmd.benchmark.RuleProfiler;
 import net.sourceforge.pmd.lang.ast.Node;
 
 /**
@@ -35,6 +37,18 @@ public abstract class AbstractRuleChainVisitor implements RuleChainVisitor {
      */
     protected Map<String, List<Node>> nodeNameToNodes;
 
+    /**
+     * The node names present in the current AST.
+     */
+    private final PresentNodes presentNodes = new PresentNodes();
+
+    /**
+     * The bit in {@link #presentNodes} and the list in {@link #nodeNameToNodes}
+     * of each node name seen so far, so that indexing needs a single lookup
+     * per node.
+     */
+    private final Map<String, IndexedNodeName> indexedNodeNames = new HashMap<String, IndexedNodeName>();
+
     /**
      * @see RuleChainVisitor#add(RuleSet, Rule)
      */
@@ -59,6 +73,7 @@ public abstract class AbstractRuleChainVisitor implements RuleChainVisitor {
         indexNodes(nodes, ctx);
         long end = System.nanoTime();
         Benchmarker.mark(Benchmark.RuleChainVisit, end - start, 1);
+        ctx.setPresentNodes(presentNodes);
 
         // For each RuleSet, only if this source file applies
         for (Map.Entry<RuleSet, List<Rule>> entry : ruleSetRules.entrySet()) {
@@ -68,23 +83,47 @@ public abstract class AbstractRuleChainVisitor implements RuleChainVisitor {
 	            }
 
             // For each rule, allow it to visit the nodes it desires
+            RuleWatchdog watchdog = ctx.getRuleWatchdog();
+            boolean profile = RuleProfiler.isEnabled();
             start = System.nanoTime();
             for (Rule rule: entry.getValue()) {
                 int visits = 0;
-	        	if (!RuleSet.applies(rule, ctx.getLanguageVersion())) {
+	        	if (!RuleSet.applies(rule, ctx.getLanguageVersion()) || !presentNodes.applies(rule)) {
 	        	    continue;
 	        	}
-                final List<String> nodeNames = rule.getRuleChainVisits();
-                for (int j = 0; j < nodeNames.size(); j++) {
-                    List<Node> ns = nodeNameToNodes.get(nodeNames.get(j));
-                    for (Node node: ns) {
-                        // Visit with underlying Rule, not the RuleReference
-                        while (rule instanceof RuleReference) {
-                            rule = ((RuleReference)rule).getRule();
+                if (watchdog != null) {
+                    watchdog.start(rule, ctx);
+                }
+                String ruleName = rule.getName();
+                if (profile) {
+                    RuleProfiler.ruleStarted();
+                }
+                try {
+                    final List<String> nodeNames = rule.getRuleChainVisits();
+                    for (int j = 0; j < nodeNames.size(); j++) {
+                        List<Node> ns = nodeNameToNodes.get(nodeNames.get(j));
+                        for (Node node: ns) {
+                            RuleWatchdog.checkCancelled();
+                            // Visit with underlying Rule, not the RuleReference
+                            while (rule instanceof RuleReference) {
+                                rule = ((RuleReference)rule).getRule();
+                            }
+                            visit(rule, node, ctx);
                         }
-                        visit(rule, node, ctx);
+                        visits += ns.size();
+                        if (profile) {
+                            RuleProfiler.nodesVisited(nodeNames.get(j), ns.size());
+                        }
+                    }
+                } catch (RuleTimeoutException e) {
+                    ctx.getReport().addError(new Report.ProcessingError(e.getMessage(), ctx.getSourceCodeFilename()));
+                } finally {
+                    if (profile) {
+                        RuleProfiler.ruleFinished(ruleName, ctx.getSourceCodeFilename());
+                    }
+                    if (watchdog != null) {
+                        watchdog.stop();
                     }
-                    visits += ns.size();
                 }
                 end = System.nanoTime();
                 Benchmarker.mark(Benchmark.RuleChainRule, rule.getName(), end - start, visits);
@@ -107,9 +146,15 @@ public abstract class AbstractRuleChainVisitor implements RuleChainVisitor {
      * Index a single node for visitation by rules.
      */
     protected void indexNode(Node node) {
-        List<Node> nodes = nodeNameToNodes.get(node.toString());
-        if (nodes != null) {
-            nodes.add(node);
+        String nodeName = node.toString();
+        IndexedNodeName indexed = indexedNodeNames.get(nodeName);
+        if (indexed == null) {
+            indexed = new IndexedNodeName(presentNodes.bit(nodeName), nodeNameToNodes.get(nodeName));
+            indexedNodeNames.put(nodeName, indexed);
+        }
+        presentNodes.add(indexed.bit);
+        if (indexed.nodes != null) {
+            indexed.nodes.add(node);
         }
     }
 
@@ -164,5 +209,17 @@ public abstract class AbstractRuleChainVisitor implements RuleChainVisitor {
         for (List<Node> l: nodeNameToNodes.values()) {
             l.clear();
         }
+        presentNodes.clear();
+    }
+
+    private static final class IndexedNodeName {
+        private final int bit;
+        /** The nodes to visit, <code>null</code> if no rule visits them. */
+        private final List<Node> nodes;
+
+        IndexedNodeName(int bit, List<Node> nodes) {
+            this.bit = bit;
+            this.nodes = nodes;
+        }
     }
 }
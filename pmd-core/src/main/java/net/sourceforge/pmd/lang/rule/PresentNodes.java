@@ -0,0 +1,75 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.rule;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.Rule;
+
+/**
+ * The names of the AST nodes present in the file being analyzed. The
+ * {@link AbstractRuleChainVisitor} collects them while indexing the nodes, as
+ * a bit per node name. Rules, which declare {@link Rule#getRequiredNodes()},
+ * are skipped for files without any of these nodes.
+ */
+public final class PresentNodes {
+
+    /** The bit of each node name seen so far, kept from file to file. */
+    private final Map<String, Integer> bits = new HashMap<String, Integer>();
+    private final BitSet present = new BitSet();
+
+    /**
+     * Returns the bit of the given node name, assigning a new one for a name
+     * not seen before.
+     */
+    int bit(String nodeName) {
+        Integer bit = bits.get(nodeName);
+        if (bit == null) {
+            bit = bits.size();
+            bits.put(nodeName, bit);
+        }
+        return bit;
+    }
+
+    void add(int bit) {
+        present.set(bit);
+    }
+
+    void clear() {
+        present.clear();
+    }
+
+    /**
+     * Whether a node with the given name is present.
+     *
+     * @param nodeName the AST node name
+     * @return <code>true</code> if the file contains such a node
+     */
+    public boolean contains(String nodeName) {
+        Integer bit = bits.get(nodeName);
+        return bit != null && present.get(bit);
+    }
+
+    /**
+     * Whether the file contains one of the nodes required by the given Rule.
+     *
+     * @param rule the Rule
+     * @return <code>true</code> if the Rule has to be applied to the file
+     */
+    public boolean applies(Rule rule) {
+        List<String> requiredNodes = rule.getRequiredNodes();
+        if (requiredNodes.isEmpty()) {
+            return true;
+        }
+        for (String nodeName : requiredNodes) {
+            if (contains(nodeName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
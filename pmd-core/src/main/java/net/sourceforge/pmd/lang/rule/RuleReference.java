@@ -55,6 +55,30 @@ public class RuleReference extends AbstractDelegateRule {
 		ruleSetReference = theRuleSetReference;
 	}
 
+	/**
+	 * Copies the overridden values to the other reference. The referenced
+	 * Rule is not copied.
+	 *
+	 * @param otherReference The reference to copy the values to.
+	 */
+	public void deepCopyValuesTo(RuleReference otherReference) {
+		otherReference.language = language;
+		otherReference.minimumLanguageVersion = minimumLanguageVersion;
+		otherReference.maximumLanguageVersion = maximumLanguageVersion;
+		otherReference.deprecated = deprecated;
+		otherReference.name = name;
+		otherReference.propertyDescriptors = propertyDescriptors == null ? null
+				: new ArrayList<PropertyDescriptor<?>>(propertyDescriptors);
+		otherReference.propertyValues = propertyValues == null ? null
+				: new HashMap<PropertyDescriptor<?>, Object>(propertyValues);
+		otherReference.message = message;
+		otherReference.description = description;
+		otherReference.examples = examples == null ? null : new ArrayList<String>(examples);
+		otherReference.externalInfoUrl = externalInfoUrl;
+		otherReference.priority = priority;
+		otherReference.ruleSetReference = ruleSetReference;
+	}
+
 	@Override
 	public void setLanguage(Language language) {
 		// Only override if different than current value, or if already overridden.
@@ -0,0 +1,46 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.rule;
+
+/**
+ * Thrown on the thread of a rule which has been cancelled by the
+ * {@link RuleWatchdog}, in order to unwind the rule's visit of the AST.
+ */
+public class RuleTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String ruleName;
+    private final String fileName;
+    private final long elapsedMillis;
+    private final long timeoutMillis;
+
+    public RuleTimeoutException(String ruleName, String fileName, long elapsedMillis, long timeoutMillis) {
+        super("Rule " + ruleName + " exceeded its time budget of " + timeoutMillis + " ms on " + fileName
+                + " and was cancelled after " + elapsedMillis + " ms");
+        this.ruleName = ruleName;
+        this.fileName = fileName;
+        this.elapsedMillis = elapsedMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return the time the rule had been running on the file when it noticed the cancellation
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
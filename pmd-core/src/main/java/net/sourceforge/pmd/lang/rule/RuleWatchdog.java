@@ -0,0 +1,177 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.rule;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+
+/**
+ * Enforces a time budget for each rule on each file.
+ * <p/>
+ * The rule set and the rule chain {@link #start(Rule, RuleContext) start} and
+ * {@link #stop() stop} a watch around each rule they apply. A daemon thread
+ * periodically checks the running watches and marks the overdue ones as
+ * cancelled. Cancellation is cooperative: the visitor dispatch loops of the
+ * AST nodes, the rule chain and the XPath navigator call
+ * {@link #checkCancelled()}, which throws a {@link RuleTimeoutException} on
+ * the thread of a cancelled rule. The caller of the rule reports it as a
+ * processing error and continues with the next rule.
+ * <p/>
+ * As long as no rule is cancelled, {@link #checkCancelled()} only reads a
+ * single shared counter.
+ */
+public class RuleWatchdog {
+
+    private static final Logger LOG = Logger.getLogger(RuleWatchdog.class.getName());
+
+    /** number of cancelled watches, which have not been stopped yet */
+    private static final AtomicInteger CANCELLED = new AtomicInteger();
+
+    private static final ThreadLocal<Watch> CURRENT = new ThreadLocal<Watch>();
+
+    private final long timeoutMillis;
+    private final long timeoutNanos;
+    private final List<Watch> watches = new CopyOnWriteArrayList<Watch>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a watchdog and starts its thread.
+     *
+     * @param timeoutMillis the time budget of a rule on a single file
+     */
+    public RuleWatchdog(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("Rule timeout must be positive: " + timeoutMillis);
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        final long interval = Math.max(1, Math.min(100, timeoutMillis / 10));
+        thread = new Thread(new Runnable() {
+            public void run() {
+                while (running) {
+                    try {
+                        Thread.sleep(interval);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    cancelOverdueWatches();
+                }
+            }
+        }, "PMD Rule Watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Starts the watch of the current thread.
+     *
+     * @param rule the rule, which is about to be applied
+     * @param ctx the context, which provides the current file name
+     */
+    public void start(Rule rule, RuleContext ctx) {
+        Watch watch = CURRENT.get();
+        if (watch == null || watch.owner != this) {
+            watch = new Watch(this);
+            CURRENT.set(watch);
+            watches.add(watch);
+        }
+        watch.start(rule.getName(), ctx.getSourceCodeFilename(), System.nanoTime());
+    }
+
+    /**
+     * Stops the watch of the current thread, this resets a cancellation.
+     */
+    public void stop() {
+        Watch watch = CURRENT.get();
+        if (watch != null) {
+            watch.stop();
+        }
+    }
+
+    /**
+     * Stops the watchdog thread.
+     */
+    public void shutdown() {
+        running = false;
+        thread.interrupt();
+        watches.clear();
+    }
+
+    /**
+     * Called by long running loops of the rules: aborts the current rule, if it
+     * has been cancelled.
+     *
+     * @throws RuleTimeoutException if the current rule exceeded its time budget
+     */
+    public static void checkCancelled() {
+        if (CANCELLED.get() > 0) {
+            Watch watch = CURRENT.get();
+            if (watch != null && watch.cancelled) {
+                throw watch.timeout();
+            }
+        }
+    }
+
+    private void cancelOverdueWatches() {
+        long now = System.nanoTime();
+        for (Watch watch : watches) {
+            watch.cancelIfOverdue(now);
+        }
+    }
+
+    private static final class Watch {
+        private final RuleWatchdog owner;
+        private String ruleName;
+        private String fileName;
+        private long start;
+        private boolean active;
+        private volatile boolean cancelled;
+
+        Watch(RuleWatchdog owner) {
+            this.owner = owner;
+        }
+
+        synchronized void start(String ruleName, String fileName, long start) {
+            this.ruleName = ruleName;
+            this.fileName = fileName;
+            this.start = start;
+            this.active = true;
+        }
+
+        synchronized void stop() {
+            active = false;
+            if (cancelled) {
+                cancelled = false;
+                CANCELLED.decrementAndGet();
+            }
+        }
+
+        synchronized void cancelIfOverdue(long now) {
+            if (active && !cancelled && now - start > owner.timeoutNanos) {
+                cancelled = true;
+                CANCELLED.incrementAndGet();
+                if (LOG.isLoggable(Level.FINE)) {
+                    LOG.fine("Cancelling rule " + ruleName + " on file " + fileName);
+                }
+            }
+        }
+
+        synchronized RuleTimeoutException timeout() {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new RuleTimeoutException(ruleName, fileName, elapsed, owner.timeoutMillis);
+        }
+    }
+}
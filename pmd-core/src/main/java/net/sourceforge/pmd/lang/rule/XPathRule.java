@@ -34,6 +34,8 @@ public class XPathRule extends AbstractRule {
 			0, 2.0f);
 
 	private XPathRuleQuery xpathRuleQuery;
+	private boolean ruleChainVisitsAdded;
+	private boolean requiredNodesAdded;
 
 	public XPathRule() {
 		definePropertyDescriptor(XPATH_DESCRIPTOR);
@@ -82,7 +84,9 @@ public class XPathRule extends AbstractRule {
 
 	@Override
 	public List<String> getRuleChainVisits() {
-		if (init()) {
+		if (!ruleChainVisitsAdded) {
+			ruleChainVisitsAdded = true;
+			init();
 			for (String nodeName : xpathRuleQuery.getRuleChainVisits()) {
 				super.addRuleChainVisit(nodeName);
 			}
@@ -90,7 +94,23 @@ public class XPathRule extends AbstractRule {
 		return super.getRuleChainVisits();
 	}
 
-	private boolean init() {
+	/**
+	 * The nodes required by the rule are derived from the XPath expression,
+	 * see {@link XPathRuleQuery#getRequiredNodes()}.
+	 */
+	@Override
+	public List<String> getRequiredNodes() {
+		if (!requiredNodesAdded) {
+			requiredNodesAdded = true;
+			init();
+			for (String nodeName : xpathRuleQuery.getRequiredNodes()) {
+				super.addRequiredNode(nodeName);
+			}
+		}
+		return super.getRequiredNodes();
+	}
+
+	private void init() {
 		if (xpathRuleQuery == null) {
 			String xpath = getProperty(XPATH_DESCRIPTOR);
 			String version = (String) getProperty(VERSION_DESCRIPTOR);
@@ -102,9 +122,7 @@ public class XPathRule extends AbstractRule {
 			xpathRuleQuery.setXPath(xpath);
 			xpathRuleQuery.setVersion(version);
 			xpathRuleQuery.setProperties(this.getPropertiesByPropertyDescriptor());
-			return true;
 		}
-		return false;
 	}
 
 
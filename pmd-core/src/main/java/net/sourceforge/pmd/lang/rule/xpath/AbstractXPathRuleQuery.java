@@ -4,13 +4,26 @@
 package net.sourceforge.pmd.lang.rule.xpath;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import net.sourceforge.pmd.PropertyDescriptor;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.ast.Node;
 
+import org.jaxen.BaseXPath;
+import org.jaxen.JaxenException;
+import org.jaxen.expr.Expr;
+import org.jaxen.expr.LocationPath;
+import org.jaxen.expr.NameStep;
+import org.jaxen.expr.PathExpr;
+import org.jaxen.expr.Step;
+import org.jaxen.expr.UnionExpr;
+import org.jaxen.saxpath.Axis;
+
 /**
  * This implementation of XPathRuleQuery provides support for RuleChain visits.
  */
@@ -78,6 +91,52 @@ public abstract class AbstractXPathRuleQuery implements XPathRuleQuery {
         return ruleChainVisits;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The query can only select nodes with the names tested by the last step
+     * of its location paths, so one of these nodes must be present. Queries
+     * selecting anything else, or which can't be parsed as XPath 1.0, don't
+     * require any nodes.
+     */
+    public List<String> getRequiredNodes() {
+        Set<String> nodeNames = new LinkedHashSet<String>();
+        try {
+            if (!addSelectedNodeNames(new BaseXPath(xpath, null).getRootExpr(), nodeNames)) {
+                return Collections.emptyList();
+            }
+        } catch (JaxenException e) {
+            // e.g. XPath 2.0 syntax
+            return Collections.emptyList();
+        }
+        return new ArrayList<String>(nodeNames);
+    }
+
+    private static boolean addSelectedNodeNames(Expr expr, Set<String> nodeNames) {
+        if (expr instanceof UnionExpr) {
+            UnionExpr unionExpr = (UnionExpr) expr;
+            return addSelectedNodeNames(unionExpr.getLHS(), nodeNames)
+                    && addSelectedNodeNames(unionExpr.getRHS(), nodeNames);
+        } else if (expr instanceof PathExpr) {
+            LocationPath locationPath = ((PathExpr) expr).getLocationPath();
+            return locationPath != null && addSelectedNodeNames(locationPath, nodeNames);
+        } else if (expr instanceof LocationPath) {
+            List<?> steps = ((LocationPath) expr).getSteps();
+            if (steps.isEmpty()) {
+                return false;
+            }
+            Step last = (Step) steps.get(steps.size() - 1);
+            if (last instanceof NameStep && last.getAxis() != Axis.ATTRIBUTE && last.getAxis() != Axis.NAMESPACE) {
+                NameStep nameStep = (NameStep) last;
+                if ("".equals(nameStep.getPrefix()) && !"*".equals(nameStep.getLocalName())) {
+                    nodeNames.add(nameStep.getLocalName());
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * {@inheritDoc}
      */
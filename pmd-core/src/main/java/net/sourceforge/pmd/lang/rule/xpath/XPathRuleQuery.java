@@ -63,6 +63,13 @@ public interface XPathRuleQuery {
      */
     List<String> getRuleChainVisits();
 
+    /**
+     * Indicates the AST Nodes of which at least one must be present for the
+     * query to match anything, as far as it can be told from the query.
+     * @return The node names, empty if the query could match any AST.
+     */
+    List<String> getRequiredNodes();
+
     /**
      * Evaluate the XPath query against the given Node.
      * @param node The Node.
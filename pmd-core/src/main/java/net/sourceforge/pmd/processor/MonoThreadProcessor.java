@@ -3,9 +3,7 @@
  */
 package net.sourceforge.pmd.processor;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -40,7 +38,18 @@ public final class MonoThreadProcessor extends AbstractPMDProcessor {
 
 		RuleSets rs = createRuleSets(ruleSetFactory);
 		SourceCodeProcessor processor = new SourceCodeProcessor(configuration);
-		
+		RenderingStage renderingStage = new RenderingStage(this, renderers);
+		renderingStage.start();
+
+		try {
+			analyzeFiles(files, ctx, renderers, rs, processor, renderingStage);
+		} finally {
+			renderingStage.finish();
+		}
+	}
+
+	private void analyzeFiles(List<DataSource> files, RuleContext ctx, List<Renderer> renderers, RuleSets rs,
+			SourceCodeProcessor processor, RenderingStage renderingStage) {
 		for (DataSource dataSource : files) {
 			String niceFileName = filenameFrom(dataSource);
 					
@@ -56,9 +65,8 @@ public final class MonoThreadProcessor extends AbstractPMDProcessor {
 			}
 
 			try {
-				InputStream stream = new BufferedInputStream(dataSource.getInputStream());
 				ctx.setLanguageVersion(null);
-				processor.processSourceCode(stream, rs, ctx);
+				processor.processSourceCode(dataSource, rs, ctx);
 			} catch (PMDException pmde) {
 			    if (LOG.isLoggable(Level.FINE)) {
 			        LOG.log(Level.FINE, "Error while processing file: "+niceFileName, pmde.getCause());
@@ -74,7 +82,7 @@ public final class MonoThreadProcessor extends AbstractPMDProcessor {
 			}
 
 			rs.end(ctx);
-			super.renderReports(renderers, ctx.getReport());
+			renderingStage.render(ctx.getReport());
 		}
 	}
 
@@ -53,14 +53,19 @@ public class MultiThreadProcessor extends AbstractPMDProcessor {
 		}
 		executor.shutdown();
 
-		processReports(renderers, tasks);
-		
-		rs.end(ctx);
-		super.renderReports(renderers, ctx.getReport());
+		RenderingStage renderingStage = new RenderingStage(this, renderers);
+		renderingStage.start();
+		try {
+			processReports(renderingStage, tasks);
 
+			rs.end(ctx);
+			renderingStage.render(ctx.getReport());
+		} finally {
+			renderingStage.finish();
+		}
 	}
 
-	private void processReports(final List<Renderer> renderers, List<Future<Report>> tasks) throws Error {
+	private void processReports(final RenderingStage renderingStage, List<Future<Report>> tasks) throws Error {
 		
 		while (!tasks.isEmpty()) {
 			Future<Report> future = tasks.remove(0);
@@ -82,7 +87,9 @@ public class MultiThreadProcessor extends AbstractPMDProcessor {
 				}
 			}
 
-			super.renderReports(renderers, report);
+			if (report != null) {
+				renderingStage.render(report);
+			}
 		}
 	}
 
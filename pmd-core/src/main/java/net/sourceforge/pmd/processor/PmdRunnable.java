@@ -3,9 +3,7 @@
  */
 package net.sourceforge.pmd.processor;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -72,10 +70,8 @@ public class PmdRunnable extends PMD implements Callable<Report> {
 		}
 
 		try {
-			InputStream stream = new BufferedInputStream(
-					dataSource.getInputStream());
 			ctx.setLanguageVersion(null);
-			this.getSourceCodeProcessor().processSourceCode(stream, rs, ctx);
+			this.getSourceCodeProcessor().processSourceCode(dataSource, rs, ctx);
 		} catch (PMDException pmde) {
 		    if (LOG.isLoggable(Level.FINE)) {
 			LOG.log(Level.FINE, "Error while processing file: "+fileName, pmde.getCause());
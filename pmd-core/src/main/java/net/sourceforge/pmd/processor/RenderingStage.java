@@ -0,0 +1,220 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.renderers.Renderer;
+
+/**
+ * Renders the file reports on a dedicated thread, so that the analysis doesn't
+ * wait for the output. The reports are passed through a bounded queue and are
+ * rendered in batches. While the stage is running, the writers of the
+ * renderers are replaced by large buffers, which are only flushed to the
+ * original writer when they are full, or when a renderer flushes and the last
+ * flush is some time ago.
+ */
+final class RenderingStage implements Runnable {
+
+	static final int QUEUE_CAPACITY = 256;
+	static final int BATCH_SIZE = 64;
+	static final int BUFFER_SIZE = 64 * 1024;
+	static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+	/** Marks the end of the queue. */
+	private static final Report END = new Report();
+
+	private final AbstractPMDProcessor processor;
+	private final List<Renderer> renderers;
+	private final BlockingQueue<Report> queue = new ArrayBlockingQueue<Report>(QUEUE_CAPACITY);
+	private final Map<Renderer, Writer> originalWriters = new IdentityHashMap<Renderer, Writer>();
+	private final Thread thread;
+	private volatile Throwable failure;
+
+	RenderingStage(AbstractPMDProcessor processor, List<Renderer> renderers) {
+		this.processor = processor;
+		this.renderers = renderers;
+		thread = new Thread(this, "PmdRenderer");
+		thread.setDaemon(true);
+	}
+
+	public void start() {
+		for (Renderer renderer : renderers) {
+			Writer writer = renderer.getWriter();
+			if (writer != null) {
+				originalWriters.put(renderer, writer);
+				renderer.setWriter(new BufferingWriter(writer));
+			}
+		}
+		thread.start();
+	}
+
+	/**
+	 * Queues the report for rendering, blocks while the queue is full.
+	 *
+	 * @param report the report of a file
+	 */
+	public void render(Report report) {
+		rethrowFailure();
+		try {
+			queue.put(report);
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits until all queued reports have been rendered and restores the
+	 * writers of the renderers.
+	 */
+	public void finish() {
+		try {
+			queue.put(END);
+			thread.join();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		for (Map.Entry<Renderer, Writer> entry : originalWriters.entrySet()) {
+			Renderer renderer = entry.getKey();
+			if (renderer.getWriter() instanceof BufferingWriter) {
+				try {
+					((BufferingWriter) renderer.getWriter()).drain();
+				} catch (IOException ioe) {
+					// like AbstractPMDProcessor.renderReports
+				}
+				renderer.setWriter(entry.getValue());
+			}
+		}
+		rethrowFailure();
+	}
+
+	public void run() {
+		List<Report> batch = new ArrayList<Report>(BATCH_SIZE);
+		try {
+			while (true) {
+				batch.add(queue.take());
+				queue.drainTo(batch, BATCH_SIZE - 1);
+				for (Report report : batch) {
+					if (report == END) {
+						return;
+					}
+					// after a failure the queue is only drained
+					if (failure == null) {
+						renderReport(report);
+					}
+				}
+				batch.clear();
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void renderReport(Report report) {
+		try {
+			processor.renderReports(renderers, report);
+		} catch (RuntimeException re) {
+			failure = re;
+		} catch (Error e) {
+			failure = e;
+		}
+	}
+
+	private void rethrowFailure() {
+		Throwable t = failure;
+		if (t instanceof RuntimeException) {
+			throw (RuntimeException) t;
+		} else if (t instanceof Error) {
+			throw (Error) t;
+		}
+	}
+
+	/**
+	 * Collects the output of a renderer. Only flushes the original writer, if
+	 * the last flush is at least {@link RenderingStage#FLUSH_INTERVAL_MILLIS}
+	 * ago.
+	 */
+	private static final class BufferingWriter extends Writer {
+
+		private final Writer out;
+		private final char[] buffer = new char[BUFFER_SIZE];
+		private int count;
+		private long lastFlush = System.currentTimeMillis();
+
+		BufferingWriter(Writer out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			if (count == buffer.length) {
+				drain();
+			}
+			buffer[count++] = (char) c;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			if (len >= buffer.length) {
+				drain();
+				out.write(cbuf, off, len);
+				return;
+			}
+			if (count + len > buffer.length) {
+				drain();
+			}
+			System.arraycopy(cbuf, off, buffer, count, len);
+			count += len;
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			if (len >= buffer.length) {
+				drain();
+				out.write(str, off, len);
+				return;
+			}
+			if (count + len > buffer.length) {
+				drain();
+			}
+			str.getChars(off, off + len, buffer, count);
+			count += len;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			long now = System.currentTimeMillis();
+			if (now - lastFlush >= FLUSH_INTERVAL_MILLIS) {
+				drain();
+				out.flush();
+				lastFlush = now;
+			}
+		}
+
+		/**
+		 * Writes the collected output to the original writer, without
+		 * flushing it.
+		 */
+		void drain() throws IOException {
+			if (count > 0) {
+				out.write(buffer, 0, count);
+				count = 0;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			drain();
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,267 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.renderers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Renderer to a compact binary format, which is written incrementally and can
+ * be converted into any other report format later on with the
+ * {@link BinaryReportReader}.
+ * <p>
+ * The report starts with a header ({@link #MAGIC} and {@link #VERSION})
+ * followed by records. Each record is a tag byte, the length of its payload
+ * as variable length integer and the payload itself, so that readers can skip
+ * records they don't know. Strings and rules are written once into a table,
+ * when they are used for the first time, and are referenced by their index
+ * afterwards.
+ * <p>
+ * This renderer needs an {@link OutputStream}, see
+ * {@link #setOutputStream(OutputStream)}.
+ */
+public class BinaryRenderer extends AbstractIncrementingRenderer {
+
+    public static final String NAME = "binary";
+
+    /** The first four bytes of a binary report: "PMDB". */
+    public static final int MAGIC = 0x504D4442;
+
+    public static final int VERSION = 1;
+
+    static final int STRING = 1;
+    static final int RULE = 2;
+    static final int VIOLATION = 3;
+    static final int SUPPRESSED_VIOLATION = 4;
+    static final int PROCESSING_ERROR = 5;
+    static final int FILE_REPORT_END = 6;
+    static final int REPORT_END = 7;
+
+    static final String ENCODING = "UTF-8";
+
+    private OutputStream outputStream;
+    private DataOutputStream out;
+    private final Record record = new Record();
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    private final Map<Rule, Integer> rules = new IdentityHashMap<Rule, Integer>();
+
+    public BinaryRenderer() {
+	super(NAME, "Compact binary format.");
+    }
+
+    public String defaultFileExtension() {
+	return "pmdb";
+    }
+
+    /**
+     * Sets the stream the report is written to. It is closed by
+     * {@link #flush()}.
+     * @param outputStream The output stream.
+     */
+    public void setOutputStream(OutputStream outputStream) {
+	this.outputStream = outputStream;
+    }
+
+    public OutputStream getOutputStream() {
+	return outputStream;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start() throws IOException {
+	if (outputStream == null) {
+	    throw new IllegalStateException("The binary renderer needs an output stream, a writer is not sufficient");
+	}
+	out = new DataOutputStream(outputStream);
+	out.writeInt(MAGIC);
+	out.writeShort(VERSION);
+	strings.clear();
+	rules.clear();
+    }
+
+    /**
+     * Writes the records of the report immediately, processing errors and
+     * suppressed violations are not accumulated.
+     */
+    @Override
+    public void renderFileReport(Report report) throws IOException {
+	Iterator<RuleViolation> violations = report.iterator();
+	if (violations.hasNext()) {
+	    renderFileViolations(violations);
+	}
+	for (Iterator<Report.ProcessingError> i = report.errors(); i.hasNext();) {
+	    Report.ProcessingError error = i.next();
+	    int file = string(error.getFile());
+	    int msg = string(error.getMsg());
+	    record.writeVarInt(file);
+	    record.writeVarInt(msg);
+	    writeRecord(PROCESSING_ERROR);
+	}
+	if (showSuppressedViolations) {
+	    for (Report.SuppressedViolation suppressedViolation : report.getSuppressedRuleViolations()) {
+		int userMessage = string(suppressedViolation.getUserMessage());
+		writeViolation(suppressedViolation.getRuleViolation());
+		record.writeBoolean(suppressedViolation.suppressedByNOPMD());
+		record.writeVarInt(userMessage);
+		writeRecord(SUPPRESSED_VIOLATION);
+	    }
+	}
+	writeRecord(FILE_REPORT_END);
+	out.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void renderFileViolations(Iterator<RuleViolation> violations) throws IOException {
+	while (violations.hasNext()) {
+	    writeViolation(violations.next());
+	    writeRecord(VIOLATION);
+	}
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void end() throws IOException {
+	writeRecord(REPORT_END);
+	out.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flush() {
+	try {
+	    if (outputStream != null) {
+		outputStream.flush();
+	    }
+	} catch (IOException e) {
+	    throw new IllegalStateException(e);
+	} finally {
+	    IOUtils.closeQuietly(outputStream);
+	    IOUtils.closeQuietly(getWriter());
+	}
+    }
+
+    /**
+     * Writes the fields of the violation into the current record, after the
+     * table records of its rule and strings.
+     */
+    private void writeViolation(RuleViolation violation) throws IOException {
+	int rule = rule(violation.getRule());
+	int file = string(violation.getFilename());
+	int description = string(violation.getDescription());
+	int packageName = string(violation.getPackageName());
+	int className = string(violation.getClassName());
+	int methodName = string(violation.getMethodName());
+	int variableName = string(violation.getVariableName());
+	record.writeVarInt(rule);
+	record.writeVarInt(file);
+	record.writeVarInt(description);
+	record.writeVarInt(violation.getBeginLine());
+	record.writeVarInt(violation.getBeginColumn());
+	record.writeVarInt(violation.getEndLine());
+	record.writeVarInt(violation.getEndColumn());
+	record.writeVarInt(packageName);
+	record.writeVarInt(className);
+	record.writeVarInt(methodName);
+	record.writeVarInt(variableName);
+    }
+
+    /**
+     * @return the index of the rule, a table record is written when the rule
+     * is used for the first time
+     */
+    private int rule(Rule rule) throws IOException {
+	Integer index = rules.get(rule);
+	if (index == null) {
+	    int name = string(rule.getName());
+	    int ruleSetName = string(rule.getRuleSetName());
+	    int externalInfoUrl = string(rule.getExternalInfoUrl());
+	    record.writeVarInt(name);
+	    record.writeVarInt(ruleSetName);
+	    record.writeVarInt(rule.getPriority().getPriority());
+	    record.writeVarInt(externalInfoUrl);
+	    writeRecord(RULE);
+	    index = Integer.valueOf(rules.size());
+	    rules.put(rule, index);
+	}
+	return index.intValue();
+    }
+
+    /**
+     * @return the index of the string plus one, or 0 for <code>null</code>; a
+     * table record is written when the string is used for the first time
+     */
+    private int string(String string) throws IOException {
+	if (string == null) {
+	    return 0;
+	}
+	Integer index = strings.get(string);
+	if (index == null) {
+	    record.write(string.getBytes(ENCODING));
+	    writeRecord(STRING);
+	    index = Integer.valueOf(strings.size() + 1);
+	    strings.put(string, index);
+	}
+	return index.intValue();
+    }
+
+    private void writeRecord(int tag) throws IOException {
+	out.writeByte(tag);
+	writeVarInt(out, record.size());
+	record.writeTo(out);
+	record.reset();
+    }
+
+    /**
+     * Writes seven bits per byte, the high bit is set if more bytes follow.
+     * Negative values take five bytes.
+     */
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+	int v = value;
+	while ((v & ~0x7F) != 0) {
+	    out.writeByte(v & 0x7F | 0x80);
+	    v >>>= 7;
+	}
+	out.writeByte(v);
+    }
+
+    /**
+     * The payload of the record which is currently written.
+     */
+    private static class Record extends ByteArrayOutputStream {
+	private final DataOutputStream data = new DataOutputStream(this);
+
+	Record() {
+	    super(64);
+	}
+
+	void writeVarInt(int value) throws IOException {
+	    BinaryRenderer.writeVarInt(data, value);
+	}
+
+	void writeBoolean(boolean value) throws IOException {
+	    data.writeBoolean(value);
+	}
+    }
+}
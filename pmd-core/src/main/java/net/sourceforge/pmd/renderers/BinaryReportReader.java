@@ -0,0 +1,246 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.renderers;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.util.IOUtil;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Reads a report written by the {@link BinaryRenderer} and replays it into
+ * another {@link Renderer}, file report by file report. So the binary report
+ * can be converted into any other format without analyzing the sources again.
+ * <p>
+ * The rules of the replayed violations only carry the name, rule set name,
+ * priority and external info url of the original rules.
+ */
+public class BinaryReportReader {
+
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<String>();
+    private final List<Rule> rules = new ArrayList<Rule>();
+    private byte[] buffer = new byte[256];
+
+    /**
+     * @param in The binary report, it is not closed by the reader.
+     */
+    public BinaryReportReader(InputStream in) {
+	this.in = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+    }
+
+    /**
+     * Renders the binary report with the given renderer. The writer of the
+     * renderer must be set, and it is not flushed.
+     * @param renderer The renderer.
+     * @throws IOException if the report can't be read or rendered
+     */
+    public void replay(Renderer renderer) throws IOException {
+	if (in.readInt() != BinaryRenderer.MAGIC) {
+	    throw new IOException("Not a binary PMD report");
+	}
+	int version = in.readUnsignedShort();
+	if (version != BinaryRenderer.VERSION) {
+	    throw new IOException("Unsupported binary PMD report version " + version);
+	}
+
+	renderer.start();
+	Report report = new Report();
+	while (true) {
+	    int tag = in.readUnsignedByte();
+	    int length = readVarInt();
+	    switch (tag) {
+	    case BinaryRenderer.STRING:
+		strings.add(readString(length));
+		break;
+	    case BinaryRenderer.RULE:
+		rules.add(readRule());
+		break;
+	    case BinaryRenderer.VIOLATION:
+		report.addRuleViolation(readViolation());
+		break;
+	    case BinaryRenderer.SUPPRESSED_VIOLATION:
+		RuleViolation violation = readViolation();
+		boolean isNOPMD = in.readBoolean();
+		report.getSuppressedRuleViolations().add(
+			new Report.SuppressedViolation(violation, isNOPMD, string(readVarInt())));
+		break;
+	    case BinaryRenderer.PROCESSING_ERROR:
+		String file = string(readVarInt());
+		report.addError(new Report.ProcessingError(string(readVarInt()), file));
+		break;
+	    case BinaryRenderer.FILE_REPORT_END:
+		renderer.renderFileReport(report);
+		report = new Report();
+		break;
+	    case BinaryRenderer.REPORT_END:
+		renderer.end();
+		return;
+	    default:
+		// written by a newer version, skip it
+		in.readFully(buffer(length), 0, length);
+		break;
+	    }
+	}
+    }
+
+    private Rule readRule() throws IOException {
+	String name = string(readVarInt());
+	String ruleSetName = string(readVarInt());
+	RulePriority priority = RulePriority.valueOf(readVarInt());
+	Rule rule = new MockRule(name, null, null, ruleSetName, priority);
+	rule.setExternalInfoUrl(string(readVarInt()));
+	return rule;
+    }
+
+    private RuleViolation readViolation() throws IOException {
+	ReplayedViolation violation = new ReplayedViolation();
+	violation.rule = rules.get(readVarInt());
+	violation.filename = string(readVarInt());
+	violation.description = string(readVarInt());
+	violation.beginLine = readVarInt();
+	violation.beginColumn = readVarInt();
+	violation.endLine = readVarInt();
+	violation.endColumn = readVarInt();
+	violation.packageName = string(readVarInt());
+	violation.className = string(readVarInt());
+	violation.methodName = string(readVarInt());
+	violation.variableName = string(readVarInt());
+	return violation;
+    }
+
+    private String readString(int length) throws IOException {
+	byte[] bytes = buffer(length);
+	in.readFully(bytes, 0, length);
+	return new String(bytes, 0, length, BinaryRenderer.ENCODING);
+    }
+
+    private String string(int index) {
+	return index == 0 ? null : strings.get(index - 1);
+    }
+
+    private byte[] buffer(int length) {
+	if (buffer.length < length) {
+	    buffer = new byte[Math.max(length, buffer.length * 2)];
+	}
+	return buffer;
+    }
+
+    /**
+     * @see BinaryRenderer#writeVarInt(java.io.DataOutputStream, int)
+     */
+    private int readVarInt() throws IOException {
+	int value = 0;
+	for (int shift = 0; shift < 32; shift += 7) {
+	    int b = in.readUnsignedByte();
+	    value |= (b & 0x7F) << shift;
+	    if ((b & 0x80) == 0) {
+		return value;
+	    }
+	}
+	throw new IOException("Malformed variable length integer");
+    }
+
+    /**
+     * Converts a binary report into another format.
+     * <p>
+     * Usage: <code>BinaryReportReader &lt;binary report&gt; &lt;format&gt; [&lt;report file&gt;]</code>
+     * @param args The binary report, the report format and optionally the
+     *            report file, the report is written to the standard output
+     *            otherwise.
+     * @throws IOException if the report can't be converted
+     */
+    public static void main(String[] args) throws IOException {
+	if (args.length < 2) {
+	    System.err.println("Usage: " + BinaryReportReader.class.getName()
+		    + " <binary report> <format> [<report file>]");
+	    return;
+	}
+	Renderer renderer = RendererFactory.createRenderer(args[1], new Properties());
+	renderer.setShowSuppressedViolations(true);
+	renderer.setWriter(IOUtil.createWriter(args.length > 2 ? args[2] : null));
+	InputStream in = new FileInputStream(args[0]);
+	try {
+	    new BinaryReportReader(in).replay(renderer);
+	} finally {
+	    IOUtils.closeQuietly(in);
+	    renderer.flush();
+	}
+    }
+
+    private static class ReplayedViolation implements RuleViolation {
+	private Rule rule;
+	private String description;
+	private String filename;
+	private int beginLine;
+	private int beginColumn;
+	private int endLine;
+	private int endColumn;
+	private String packageName;
+	private String className;
+	private String methodName;
+	private String variableName;
+
+	public Rule getRule() {
+	    return rule;
+	}
+
+	public String getDescription() {
+	    return description;
+	}
+
+	public boolean isSuppressed() {
+	    return false;
+	}
+
+	public String getFilename() {
+	    return filename;
+	}
+
+	public int getBeginLine() {
+	    return beginLine;
+	}
+
+	public int getBeginColumn() {
+	    return beginColumn;
+	}
+
+	public int getEndLine() {
+	    return endLine;
+	}
+
+	public int getEndColumn() {
+	    return endColumn;
+	}
+
+	public String getPackageName() {
+	    return packageName;
+	}
+
+	public String getClassName() {
+	    return className;
+	}
+
+	public String getMethodName() {
+	    return methodName;
+	}
+
+	public String getVariableName() {
+	    return variableName;
+	}
+    }
+}
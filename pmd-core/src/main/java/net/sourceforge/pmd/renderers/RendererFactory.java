@@ -38,6 +38,7 @@ public class RendererFactory {
 	map.put(YAHTMLRenderer.NAME, YAHTMLRenderer.class);
 	map.put(SummaryHTMLRenderer.NAME, SummaryHTMLRenderer.class);
 	map.put(VBHTMLRenderer.NAME, VBHTMLRenderer.class);
+	map.put(BinaryRenderer.NAME, BinaryRenderer.class);
 	REPORT_FORMAT_TO_RENDERER = Collections.unmodifiableMap(map);
     }
 
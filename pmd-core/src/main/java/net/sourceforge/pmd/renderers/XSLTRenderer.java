@@ -9,30 +9,36 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
-import java.io.StringWriter;
-import java.io.Writer;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
 import net.sourceforge.pmd.lang.rule.properties.StringProperty;
 
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
+import org.apache.commons.io.IOUtils;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 
 /**
  * Renderer to XML format with a XSL Transformation applied.
- * 
+ * <p>
+ * The XML document is not written, the violations are passed as SAX events
+ * directly to the transformation. The compiled stylesheets are cached, so
+ * that they are only compiled once within a process.
+ *
  * @author Romain Pelisse, belaran@gmail.com
  */
 public class XSLTRenderer extends XMLRenderer {
@@ -41,9 +47,16 @@ public class XSLTRenderer extends XMLRenderer {
 
     public static final StringProperty XSLT_FILENAME = new StringProperty("xsltFilename", "The XSLT file name.", null, 0);
 
-    private Transformer transformer;
+    /**
+     * Compiled stylesheets by file path and modification time, or by resource
+     * name.
+     */
+    private static final Map<String, Templates> TEMPLATES = new HashMap<String, Templates>();
+    private static SAXTransformerFactory factory;
+
     private String xsltFilename = "/pmd-nicerhtml.xsl";
-    private Writer outputWriter;
+    private TransformerHandler handler;
+    private final AttributesImpl attributes = new AttributesImpl();
 
     public XSLTRenderer() {
 	super();
@@ -53,7 +66,7 @@ public class XSLTRenderer extends XMLRenderer {
     }
 
     public String defaultFileExtension() { return "xsl"; }
-    
+
     /**
      * {@inheritDoc}
      */
@@ -67,44 +80,121 @@ public class XSLTRenderer extends XMLRenderer {
 	    }
 	}
 
-	// We keep the inital writer to put the final html output
-	this.outputWriter = getWriter();
-	// We use a new one to store the XML...
-	Writer w = new StringWriter();
-	setWriter(w);
 	// If don't find the xsl no need to bother doing the all report,
 	// so we check this here...
-	InputStream xslt = null;
+	try {
+	    synchronized (TEMPLATES) {
+		handler = getFactory().newTransformerHandler(getTemplates());
+	    }
+	} catch (TransformerConfigurationException e) {
+	    throw new IOException("Can't compile XSLT sheet: " + this.xsltFilename, e);
+	}
+	handler.setResult(new StreamResult(getWriter()));
+
+	try {
+	    handler.startDocument();
+	    attributes.clear();
+	    addAttribute("version", PMD.VERSION);
+	    addAttribute("timestamp", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS").format(new Date()));
+	    startElement("pmd");
+	    lineBreak();
+	} catch (SAXException e) {
+	    throw new IOException(e);
+	}
+    }
+
+    /**
+     * @return the compiled stylesheet, from the cache if it has been compiled
+     *         before
+     */
+    private Templates getTemplates() throws IOException, TransformerConfigurationException {
 	File file = new File(this.xsltFilename);
+	String key;
 	if (file.exists() && file.canRead()) {
-	    xslt = new FileInputStream(file);
+	    key = file.getAbsolutePath() + '@' + file.lastModified();
 	} else {
-	    xslt = this.getClass().getResourceAsStream(this.xsltFilename);
+	    key = this.xsltFilename;
 	}
-	if (xslt == null) {
-	    throw new FileNotFoundException("Can't file XSLT sheet :" + this.xsltFilename);
+	Templates templates = TEMPLATES.get(key);
+	if (templates == null) {
+	    InputStream xslt;
+	    if (file.exists() && file.canRead()) {
+		xslt = new FileInputStream(file);
+	    } else {
+		xslt = this.getClass().getResourceAsStream(this.xsltFilename);
+	    }
+	    if (xslt == null) {
+		throw new FileNotFoundException("Can't file XSLT sheet :" + this.xsltFilename);
+	    }
+	    try {
+		templates = getFactory().newTemplates(new StreamSource(xslt));
+	    } finally {
+		IOUtils.closeQuietly(xslt);
+	    }
+	    TEMPLATES.put(key, templates);
 	}
-	this.prepareTransformer(xslt);
-	// Now we build the XML file
-	super.start();
+	return templates;
+    }
+
+    private static SAXTransformerFactory getFactory() throws TransformerConfigurationException {
+	if (factory == null) {
+	    TransformerFactory transformerFactory = TransformerFactory.newInstance();
+	    if (!transformerFactory.getFeature(SAXTransformerFactory.FEATURE)) {
+		throw new TransformerConfigurationException("The XSLT processor "
+			+ transformerFactory.getClass().getName() + " doesn't support SAX input");
+	    }
+	    factory = (SAXTransformerFactory) transformerFactory;
+	}
+	return factory;
     }
 
     /**
-     * Prepare the transformer, doing the proper "building"...
-     *
-     * @param xslt The stylesheet provided as an InputStream
+     * {@inheritDoc}
      */
-    private void prepareTransformer(InputStream xslt) {
-	if (xslt != null) {
-	    try {
-		//Get a TransformerFactory object
-		TransformerFactory factory = TransformerFactory.newInstance();
-		StreamSource src = new StreamSource(xslt);
-		//Get an XSL Transformer object
-		this.transformer = factory.newTransformer(src);
-	    } catch (TransformerConfigurationException e) {
-		e.printStackTrace();
+    @Override
+    public void renderFileViolations(Iterator<RuleViolation> violations) throws IOException {
+	String filename = null;
+	try {
+	    while (violations.hasNext()) {
+		RuleViolation rv = violations.next();
+		if (!rv.getFilename().equals(filename)) { // New File
+		    if (filename != null) {// Not first file ?
+			endElement("file");
+			lineBreak();
+		    }
+		    filename = rv.getFilename();
+		    attributes.clear();
+		    addAttribute("name", filename);
+		    startElement("file");
+		    lineBreak();
+		}
+
+		attributes.clear();
+		addAttribute("beginline", String.valueOf(rv.getBeginLine()));
+		addAttribute("endline", String.valueOf(rv.getEndLine()));
+		addAttribute("begincolumn", String.valueOf(rv.getBeginColumn()));
+		addAttribute("endcolumn", String.valueOf(rv.getEndColumn()));
+		addAttribute("rule", rv.getRule().getName());
+		addAttribute("ruleset", rv.getRule().getRuleSetName());
+		maybeAddAttribute("package", rv.getPackageName());
+		maybeAddAttribute("class", rv.getClassName());
+		maybeAddAttribute("method", rv.getMethodName());
+		maybeAddAttribute("variable", rv.getVariableName());
+		maybeAddAttribute("externalInfoUrl", rv.getRule().getExternalInfoUrl());
+		addAttribute("priority", String.valueOf(rv.getRule().getPriority().getPriority()));
+		startElement("violation");
+		lineBreak();
+		characters(rv.getDescription());
+		lineBreak();
+		endElement("violation");
+		lineBreak();
+	    }
+	    if (filename != null) { // Not first file ?
+		endElement("file");
+		lineBreak();
 	    }
+	} catch (SAXException e) {
+	    throw new IOException(e);
 	}
     }
 
@@ -113,44 +203,67 @@ public class XSLTRenderer extends XMLRenderer {
      */
     @Override
     public void end() throws IOException {
-	// First we finish the XML report
-	super.end();
-	// Now we transform it using XSLT
-	Writer writer = super.getWriter();
-	if (writer instanceof StringWriter) {
-	    StringWriter w = (StringWriter) writer;
-	    StringBuffer buffer = w.getBuffer();
-	    Document doc = this.getDocument(buffer.toString());
-	    this.transform(doc);
-	} else {
-	    // Should not happen !
-	    throw new RuntimeException("Wrong writer");
+	try {
+	    for (Report.ProcessingError pe : errors) {
+		attributes.clear();
+		addAttribute("filename", pe.getFile());
+		addAttribute("msg", pe.getMsg());
+		startElement("error");
+		endElement("error");
+		lineBreak();
+	    }
+
+	    if (showSuppressedViolations) {
+		for (Report.SuppressedViolation s : suppressed) {
+		    attributes.clear();
+		    addAttribute("filename", s.getRuleViolation().getFilename());
+		    addAttribute("suppressiontype", s.suppressedByNOPMD() ? "nopmd" : "annotation");
+		    addAttribute("msg", s.getRuleViolation().getDescription());
+		    addAttribute("usermsg", s.getUserMessage() == null ? "" : s.getUserMessage());
+		    startElement("suppressedviolation");
+		    endElement("suppressedviolation");
+		    lineBreak();
+		}
+	    }
+
+	    endElement("pmd");
+	    // the transformation is done now
+	    handler.endDocument();
+	} catch (SAXException e) {
+	    throw new IOException(e);
 	}
+    }
 
+    private void addAttribute(String name, String value) {
+	attributes.addAttribute("", name, name, "CDATA", value);
     }
 
-    private void transform(Document doc) {
-	DOMSource source = new DOMSource(doc);
-	this.setWriter(new StringWriter());
-	StreamResult result = new StreamResult(this.outputWriter);
-	try {
-	    transformer.transform(source, result);
-	} catch (TransformerException e) {
-	    e.printStackTrace();
+    private void maybeAddAttribute(String name, String value) {
+	if (value != null && value.length() > 0) {
+	    addAttribute(name, value);
 	}
     }
 
-    private Document getDocument(String xml) {
-	try {
-	    DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-	    return parser.parse(new InputSource(new StringReader(xml)));
-	} catch (ParserConfigurationException e) {
-	    e.printStackTrace();
-	} catch (SAXException e) {
-	    e.printStackTrace();
-	} catch (IOException e) {
-	    e.printStackTrace();
-	}
-	return null;
+    /**
+     * Starts the element with the current attributes.
+     */
+    private void startElement(String name) throws SAXException {
+	handler.startElement("", name, name, attributes);
+    }
+
+    private void endElement(String name) throws SAXException {
+	handler.endElement("", name, name);
+    }
+
+    /**
+     * The same whitespace as in the XML report, for stylesheets which copy
+     * text nodes.
+     */
+    private void lineBreak() throws SAXException {
+	characters(PMD.EOL);
+    }
+
+    private void characters(String text) throws SAXException {
+	handler.characters(text.toCharArray(), 0, text.length());
     }
 }
@@ -7,19 +7,45 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A utility class for finding files within a directory.
+ * <p>
+ * If more than one thread is configured, the directories are listed in
+ * parallel. The files are returned in the same order as with a single thread.
  */
 public class FileFinder {
 
     private FilenameFilter filter;
+    private final int threads;
     private static final String FILE_SEP = System.getProperty("file.separator");
 
+    public FileFinder() {
+        this(1);
+    }
+
+    /**
+     * @param threads the number of threads, which list the directories
+     */
+    public FileFinder(int threads) {
+        this.threads = threads;
+    }
+
     public List<File> findFilesFrom(File dir, FilenameFilter filter, boolean recurse) {
         this.filter = filter;
         List<File> files = new ArrayList<File>();
-        scanDirectory(dir, files, recurse);
+        if (recurse && threads > 1) {
+            scanInParallel(dir, files);
+        } else {
+            scanDirectory(dir, files, recurse);
+        }
         return files;
     }
 
@@ -42,4 +68,87 @@ public class FileFinder {
             }
         }
     }
+
+    /**
+     * Each directory is listed by a task, which submits a new task for every
+     * sub directory. The tasks never wait for each other, the results are
+     * merged in directory order by the calling thread.
+     */
+    private void scanInParallel(File dir, List<File> list) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ScannerThreadFactory());
+        try {
+            merge(executor.submit(new DirectoryScan(dir, executor)), list);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void merge(Future<List<Object>> scan, List<File> list) throws InterruptedException {
+        List<Object> entries;
+        try {
+            entries = scan.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+        for (Object entry : entries) {
+            if (entry instanceof File) {
+                list.add((File) entry);
+            } else {
+                @SuppressWarnings("unchecked")
+                Future<List<Object>> subDirectory = (Future<List<Object>>) entry;
+                merge(subDirectory, list);
+            }
+        }
+    }
+
+    /**
+     * Lists a directory. The result contains the files, and for each sub
+     * directory the future result of its scan.
+     */
+    private final class DirectoryScan implements Callable<List<Object>> {
+
+        private final File dir;
+        private final ExecutorService executor;
+
+        DirectoryScan(File dir, ExecutorService executor) {
+            this.dir = dir;
+            this.executor = executor;
+        }
+
+        public List<Object> call() {
+            String[] candidates = dir.list(filter);
+            if (candidates == null) {
+                return new ArrayList<Object>(0);
+            }
+            List<Object> entries = new ArrayList<Object>(candidates.length);
+            for (int i = 0; i < candidates.length; i++) {
+                File tmp = new File(dir + FILE_SEP + candidates[i]);
+                if (tmp.isDirectory()) {
+                    entries.add(executor.submit(new DirectoryScan(tmp, executor)));
+                } else {
+                    entries.add(tmp);
+                }
+            }
+            return entries;
+        }
+    }
+
+    private static final class ScannerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "PmdFileFinder " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -59,15 +59,29 @@ public final class FileUtil {
      * @return A list of DataSources, one for each file collected.
      */
     public static List<DataSource> collectFiles(String fileLocations, FilenameFilter filenameFilter) {
+	return collectFiles(fileLocations, filenameFilter, 1);
+    }
+
+    /**
+     * Collects a list of DataSources like
+     * {@link #collectFiles(String, FilenameFilter)}, but lists the directories
+     * with several threads.
+     *
+     * @param fileLocations A comma-separated list of file locations.
+     * @param filenameFilter  The FilenameFilter to apply to files.
+     * @param threads The number of threads to list the directories with.
+     * @return A list of DataSources, one for each file collected.
+     */
+    public static List<DataSource> collectFiles(String fileLocations, FilenameFilter filenameFilter, int threads) {
 	List<DataSource> dataSources = new ArrayList<DataSource>();
 	for (String fileLocation : fileLocations.split(",")) {
-	    collect(dataSources, fileLocation, filenameFilter);
+	    collect(dataSources, fileLocation, filenameFilter, threads);
 	}
 	return dataSources;
     }
 
     private static List<DataSource> collect(List<DataSource> dataSources, String fileLocation,
-	    FilenameFilter filenameFilter) {
+	    FilenameFilter filenameFilter, int threads) {
 	File file = new File(fileLocation);
 	if (!file.exists()) {
 	    throw new RuntimeException("File " + file.getName() + " doesn't exist");
@@ -96,7 +110,7 @@ public final class FileUtil {
 	    Filter<File> filter = new OrFilter<File>(Filters.toFileFilter(filenameFilter), new AndFilter<File>(Filters
 		    .getDirectoryFilter(), Filters.toNormalizedFileFilter(Filters.buildRegexFilterExcludeOverInclude(
 		    null, Collections.singletonList("SCCS")))));
-	    FileFinder finder = new FileFinder();
+	    FileFinder finder = new FileFinder(threads);
 	    List<File> files = finder.findFilesFrom(file, Filters.toFilenameFilter(filter), true);
 	    for (File f : files) {
 		dataSources.add(new FileDataSource(f));
@@ -3,13 +3,32 @@
  */
 package net.sourceforge.pmd.util;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.io.IOUtils;
 
 /**
  * 
@@ -17,6 +36,16 @@ import java.io.Writer;
  */
 public final class IOUtil {
 
+    /**
+     * Files larger than this are memory mapped, smaller files are read into a
+     * heap buffer.
+     */
+    static final int MAPPING_THRESHOLD = 1024 * 1024;
+
+    /** Charsets, which encode the ASCII characters as single bytes < 0x80. */
+    private static final Set<String> ASCII_COMPATIBLE_CHARSETS = new HashSet<String>(Arrays.asList("US-ASCII",
+            "UTF-8", "ISO-8859-1", "ISO-8859-15", "windows-1252"));
+
     private IOUtil() {
     }
 
@@ -32,6 +61,15 @@ public final class IOUtil {
         }
     }
 
+    public static OutputStream createOutputStream(String reportFile) {
+        try {
+            return StringUtil.isEmpty(reportFile) ? System.out : new BufferedOutputStream(new FileOutputStream(
+                    reportFile));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
     public static Reader skipBOM(Reader source) {
         Reader in = new BufferedReader(source);
         try {
@@ -45,4 +83,98 @@ public final class IOUtil {
         }
         return in;
     }
+
+    /**
+     * Reads and decodes the complete file at once. The file is read with a
+     * single bulk read, or memory mapped if it is large, and decoded into one
+     * char buffer. For ASCII compatible encodings, the leading ASCII bytes are
+     * copied without a decoder, which covers most source files completely.
+     * Malformed input is replaced, like an {@link java.io.InputStreamReader}
+     * does.
+     *
+     * @param file the file to read
+     * @param encoding the encoding of the file
+     * @return the content of the file, backed by an array
+     * @throws UnsupportedEncodingException if the encoding is not supported
+     * @throws IOException if the file can't be read
+     */
+    public static CharBuffer readFully(File file, String encoding) throws IOException {
+        Charset charset;
+        try {
+            charset = Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedEncodingException(encoding);
+        }
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large: " + file);
+            }
+            ByteBuffer bytes;
+            if (size > MAPPING_THRESHOLD) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                bytes = ByteBuffer.allocate((int) size);
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                    // read until the buffer is full
+                }
+                bytes.flip();
+            }
+            return decode(bytes, charset);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    static CharBuffer decode(ByteBuffer bytes, Charset charset) throws CharacterCodingException {
+        int start = bytes.position();
+        int length = bytes.remaining();
+        int ascii = 0;
+        char[] chars = null;
+        if (ASCII_COMPATIBLE_CHARSETS.contains(charset.name())) {
+            chars = new char[length];
+            while (ascii < length) {
+                byte b = bytes.get(start + ascii);
+                if (b < 0) {
+                    break;
+                }
+                chars[ascii++] = (char) b;
+            }
+            if (ascii == length) {
+                return CharBuffer.wrap(chars);
+            }
+            bytes.position(start + ascii);
+        }
+
+        CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer out = CharBuffer.allocate(ascii + (int) (bytes.remaining() * decoder.averageCharsPerByte()) + 16);
+        if (chars != null) {
+            out.put(chars, 0, ascii);
+        }
+        CoderResult result = decoder.decode(bytes, out, true);
+        while (result.isOverflow()) {
+            out = grow(out);
+            result = decoder.decode(bytes, out, true);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        result = decoder.flush(out);
+        while (result.isOverflow()) {
+            out = grow(out);
+            result = decoder.flush(out);
+        }
+        out.flip();
+        return out;
+    }
+
+    private static CharBuffer grow(CharBuffer buffer) {
+        CharBuffer grown = CharBuffer.allocate(buffer.capacity() * 2 + 16);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
 }
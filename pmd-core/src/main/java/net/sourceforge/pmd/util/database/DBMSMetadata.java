@@ -14,6 +14,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -55,6 +56,25 @@ public class DBMSMetadata
    */
   private final static String GET_SOURCE_CODE_STATEMENT = "getSourceCodeStatement" ;
 
+  /**
+   * Optional DBType property specifying a query to retrieve the code of several Source Objects of the same schema and
+   * type at once.
+   * 
+   * <p>The query parameters are the schema, the type and the first and last name of the Source Objects. 
+   * The query returns the source code line by line in the columns PROCEDURE_NAME and TEXT, ordered by name and line. 
+   * </p>
+   */
+  private final static String GET_SOURCE_CODE_BATCH_STATEMENT = "getSourceCodeBatchStatement" ;
+
+  /**
+   * Optional DBType property specifying a query to fetch the last DDL timestamps of the Source Objects of a schema.
+   * 
+   * <p>The query parameter is the schema. The query returns the columns PROCEDURE_TYPE, PROCEDURE_NAME and 
+   * LAST_DDL_TIME, the timestamp as a string. 
+   * </p>
+   */
+  private final static String GET_SOURCE_OBJECT_TIMESTAMPS_STATEMENT = "getSourceObjectTimestampsStatement" ;
+
   /**
    * DBURI
    */
@@ -75,11 +95,26 @@ public class DBMSMetadata
    */
   protected String  returnSourceCodeStatement = null ;
 
+  /**
+   * Query to return the source code of several source code objects.  
+   */
+  protected String  returnSourceCodeBatchStatement = null ;
+
+  /**
+   * Query to return the last DDL timestamps of the source code objects of a schema.  
+   */
+  protected String  returnSourceObjectTimestampsStatement = null ;
+
   /**
    * CallableStatement to return source code.  
    */
   protected CallableStatement callableStatement = null;
 
+  /**
+   * PreparedStatement to return the source code of several source code objects.  
+   */
+  protected PreparedStatement batchStatement = null;
+
   /**
    * {@link java.sql.Types} value representing the type returned by {@link callableStatement}
    * 
@@ -191,6 +226,8 @@ public class DBMSMetadata
       this.dburi = dbURI;
       this.returnSourceCodeObjectsStatement = dbURI.getDbType().getProperties().getProperty(GET_SOURCE_OBJECTS_STATEMENT);
       this.returnSourceCodeStatement = dbURI.getDbType().getProperties().getProperty(GET_SOURCE_CODE_STATEMENT);
+      this.returnSourceCodeBatchStatement = dbURI.getDbType().getProperties().getProperty(GET_SOURCE_CODE_BATCH_STATEMENT);
+      this.returnSourceObjectTimestampsStatement = dbURI.getDbType().getProperties().getProperty(GET_SOURCE_OBJECT_TIMESTAMPS_STATEMENT);
       this.returnType =  dbURI.getSourceCodeType();
       if (LOGGER.isLoggable(Level.FINE)) {
           LOGGER.fine("returnSourceCodeStatement="+returnSourceCodeStatement +", returnType="+returnType);
@@ -268,6 +305,189 @@ public class DBMSMetadata
 	    ;
   }
 
+  /**
+   * Is there a DBType statement to retrieve the source code of several source code objects at once?
+   * 
+   * @return true if {@link #getSourceCode(List)} can be used
+   */
+  public boolean hasSourceCodeBatchStatement()
+  {
+    return null != returnSourceCodeBatchStatement;
+  }
+
+  /**
+   * Return the source code text of several source code objects with a single query.
+   * 
+   * <p>The source code objects must have the same schema and type, and be sorted by name.
+   * Source code objects, which the query does not return, are missing from the result.
+   * </p>
+   * 
+   * @param sourceObjects source code objects of the same schema and type
+   * @return source code text by source code name
+   * @throws SQLException on failing to retrieve the source code text
+   */
+  public Map<String, String> getSourceCode (List<SourceObject> sourceObjects)
+  throws SQLException
+  {
+    SourceObject first = sourceObjects.get(0);
+    SourceObject last = sourceObjects.get(sourceObjects.size() - 1);
+
+    /* Only define batchStatement once and reuse it for subsequent calls */ 
+    if (null == batchStatement)
+    {
+      if (LOGGER.isLoggable(Level.FINEST)) {
+        LOGGER.finest("getSourceCode: returnSourceCodeBatchStatement=\""+returnSourceCodeBatchStatement+"\"");
+      }
+      batchStatement = getConnection().prepareStatement(returnSourceCodeBatchStatement);
+    }
+
+    batchStatement.setString(1, first.getSchema());
+    batchStatement.setString(2, first.getType());
+    batchStatement.setString(3, first.getName());
+    batchStatement.setString(4, last.getName());
+
+    Map<String, StringBuilder> sourceCode = new HashMap<String, StringBuilder>();
+    ResultSet lines = batchStatement.executeQuery();
+    try
+    {
+      while (lines.next())
+      {
+        String name = lines.getString("PROCEDURE_NAME");
+        StringBuilder text = sourceCode.get(name);
+        if (null == text)
+        {
+          text = new StringBuilder();
+          sourceCode.put(name, text);
+        }
+        String line = lines.getString("TEXT");
+        if (null != line)
+        {
+          text.append(line);
+        }
+      }
+    }
+    finally
+    {
+      lines.close();
+    }
+
+    Map<String, String> result = new HashMap<String, String>();
+    for (SourceObject sourceObject : sourceObjects)
+    {
+      StringBuilder text = sourceCode.get(sourceObject.getName());
+      if (null != text)
+      {
+        result.put(sourceObject.getName(), text.toString());
+      }
+    }
+    LOGGER.log(Level.FINER, "Retrieved source code of {0} of {1} objects from {2} to {3}"
+               , new Object[] { result.size(), sourceObjects.size(), first.getName(), last.getName() });
+    return result;
+  }
+
+  /**
+   * Is there a DBType statement to retrieve the last DDL timestamps of the source code objects?
+   * 
+   * @return true if {@link #assignTimestamps(List)} can be used
+   */
+  public boolean hasSourceObjectTimestampsStatement()
+  {
+    return null != returnSourceObjectTimestampsStatement;
+  }
+
+  /**
+   * Set the revision of the source code objects to their last DDL timestamp, with one query per schema.
+   * 
+   * <p>Source code objects, which the query does not return, keep their revision.
+   * </p>
+   * 
+   * @param sourceObjects source code objects
+   * @throws SQLException on failing to retrieve the timestamps
+   */
+  public void assignTimestamps (List<SourceObject> sourceObjects)
+  throws SQLException
+  {
+    Map<String, List<SourceObject>> sourceObjectsBySchema = new HashMap<String, List<SourceObject>>();
+    for (SourceObject sourceObject : sourceObjects)
+    {
+      List<SourceObject> schemaObjects = sourceObjectsBySchema.get(sourceObject.getSchema());
+      if (null == schemaObjects)
+      {
+        schemaObjects = new ArrayList<SourceObject>();
+        sourceObjectsBySchema.put(sourceObject.getSchema(), schemaObjects);
+      }
+      schemaObjects.add(sourceObject);
+    }
+
+    PreparedStatement timestampsStatement = getConnection().prepareStatement(returnSourceObjectTimestampsStatement);
+    try
+    {
+      for (Map.Entry<String, List<SourceObject>> schemaObjects : sourceObjectsBySchema.entrySet())
+      {
+        Map<String, String> timestamps = new HashMap<String, String>();
+        timestampsStatement.setString(1, schemaObjects.getKey());
+        ResultSet rows = timestampsStatement.executeQuery();
+        try
+        {
+          while (rows.next())
+          {
+            timestamps.put(rows.getString("PROCEDURE_TYPE") + "/" + rows.getString("PROCEDURE_NAME")
+                           , rows.getString("LAST_DDL_TIME"));
+          }
+        }
+        finally
+        {
+          rows.close();
+        }
+
+        for (SourceObject sourceObject : schemaObjects.getValue())
+        {
+          String timestamp = timestamps.get(sourceObject.getType() + "/" + sourceObject.getName());
+          if (null != timestamp)
+          {
+            sourceObject.setRevision(timestamp);
+          }
+        }
+        LOGGER.log(Level.FINER, "Retrieved {0} timestamps of schema {1}"
+                   , new Object[] { timestamps.size(), schemaObjects.getKey() });
+      }
+    }
+    finally
+    {
+      timestampsStatement.close();
+    }
+  }
+
+  /**
+   * Close the statements and the JDBC connection.
+   * 
+   * @throws SQLException on failing to close the connection
+   */
+  public void close()
+  throws SQLException
+  {
+    try
+    {
+      if (null != callableStatement)
+      {
+        callableStatement.close();
+        callableStatement = null;
+      }
+      if (null != batchStatement)
+      {
+        batchStatement.close();
+        batchStatement = null;
+      }
+    }
+    finally
+    {
+      if (null != connection)
+      {
+        connection.close();
+      }
+    }
+  }
+
   /**
    * Return all source code objects associated with any associated DBURI.
    * @return 
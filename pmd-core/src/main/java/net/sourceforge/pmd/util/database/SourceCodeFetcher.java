@@ -0,0 +1,243 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.util.database;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Retrieves the source code of {@link SourceObject}s on demand, when they are analyzed.
+ *
+ * <p>The source code is retrieved over a small pool of connections, so that several threads can retrieve source code
+ * at the same time. The size of the pool is the DBType property or DBURI parameter <code>connectionPoolSize</code>
+ * (default 1).
+ * </p>
+ *
+ * <p>If the DBType defines a <code>getSourceCodeBatchStatement</code>, the Source Objects of the same schema and type
+ * are retrieved in batches of <code>sourceCodeBatchSize</code> objects (default 100) with a single query. The source
+ * code of a batch is kept until each of its objects has been requested.
+ * Objects missing from the batch result are retrieved one by one with the <code>getSourceCodeStatement</code>.
+ * </p>
+ *
+ * <p>Once the source code of all objects has been requested or skipped, the connections are closed.
+ * </p>
+ */
+public class SourceCodeFetcher {
+
+  private static final Logger LOGGER = Logger.getLogger(SourceCodeFetcher.class.getName());
+
+  /**
+   * DBType property or DBURI parameter specifying the maximum number of connections.
+   */
+  static final String CONNECTION_POOL_SIZE = "connectionPoolSize";
+
+  /**
+   * DBType property or DBURI parameter specifying the number of Source Objects retrieved by one batch query.
+   */
+  static final String SOURCE_CODE_BATCH_SIZE = "sourceCodeBatchSize";
+
+  private final DBURI dbURI;
+  private final int connectionPoolSize;
+  private final BlockingQueue<DBMSMetadata> idleConnections = new LinkedBlockingQueue<DBMSMetadata>();
+  private int connections; // guarded by this
+
+  private final Map<SourceObject, Batch> batches = new IdentityHashMap<SourceObject, Batch>();
+  private final AtomicInteger remaining;
+
+  /**
+   * @param dbmsMetadata the connection the Source Objects have been found with, it becomes part of the pool
+   * @param dbURI the DBURI to open further connections with
+   * @param sourceObjects the Source Objects, in the order they are going to be analyzed
+   */
+  public SourceCodeFetcher(DBMSMetadata dbmsMetadata, DBURI dbURI, List<SourceObject> sourceObjects) {
+    this.dbURI = dbURI;
+    Properties settings = new Properties();
+    settings.putAll(dbURI.getDbType().getProperties());
+    if (null != dbURI.getParameters()) {
+      settings.putAll(dbURI.getParameters());
+    }
+    this.connectionPoolSize = Math.max(1, Integer.parseInt(settings.getProperty(CONNECTION_POOL_SIZE, "1")));
+    this.connections = 1;
+    this.idleConnections.add(dbmsMetadata);
+    this.remaining = new AtomicInteger(sourceObjects.size());
+
+    if (dbmsMetadata.hasSourceCodeBatchStatement()) {
+      int batchSize = Math.max(1, Integer.parseInt(settings.getProperty(SOURCE_CODE_BATCH_SIZE, "100")));
+      Batch batch = null;
+      for (SourceObject sourceObject : sourceObjects) {
+        if (batch == null || !batch.accepts(sourceObject, batchSize)) {
+          batch = new Batch();
+        }
+        batch.sourceObjects.add(sourceObject);
+        batches.put(sourceObject, batch);
+      }
+    }
+    LOGGER.log(Level.FINE, "Retrieving the source code of {0} objects with at most {1} connections",
+        new Object[] { sourceObjects.size(), connectionPoolSize });
+  }
+
+  /**
+   * Return the source code text of a Source Object.
+   *
+   * @param sourceObject one of the Source Objects of this fetcher
+   * @return source code
+   * @throws IOException on failing to retrieve the source code
+   */
+  public Reader getSourceCode(SourceObject sourceObject) throws IOException {
+    try {
+      String sourceCode = null;
+      Batch batch = batches.get(sourceObject);
+      if (batch != null) {
+        sourceCode = batch.take(sourceObject);
+      }
+      if (sourceCode == null) {
+        sourceCode = retrieve(sourceObject);
+      }
+      return new StringReader(sourceCode);
+    } finally {
+      if (remaining.decrementAndGet() == 0) {
+        close();
+      }
+    }
+  }
+
+  /**
+   * Skip a Source Object, whose source code is not going to be requested.
+   *
+   * @param sourceObject one of the Source Objects of this fetcher
+   */
+  public void skip(SourceObject sourceObject) {
+    Batch batch = batches.get(sourceObject);
+    if (batch != null) {
+      batch.skip(sourceObject);
+    }
+    if (remaining.decrementAndGet() == 0) {
+      close();
+    }
+  }
+
+  private String retrieve(SourceObject sourceObject) throws IOException {
+    DBMSMetadata dbmsMetadata = acquire();
+    try {
+      Reader reader = dbmsMetadata.getSourceCode(sourceObject);
+      try {
+        return IOUtils.toString(reader);
+      } finally {
+        IOUtils.closeQuietly(reader);
+      }
+    } catch (SQLException e) {
+      throw new IOException("Cannot get SourceCode for " + sourceObject.getPseudoFileName(), e);
+    } finally {
+      idleConnections.add(dbmsMetadata);
+    }
+  }
+
+  private DBMSMetadata acquire() throws IOException {
+    DBMSMetadata dbmsMetadata = idleConnections.poll();
+    if (dbmsMetadata != null) {
+      return dbmsMetadata;
+    }
+    synchronized (this) {
+      if (connections < connectionPoolSize) {
+        try {
+          dbmsMetadata = new DBMSMetadata(dbURI);
+          connections++;
+          return dbmsMetadata;
+        } catch (SQLException e) {
+          if (connections == 0) {
+            throw new IOException("Cannot connect to " + dbURI, e);
+          }
+          LOGGER.log(Level.WARNING, "Cannot open another connection to " + dbURI, e);
+        } catch (ClassNotFoundException e) {
+          throw new IOException("Cannot connect to " + dbURI, e);
+        }
+      }
+    }
+    try {
+      return idleConnections.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+  }
+
+  /**
+   * Close the idle connections. If more source code is requested, new connections are opened.
+   */
+  public void close() {
+    List<DBMSMetadata> idle = new ArrayList<DBMSMetadata>();
+    idleConnections.drainTo(idle);
+    synchronized (this) {
+      connections -= idle.size();
+    }
+    for (DBMSMetadata dbmsMetadata : idle) {
+      try {
+        dbmsMetadata.close();
+      } catch (SQLException e) {
+        LOGGER.log(Level.FINE, "Cannot close connection", e);
+      }
+    }
+  }
+
+  /**
+   * Source Objects of the same schema and type, which are retrieved together.
+   */
+  private final class Batch {
+
+    private final List<SourceObject> sourceObjects = new ArrayList<SourceObject>();
+    private Map<String, String> sourceCode; // guarded by this
+
+    boolean accepts(SourceObject sourceObject, int batchSize) {
+      SourceObject first = sourceObjects.get(0);
+      return sourceObjects.size() < batchSize && same(first.getSchema(), sourceObject.getSchema())
+          && same(first.getType(), sourceObject.getType());
+    }
+
+    /**
+     * @return the source code, or <code>null</code> if the batch does not contain it
+     */
+    synchronized String take(SourceObject sourceObject) throws IOException {
+      if (sourceCode == null) {
+        DBMSMetadata dbmsMetadata = acquire();
+        try {
+          sourceCode = dbmsMetadata.getSourceCode(sourceObjects);
+        } catch (SQLException e) {
+          LOGGER.log(Level.WARNING, "Cannot get SourceCode for batch starting with "
+              + sourceObjects.get(0).getPseudoFileName() + " - retrieving the objects one by one", e);
+          sourceCode = new HashMap<String, String>();
+        } finally {
+          idleConnections.add(dbmsMetadata);
+        }
+        sourceObjects.clear();
+      }
+      return sourceCode.remove(sourceObject.getName());
+    }
+
+    synchronized void skip(SourceObject sourceObject) {
+      if (sourceCode == null) {
+        sourceObjects.remove(sourceObject);
+      }
+    }
+  }
+
+  private static boolean same(String a, String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+}
@@ -0,0 +1,399 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.util.database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PropertyDescriptor;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.renderers.AbstractRenderer;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
+import net.sourceforge.pmd.renderers.BinaryReportReader;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.datasource.SourceObjectDataSource;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Remembers the revisions of the analyzed {@link SourceObject}s and their results between two runs, so that only the
+ * Source Objects, which changed since the previous run, are retrieved and analyzed again.
+ *
+ * <p>The manifest file is given by the DBURI parameter <code>manifest</code>. The revision of a Source Object is its
+ * last DDL timestamp, retrieved with the <code>getSourceObjectTimestampsStatement</code> of the DBType. The results
+ * of unchanged Source Objects are carried forward from the manifest, in the format of the {@link BinaryRenderer}, so
+ * their rules only carry the name, rule set name, priority and external info url of the original rules.
+ * </p>
+ *
+ * <p>The manifest is discarded, if the rules, their properties or the PMD version change. Source Objects without a
+ * revision, or with processing errors, are analyzed on every run.
+ * </p>
+ */
+public class SourceObjectManifest {
+
+  private static final Logger LOGGER = Logger.getLogger(SourceObjectManifest.class.getName());
+
+  /**
+   * DBURI parameter specifying the manifest file.
+   */
+  public static final String MANIFEST = "manifest";
+
+  /** The first four bytes of a manifest: "PMDM". */
+  private static final int MAGIC = 0x504D444D;
+
+  private static final int VERSION = 1;
+
+  private final File file;
+  private final String fingerprint;
+  private final Map<String, Entry> previous = new HashMap<String, Entry>();
+  private final Map<String, Entry> current = new TreeMap<String, Entry>();
+
+  /**
+   * Loads the manifest of the previous run, if it exists and has the same fingerprint.
+   *
+   * @param file the manifest file
+   * @param fingerprint identifies the rules and the PMD version, see {@link #fingerprint(PMDConfiguration, RuleSets)}
+   */
+  public SourceObjectManifest(File file, String fingerprint) {
+    this.file = file;
+    this.fingerprint = fingerprint;
+    if (file.isFile()) {
+      try {
+        load();
+      } catch (IOException e) {
+        LOGGER.log(Level.WARNING, "Cannot read the manifest " + file + " - analyzing all source objects", e);
+        previous.clear();
+      }
+    }
+  }
+
+  /**
+   * @param configuration the configuration
+   * @param ruleSets the rules which are applied
+   * @return the manifest of the DBURI input, or <code>null</code> if the input is no DBURI with a manifest parameter
+   */
+  public static SourceObjectManifest forConfiguration(PMDConfiguration configuration, RuleSets ruleSets) {
+    String manifest = getManifestParameter(configuration.getInputUri());
+    if (null == manifest) {
+      return null;
+    }
+    return new SourceObjectManifest(new File(manifest), fingerprint(configuration, ruleSets));
+  }
+
+  /**
+   * @param uriString a DBURI or <code>null</code>
+   * @return the value of the manifest parameter of the DBURI, or <code>null</code>
+   */
+  static String getManifestParameter(String uriString) {
+    if (null == uriString) {
+      return null;
+    }
+    try {
+      Map<String, String> parameters = new DBURI(uriString).getParameters();
+      return null == parameters ? null : parameters.get(MANIFEST);
+    } catch (URISyntaxException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @param configuration the configuration
+   * @param ruleSets the rules which are applied
+   * @return a digest of the PMD version, the suppress marker and the rules with their properties
+   */
+  public static String fingerprint(PMDConfiguration configuration, RuleSets ruleSets) {
+    StringBuilder text = new StringBuilder();
+    text.append(PMD.VERSION).append('\n').append(configuration.getSuppressMarker()).append('\n');
+    for (Rule rule : ruleSets.getAllRules()) {
+      text.append(rule.getRuleSetName()).append('/').append(rule.getName()).append(' ').append(rule.getRuleClass())
+          .append(' ').append(rule.getLanguage().getTerseName()).append(' ').append(rule.getPriority().getPriority())
+          .append(' ').append(rule.getMessage()).append('\n');
+      Map<String, String> properties = new TreeMap<String, String>();
+      for (Map.Entry<PropertyDescriptor<?>, Object> property : rule.getPropertiesByPropertyDescriptor().entrySet()) {
+        properties.put(property.getKey().name(), asString(property.getKey(), property.getValue()));
+      }
+      for (Map.Entry<String, String> property : properties.entrySet()) {
+        text.append("  ").append(property.getKey()).append('=').append(property.getValue()).append('\n');
+      }
+    }
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-1").digest(text.toString().getBytes("UTF-8"));
+      StringBuilder hex = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        hex.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static String asString(PropertyDescriptor descriptor, Object value) {
+    return null == value ? "" : descriptor.asDelimitedString(value);
+  }
+
+  /**
+   * Removes the Source Objects, which did not change since the previous run, and skips retrieving their source code.
+   *
+   * @param dataSources the files to analyze
+   * @return the files, which have to be analyzed
+   */
+  public List<DataSource> selectChanged(List<DataSource> dataSources) {
+    List<DataSource> changed = new ArrayList<DataSource>(dataSources.size());
+    for (DataSource dataSource : dataSources) {
+      if (!(dataSource instanceof SourceObjectDataSource)) {
+        changed.add(dataSource);
+        continue;
+      }
+      SourceObjectDataSource sourceObjectDataSource = (SourceObjectDataSource) dataSource;
+      SourceObject sourceObject = sourceObjectDataSource.getSourceObject();
+      String revision = sourceObject.getRevision();
+      String name = sourceObject.getPseudoFileName();
+      if (null == revision) {
+        changed.add(dataSource);
+        continue;
+      }
+      Entry entry = previous.get(name);
+      if (null != entry && revision.equals(entry.revision)) {
+        current.put(name, entry);
+        sourceObjectDataSource.skip();
+      } else {
+        current.put(name, new Entry(revision, null));
+        changed.add(dataSource);
+      }
+    }
+    LOGGER.log(Level.INFO, "{0} of {1} files changed since the previous run",
+        new Object[] { changed.size(), dataSources.size() });
+    return changed;
+  }
+
+  /**
+   * Renders the results of the unchanged Source Objects, which are carried forward from the previous run.
+   *
+   * @param renderers the started renderers
+   * @throws IOException on failing to render the results
+   */
+  public void replayUnchanged(List<Renderer> renderers) throws IOException {
+    Renderer forwarder = new Forwarder(renderers);
+    for (Entry entry : current.values()) {
+      if (null != entry.results) {
+        new BinaryReportReader(new ByteArrayInputStream(entry.results)).replay(forwarder);
+      }
+    }
+  }
+
+  /**
+   * @return a renderer, which records the results of the changed Source Objects and saves the manifest at the end
+   */
+  public Renderer createRecorder() {
+    return new Recorder();
+  }
+
+  private void load() throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      if (in.readInt() != MAGIC || in.readUnsignedShort() != VERSION) {
+        throw new IOException("Not a manifest of this PMD version");
+      }
+      if (!fingerprint.equals(in.readUTF())) {
+        LOGGER.info("The rules changed since the previous run - analyzing all source objects");
+        return;
+      }
+      for (int count = in.readInt(); count > 0; count--) {
+        String name = in.readUTF();
+        String revision = in.readUTF();
+        byte[] results = null;
+        int length = in.readInt();
+        if (length > 0) {
+          results = new byte[length];
+          in.readFully(results);
+        }
+        previous.put(name, new Entry(revision, results));
+      }
+    } finally {
+      IOUtils.closeQuietly(in);
+    }
+  }
+
+  /**
+   * Writes the revisions and results of the current run.
+   *
+   * @throws IOException on failing to write the manifest
+   */
+  public void save() throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeUTF(fingerprint);
+      out.writeInt(current.size());
+      for (Map.Entry<String, Entry> entry : current.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeUTF(entry.getValue().revision);
+        byte[] results = entry.getValue().results;
+        out.writeInt(null == results ? 0 : results.length);
+        if (null != results) {
+          out.write(results);
+        }
+      }
+    } finally {
+      out.close();
+    }
+    LOGGER.log(Level.FINE, "Saved the revisions of {0} source objects to {1}", new Object[] { current.size(), file });
+  }
+
+  /**
+   * The revision of a Source Object and its results in the binary report format, <code>null</code> if there are
+   * none.
+   */
+  private static class Entry {
+    private final String revision;
+    private byte[] results;
+
+    Entry(String revision, byte[] results) {
+      this.revision = revision;
+      this.results = results;
+    }
+  }
+
+  /**
+   * Records the violations of the changed Source Objects per file. Files with processing errors are removed from
+   * the manifest, so that they are analyzed again.
+   */
+  private class Recorder extends AbstractRenderer {
+
+    Recorder() {
+      super("manifest", "Records the results of the changed source objects.");
+    }
+
+    public String defaultFileExtension() {
+      return null;
+    }
+
+    public void start() {
+      // the manifest is saved at the end
+    }
+
+    public void startFileAnalysis(DataSource dataSource) {
+      // the results are attributed by their file name
+    }
+
+    public void renderFileReport(Report report) throws IOException {
+      Map<String, Report> fileReports = new HashMap<String, Report>();
+      for (RuleViolation violation : report) {
+        fileReport(fileReports, violation.getFilename()).addRuleViolation(violation);
+      }
+      for (Report.SuppressedViolation suppressed : report.getSuppressedRuleViolations()) {
+        fileReport(fileReports, suppressed.getRuleViolation().getFilename()).getSuppressedRuleViolations()
+            .add(suppressed);
+      }
+      for (Iterator<Report.ProcessingError> i = report.errors(); i.hasNext();) {
+        current.remove(i.next().getFile());
+      }
+      for (Map.Entry<String, Report> fileReport : fileReports.entrySet()) {
+        Entry entry = current.get(fileReport.getKey());
+        if (null != entry) {
+          entry.results = toBinary(fileReport.getValue());
+        }
+      }
+    }
+
+    private Report fileReport(Map<String, Report> fileReports, String fileName) {
+      Report fileReport = fileReports.get(fileName);
+      if (null == fileReport) {
+        fileReport = new Report();
+        fileReports.put(fileName, fileReport);
+      }
+      return fileReport;
+    }
+
+    private byte[] toBinary(Report report) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      BinaryRenderer binary = new BinaryRenderer();
+      binary.setShowSuppressedViolations(true);
+      binary.setOutputStream(bytes);
+      binary.start();
+      binary.renderFileReport(report);
+      binary.end();
+      return bytes.toByteArray();
+    }
+
+    public void end() throws IOException {
+      save();
+    }
+
+    @Override
+    public void flush() {
+      // nothing written
+    }
+  }
+
+  /**
+   * Renders the replayed file reports with other renderers, which have already been started.
+   */
+  private static class Forwarder extends AbstractRenderer {
+
+    private final List<Renderer> renderers;
+
+    Forwarder(List<Renderer> renderers) {
+      super("forwarder", "Renders the results carried forward from the previous run.");
+      this.renderers = renderers;
+    }
+
+    public String defaultFileExtension() {
+      return null;
+    }
+
+    public void start() {
+      // the renderers are started already
+    }
+
+    public void startFileAnalysis(DataSource dataSource) {
+      // not analyzed
+    }
+
+    public void renderFileReport(Report report) throws IOException {
+      for (Renderer renderer : renderers) {
+        renderer.renderFileReport(report);
+      }
+    }
+
+    public void end() {
+      // the renderers are ended after the analysis
+    }
+
+    @Override
+    public void flush() {
+      // nothing written
+    }
+  }
+}
@@ -3,10 +3,17 @@
  */
 package net.sourceforge.pmd.util.datasource;
 
+import java.io.CharArrayReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sourceforge.pmd.util.IOUtil;
 
 
 /**
@@ -15,6 +22,15 @@ import java.io.InputStream;
 public class FileDataSource implements DataSource {
 	
 	private static final String FILE_SEPARATOR = System.getProperty("file.separator");
+
+	private static final int MAX_CACHED_DIRECTORIES = 10000;
+
+	/**
+	 * The canonical paths of the directories, which contain the files. Files
+	 * are usually analyzed directory by directory, so only the first file of a
+	 * directory needs to resolve the canonical path.
+	 */
+	private static final ConcurrentMap<String, String> CANONICAL_DIRECTORIES = new ConcurrentHashMap<String, String>();
 	
     private File file;
 
@@ -29,6 +45,20 @@ public class FileDataSource implements DataSource {
         return new FileInputStream(file);
     }
 
+    /**
+     * Reads the complete file into memory and decodes it at once, which is
+     * faster than decoding an {@link InputStream}.
+     *
+     * @param encoding the encoding of the file
+     * @return a reader of the decoded file content
+     * @throws IOException if the file can't be read, or the encoding is not supported
+     * @see IOUtil#readFully(File, String)
+     */
+    public Reader getReader(String encoding) throws IOException {
+        CharBuffer content = IOUtil.readFully(file, encoding);
+        return new CharArrayReader(content.array(), content.arrayOffset() + content.position(), content.remaining());
+    }
+
     public String getNiceFileName(boolean shortNames, String inputFileName) {
         return glomName(shortNames, inputFileName, file);
     }
@@ -46,12 +76,35 @@ public class FileDataSource implements DataSource {
         } 
 
         try {
-            return file.getCanonicalFile().getAbsolutePath();
+            return canonicalPath(file);
         } catch (Exception e) {
             return file.getAbsolutePath();
         }
     }
 
+    /**
+     * Resolves the canonical path of the directory of the file, which is
+     * cached, and appends the file name.
+     */
+    private static String canonicalPath(File file) throws IOException {
+        File absoluteFile = file.getAbsoluteFile();
+        File directory = absoluteFile.getParentFile();
+        String name = absoluteFile.getName();
+        if (directory == null || ".".equals(name) || "..".equals(name)) {
+            return absoluteFile.getCanonicalPath();
+        }
+        String key = directory.getPath();
+        String canonicalDirectory = CANONICAL_DIRECTORIES.get(key);
+        if (canonicalDirectory == null) {
+            canonicalDirectory = directory.getCanonicalPath();
+            if (CANONICAL_DIRECTORIES.size() >= MAX_CACHED_DIRECTORIES) {
+                CANONICAL_DIRECTORIES.clear();
+            }
+            CANONICAL_DIRECTORIES.putIfAbsent(key, canonicalDirectory);
+        }
+        return new File(canonicalDirectory, name).getPath();
+    }
+
     private String trimAnyPathSep(String name) {
 
     	return name.startsWith(FILE_SEPARATOR) ?
@@ -0,0 +1,65 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.util.datasource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.sourceforge.pmd.util.database.SourceCodeFetcher;
+import net.sourceforge.pmd.util.database.SourceObject;
+
+import org.apache.commons.io.input.ReaderInputStream;
+
+/**
+ * DataSource implementation for source code stored in a database. The source
+ * code is only retrieved, when the DataSource is read.
+ */
+public class SourceObjectDataSource implements DataSource {
+
+    private final SourceCodeFetcher fetcher;
+    private final SourceObject sourceObject;
+
+    public SourceObjectDataSource(SourceCodeFetcher fetcher, SourceObject sourceObject) {
+        this.fetcher = fetcher;
+        this.sourceObject = sourceObject;
+    }
+
+    /**
+     * Retrieves the source code and converts it into an InputStream.
+     * <p>
+     * <strong>Note:</strong> This uses the default encoding, like
+     * {@link ReaderDataSource}.
+     * </p>
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new ReaderInputStream(fetcher.getSourceCode(sourceObject));
+    }
+
+    /**
+     * @return the pseudo file name of the source object, see
+     *         {@link SourceObject#getPseudoFileName()}
+     */
+    @Override
+    public String getNiceFileName(boolean shortNames, String inputFileName) {
+        return sourceObject.getPseudoFileName();
+    }
+
+    /**
+     * Releases the source object without retrieving its source code, when it
+     * is not going to be analyzed.
+     */
+    public void skip() {
+        fetcher.skip(sourceObject);
+    }
+
+    public SourceObject getSourceObject() {
+        return sourceObject;
+    }
+
+    @Override
+    public String toString() {
+        return sourceObject.getPseudoFileName();
+    }
+}
@@ -6,13 +6,18 @@ package net.sourceforge.pmd;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 
 import junit.framework.JUnit4TestAdapter;
 import net.sourceforge.pmd.renderers.CSVRenderer;
+import net.sourceforge.pmd.renderers.HTMLRenderer;
 import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.renderers.XMLRenderer;
 import net.sourceforge.pmd.util.ClasspathClassLoader;
 
 import org.junit.Test;
@@ -114,6 +119,39 @@ public class ConfigurationTest {
 	assertEquals("Changed renderer show suppressed violations", true, renderer.isShowSuppressedViolations());
     }
 
+    @Test
+    public void testCreateRenderers() throws IOException {
+	File xml = File.createTempFile("pmd", ".xml");
+	File html = File.createTempFile("pmd", ".html");
+	try {
+	    PMDConfiguration configuration = new PMDConfiguration();
+	    configuration.setReportFormat("csv");
+	    configuration.setShowSuppressedViolations(true);
+	    configuration.setAdditionalReports(Arrays.asList("xml:" + xml.getPath(), "html:" + html.getPath()));
+	    List<Renderer> renderers = configuration.createRenderers();
+	    assertEquals("Renderer count", 3, renderers.size());
+	    assertEquals("Renderer class", CSVRenderer.class, renderers.get(0).getClass());
+	    assertEquals("Renderer class", XMLRenderer.class, renderers.get(1).getClass());
+	    assertEquals("Renderer class", HTMLRenderer.class, renderers.get(2).getClass());
+	    for (Renderer renderer : renderers) {
+		assertTrue("Renderer writer", renderer.getWriter() != null);
+		assertEquals("Renderer show suppressed violations", true, renderer.isShowSuppressedViolations());
+		renderer.getWriter().close();
+	    }
+	} finally {
+	    xml.delete();
+	    html.delete();
+	}
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateRenderersWithoutFile() {
+	PMDConfiguration configuration = new PMDConfiguration();
+	configuration.setReportFormat("csv");
+	configuration.setAdditionalReports(Arrays.asList("xml"));
+	configuration.createRenderers();
+    }
+
     @Test
     public void testReportFile() {
 	PMDConfiguration configuration = new PMDConfiguration();
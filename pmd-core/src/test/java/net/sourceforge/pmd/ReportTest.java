@@ -164,6 +164,24 @@ public class ReportTest implements ReportListener {
         assertEquals(2, treeCount);
     }
     
+    @Test
+    public void testTreeFiltersDuplicates() {
+        Report r = new Report();
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename("foo");
+        Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
+        r.addRuleViolation(new ParametricRuleViolation<Node>(rule, ctx, getNode(5, 5, true), rule.getMessage()));
+        r.addRuleViolation(new ParametricRuleViolation<Node>(rule, ctx, getNode(5, 5, true), rule.getMessage()));
+        r.addRuleViolation(new ParametricRuleViolation<Node>(rule, ctx, getNode(7, 5, true), rule.getMessage()));
+
+        assertEquals(3, r.size());
+        assertEquals(2, r.treeSize());
+        Iterator<RuleViolation> treeIterator = r.treeIterator();
+        assertEquals(6, treeIterator.next().getBeginLine());
+        assertEquals(8, treeIterator.next().getBeginLine());
+        assertFalse(treeIterator.hasNext());
+    }
+
     private static Node getNode(int line, int column){
         DummyNode s = new DummyNode(2);
         DummyNode parent = new DummyNode(1);
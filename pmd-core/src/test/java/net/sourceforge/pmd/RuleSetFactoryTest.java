@@ -50,6 +50,39 @@ public class RuleSetFactoryTest {
 		assertNotNull(rs.getRuleByName("TestRuleRef"));
 	}
 
+	@Test
+	public void testReferencedRulesAreNotShared() throws RuleSetNotFoundException {
+		RuleSetFactory rsf = new RuleSetFactory();
+		RuleSet rs = rsf.createRuleSet("net/sourceforge/pmd/TestRuleset1.xml");
+		// both reference TestRuleset2.xml/TestRule, which is only parsed once
+		RuleReference mockRule3 = (RuleReference) rs.getRuleByName("MockRule3");
+		RuleReference testRuleRef = (RuleReference) rs.getRuleByName("TestRuleRef");
+		assertNotSame(mockRule3.getRule(), testRuleRef.getRule());
+		assertEquals("MockRule3", mockRule3.getName());
+		assertEquals("TestRuleRef", testRuleRef.getName());
+		assertTrue(mockRule3.isDeprecated());
+		assertFalse(testRuleRef.isDeprecated());
+	}
+
+	@Test
+	public void testCachedRuleSetIsCopied() throws RuleSetNotFoundException {
+		RuleSetFactory rsf = new RuleSetFactory();
+		RuleSet rs = rsf.createRuleSet("net/sourceforge/pmd/TestRuleset1.xml");
+		Rule mockRule1 = rs.getRuleByName("MockRule1");
+		mockRule1.setMessage("changed");
+		mockRule1.setPriority(RulePriority.HIGH);
+
+		RuleSet other = rsf.createRuleSet("net/sourceforge/pmd/TestRuleset1.xml");
+		assertEquals(rs.getRules().size(), other.getRules().size());
+		Rule otherMockRule1 = other.getRuleByName("MockRule1");
+		assertNotSame(mockRule1, otherMockRule1);
+		assertEquals("Test Rule", otherMockRule1.getMessage());
+		assertEquals(RulePriority.MEDIUM, otherMockRule1.getPriority());
+		assertEquals("Just for test", otherMockRule1.getDescription().trim());
+		assertNotSame(rs.getRuleByName("TestRuleRef"), other.getRuleByName("TestRuleRef"));
+		assertEquals("TestRuleRef", other.getRuleByName("TestRuleRef").getName());
+	}
+
 	@Test
 	public void testExtendedReferences() throws Exception {
 	    InputStream in = ResourceLoader.loadResourceAsStream("net/sourceforge/pmd/rulesets/reference-ruleset.xml",
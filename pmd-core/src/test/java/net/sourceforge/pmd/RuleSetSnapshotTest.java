@@ -0,0 +1,156 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.pmd.lang.rule.XPathRule;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RuleSetSnapshotTest {
+
+    @org.junit.Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String CUSTOM_RULESET = "<?xml version=\"1.0\"?>" + PMD.EOL
+            + "<ruleset name=\"Custom\">" + PMD.EOL
+            + "  <description>custom</description>" + PMD.EOL
+            + "  <exclude-pattern>.*/generated/.*</exclude-pattern>" + PMD.EOL
+            + "  <rule name=\"XPathTest\" language=\"dummy\" message=\"xpath\" class=\"net.sourceforge.pmd.lang.rule.XPathRule\">" + PMD.EOL
+            + "    <description>xpath description</description>" + PMD.EOL
+            + "    <priority>2</priority>" + PMD.EOL
+            + "    <properties>" + PMD.EOL
+            + "      <property name=\"xpath\"><value>//dummyNode[@Image='\u00e4']</value></property>" + PMD.EOL
+            + "      <property name=\"threshold\" type=\"Integer\" description=\"a threshold\" min=\"1\" max=\"10\" value=\"5\"/>" + PMD.EOL
+            + "    </properties>" + PMD.EOL
+            + "  </rule>" + PMD.EOL
+            + "  <rule ref=\"net/sourceforge/pmd/TestRuleset1.xml/MockRule2\" name=\"Renamed\" message=\"overridden\">" + PMD.EOL
+            + "    <priority>1</priority>" + PMD.EOL
+            + "  </rule>" + PMD.EOL
+            + "</ruleset>";
+
+    @Test
+    public void testSnapshotMatchesRuleSets() throws Exception {
+        RuleSets ruleSets = new RuleSetFactory().createRuleSets("net/sourceforge/pmd/TestRuleset1.xml,"
+                + customRuleSet().getPath());
+        File snapshot = writeSnapshot(ruleSets);
+
+        RuleSets loaded = new RuleSetFactory().createRuleSets(snapshot.getPath());
+        assertEquals(2, loaded.getAllRuleSets().length);
+        for (int i = 0; i < 2; i++) {
+            RuleSet expected = ruleSets.getAllRuleSets()[i];
+            RuleSet actual = loaded.getAllRuleSets()[i];
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getExcludePatterns(), actual.getExcludePatterns());
+            assertEquals(names(expected), names(actual));
+            for (Rule rule : expected.getRules()) {
+                Rule other = actual.getRuleByName(rule.getName());
+                assertEquals(rule.getRuleClass(), other.getRuleClass());
+                assertEquals(rule.getLanguage(), other.getLanguage());
+                assertEquals(rule.getMessage(), other.getMessage());
+                assertEquals(rule.getDescription(), other.getDescription());
+                assertEquals(rule.getExamples(), other.getExamples());
+                assertEquals(rule.getPriority(), other.getPriority());
+                assertEquals(rule.getRuleSetName(), other.getRuleSetName());
+                assertEquals(rule.isDeprecated(), other.isDeprecated());
+                assertEquals(rule.getPropertiesByPropertyDescriptor(), other.getPropertiesByPropertyDescriptor());
+            }
+        }
+
+        Rule xpathRule = loaded.getRuleByName("XPathTest");
+        assertEquals("//dummyNode[@Image='\u00e4']", xpathRule.getProperty(XPathRule.XPATH_DESCRIPTOR));
+        PropertyDescriptor<?> threshold = xpathRule.getPropertyDescriptor("threshold");
+        assertNotNull(threshold);
+        assertEquals(5, xpathRule.getProperty(threshold));
+        Rule renamed = loaded.getRuleByName("Renamed");
+        assertEquals("overridden", renamed.getMessage());
+        assertEquals(RulePriority.HIGH, renamed.getPriority());
+    }
+
+    @Test
+    public void testSnapshotRulesAreCopied() throws Exception {
+        File snapshot = writeSnapshot(new RuleSetFactory().createRuleSets("net/sourceforge/pmd/TestRuleset1.xml"));
+        RuleSetFactory factory = new RuleSetFactory();
+        Rule rule = factory.createRuleSet(snapshot.getPath()).getRuleByName("MockRule1");
+        rule.setMessage("changed");
+        Rule other = factory.createRuleSet(snapshot.getPath()).getRuleByName("MockRule1");
+        assertNotSame(rule, other);
+        assertEquals("Test Rule", other.getMessage());
+    }
+
+    @Test
+    public void testSingleRuleAndMinimumPriority() throws Exception {
+        File snapshot = writeSnapshot(new RuleSetFactory().createRuleSets(customRuleSet().getPath()));
+
+        RuleSet single = new RuleSetFactory().createRuleSet(snapshot.getPath() + "/Renamed");
+        assertEquals(1, single.size());
+        assertNotNull(single.getRuleByName("Renamed"));
+
+        RuleSetFactory factory = new RuleSetFactory();
+        factory.setMinimumPriority(RulePriority.HIGH);
+        RuleSet filtered = factory.createRuleSet(snapshot.getPath());
+        assertEquals(1, filtered.size());
+        assertNotNull(filtered.getRuleByName("Renamed"));
+    }
+
+    @Test
+    public void testBrokenRulesAreReported() {
+        XPathRule rule = new XPathRule("//dummyNode[");
+        rule.setName("Broken");
+        List<String> problems = RuleSetSnapshotWriter.validate(Collections.<Rule> singletonList(rule));
+        assertEquals(1, problems.size());
+        assertTrue(problems.get(0).startsWith("Broken: "));
+
+        rule.setXPath("");
+        problems = RuleSetSnapshotWriter.validate(Collections.<Rule> singletonList(rule));
+        assertFalse(problems.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotASnapshot() throws Exception {
+        File file = folder.newFile("rules" + RuleSetSnapshotWriter.EXTENSION);
+        FileUtils.writeStringToFile(file, CUSTOM_RULESET, "UTF-8");
+        new RuleSetFactory().createRuleSets(file.getPath());
+    }
+
+    private File customRuleSet() throws IOException {
+        File file = folder.newFile("custom.xml");
+        FileUtils.writeStringToFile(file, CUSTOM_RULESET, "UTF-8");
+        return file;
+    }
+
+    private File writeSnapshot(RuleSets ruleSets) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RuleSetSnapshotWriter writer = new RuleSetSnapshotWriter(out);
+        writer.write(ruleSets);
+        writer.close();
+        File file = new File(folder.getRoot(), "snapshot" + RuleSetSnapshotWriter.EXTENSION);
+        FileUtils.writeByteArrayToFile(file, out.toByteArray());
+        return file;
+    }
+
+    private static List<String> names(RuleSet ruleSet) {
+        List<String> names = new ArrayList<String>();
+        for (Rule rule : ruleSet.getRules()) {
+            names.add(rule.getName());
+        }
+        Collections.sort(names);
+        return names;
+    }
+}
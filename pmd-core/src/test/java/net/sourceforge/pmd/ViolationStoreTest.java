@@ -0,0 +1,157 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+
+import org.junit.Test;
+
+public class ViolationStoreTest {
+
+    private final Rule ruleA = new MockRule("RuleA", "desc", "msg", "rulesetname");
+    private final Rule ruleB = new MockRule("RuleB", "desc", "msg", "rulesetname");
+
+    @Test
+    public void testSortedOrderMatchesComparator() {
+        Random random = new Random(42);
+        ViolationStore store = new ViolationStore();
+        List<RuleViolation> expected = new ArrayList<RuleViolation>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 200; i++) {
+                RuleViolation violation = violation(random.nextBoolean() ? ruleA : ruleB, "file" + random.nextInt(3),
+                        random.nextInt(20), random.nextInt(4), "msg" + random.nextInt(3));
+                store.add(violation);
+                expected.add(violation);
+            }
+            // reading in between sorts the first rounds, the later ones are merged in
+            Collections.sort(expected, RuleViolationComparator.INSTANCE);
+            assertSameViolations(expected, store.sortedOrder());
+        }
+    }
+
+    @Test
+    public void testAddAllMergesSortedRuns() {
+        Random random = new Random(7);
+        ViolationStore merged = new ViolationStore();
+        List<RuleViolation> expected = new ArrayList<RuleViolation>();
+        // the files are not merged in order, each one is a sorted run
+        for (int f = 0; f < 50; f++) {
+            ViolationStore store = new ViolationStore();
+            String file = "file" + random.nextInt(20);
+            for (int i = 0; i < 30; i++) {
+                RuleViolation violation = violation(random.nextBoolean() ? ruleA : ruleB, file, random.nextInt(100),
+                        random.nextInt(4), "msg" + random.nextInt(3));
+                store.add(violation);
+                expected.add(violation);
+            }
+            merged.addAll(store);
+        }
+        Collections.sort(expected, RuleViolationComparator.INSTANCE);
+        assertSameViolations(expected, merged.sortedOrder());
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        ViolationStore store = new ViolationStore();
+        List<RuleViolation> expected = new ArrayList<RuleViolation>();
+        for (int line = 10; line > 0; line--) {
+            RuleViolation violation = violation(ruleA, "file", line, 1, "msg");
+            store.add(violation);
+            expected.add(violation);
+        }
+        assertSameViolations(expected, store.insertionOrder());
+    }
+
+    @Test
+    public void testAddAllMapsStringsAndRules() {
+        ViolationStore first = new ViolationStore();
+        first.add(violation(ruleA, "file1", 1, 1, "msg1"));
+        ViolationStore second = new ViolationStore();
+        second.add(violation(ruleB, "file2", 2, 2, "msg2"));
+        second.add(violation(ruleA, "file1", 3, 3, null));
+
+        first.addAll(second);
+
+        // appended in the sorted order of the other store
+        assertEquals(3, first.size());
+        assertSame(ruleA, first.get(1).getRule());
+        assertEquals(null, first.get(1).getDescription());
+        assertEquals(3, first.get(1).getBeginLine());
+        assertSame(ruleB, first.get(2).getRule());
+        assertEquals("file2", first.get(2).getFilename());
+        assertEquals("msg2", first.get(2).getDescription());
+        // interned
+        assertSame(first.get(0).getFilename(), first.get(1).getFilename());
+    }
+
+    @Test
+    public void testStringsAreInterned() {
+        ViolationStore store = new ViolationStore();
+        store.add(violation(ruleA, new String("file"), 1, 1, new String("msg")));
+        store.add(violation(ruleA, new String("file"), 2, 1, new String("msg")));
+        assertSame(store.get(0).getFilename(), store.get(1).getFilename());
+        assertSame(store.get(0).getDescription(), store.get(1).getDescription());
+    }
+
+    @Test
+    public void testCountByRuleName() {
+        ViolationStore store = new ViolationStore();
+        store.add(violation(ruleA, "file", 1, 1, "msg"));
+        store.add(violation(ruleB, "file", 2, 1, "msg"));
+        store.add(violation(ruleB, "file", 3, 1, "msg"));
+        // a different instance with the same name
+        store.add(violation(new MockRule("RuleB", "desc", "msg", "rulesetname"), "file", 4, 1, "msg"));
+        Map<String, Integer> summary = store.countByRuleName();
+        assertEquals(2, summary.size());
+        assertEquals(Integer.valueOf(1), summary.get("RuleA"));
+        assertEquals(Integer.valueOf(3), summary.get("RuleB"));
+    }
+
+    private static void assertSameViolations(List<RuleViolation> expected, Iterator<RuleViolation> actual) {
+        for (RuleViolation e : expected) {
+            RuleViolation a = actual.next();
+            assertSame(e.getRule(), a.getRule());
+            assertEquals(e.getFilename(), a.getFilename());
+            assertEquals(e.getBeginLine(), a.getBeginLine());
+            assertEquals(e.getBeginColumn(), a.getBeginColumn());
+            assertEquals(e.getDescription(), a.getDescription());
+        }
+        assertEquals(false, actual.hasNext());
+    }
+
+    private static RuleViolation violation(Rule rule, String file, int line, int column, String message) {
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(file);
+        DummyNode node = new DummyNode(1);
+        node.testingOnly__setBeginLine(line);
+        node.testingOnly__setBeginColumn(column);
+        return new Violation(rule, ctx, node, message);
+    }
+
+    /**
+     * Allows <code>null</code> descriptions.
+     */
+    private static class Violation extends ParametricRuleViolation<DummyNode> {
+        Violation(Rule rule, RuleContext ctx, DummyNode node, String message) {
+            super(rule, ctx, node, message);
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+}
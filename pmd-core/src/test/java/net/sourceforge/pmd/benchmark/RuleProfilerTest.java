@@ -0,0 +1,144 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.Node;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RuleProfilerTest {
+
+    @Before
+    public void setUp() {
+        RuleProfiler.reset();
+        RuleProfiler.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        RuleProfiler.setEnabled(false);
+        RuleProfiler.reset();
+    }
+
+    @Test
+    public void testProfileIsCollectedPerRuleAndFile() throws Exception {
+        FooRule visitor = new FooRule();
+        FooRule chain = new FooRule() {
+            @Override
+            public String getName() {
+                return "FooChain";
+            }
+        };
+        chain.addRuleChainVisit("dummyNode");
+        RuleSets ruleSets = new RuleSets(RuleSet.createFor("RuleSet", visitor, chain));
+
+        apply(ruleSets, "Foo1.dummy");
+        apply(ruleSets, "Foo2.dummy");
+        Thread other = new Thread() {
+            @Override
+            public void run() {
+                apply(new RuleSets(RuleSet.createFor("RuleSet", new FooRule())), "Foo3.dummy");
+            }
+        };
+        other.start();
+        other.join();
+
+        List<RuleProfile> results = RuleProfiler.results();
+        assertEquals(2, results.size());
+        RuleProfile foo = find(results, "Foo");
+        assertEquals("merged from both threads", 3, foo.getApplications());
+        assertEquals(3, foo.getSlowestFiles().size());
+        assertTrue(foo.getVisitsByNodeType().isEmpty());
+        RuleProfile fooChain = find(results, "FooChain");
+        assertEquals(2, fooChain.getApplications());
+        assertEquals(Long.valueOf(2), fooChain.getVisitsByNodeType().get("dummyNode"));
+        assertTrue(fooChain.getWallNanos() > 0);
+    }
+
+    @Test
+    public void testOutliersAreTheSlowestFiles() {
+        RuleProfile profile = new RuleProfile("Foo");
+        for (int i = 0; i < 20; i++) {
+            profile.add(new RuleProfile.FileSample("File" + i, i % 7, -1, 10));
+        }
+        assertEquals(20, profile.getApplications());
+        assertEquals(-1, profile.getCpuNanos());
+        assertEquals(200, profile.getAllocatedBytes());
+        assertEquals(RuleProfile.OUTLIERS, profile.getSlowestFiles().size());
+        assertEquals(6, profile.getSlowestFiles().get(0).wallNanos);
+        assertEquals(5, profile.getSlowestFiles().get(RuleProfile.OUTLIERS - 1).wallNanos);
+    }
+
+    @Test
+    public void testReports() throws Exception {
+        RuleProfile profile = new RuleProfile("Foo");
+        profile.add(new RuleProfile.FileSample("a,\"b\".java", 3, 2, 1));
+        profile.addVisits("ASTName", 4);
+        List<RuleProfile> profiles = new ArrayList<RuleProfile>();
+        profiles.add(profile);
+
+        String csv = generate(new CsvProfileReport(), profiles);
+        assertEquals("record,rule,key,count,wallNanos,cpuNanos,allocatedBytes" + PMD.EOL
+                + "rule,Foo,,1,3,2,1" + PMD.EOL
+                + "nodeType,Foo,ASTName,4,,," + PMD.EOL
+                + "file,Foo,\"a,\"\"b\"\".java\",1,3,2,1" + PMD.EOL, csv);
+
+        String json = generate(new JsonProfileReport(), profiles);
+        assertEquals("{\"rules\": [" + PMD.EOL
+                + "  {\"name\": \"Foo\", \"applications\": 1, \"wallNanos\": 3, \"cpuNanos\": 2, \"allocatedBytes\": 1,"
+                + PMD.EOL + "   \"visits\": {\"ASTName\": 4}," + PMD.EOL
+                + "   \"slowestFiles\": [{\"file\": \"a,\\\"b\\\".java\", \"wallNanos\": 3, \"cpuNanos\": 2, \"allocatedBytes\": 1}]}"
+                + PMD.EOL + "]}" + PMD.EOL, json);
+    }
+
+    private static String generate(ProfileReport report, List<RuleProfile> profiles) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, false, "UTF-8");
+        report.generate(profiles, out);
+        out.flush();
+        return bytes.toString("UTF-8");
+    }
+
+    private static RuleProfile find(List<RuleProfile> results, String ruleName) {
+        for (RuleProfile profile : results) {
+            if (profile.getRuleName().equals(ruleName)) {
+                return profile;
+            }
+        }
+        throw new AssertionError("No profile for " + ruleName);
+    }
+
+    private static void apply(RuleSets ruleSets, String fileName) {
+        RuleContext ctx = new RuleContext();
+        ctx.setReport(new Report());
+        ctx.setSourceCodeFilename(fileName);
+        ctx.setLanguageVersion(LanguageRegistry.getLanguage(DummyLanguageModule.NAME).getDefaultVersion());
+        List<Node> nodes = new ArrayList<Node>();
+        DummyNode node = new DummyNode(1);
+        node.testingOnly__setBeginLine(1);
+        node.testingOnly__setBeginColumn(1);
+        node.setImage("Foo");
+        nodes.add(node);
+        ruleSets.apply(nodes, ctx, LanguageRegistry.getLanguage(DummyLanguageModule.NAME));
+    }
+}
@@ -3,6 +3,8 @@
  */
 package net.sourceforge.pmd.cli;
 
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -20,4 +22,14 @@ public class PMDCommandLineInterfaceTest {
 
         Assert.assertEquals("output_folder", params.getProperties().getProperty("outputDir"));
     }
+
+    @Test
+    public void testAdditionalReports() {
+        PMDParameters params = new PMDParameters();
+        String[] args = { "-d", "source_folder", "-f", "text", "-reports", "xml:target/pmd.xml,html:C:\\pmd.html",
+                "-R", "java-empty" };
+        PMDCommandLineInterface.extractParameters(params, args, "PMD");
+
+        Assert.assertEquals(Arrays.asList("xml:target/pmd.xml", "html:C:\\pmd.html"), params.getReports());
+    }
 }
@@ -0,0 +1,108 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DescendantIndexTest {
+
+    private DummyNode root;
+    private OtherNode a;
+    private DummyNode b;
+    private OtherNode c;
+    private OtherNode d;
+
+    /**
+     * <pre>
+     * root
+     *   a (other)
+     *     b
+     *       c (other)
+     *   d (other)
+     * </pre>
+     */
+    @Before
+    public void setUp() {
+        root = new DummyNode(0);
+        a = new OtherNode();
+        b = new DummyNode(1);
+        c = new OtherNode();
+        d = new OtherNode();
+        add(root, a);
+        add(a, b);
+        add(b, c);
+        add(root, d);
+    }
+
+    @Test
+    public void testFindDescendantsOfType() {
+        assertEquals(Arrays.asList(a, c, d), root.findDescendantsOfType(OtherNode.class));
+        assertEquals(Arrays.asList(c), a.findDescendantsOfType(OtherNode.class));
+        assertEquals(Arrays.asList(b), a.findDescendantsOfType(DummyNode.class));
+        assertEquals(0, d.findDescendantsOfType(OtherNode.class).size());
+        assertEquals(0, root.findDescendantsOfType(String.class).size());
+    }
+
+    @Test
+    public void testGetFirstDescendantOfType() {
+        assertSame(a, root.getFirstDescendantOfType(OtherNode.class));
+        assertSame(c, a.getFirstDescendantOfType(OtherNode.class));
+        assertSame(b, root.getFirstDescendantOfType(DummyNode.class));
+        assertNull(b.getFirstDescendantOfType(DummyNode.class));
+        assertTrue(b.hasDescendantOfType(OtherNode.class));
+        assertFalse(c.hasDescendantOfType(OtherNode.class));
+    }
+
+    @Test
+    public void testAddedNodesAreFound() {
+        assertEquals(Arrays.asList(a, c, d), root.findDescendantsOfType(OtherNode.class));
+        OtherNode e = new OtherNode();
+        add(d, e);
+        assertEquals(Arrays.asList(a, c, d, e), root.findDescendantsOfType(OtherNode.class));
+        assertSame(e, d.getFirstDescendantOfType(OtherNode.class));
+
+        // a subtree queried on its own, before it is attached
+        DummyNode f = new DummyNode(2);
+        OtherNode g = new OtherNode();
+        add(f, g);
+        assertSame(g, f.getFirstDescendantOfType(OtherNode.class));
+        add(c, f);
+        assertEquals(Arrays.asList(a, c, g, d, e), root.findDescendantsOfType(OtherNode.class));
+        assertEquals(Arrays.asList(g), f.findDescendantsOfType(OtherNode.class));
+    }
+
+    @Test
+    public void testFindBoundaries() {
+        List<OtherNode> results = new ArrayList<OtherNode>();
+        root.findDescendantsOfType(OtherNode.class, results, false);
+        assertEquals(Arrays.asList(a, c, d), results);
+    }
+
+    private static void add(Node parent, Node child) {
+        child.jjtSetParent(parent);
+        parent.jjtAddChild(child, parent.jjtGetNumChildren());
+    }
+
+    private static class OtherNode extends AbstractNode {
+        OtherNode() {
+            super(0);
+        }
+
+        @Override
+        public String toString() {
+            return "otherNode";
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ImageInternerTest {
+
+    @Test
+    public void testEqualImagesShareOneInstance() {
+        DummyNode root = node(new String("foo"));
+        DummyNode child = node(new String("foo"));
+        DummyNode grandChild = node(new String("foo"));
+        DummyNode other = node("bar");
+        DummyNode noImage = node(null);
+        add(root, child);
+        add(root, other);
+        add(root, noImage);
+        add(child, grandChild);
+        assertNotSame(root.getImage(), grandChild.getImage());
+
+        ImageInterner.intern(root);
+
+        assertSame(root.getImage(), child.getImage());
+        assertSame(root.getImage(), grandChild.getImage());
+        assertEquals("bar", other.getImage());
+        assertNull(noImage.getImage());
+    }
+
+    @Test
+    public void testUserDataAndDataFlowNode() {
+        DummyNode root = node(null);
+        DummyNode child = node(null);
+        add(root, child);
+        assertNull(child.getUserData());
+        assertNull(child.getDataFlowNode());
+
+        child.setUserData("data");
+        assertEquals("data", child.getUserData());
+        assertNull(child.getDataFlowNode());
+    }
+
+    private static DummyNode node(String image) {
+        DummyNode node = new DummyNode(1);
+        node.setImage(image);
+        return node;
+    }
+
+    private static void add(Node parent, Node child) {
+        parent.jjtAddChild(child, parent.jjtGetNumChildren());
+        child.jjtSetParent(parent);
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.ast;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SourceCodePositioner}.
+ */
+public class SourceCodePositionerTest {
+
+    private static final String SOURCE_CODE = "abcd\ndefghi\n\njklmn\nopq";
+
+    /**
+     * Tests whether the lines and columns are calculated correctly.
+     */
+    @Test
+    public void testLineNumberFromOffset() {
+        SourceCodePositioner positioner = new SourceCodePositioner(SOURCE_CODE);
+
+        int offset;
+
+        offset = SOURCE_CODE.indexOf('a');
+        assertEquals(1, positioner.lineNumberFromOffset(offset));
+        assertEquals(1, positioner.columnFromOffset(offset));
+
+        offset = SOURCE_CODE.indexOf('e');
+        assertEquals(2, positioner.lineNumberFromOffset(offset));
+        assertEquals(2, positioner.columnFromOffset(offset));
+
+        offset = SOURCE_CODE.indexOf("\n\n") + 1;
+        assertEquals(3, positioner.lineNumberFromOffset(offset));
+        assertEquals(1, positioner.columnFromOffset(offset));
+
+        offset = SOURCE_CODE.indexOf('q');
+        assertEquals(5, positioner.lineNumberFromOffset(offset));
+        assertEquals(3, positioner.columnFromOffset(offset));
+
+        assertEquals(5, positioner.getLineCount());
+        assertEquals(SOURCE_CODE.indexOf('j'), positioner.lineStartOffset(4));
+    }
+
+    @Test
+    public void testTrailingLineBreaks() {
+        String sourceCode = "abc\n\n";
+        SourceCodePositioner positioner = new SourceCodePositioner(sourceCode);
+
+        assertEquals(3, positioner.getLineCount());
+        assertEquals(2, positioner.lineNumberFromOffset(4));
+        assertEquals(3, positioner.lineNumberFromOffset(sourceCode.length()));
+        assertEquals(1, positioner.columnFromOffset(sourceCode.length()));
+    }
+
+    @Test
+    public void testNegativeOffset() {
+        SourceCodePositioner positioner = new SourceCodePositioner(SOURCE_CODE);
+        assertEquals(0, positioner.lineNumberFromOffset(-1));
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.dfa.pathfinder;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.dfa.StartOrEndDataFlowNode;
+import net.sourceforge.pmd.lang.dfa.VariableAccess;
+
+import org.junit.Test;
+
+public class DAAWorklistAnalyzerTest implements AccessSequenceHandler {
+
+    private List<DataFlowNode> flow = new ArrayList<DataFlowNode>();
+    private List<String> sequences = new ArrayList<String>();
+
+    @Test
+    public void testSequentialBranches() {
+        DataFlowNode start = node(1, VariableAccess.UNDEFINITION);
+        node(2, VariableAccess.DEFINITION);
+        // 20 sequential if statements without else, i.e. 2^20 paths
+        for (int i = 0; i < 20; i++) {
+            DataFlowNode branch = node(3);
+            node(3);
+            DataFlowNode join = node(3);
+            branch.addPathToChild(join);
+        }
+        node(4, VariableAccess.DEFINITION);
+        node(5, VariableAccess.UNDEFINITION);
+
+        new DAAWorklistAnalyzer(start, this).run();
+
+        assertSequences("2@1->0@2", "0@2->0@4", "0@4->2@5");
+    }
+
+    @Test
+    public void testLoop() {
+        DataFlowNode start = node(1, VariableAccess.UNDEFINITION);
+        node(2, VariableAccess.DEFINITION);
+        DataFlowNode head = node(3);
+        DataFlowNode body = node(4, VariableAccess.REFERENCING);
+        body.addPathToChild(head);
+        DataFlowNode end = new StartOrEndDataFlowNode(flow, 5, false);
+        body.removePathToChild(end);
+        head.addPathToChild(end);
+        end.setVariableAccess(accesses(VariableAccess.UNDEFINITION));
+
+        new DAAWorklistAnalyzer(start, this).run();
+
+        assertSequences("2@1->0@2", "0@2->1@4", "1@4->1@4", "0@2->2@5", "1@4->2@5");
+    }
+
+    @Test
+    public void testUnreachableNodesAreIgnored() {
+        DataFlowNode start = node(1, VariableAccess.UNDEFINITION);
+        DataFlowNode returnNode = node(2, VariableAccess.DEFINITION);
+        DataFlowNode dead = node(3, VariableAccess.DEFINITION);
+        DataFlowNode end = node(4, VariableAccess.UNDEFINITION);
+        returnNode.removePathToChild(dead);
+        returnNode.addPathToChild(end);
+
+        new DAAWorklistAnalyzer(start, this).run();
+
+        assertSequences("2@1->0@2", "0@2->2@4");
+    }
+
+    public void execute(DataFlowNode previousNode, int previousAccessType, DataFlowNode node, VariableAccess access) {
+        sequences.add(previousAccessType + "@" + previousNode.getLine() + "->" + access.getAccessType() + "@"
+                + node.getLine());
+    }
+
+    private void assertSequences(String... expected) {
+        List<String> expectedList = new ArrayList<String>(Arrays.asList(expected));
+        Collections.sort(expectedList);
+        Collections.sort(sequences);
+        assertEquals(expectedList, sequences);
+    }
+
+    private DataFlowNode node(int line, int... accessTypes) {
+        DataFlowNode node = new StartOrEndDataFlowNode(flow, line, flow.isEmpty());
+        node.setVariableAccess(accesses(accessTypes));
+        return node;
+    }
+
+    private static List<VariableAccess> accesses(int... accessTypes) {
+        List<VariableAccess> accesses = new ArrayList<VariableAccess>();
+        for (int accessType : accessTypes) {
+            accesses.add(new VariableAccess(accessType, "x"));
+        }
+        return accesses;
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.rule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.Node;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RuleWatchdogTest {
+
+    private RuleWatchdog watchdog;
+    private RuleContext ctx;
+
+    @Before
+    public void setUp() {
+        watchdog = new RuleWatchdog(50);
+        ctx = new RuleContext();
+        ctx.setReport(new Report());
+        ctx.setSourceCodeFilename("Foo.dummy");
+        ctx.setLanguageVersion(LanguageRegistry.getLanguage(DummyLanguageModule.NAME).getDefaultVersion());
+        ctx.setRuleWatchdog(watchdog);
+    }
+
+    @After
+    public void tearDown() {
+        watchdog.shutdown();
+    }
+
+    @Test
+    public void testSlowRuleIsCancelled() {
+        RuleSet ruleSet = RuleSet.createFor("RuleSet", new SlowRule(), new FooRule());
+        ruleSet.apply(makeCompilationUnits(), ctx);
+
+        assertTimeout();
+        assertEquals("the next rule still runs", 1, ctx.getReport().size());
+        // the cancellation does not leak into the next rule
+        RuleWatchdog.checkCancelled();
+    }
+
+    @Test
+    public void testSlowRuleChainRuleIsCancelled() {
+        SlowRule slow = new SlowRule();
+        slow.addRuleChainVisit("dummyNode");
+        FooRule foo = new FooRule();
+        foo.addRuleChainVisit("dummyNode");
+        RuleSets ruleSets = new RuleSets(RuleSet.createFor("RuleSet", slow, foo));
+        ruleSets.apply(makeCompilationUnits(), ctx, LanguageRegistry.getLanguage(DummyLanguageModule.NAME));
+
+        assertTimeout();
+        assertEquals("the next rule still runs", 1, ctx.getReport().size());
+    }
+
+    @Test
+    public void testFastRuleIsNotCancelled() {
+        RuleSet ruleSet = RuleSet.createFor("RuleSet", new FooRule());
+        ruleSet.apply(makeCompilationUnits(), ctx);
+
+        assertTrue(!ctx.getReport().errors().hasNext());
+        assertEquals(1, ctx.getReport().size());
+    }
+
+    private void assertTimeout() {
+        Iterator<Report.ProcessingError> errors = ctx.getReport().errors();
+        assertTrue(errors.hasNext());
+        Report.ProcessingError error = errors.next();
+        assertEquals("Foo.dummy", error.getFile());
+        assertTrue(error.getMsg(), error.getMsg().startsWith("Rule Slow exceeded its time budget of 50 ms on Foo.dummy"));
+        assertTrue(!errors.hasNext());
+    }
+
+    private List<Node> makeCompilationUnits() {
+        List<Node> nodes = new ArrayList<Node>();
+        DummyNode node = new DummyNode(1);
+        node.testingOnly__setBeginLine(1);
+        node.testingOnly__setBeginColumn(1);
+        node.setImage("Foo");
+        nodes.add(node);
+        return nodes;
+    }
+
+    /**
+     * Spins until it is cancelled, reports a violation if it never is.
+     */
+    private static class SlowRule extends MockRule {
+        SlowRule() {
+            super("Slow", "desc", "slow", "RuleSet");
+        }
+
+        @Override
+        public void apply(List<? extends Node> nodes, RuleContext ctx) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (System.nanoTime() < deadline) {
+                RuleWatchdog.checkCancelled();
+            }
+            addViolation(ctx, nodes.get(0));
+        }
+    }
+}
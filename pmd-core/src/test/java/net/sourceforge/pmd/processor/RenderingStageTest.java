@@ -0,0 +1,102 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.renderers.TextRenderer;
+
+import org.junit.Test;
+
+public class RenderingStageTest {
+
+    private final AbstractPMDProcessor processor = new MonoThreadProcessor(new PMDConfiguration());
+
+    @Test
+    public void testRendersAllReportsInOrder() throws IOException {
+        StringWriter writer = new StringWriter();
+        Renderer renderer = new TextRenderer();
+        renderer.setWriter(writer);
+        renderer.start();
+
+        RenderingStage stage = new RenderingStage(processor, list(renderer));
+        stage.start();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            stage.render(report("File" + i + ".java"));
+            expected.append("File").append(i).append(".java:1:\tmsg").append(PMD.EOL);
+        }
+        stage.finish();
+
+        assertSame(writer, renderer.getWriter());
+        assertEquals(expected.toString(), writer.toString());
+    }
+
+    @Test
+    public void testOutputIsBuffered() throws IOException {
+        StringWriter writer = new StringWriter();
+        Renderer renderer = new TextRenderer();
+        renderer.setWriter(writer);
+
+        RenderingStage stage = new RenderingStage(processor, list(renderer));
+        stage.start();
+        assertTrue(renderer.getWriter() != writer);
+        renderer.getWriter().write("line");
+        renderer.getWriter().flush();
+        // the interval for the first flush hasn't passed yet
+        assertEquals("", writer.toString());
+        stage.finish();
+        assertEquals("line", writer.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailureIsRethrown() {
+        Renderer renderer = new TextRenderer() {
+            @Override
+            public void renderFileReport(Report report) {
+                throw new IllegalStateException();
+            }
+        };
+        renderer.setWriter(new StringWriter());
+        RenderingStage stage = new RenderingStage(processor, list(renderer));
+        stage.start();
+        stage.render(report("File.java"));
+        stage.render(report("File2.java"));
+        stage.finish();
+    }
+
+    private static List<Renderer> list(Renderer renderer) {
+        List<Renderer> renderers = new ArrayList<Renderer>();
+        renderers.add(renderer);
+        return renderers;
+    }
+
+    private static Report report(String file) {
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(file);
+        DummyNode node = new DummyNode(1);
+        node.testingOnly__setBeginLine(1);
+        node.testingOnly__setBeginColumn(1);
+        Report report = new Report();
+        report.addRuleViolation(new ParametricRuleViolation<Node>(new MockRule("Rule", "desc", "msg", "rulesetname"),
+                ctx, node, "msg"));
+        return report;
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+
+import org.junit.Test;
+
+public class BinaryRendererTest {
+
+    @Test
+    public void testReplayMatchesDirectRendering() throws IOException {
+        List<Report> reports = reports();
+        byte[] binary = renderBinary(reports);
+
+        for (Renderer renderer : new Renderer[] { new TextRenderer(), new CSVRenderer(), new HTMLRenderer() }) {
+            String expected = render(renderer, reports);
+            String actual = replay(renderer.getClass(), binary);
+            assertEquals(renderer.getName(), expected, actual);
+        }
+    }
+
+    @Test
+    public void testSuppressedViolations() throws IOException {
+        Report report = new Report();
+        report.getSuppressedRuleViolations().add(
+                new Report.SuppressedViolation(violation(rule("Suppressed"), "File.java", 3, "msg"), true, "// NOPMD"));
+        List<Report> reports = new ArrayList<Report>();
+        reports.add(report);
+        byte[] binary = renderBinary(reports);
+
+        TextRenderer renderer = new TextRenderer();
+        renderer.setShowSuppressedViolations(true);
+        StringWriter writer = new StringWriter();
+        renderer.setWriter(writer);
+        new BinaryReportReader(new ByteArrayInputStream(binary)).replay(renderer);
+        assertEquals("Suppressed rule violation suppressed by //NOPMD in File.java" + PMD.EOL,
+                writer.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotABinaryReport() throws IOException {
+        new BinaryReportReader(new ByteArrayInputStream("<?xml ?>".getBytes("UTF-8"))).replay(new TextRenderer());
+    }
+
+    private static List<Report> reports() {
+        Rule first = rule("First");
+        first.setExternalInfoUrl("http://pmd.sourceforge.net/first");
+        Rule second = rule("Second");
+        second.setPriority(RulePriority.HIGH);
+
+        List<Report> reports = new ArrayList<Report>();
+        Report report = new Report();
+        report.addRuleViolation(violation(first, "A.java", 10, "first \u00e4\u20ac"));
+        report.addRuleViolation(violation(second, "A.java", 2, "second"));
+        report.addRuleViolation(violation(first, "A.java", 20, "first \u00e4\u20ac"));
+        reports.add(report);
+        reports.add(new Report());
+        report = new Report();
+        report.addRuleViolation(violation(second, "B.java", 200000, "second"));
+        report.addError(new Report.ProcessingError("Parse error", "C.java"));
+        reports.add(report);
+        return reports;
+    }
+
+    private static Rule rule(String name) {
+        return new MockRule(name, "desc", "msg", "ruleset", RulePriority.MEDIUM);
+    }
+
+    private static ParametricRuleViolation<Node> violation(Rule rule, String file, int line, String message) {
+        DummyNode node = new DummyNode(1);
+        node.testingOnly__setBeginLine(line);
+        node.testingOnly__setBeginColumn(1);
+        node.testingOnly__setEndLine(line + 1);
+        node.testingOnly__setEndColumn(5);
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(file);
+        return new ParametricRuleViolation<Node>(rule, ctx, node, message);
+    }
+
+    private static byte[] renderBinary(List<Report> reports) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryRenderer renderer = new BinaryRenderer();
+        renderer.setShowSuppressedViolations(true);
+        renderer.setOutputStream(out);
+        renderer.start();
+        for (Report report : reports) {
+            renderer.renderFileReport(report);
+        }
+        renderer.end();
+        renderer.flush();
+        return out.toByteArray();
+    }
+
+    private static String render(Renderer renderer, List<Report> reports) throws IOException {
+        StringWriter writer = new StringWriter();
+        renderer.setWriter(writer);
+        renderer.start();
+        for (Report report : reports) {
+            renderer.renderFileReport(report);
+        }
+        renderer.end();
+        return writer.toString();
+    }
+
+    private static String replay(Class<? extends Renderer> rendererClass, byte[] binary) throws IOException {
+        Renderer renderer;
+        try {
+            renderer = rendererClass.newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        StringWriter writer = new StringWriter();
+        renderer.setWriter(writer);
+        new BinaryReportReader(new ByteArrayInputStream(binary)).replay(renderer);
+        return writer.toString();
+    }
+}
@@ -3,6 +3,9 @@
  */
 package net.sourceforge.pmd.renderers;
 
+import java.io.File;
+import java.io.IOException;
+
 import net.sourceforge.pmd.FooRule;
 import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.ReportTest;
@@ -12,11 +15,17 @@ import net.sourceforge.pmd.lang.ast.DummyNode;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class XSLTRendererTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testDefaultStylesheet() throws Exception {
         XSLTRenderer renderer = new XSLTRenderer();
@@ -30,4 +39,53 @@ public class XSLTRendererTest {
         String result = ReportTest.render(renderer, report);
         Assert.assertTrue(result.contains("violation message"));
     }
+
+    @Test
+    public void testCustomStylesheet() throws Exception {
+        File xslt = stylesheet("<xsl:for-each select=\"pmd/file/violation\">"
+                + "<xsl:value-of select=\"concat(../@name, ':', @beginline, ':', normalize-space(.), ';')\"/>"
+                + "</xsl:for-each><xsl:value-of select=\"concat('error:', pmd/error/@filename)\"/>");
+        XSLTRenderer renderer = new XSLTRenderer();
+        renderer.setProperty(XSLTRenderer.XSLT_FILENAME, xslt.getPath());
+
+        Report report = new Report();
+        report.addRuleViolation(violation("A.java", 3, "a < b & \"c\""));
+        report.addRuleViolation(violation("B.java", 1, "second"));
+        report.addError(new Report.ProcessingError("Parse error", "C.java"));
+        Assert.assertEquals("A.java:3:a < b & \"c\";B.java:1:second;error:C.java", ReportTest.render(renderer, report));
+    }
+
+    @Test
+    public void testModifiedStylesheetIsCompiledAgain() throws Exception {
+        File xslt = stylesheet("<xsl:text>first</xsl:text>");
+        XSLTRenderer renderer = new XSLTRenderer();
+        renderer.setProperty(XSLTRenderer.XSLT_FILENAME, xslt.getPath());
+        Assert.assertEquals("first", ReportTest.render(renderer, new Report()));
+
+        long lastModified = xslt.lastModified();
+        FileUtils.writeStringToFile(xslt, wrap("<xsl:text>second</xsl:text>"), "UTF-8");
+        xslt.setLastModified(lastModified + 2000);
+        Assert.assertEquals("second", ReportTest.render(renderer, new Report()));
+    }
+
+    private File stylesheet(String template) throws IOException {
+        File xslt = folder.newFile("report.xsl");
+        FileUtils.writeStringToFile(xslt, wrap(template), "UTF-8");
+        return xslt;
+    }
+
+    private static String wrap(String template) {
+        return "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+                + "<xsl:output method=\"text\"/><xsl:template match=\"/\">" + template
+                + "</xsl:template></xsl:stylesheet>";
+    }
+
+    private static RuleViolation violation(String file, int line, String message) {
+        DummyNode node = new DummyNode(1);
+        node.testingOnly__setBeginLine(line);
+        node.testingOnly__setBeginColumn(1);
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(file);
+        return new ParametricRuleViolation<Node>(new FooRule(), ctx, node, message);
+    }
 }
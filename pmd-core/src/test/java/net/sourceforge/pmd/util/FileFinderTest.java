@@ -0,0 +1,95 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageFilenameFilter;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.filter.Filters;
+import net.sourceforge.pmd.util.filter.OrFilter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileFinderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testParallelScanKeepsOrder() throws IOException {
+        createTree(folder.getRoot(), 3);
+        FilenameFilter filter = Filters.toFilenameFilter(new OrFilter<File>(Filters
+                .toFileFilter(new LanguageFilenameFilter(dummyLanguage())), Filters.getDirectoryFilter()));
+
+        List<File> expected = new FileFinder().findFilesFrom(folder.getRoot(), filter, true);
+        assertEquals(28, expected.size());
+        for (int threads = 2; threads <= 4; threads++) {
+            assertEquals(expected, new FileFinder(threads).findFilesFrom(folder.getRoot(), filter, true));
+        }
+        assertEquals(new FileFinder().findFilesFrom(folder.getRoot(), filter, false),
+                new FileFinder(4).findFilesFrom(folder.getRoot(), filter, false));
+    }
+
+    @Test
+    public void testExcludedFilesAreNotCollected() throws IOException {
+        createTree(folder.getRoot(), 2);
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setInputPaths(folder.getRoot().getPath());
+        configuration.setThreads(2);
+        RuleSet ruleSet = new RuleSet();
+        ruleSet.addExcludePattern(".*/dir0/.*");
+
+        List<DataSource> files = PMD.getApplicableFiles(configuration, Collections.singleton(dummyLanguage()),
+                new RuleSets(ruleSet));
+        List<DataSource> all = PMD.getApplicableFiles(configuration, Collections.singleton(dummyLanguage()));
+        assertEquals(12, all.size());
+        assertEquals(8, files.size());
+        for (DataSource file : files) {
+            assertEquals(-1, file.getNiceFileName(false, null).indexOf("dir0"));
+        }
+    }
+
+    private static Language dummyLanguage() {
+        return LanguageRegistry.getLanguage(DummyLanguageModule.NAME);
+    }
+
+    /**
+     * Creates four matching files and one other file per directory, and two
+     * sub directories for each level.
+     */
+    private static List<File> createTree(File dir, int depth) throws IOException {
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 4; i++) {
+            File file = new File(dir, "File" + i + ".dummy");
+            file.createNewFile();
+            files.add(file);
+        }
+        new File(dir, "Other.txt").createNewFile();
+        if (depth > 1) {
+            for (int i = 0; i < 2; i++) {
+                File subDir = new File(dir, "dir" + i);
+                subDir.mkdir();
+                files.addAll(createTree(subDir, depth - 1));
+            }
+        }
+        return files;
+    }
+}
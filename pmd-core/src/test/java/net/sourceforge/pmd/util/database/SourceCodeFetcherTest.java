@@ -0,0 +1,132 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.util.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Retrieves source code from the {@link StandInDriver}.
+ */
+public class SourceCodeFetcherTest {
+
+    private static final String QUERY = "?schemas=SCOTT&sourcecodetypes=%25&sourcecodenames=%25&languages=%25";
+
+    @Before
+    public void setUp() {
+        StandInDriver.reset();
+        StandInDriver.add("SCOTT", "PACKAGE_SPEC", "PKG_A", "PACKAGE PKG_A IS\nEND;\n");
+        StandInDriver.add("SCOTT", "PACKAGE_SPEC", "PKG_B", "PACKAGE PKG_B IS\n  x NUMBER;\nEND;\n");
+        StandInDriver.add("SCOTT", "PACKAGE_SPEC", "PKG_C", "PACKAGE PKG_C IS\nEND;\n");
+        StandInDriver.add("SCOTT", "PROCEDURE", "PRC_A", "PROCEDURE PRC_A IS\nBEGIN\n  NULL;\nEND;\n");
+    }
+
+    @Test
+    public void testSourceCodeIsRetrievedLazily() throws Exception {
+        List<DataSource> dataSources = PMD.getURIDataSources("jdbc:standin://localhost/test" + QUERY);
+        assertEquals(4, dataSources.size());
+        assertEquals(0, StandInDriver.SOURCE_QUERIES.get());
+
+        assertEquals("/Database/SCOTT/PACKAGE_SPEC/PKG_A.pks", dataSources.get(0).getNiceFileName(false, null));
+        assertEquals("PACKAGE PKG_A IS\nEND;\n", read(dataSources.get(0)));
+        assertEquals(1, StandInDriver.SOURCE_QUERIES.get());
+        assertEquals("/Database/SCOTT/PROCEDURE/PRC_A.prc", dataSources.get(3).getNiceFileName(false, null));
+        assertEquals("PROCEDURE PRC_A IS\nBEGIN\n  NULL;\nEND;\n", read(dataSources.get(3)));
+        read(dataSources.get(1));
+        assertEquals(1, StandInDriver.OPEN_CONNECTIONS.get());
+        read(dataSources.get(2));
+
+        assertEquals(4, StandInDriver.SOURCE_QUERIES.get());
+        assertEquals(0, StandInDriver.BATCH_QUERIES.get());
+        assertEquals(1, StandInDriver.CONNECTIONS.get());
+        assertEquals(0, StandInDriver.OPEN_CONNECTIONS.get());
+    }
+
+    @Test
+    public void testSourceCodeIsRetrievedInBatches() throws Exception {
+        List<DataSource> dataSources = PMD.getURIDataSources("jdbc:standin:standinbatch://localhost/test" + QUERY
+                + "&sourceCodeBatchSize=2");
+        assertEquals(4, dataSources.size());
+
+        assertEquals("PACKAGE PKG_B IS\n  x NUMBER;\nEND;\n", read(dataSources.get(1)));
+        assertEquals(1, StandInDriver.BATCH_QUERIES.get());
+        assertEquals("PACKAGE PKG_A IS\nEND;\n", read(dataSources.get(0)));
+        assertEquals(1, StandInDriver.BATCH_QUERIES.get());
+        assertEquals("PACKAGE PKG_C IS\nEND;\n", read(dataSources.get(2)));
+        assertEquals("PROCEDURE PRC_A IS\nBEGIN\n  NULL;\nEND;\n", read(dataSources.get(3)));
+
+        // PKG_A and PKG_B, PKG_C, PRC_A
+        assertEquals(3, StandInDriver.BATCH_QUERIES.get());
+        assertEquals(0, StandInDriver.SOURCE_QUERIES.get());
+        assertEquals(0, StandInDriver.OPEN_CONNECTIONS.get());
+    }
+
+    @Test
+    public void testSourceCodeMissingFromBatch() throws Exception {
+        List<DataSource> dataSources = PMD.getURIDataSources("jdbc:standin:standinbatch://localhost/test" + QUERY);
+        StandInDriver.NOT_IN_BATCH.add("PRC_A");
+        assertEquals("PROCEDURE PRC_A IS\nBEGIN\n  NULL;\nEND;\n", read(dataSources.get(3)));
+        assertEquals(1, StandInDriver.BATCH_QUERIES.get());
+        assertEquals(1, StandInDriver.SOURCE_QUERIES.get());
+    }
+
+    @Test
+    public void testConnectionPool() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            StandInDriver.add("SCOTT", "FUNCTION", "FNC_" + i, "FUNCTION FNC_" + i + " RETURN NUMBER IS\nEND;\n");
+        }
+        final List<DataSource> dataSources = PMD.getURIDataSources("jdbc:standin://localhost/test" + QUERY
+                + "&connectionPoolSize=2");
+        assertEquals(54, dataSources.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> sourceCode = new ArrayList<Future<String>>();
+            for (final DataSource dataSource : dataSources) {
+                sourceCode.add(executor.submit(new Callable<String>() {
+                    public String call() throws IOException {
+                        return read(dataSource);
+                    }
+                }));
+            }
+            for (int i = 0; i < sourceCode.size(); i++) {
+                String name = dataSources.get(i).getNiceFileName(false, null);
+                String expected = name.substring(name.lastIndexOf('/') + 1, name.lastIndexOf('.'));
+                assertTrue(sourceCode.get(i).get().contains(expected));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(54, StandInDriver.SOURCE_QUERIES.get());
+        assertTrue(StandInDriver.CONNECTIONS.get() <= 2);
+        assertTrue(StandInDriver.MAXIMUM_OPEN_CONNECTIONS.get() <= 2);
+        assertEquals(0, StandInDriver.OPEN_CONNECTIONS.get());
+    }
+
+    private static String read(DataSource dataSource) throws IOException {
+        InputStream in = dataSource.getInputStream();
+        try {
+            return IOUtils.toString(in);
+        } finally {
+            in.close();
+        }
+    }
+}
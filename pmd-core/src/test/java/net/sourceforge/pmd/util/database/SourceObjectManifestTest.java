@@ -0,0 +1,176 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.util.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.renderers.TextRenderer;
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Analyzes only the Source Objects of the {@link StandInDriver}, which changed since the previous run.
+ */
+public class SourceObjectManifestTest {
+
+    private static final String PKG_A = "/Database/SCOTT/PACKAGE_SPEC/PKG_A.pks";
+    private static final String PKG_B = "/Database/SCOTT/PACKAGE_SPEC/PKG_B.pks";
+    private static final String PRC_A = "/Database/SCOTT/PROCEDURE/PRC_A.prc";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File manifestFile;
+    private String uri;
+
+    @Before
+    public void setUp() throws IOException {
+        StandInDriver.reset();
+        StandInDriver.add("SCOTT", "PACKAGE_SPEC", "PKG_A", "PACKAGE PKG_A IS\nEND;\n");
+        StandInDriver.add("SCOTT", "PACKAGE_SPEC", "PKG_B", "PACKAGE PKG_B IS\nEND;\n");
+        StandInDriver.add("SCOTT", "PROCEDURE", "PRC_A", "PROCEDURE PRC_A IS\nBEGIN\n  NULL;\nEND;\n");
+        manifestFile = new File(folder.getRoot(), "scott.manifest");
+        uri = "jdbc:standin://localhost/test?schemas=SCOTT&sourcecodetypes=%25&sourcecodenames=%25&languages=%25"
+                + "&manifest=" + manifestFile.getPath();
+    }
+
+    @Test
+    public void testManifestParameter() {
+        assertEquals(manifestFile.getPath(), SourceObjectManifest.getManifestParameter(uri));
+        assertEquals(null, SourceObjectManifest.getManifestParameter("jdbc:standin://localhost/test?schemas=SCOTT"));
+        assertEquals(null, SourceObjectManifest.getManifestParameter(null));
+    }
+
+    @Test
+    public void testUnchangedObjectsAreCarriedForward() throws Exception {
+        assertEquals(3, analyze("rules").size());
+        assertEquals(3, StandInDriver.SOURCE_QUERIES.get());
+
+        StandInDriver.SOURCE_QUERIES.set(0);
+        StringWriter carriedForward = new StringWriter();
+        assertEquals(0, analyze("rules", carriedForward).size());
+        assertEquals(0, StandInDriver.SOURCE_QUERIES.get());
+        assertEquals(0, StandInDriver.OPEN_CONNECTIONS.get());
+        assertEquals(PKG_A + ":1:\tPKG_A is bad" + PMD.EOL, carriedForward.toString());
+
+        StandInDriver.touch("SCOTT", "PACKAGE_SPEC", "PKG_B", "2");
+        assertEquals(list(PKG_B), analyze("rules"));
+        assertEquals(1, StandInDriver.SOURCE_QUERIES.get());
+        assertEquals(0, analyze("rules").size());
+    }
+
+    @Test
+    public void testChangedRulesAnalyzeAllObjects() throws Exception {
+        assertEquals(3, analyze("rules").size());
+        assertEquals(3, analyze("other rules").size());
+        assertEquals(0, analyze("other rules").size());
+    }
+
+    @Test
+    public void testObjectsWithErrorsAreAnalyzedAgain() throws Exception {
+        assertEquals(3, analyze("rules").size());
+        StandInDriver.touch("SCOTT", "PROCEDURE", "PRC_A", "2");
+        assertEquals(list(PRC_A), analyze("rules"));
+        assertEquals(list(PRC_A), analyze("rules"));
+    }
+
+    @Test
+    public void testFingerprint() {
+        PMDConfiguration configuration = new PMDConfiguration();
+        MockRule rule = new MockRule("Bad", "desc", "msg", "ruleset", RulePriority.MEDIUM);
+        RuleSet ruleSet = new RuleSet();
+        ruleSet.addRule(rule);
+        RuleSets ruleSets = new RuleSets(ruleSet);
+
+        String fingerprint = SourceObjectManifest.fingerprint(configuration, ruleSets);
+        assertEquals(fingerprint, SourceObjectManifest.fingerprint(configuration, ruleSets));
+        rule.setPriority(RulePriority.HIGH);
+        assertFalse(fingerprint.equals(SourceObjectManifest.fingerprint(configuration, ruleSets)));
+    }
+
+    /**
+     * Simulates a run of PMD, which finds a violation in PKG_A and fails on PRC_A with revision 2.
+     *
+     * @return the names of the analyzed files
+     */
+    private List<String> analyze(String fingerprint) throws Exception {
+        return analyze(fingerprint, new StringWriter());
+    }
+
+    private List<String> analyze(String fingerprint, StringWriter carriedForward) throws Exception {
+        List<DataSource> dataSources = PMD.getURIDataSources(uri);
+        SourceObjectManifest manifest = new SourceObjectManifest(manifestFile, fingerprint);
+        List<DataSource> changed = manifest.selectChanged(dataSources);
+
+        TextRenderer renderer = new TextRenderer();
+        renderer.setWriter(carriedForward);
+        List<Renderer> renderers = new ArrayList<Renderer>();
+        renderers.add(renderer);
+        manifest.replayUnchanged(renderers);
+
+        Renderer recorder = manifest.createRecorder();
+        recorder.start();
+        List<String> analyzed = new ArrayList<String>();
+        for (DataSource dataSource : changed) {
+            String fileName = dataSource.getNiceFileName(false, null);
+            InputStream in = dataSource.getInputStream();
+            in.close();
+            analyzed.add(fileName);
+
+            Report report = new Report();
+            if (PKG_A.equals(fileName)) {
+                report.addRuleViolation(violation(fileName, "PKG_A is bad"));
+            } else if (PRC_A.equals(fileName)
+                    && "2".equals(StandInDriver.TIMESTAMPS.get(StandInDriver.key("SCOTT", "PROCEDURE", "PRC_A")))) {
+                report.addError(new Report.ProcessingError("Parse error", fileName));
+            }
+            recorder.renderFileReport(report);
+        }
+        recorder.end();
+        recorder.flush();
+        return analyzed;
+    }
+
+    private static ParametricRuleViolation<Node> violation(String fileName, String message) {
+        DummyNode node = new DummyNode(1);
+        node.testingOnly__setBeginLine(1);
+        node.testingOnly__setBeginColumn(1);
+        node.testingOnly__setEndLine(2);
+        node.testingOnly__setEndColumn(5);
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFilename(fileName);
+        return new ParametricRuleViolation<Node>(new MockRule("Bad", "desc", "msg", "ruleset", RulePriority.MEDIUM),
+                ctx, node, message);
+    }
+
+    private static List<String> list(String fileName) {
+        List<String> list = new ArrayList<String>();
+        list.add(fileName);
+        return list;
+    }
+}
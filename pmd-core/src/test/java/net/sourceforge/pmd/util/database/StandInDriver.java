@@ -0,0 +1,265 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.util.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * A JDBC driver standing in for a database with stored source code. It
+ * understands the statements of the DBType "standin": <code>OBJECTS</code>
+ * lists the source objects, <code>SOURCE</code> returns the source code of one
+ * object, <code>BATCH</code> the source code lines of a range of objects and
+ * <code>TIMESTAMPS</code> the last DDL timestamps of the objects of a schema.
+ */
+public class StandInDriver implements Driver {
+
+    static final String URL_PREFIX = "jdbc:standin:";
+
+    /** The source code by schema, type and name. */
+    static final Map<List<String>, String> SOURCE_CODE = new TreeMap<List<String>, String>(new Comparator<List<String>>() {
+        public int compare(List<String> o1, List<String> o2) {
+            return o1.toString().compareTo(o2.toString());
+        }
+    });
+
+    /** The names of the objects, which the batch query does not find. */
+    static final Set<String> NOT_IN_BATCH = new HashSet<String>();
+
+    /** The last DDL timestamps by schema, type and name, "1" if missing. */
+    static final Map<List<String>, String> TIMESTAMPS = new HashMap<List<String>, String>();
+
+    static final AtomicInteger CONNECTIONS = new AtomicInteger();
+    static final AtomicInteger OPEN_CONNECTIONS = new AtomicInteger();
+    static final AtomicInteger MAXIMUM_OPEN_CONNECTIONS = new AtomicInteger();
+    static final AtomicInteger SOURCE_QUERIES = new AtomicInteger();
+    static final AtomicInteger BATCH_QUERIES = new AtomicInteger();
+
+    static {
+        try {
+            DriverManager.registerDriver(new StandInDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static synchronized void reset() {
+        SOURCE_CODE.clear();
+        NOT_IN_BATCH.clear();
+        TIMESTAMPS.clear();
+        CONNECTIONS.set(0);
+        OPEN_CONNECTIONS.set(0);
+        MAXIMUM_OPEN_CONNECTIONS.set(0);
+        SOURCE_QUERIES.set(0);
+        BATCH_QUERIES.set(0);
+    }
+
+    static synchronized void add(String schema, String type, String name, String sourceCode) {
+        SOURCE_CODE.put(key(schema, type, name), sourceCode);
+    }
+
+    static synchronized void touch(String schema, String type, String name, String timestamp) {
+        TIMESTAMPS.put(key(schema, type, name), timestamp);
+    }
+
+    static List<String> key(String schema, String type, String name) {
+        List<String> key = new ArrayList<String>(3);
+        key.add(schema);
+        key.add(type);
+        key.add(name);
+        return key;
+    }
+
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        CONNECTIONS.incrementAndGet();
+        int open = OPEN_CONNECTIONS.incrementAndGet();
+        while (true) {
+            int maximum = MAXIMUM_OPEN_CONNECTIONS.get();
+            if (open <= maximum || MAXIMUM_OPEN_CONNECTIONS.compareAndSet(maximum, open)) {
+                break;
+            }
+        }
+        return proxy(Connection.class, new ConnectionHandler());
+    }
+
+    public boolean acceptsURL(String url) {
+        return url.startsWith(URL_PREFIX);
+    }
+
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StandInDriver.class.getClassLoader(), new Class<?>[] { type },
+                handler));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return Boolean.FALSE;
+        } else if (type == int.class) {
+            return Integer.valueOf(0);
+        } else if (type == long.class) {
+            return Long.valueOf(0);
+        }
+        return null;
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private boolean closed;
+
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if ("prepareStatement".equals(name)) {
+                return proxy(PreparedStatement.class, new StatementHandler((String) args[0]));
+            } else if ("prepareCall".equals(name)) {
+                return proxy(CallableStatement.class, new StatementHandler((String) args[0]));
+            } else if ("close".equals(name)) {
+                if (!closed) {
+                    closed = true;
+                    OPEN_CONNECTIONS.decrementAndGet();
+                }
+                return null;
+            } else if ("isClosed".equals(name)) {
+                return closed;
+            }
+            return defaultValue(method.getReturnType());
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final String sql;
+        private final Map<Integer, String> parameters = new HashMap<Integer, String>();
+        private String result;
+
+        StatementHandler(String sql) {
+            this.sql = sql;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if ("setString".equals(name)) {
+                parameters.put((Integer) args[0], (String) args[1]);
+                return null;
+            } else if ("executeQuery".equals(name)) {
+                return proxy(ResultSet.class, new ResultSetHandler(query()));
+            } else if ("executeUpdate".equals(name)) {
+                // SOURCE: OUT source code, IN type, name, schema
+                SOURCE_QUERIES.incrementAndGet();
+                synchronized (StandInDriver.class) {
+                    result = SOURCE_CODE.get(key(parameters.get(4), parameters.get(2), parameters.get(3)));
+                }
+                return 1;
+            } else if ("getObject".equals(name)) {
+                return result;
+            }
+            return defaultValue(method.getReturnType());
+        }
+
+        private List<Map<String, String>> query() {
+            List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+            synchronized (StandInDriver.class) {
+                if ("OBJECTS".equals(sql)) {
+                    for (List<String> key : SOURCE_CODE.keySet()) {
+                        Map<String, String> row = new HashMap<String, String>();
+                        row.put("PROCEDURE_SCHEM", key.get(0));
+                        row.put("PROCEDURE_TYPE", key.get(1));
+                        row.put("PROCEDURE_NAME", key.get(2));
+                        rows.add(row);
+                    }
+                } else if ("TIMESTAMPS".equals(sql)) {
+                    // schema
+                    for (List<String> key : SOURCE_CODE.keySet()) {
+                        if (key.get(0).equals(parameters.get(1))) {
+                            String timestamp = TIMESTAMPS.get(key);
+                            Map<String, String> row = new HashMap<String, String>();
+                            row.put("PROCEDURE_TYPE", key.get(1));
+                            row.put("PROCEDURE_NAME", key.get(2));
+                            row.put("LAST_DDL_TIME", timestamp == null ? "1" : timestamp);
+                            rows.add(row);
+                        }
+                    }
+                } else if ("BATCH".equals(sql)) {
+                    // schema, type, first and last name
+                    BATCH_QUERIES.incrementAndGet();
+                    for (Map.Entry<List<String>, String> entry : SOURCE_CODE.entrySet()) {
+                        List<String> key = entry.getKey();
+                        if (key.get(0).equals(parameters.get(1)) && key.get(1).equals(parameters.get(2))
+                                && key.get(2).compareTo(parameters.get(3)) >= 0
+                                && key.get(2).compareTo(parameters.get(4)) <= 0 && !NOT_IN_BATCH.contains(key.get(2))) {
+                            for (String line : entry.getValue().split("(?<=\n)")) {
+                                Map<String, String> row = new HashMap<String, String>();
+                                row.put("PROCEDURE_NAME", key.get(2));
+                                row.put("TEXT", line);
+                                rows.add(row);
+                            }
+                        }
+                    }
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final List<Map<String, String>> rows;
+        private int row = -1;
+
+        ResultSetHandler(List<Map<String, String>> rows) {
+            this.rows = rows;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if ("next".equals(name)) {
+                row++;
+                return row < rows.size();
+            } else if ("getString".equals(name)) {
+                return rows.get(row).get(args[0]);
+            }
+            return defaultValue(method.getReturnType());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.util.datasource;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileDataSourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAscii() throws IOException {
+        assertReadAsStream("public class Foo {\n}\n".getBytes("US-ASCII"), "UTF-8");
+    }
+
+    @Test
+    public void testNonAscii() throws IOException {
+        String source = "class Foo { String s = \"\u00e4\u00f6\u00fc \u20ac \ud83d\ude00\"; }";
+        assertReadAsStream(source.getBytes("UTF-8"), "UTF-8");
+        assertReadAsStream(("\ufeff" + source).getBytes("UTF-8"), "UTF-8");
+        assertReadAsStream("class \u00c4 {}".getBytes("ISO-8859-1"), "ISO-8859-1");
+        assertReadAsStream(source.getBytes("UTF-16"), "UTF-16");
+    }
+
+    @Test
+    public void testMalformedInput() throws IOException {
+        assertReadAsStream(new byte[] { 'a', (byte) 0xc3, 'b', (byte) 0xff, (byte) 0xe2, (byte) 0x82 }, "UTF-8");
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        assertReadAsStream(new byte[0], "UTF-8");
+    }
+
+    @Test
+    public void testLargeFile() throws IOException {
+        StringBuilder source = new StringBuilder();
+        while (source.length() < 2 * 1024 * 1024) {
+            source.append("int \u00e4 = 42; // comment\n");
+        }
+        assertReadAsStream(source.toString().getBytes("UTF-8"), "UTF-8");
+    }
+
+    @Test(expected = UnsupportedEncodingException.class)
+    public void testUnsupportedEncoding() throws IOException {
+        File file = folder.newFile("Foo.java");
+        new FileDataSource(file).getReader("no-such-encoding");
+    }
+
+    @Test
+    public void testCanonicalFileName() throws IOException {
+        File directory = folder.newFolder("src");
+        File file = new File(directory, "Foo.java");
+        FileUtils.writeStringToFile(file, "class Foo {}");
+        File other = new File(directory, "Bar.java");
+        FileUtils.writeStringToFile(other, "class Bar {}");
+        File nonCanonical = new File(new File(directory, ".." + File.separator + "src"), "Foo.java");
+
+        assertEquals(file.getCanonicalPath(), new FileDataSource(nonCanonical).getNiceFileName(false, null));
+        assertEquals(file.getCanonicalPath(), new FileDataSource(file).getNiceFileName(false, null));
+        assertEquals(other.getCanonicalPath(), new FileDataSource(other).getNiceFileName(false, null));
+    }
+
+    private void assertReadAsStream(byte[] bytes, String encoding) throws IOException {
+        File file = folder.newFile();
+        FileUtils.writeByteArrayToFile(file, bytes);
+        String expected = IOUtils.toString(new InputStreamReader(new ByteArrayInputStream(bytes), encoding));
+        Reader reader = new FileDataSource(file).getReader(encoding);
+        try {
+            assertEquals(expected, IOUtils.toString(reader));
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -3,18 +3,15 @@
  */
 package net.sourceforge.pmd.cpd;
 
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.Properties;
 
 import net.sourceforge.pmd.PMD;
-import net.sourceforge.pmd.lang.LanguageRegistry;
-import net.sourceforge.pmd.lang.LanguageVersionHandler;
-import net.sourceforge.pmd.lang.TokenManager;
+import net.sourceforge.pmd.lang.ast.SimpleCharStream;
 import net.sourceforge.pmd.lang.ast.TokenMgrError;
-import net.sourceforge.pmd.lang.cpp.CppLanguageModule;
+import net.sourceforge.pmd.lang.cpp.ContinuationReader;
+import net.sourceforge.pmd.lang.cpp.ast.CppParserTokenManager;
 import net.sourceforge.pmd.lang.cpp.ast.Token;
 import net.sourceforge.pmd.util.IOUtil;
 
@@ -25,6 +22,17 @@ import org.apache.commons.io.IOUtils;
  */
 public class CPPTokenizer implements Tokenizer {
 
+    /**
+     * The token manager of the current thread, it is reinitialized for each
+     * file instead of allocating new char stream buffers.
+     */
+    private static final ThreadLocal<ReusableTokenManager> TOKEN_MANAGER = new ThreadLocal<ReusableTokenManager>() {
+        @Override
+        protected ReusableTokenManager initialValue() {
+            return new ReusableTokenManager(new SimpleCharStream(new StringReader("")));
+        }
+    };
+
     private boolean skipBlocks = true;
     private String skipBlocksStart;
     private String skipBlocksEnd;
@@ -53,17 +61,15 @@ public class CPPTokenizer implements Tokenizer {
     public void tokenize(SourceCode sourceCode, Tokens tokenEntries) {
         StringBuilder buffer = sourceCode.getCodeBuffer();
         Reader reader = null;
+        ReusableTokenManager tokenManager = TOKEN_MANAGER.get();
         try {
-            LanguageVersionHandler languageVersionHandler = LanguageRegistry.getLanguage(CppLanguageModule.NAME)
-                    .getDefaultVersion().getLanguageVersionHandler();
             reader = new StringReader(maybeSkipBlocks(buffer.toString()));
             reader = IOUtil.skipBOM(reader);
-            TokenManager tokenManager = languageVersionHandler.getParser(
-                    languageVersionHandler.getDefaultParserOptions()).getTokenManager(sourceCode.getFileName(), reader);
-            Token currentToken = (Token) tokenManager.getNextToken();
+            tokenManager.reset(sourceCode.getFileName(), new ContinuationReader(reader));
+            Token currentToken = tokenManager.getNextToken();
             while (currentToken.image.length() > 0) {
                 tokenEntries.add(new TokenEntry(currentToken.image, sourceCode.getFileName(), currentToken.beginLine));
-                currentToken = (Token) tokenManager.getNextToken();
+                currentToken = tokenManager.getNextToken();
             }
             tokenEntries.add(TokenEntry.getEOF());
             System.err.println("Added " + sourceCode.getFileName());
@@ -71,35 +77,80 @@ public class CPPTokenizer implements Tokenizer {
             err.printStackTrace();
             System.err.println("Skipping " + sourceCode.getFileName() + " due to parse error");
             tokenEntries.add(TokenEntry.getEOF());
-        } catch (IOException e) {
-            e.printStackTrace();
-            System.err.println("Skipping " + sourceCode.getFileName() + " due to parse error");
-            tokenEntries.add(TokenEntry.getEOF());
         } finally {
             IOUtils.closeQuietly(reader);
+            tokenManager.reset(null, null);
         }
     }
 
-    private String maybeSkipBlocks(String test) throws IOException {
+    /**
+     * Blanks the lines between the start and end of the blocks to skip. The
+     * lines are compared in place, without creating a string per line.
+     */
+    private String maybeSkipBlocks(String test) {
         if (!skipBlocks) {
             return test;
         }
 
-        BufferedReader reader = new BufferedReader(new StringReader(test));
         StringBuilder filtered = new StringBuilder(test.length());
-        String line;
         boolean skip = false;
-        while ((line = reader.readLine()) != null) {
-            if (skipBlocksStart.equalsIgnoreCase(line.trim())) {
+        int length = test.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && test.charAt(end) != '\n' && test.charAt(end) != '\r') {
+                end++;
+            }
+            if (isLine(test, start, end, skipBlocksStart)) {
                 skip = true;
-            } else if (skip && skipBlocksEnd.equalsIgnoreCase(line.trim())) {
+            } else if (skip && isLine(test, start, end, skipBlocksEnd)) {
                 skip = false;
             }
             if (!skip) {
-                filtered.append(line);
+                filtered.append(test, start, end);
             }
             filtered.append(PMD.EOL); // always add a new line to keep the line-numbering
+
+            // like BufferedReader.readLine(): \n, \r or \r\n end a line
+            if (end < length && test.charAt(end) == '\r' && end + 1 < length && test.charAt(end + 1) == '\n') {
+                end++;
+            }
+            start = end + 1;
         }
         return filtered.toString();
     }
+
+    /**
+     * @return whether the line, without leading and trailing whitespace, equals the given text ignoring case
+     */
+    private static boolean isLine(String text, int start, int end, String line) {
+        int first = start;
+        int last = end;
+        while (first < last && text.charAt(first) <= ' ') {
+            first++;
+        }
+        while (last > first && text.charAt(last - 1) <= ' ') {
+            last--;
+        }
+        return last - first == line.length() && text.regionMatches(true, first, line, 0, line.length());
+    }
+
+    /**
+     * A token manager, which keeps its char stream and can be reused for the
+     * next file.
+     */
+    private static class ReusableTokenManager extends CppParserTokenManager {
+        private final SimpleCharStream charStream;
+
+        ReusableTokenManager(SimpleCharStream charStream) {
+            super(charStream);
+            this.charStream = charStream;
+        }
+
+        void reset(String fileName, Reader source) {
+            charStream.ReInit(source);
+            ReInit(charStream);
+            setFileName(fileName);
+        }
+    }
 }
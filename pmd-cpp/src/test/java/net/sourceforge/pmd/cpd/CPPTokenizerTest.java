@@ -4,8 +4,11 @@
 package net.sourceforge.pmd.cpd;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import net.sourceforge.pmd.PMD;
@@ -125,6 +128,34 @@ public class CPPTokenizerTest {
         assertEquals(10, tokens.size());
     }
 
+    @Test
+    public void testSkipBlocksWithMixedLineEndings() {
+        String code = "int a;\r\n  #IF 0  \r\nint b;\n#endif\rint c;\n";
+        List<String> images = images(parse(code, false));
+        assertTrue(images.contains("b:3"));
+        assertTrue(images.contains("c:5"));
+
+        images = images(parse(code, true));
+        assertFalse(images.contains("b:3"));
+        assertTrue(images.contains("c:5"));
+    }
+
+    @Test
+    public void testTokenizeAgain() {
+        List<String> first = images(parse(TEST6));
+        List<String> second = images(parse(TEST1));
+        assertEquals(first, images(parse(TEST6)));
+        assertEquals(second, images(parse(TEST1)));
+    }
+
+    private static List<String> images(Tokens tokens) {
+        List<String> images = new ArrayList<String>();
+        for (TokenEntry entry : tokens.getTokens()) {
+            images.add(entry + ":" + entry.getBeginLine());
+        }
+        return images;
+    }
+
     private Tokens parse(String snippet) {
         return parse(snippet, false);
     }
@@ -0,0 +1,7 @@
+@echo off
+set TOPDIR=%~dp0..
+set OPTS=
+set MAIN_CLASS=net.sourceforge.pmd.RuleSetSnapshotWriter
+
+java %OPTS% -Djava.ext.dirs="%TOPDIR%\lib" %MAIN_CLASS% %*
+
@@ -3,14 +3,13 @@
  */
 package net.sourceforge.pmd.cpd;
 
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.Properties;
 
-import net.sourceforge.pmd.lang.LanguageRegistry;
-import net.sourceforge.pmd.lang.LanguageVersionHandler;
-import net.sourceforge.pmd.lang.TokenManager;
-import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.ast.JavaCharStream;
 import net.sourceforge.pmd.lang.java.ast.JavaParserConstants;
+import net.sourceforge.pmd.lang.java.ast.JavaParserTokenManager;
 import net.sourceforge.pmd.lang.java.ast.Token;
 
 public class JavaTokenizer implements Tokenizer {
@@ -18,6 +17,17 @@ public class JavaTokenizer implements Tokenizer {
     public static final String CPD_START = "\"CPD-START\"";
     public static final String CPD_END = "\"CPD-END\"";
 
+    /**
+     * The token manager of the current thread, it is reinitialized for each
+     * file instead of allocating new char stream buffers.
+     */
+    private static final ThreadLocal<ReusableTokenManager> TOKEN_MANAGER = new ThreadLocal<ReusableTokenManager>() {
+        @Override
+        protected ReusableTokenManager initialValue() {
+            return new ReusableTokenManager(new JavaCharStream(new StringReader("")));
+        }
+    };
+
     private boolean ignoreAnnotations;
     private boolean ignoreLiterals;
     private boolean ignoreIdentifiers;
@@ -32,11 +42,10 @@ public class JavaTokenizer implements Tokenizer {
         StringBuilder stringBuilder = sourceCode.getCodeBuffer();
 
         // Note that Java version is irrelevant for tokenizing
-        LanguageVersionHandler languageVersionHandler = LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getVersion("1.4").getLanguageVersionHandler();
         String fileName = sourceCode.getFileName();
-        TokenManager tokenMgr = languageVersionHandler.getParser(languageVersionHandler.getDefaultParserOptions()).getTokenManager(
-                fileName, new StringReader(stringBuilder.toString()));
-        Token currentToken = (Token) tokenMgr.getNextToken();
+        ReusableTokenManager tokenMgr = TOKEN_MANAGER.get();
+        tokenMgr.reset(fileName, new StringReader(stringBuilder.toString()));
+        Token currentToken = tokenMgr.getNextToken();
 
         TokenDiscarder discarder = new TokenDiscarder(ignoreAnnotations);
 
@@ -44,14 +53,15 @@ public class JavaTokenizer implements Tokenizer {
             discarder.updateState(currentToken);
 
             if (discarder.isDiscarding()) {
-                currentToken = (Token) tokenMgr.getNextToken();
+                currentToken = tokenMgr.getNextToken();
                 continue;
             }
 
             processToken(tokenEntries, fileName, currentToken);
-            currentToken = (Token) tokenMgr.getNextToken();
+            currentToken = tokenMgr.getNextToken();
         }
         tokenEntries.add(TokenEntry.getEOF());
+        tokenMgr.reset(null, null);
     }
 
     private void processToken(Tokens tokenEntries, String fileName, Token currentToken) {
@@ -81,6 +91,28 @@ public class JavaTokenizer implements Tokenizer {
         this.ignoreAnnotations = ignoreAnnotations;
     }
 
+    /**
+     * A token manager, which keeps its char stream and can be reused for the
+     * next file. The comments, which the token manager collects for the
+     * parser, are dropped.
+     */
+    private static class ReusableTokenManager extends JavaParserTokenManager {
+        private final JavaCharStream charStream;
+
+        ReusableTokenManager(JavaCharStream charStream) {
+            super(charStream);
+            this.charStream = charStream;
+        }
+
+        void reset(String fileName, Reader source) {
+            charStream.ReInit(source);
+            ReInit(charStream);
+            comments.clear();
+            suppressMap.clear();
+            setFileName(fileName);
+        }
+    }
+
     /**
      * The {@link TokenDiscarder} consumes token by token and maintains state.
      * It can detect, whether the current token belongs to an annotation and whether
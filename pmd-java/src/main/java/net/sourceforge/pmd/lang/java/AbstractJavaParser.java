@@ -10,6 +10,7 @@ import net.sourceforge.pmd.lang.AbstractParser;
 import net.sourceforge.pmd.lang.ParserOptions;
 import net.sourceforge.pmd.lang.TokenManager;
 import net.sourceforge.pmd.lang.ast.AbstractTokenManager;
+import net.sourceforge.pmd.lang.ast.ImageInterner;
 import net.sourceforge.pmd.lang.ast.JavaCharStream;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.JavaParser;
@@ -53,7 +54,9 @@ public abstract class AbstractJavaParser extends AbstractParser {
 
     public Node parse(String fileName, Reader source) throws ParseException {
 	AbstractTokenManager.setFileName(fileName);
-	return createJavaParser(source).CompilationUnit();
+	Node compilationUnit = createJavaParser(source).CompilationUnit();
+	ImageInterner.intern(compilationUnit);
+	return compilationUnit;
     }
 
     public Map<Integer, String> getSuppressMap() {
@@ -4,6 +4,7 @@
 package net.sourceforge.pmd.lang.java.ast;
 
 import net.sourceforge.pmd.lang.ast.AbstractNode;
+import net.sourceforge.pmd.lang.rule.RuleWatchdog;
 import net.sourceforge.pmd.lang.symboltable.Scope;
 
 public abstract class AbstractJavaNode extends AbstractNode implements JavaNode {
@@ -37,6 +38,8 @@ public abstract class AbstractJavaNode extends AbstractNode implements JavaNode
 	}
 	endLine = parser.token.endLine;
 	endColumn = parser.token.endColumn;
+	// the node is complete, don't keep the parser with its buffers alive
+	parser = null;
     }
 
     /**
@@ -52,6 +55,7 @@ public abstract class AbstractJavaNode extends AbstractNode implements JavaNode
     public Object childrenAccept(JavaParserVisitor visitor, Object data) {
         if (children != null) {
             for (int i = 0; i < children.length; ++i) {
+                RuleWatchdog.checkCancelled();
                 ((JavaNode) children[i]).jjtAccept(visitor, data);
             }
         }
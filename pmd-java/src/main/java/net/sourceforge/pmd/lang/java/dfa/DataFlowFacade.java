@@ -4,6 +4,8 @@
 package net.sourceforge.pmd.lang.java.dfa;
 
 import net.sourceforge.pmd.lang.DataFlowHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.dfa.CompactDataFlow;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
@@ -28,12 +30,20 @@ public class DataFlowFacade extends JavaParserVisitorAdapter {
     public Object visit(ASTMethodDeclaration node, Object data) {
         sbf.buildDataFlowFor(node);
         vav.compute(node);
+        compact(node);
         return data;
     }
 
     public Object visit(ASTConstructorDeclaration node, Object data) {
         sbf.buildDataFlowFor(node);
         vav.compute(node);
+        compact(node);
         return data;
     }
+
+    private void compact(Node node) {
+        if (CompactDataFlow.isEnabled()) {
+            CompactDataFlow.compact(node.getDataFlowNode().getFlow());
+        }
+    }
 }
@@ -5,6 +5,7 @@ package net.sourceforge.pmd.lang.java.dfa;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -60,6 +61,7 @@ public class VariableAccessVisitor extends JavaParserVisitorAdapter {
     private List<VariableAccess> markUsages(DataFlowNode inode) {
 	// undefinitions was once a field... seems like it works fine as a local
 	List<VariableAccess> undefinitions = new ArrayList<VariableAccess>();
+	Map<Node, DataFlowNode> flowIndex = indexFlow(inode.getFlow());
 	Set<Map<NameDeclaration, List<NameOccurrence>>> variableDeclarations = collectDeclarations(inode);
 	for (Map<NameDeclaration, List<NameOccurrence>> declarations : variableDeclarations) {
 	    for (Map.Entry<NameDeclaration, List<NameOccurrence>> entry : declarations.entrySet()) {
@@ -71,12 +73,12 @@ public class VariableAccessVisitor extends JavaParserVisitorAdapter {
 		} else if (vnd.getAccessNodeParent().getFirstDescendantOfType(ASTVariableInitializer.class) != null) {
 		    // add definition for initialized variables
 		    addVariableAccess(vnd.getNode(), new VariableAccess(VariableAccess.DEFINITION, vnd.getImage()),
-			    inode.getFlow());
+			    flowIndex);
 		}
 		undefinitions.add(new VariableAccess(VariableAccess.UNDEFINITION, vnd.getImage()));
 
 		for (NameOccurrence occurrence : entry.getValue()) {
-		    addAccess((JavaNameOccurrence)occurrence, inode);
+		    addAccess((JavaNameOccurrence)occurrence, flowIndex);
 		}
 	    }
 	}
@@ -99,40 +101,54 @@ public class VariableAccessVisitor extends JavaParserVisitorAdapter {
 	return decls;
     }
 
-    private void addAccess(JavaNameOccurrence occurrence, DataFlowNode inode) {
+    private void addAccess(JavaNameOccurrence occurrence, Map<Node, DataFlowNode> flowIndex) {
 	if (occurrence.isOnLeftHandSide()) {
 	    this.addVariableAccess(occurrence.getLocation(), new VariableAccess(VariableAccess.DEFINITION, occurrence
-		    .getImage()), inode.getFlow());
+		    .getImage()), flowIndex);
 	} else if (occurrence.isOnRightHandSide() || !occurrence.isOnLeftHandSide() && !occurrence.isOnRightHandSide()) {
 	    this.addVariableAccess(occurrence.getLocation(), new VariableAccess(VariableAccess.REFERENCING, occurrence
-		    .getImage()), inode.getFlow());
+		    .getImage()), flowIndex);
 	}
     }
 
     /**
-     * Adds a VariableAccess to a dataflow node.
-     * @param node location of the access of a variable
-     * @param va variable access to add
-     * @param flow dataflownodes that can contain the node.
+     * Maps the AST nodes of a data flow to their data flow node. If an AST node
+     * has several data flow nodes, the last one wins. The first node of the flow
+     * (the method declaration) is left out.
+     * @param flow dataflownodes that can contain the accesses
+     * @return the index used by {@link #addVariableAccess(Node, VariableAccess, Map)}
      */
-    private void addVariableAccess(Node node, VariableAccess va, List<DataFlowNode> flow) {
-	// backwards to find the right inode (not a method declaration)
-	for (int i = flow.size() - 1; i > 0; i--) {
+    private Map<Node, DataFlowNode> indexFlow(List<DataFlowNode> flow) {
+	Map<Node, DataFlowNode> flowIndex = new IdentityHashMap<Node, DataFlowNode>(flow.size());
+	for (int i = 1; i < flow.size(); i++) {
 	    DataFlowNode inode = flow.get(i);
-	    if (inode.getNode() == null) {
-		continue;
+	    if (inode.getNode() != null) {
+		flowIndex.put(inode.getNode(), inode);
 	    }
+	}
+	return flowIndex;
+    }
 
-	    List<? extends Node> children = inode.getNode().findDescendantsOfType(node.getClass());
-	    for (Node n : children) {
-		if (node.equals(n)) {
-		    List<VariableAccess> v = new ArrayList<VariableAccess>();
-		    v.add(va);
-		    inode.setVariableAccess(v);
-		    return;
-		}
+    /**
+     * Adds a VariableAccess to a dataflow node.
+     * @param node location of the access of a variable
+     * @param va variable access to add
+     * @param flowIndex dataflownodes that can contain the node, by AST node
+     */
+    private void addVariableAccess(Node node, VariableAccess va, Map<Node, DataFlowNode> flowIndex) {
+	// the last inode in the flow whose AST node encloses the location
+	DataFlowNode last = null;
+	for (Node parent = node.jjtGetParent(); parent != null; parent = parent.jjtGetParent()) {
+	    DataFlowNode inode = flowIndex.get(parent);
+	    if (inode != null && (last == null || inode.getIndex() > last.getIndex())) {
+		last = inode;
 	    }
 	}
+	if (last != null) {
+	    List<VariableAccess> v = new ArrayList<VariableAccess>();
+	    v.add(va);
+	    last.setVariableAccess(v);
+	}
     }
 
 }
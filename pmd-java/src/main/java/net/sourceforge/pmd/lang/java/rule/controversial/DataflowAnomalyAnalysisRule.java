@@ -14,21 +14,26 @@ import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.dfa.DataFlowNode;
 import net.sourceforge.pmd.lang.dfa.VariableAccess;
+import net.sourceforge.pmd.lang.dfa.pathfinder.AccessSequenceHandler;
 import net.sourceforge.pmd.lang.dfa.pathfinder.CurrentPath;
 import net.sourceforge.pmd.lang.dfa.pathfinder.DAAPathFinder;
+import net.sourceforge.pmd.lang.dfa.pathfinder.DAAWorklistAnalyzer;
 import net.sourceforge.pmd.lang.dfa.pathfinder.Executable;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.properties.EnumeratedProperty;
 import net.sourceforge.pmd.lang.rule.properties.IntegerProperty;
 
 /**
- * Starts path search for each method and runs code if found.
+ * Starts path search for each method and runs code if found. With the
+ * "worklist" engine the anomalies are computed by a {@link DAAWorklistAnalyzer}
+ * instead, which does not enumerate paths.
  *
  * @author raik
  * @author Sven Jacob
  */
-public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Executable {
+public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Executable, AccessSequenceHandler {
     private RuleContext rc;
     private List<DaaRuleViolation> daaRuleViolations;
     private int maxRuleViolations;
@@ -42,6 +47,14 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
             "maxViolations", "Maximum number of anomalies per class", 1, 2000, 100, 2.0f
             );
 
+    private static final String ENGINE_PATHS = "paths";
+    private static final String ENGINE_WORKLIST = "worklist";
+
+    private static final EnumeratedProperty<String> ENGINE_DESCRIPTOR = new EnumeratedProperty<String>(
+            "engine", "Analysis engine: 'paths' checks up to maxPaths paths per method, 'worklist' solves the data flow without enumerating paths",
+            new String[] { ENGINE_PATHS, ENGINE_WORKLIST }, new String[] { ENGINE_PATHS, ENGINE_WORKLIST }, 0, 3.0f
+            );
+
     private static class Usage {
         public int accessType;
         public DataFlowNode node;
@@ -59,6 +72,7 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
     public DataflowAnomalyAnalysisRule() {
 	definePropertyDescriptor(MAX_PATH_DESCRIPTOR);
 	definePropertyDescriptor(MAX_VIOLATIONS_DESCRIPTOR);
+	definePropertyDescriptor(ENGINE_DESCRIPTOR);
     }
 
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
@@ -73,8 +87,12 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
 
         final DataFlowNode node = methodDeclaration.getDataFlowNode().getFlow().get(0);
 
-        final DAAPathFinder pathFinder = new DAAPathFinder(node, this, getProperty(MAX_PATH_DESCRIPTOR));
-        pathFinder.run();
+        if (ENGINE_WORKLIST.equals(getProperty(ENGINE_DESCRIPTOR))) {
+            new DAAWorklistAnalyzer(node, this).run();
+        } else {
+            final DAAPathFinder pathFinder = new DAAPathFinder(node, this, getProperty(MAX_PATH_DESCRIPTOR));
+            pathFinder.run();
+        }
 
         super.visit(methodDeclaration, data);
         return data;
@@ -109,6 +127,12 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
         }
     }
 
+    public void execute(DataFlowNode previousNode, int previousAccessType, DataFlowNode node, VariableAccess access) {
+        if (maxNumberOfViolationsReached()) return;
+
+        checkVariableAccess(node, access, new Usage(previousAccessType, previousNode));
+    }
+
     private void checkVariableAccess(DataFlowNode inode, VariableAccess va, final Usage u) {
         // get the start and end line
         int startLine = u.node.getLine();
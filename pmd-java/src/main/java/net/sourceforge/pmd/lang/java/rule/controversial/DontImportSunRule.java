@@ -8,6 +8,10 @@ import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 
 public class DontImportSunRule extends AbstractJavaRule {
 
+    public DontImportSunRule() {
+        addRequiredNode(ASTImportDeclaration.class);
+    }
+
     public Object visit(ASTImportDeclaration node, Object data) {
         String img = node.jjtGetChild(0).getImage();
         if (img.startsWith("sun.") && !img.startsWith("sun.misc.Signal")) {
@@ -23,6 +23,7 @@ public class AvoidDeeplyNestedIfStmtsRule extends AbstractJavaRule {
     
     public AvoidDeeplyNestedIfStmtsRule() {
 	definePropertyDescriptor(PROBLEM_DEPTH_DESCRIPTOR);
+	addRequiredNode(ASTIfStatement.class);
     }
   
     public Object visit(ASTCompilationUnit node, Object data) {
@@ -65,6 +65,7 @@ public class CloseResourceRule extends AbstractJavaRule {
     public CloseResourceRule() {
 	definePropertyDescriptor(CLOSE_TARGETS_DESCRIPTOR);
 	definePropertyDescriptor(TYPES_DESCRIPTOR);
+	addRequiredNode(ASTLocalVariableDeclaration.class);
     }
 
     @Override
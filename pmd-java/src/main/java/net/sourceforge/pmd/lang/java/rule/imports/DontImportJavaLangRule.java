@@ -10,6 +10,10 @@ public class DontImportJavaLangRule extends AbstractJavaRule {
 
     private static final Package JAVA_LANG_PACKAGE = Package.getPackage("java.lang");
 
+    public DontImportJavaLangRule() {
+	addRequiredNode(ASTImportDeclaration.class);
+    }
+
     @Override
     public Object visit(ASTImportDeclaration node, Object data) {
 
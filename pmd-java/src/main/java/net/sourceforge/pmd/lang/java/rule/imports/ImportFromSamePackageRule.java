@@ -10,6 +10,10 @@ import net.sourceforge.pmd.util.StringUtil;
 
 public class ImportFromSamePackageRule extends AbstractJavaRule {
 
+    public ImportFromSamePackageRule() {
+        addRequiredNode(ASTImportDeclaration.class);
+    }
+
     public Object visit(ASTImportDeclaration importDecl, Object data) {
         String packageName = importDecl.getScope().getEnclosingScope(SourceFileScope.class).getPackageName();
 
@@ -28,6 +28,12 @@ public abstract class AbstractJUnitRule extends AbstractJavaRule {
     private boolean isJUnit3Class;
     private boolean isJUnit4Class;
 
+    public AbstractJUnitRule() {
+	// a JUnit 3 test case extends a class, a JUnit 4 test is annotated
+	addRequiredNode(ASTExtendsList.class);
+	addRequiredNode(ASTAnnotation.class);
+    }
+
     static {
 	Class<?> c;
 	try {
@@ -13,6 +13,7 @@ import java.util.Map.Entry;
 
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTAdditiveExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.rule.optimizations.AbstractOptimizationRule;
 import net.sourceforge.pmd.lang.rule.properties.StringMultiProperty;
@@ -49,6 +50,8 @@ public class GuardLogStatementRule extends AbstractOptimizationRule implements
 	public GuardLogStatementRule() {
 		definePropertyDescriptor(LOG_LEVELS);
 		definePropertyDescriptor(GUARD_METHODS);
+		// only log statements concatenating strings are reported
+		addRequiredNode(ASTAdditiveExpression.class);
 	}
 
 	@Override
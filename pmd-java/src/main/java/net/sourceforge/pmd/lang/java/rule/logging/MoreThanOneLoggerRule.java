@@ -51,6 +51,10 @@ public class MoreThanOneLoggerRule extends AbstractJavaRule {
 
     private Integer count;
 
+    public MoreThanOneLoggerRule() {
+	addRequiredNode(ASTVariableDeclarator.class);
+    }
+
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
 	return init(node, data);
@@ -17,6 +17,10 @@ import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
  */
 public class AvoidCatchingThrowableRule extends AbstractJavaRule {
 
+    public AvoidCatchingThrowableRule() {
+        addRequiredNode(ASTCatchStatement.class);
+    }
+
     @Override
     public Object visit(ASTCatchStatement node, Object data) {
         ASTType type = node.getFirstDescendantOfType(ASTType.class);
@@ -0,0 +1,102 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.java.dfa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.lang.dfa.CompactDataFlow;
+import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.dfa.NodeType;
+import net.sourceforge.pmd.lang.dfa.VariableAccess;
+import net.sourceforge.pmd.lang.java.ParserTst;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+
+import org.junit.Test;
+
+public class CompactDataFlowTest extends ParserTst {
+
+    @Test
+    public void testCompactCopyHasSameStructure() throws Throwable {
+        ASTMethodDeclaration method = getOrderedNodes(ASTMethodDeclaration.class, TEST).get(0);
+        List<DataFlowNode> original = new ArrayList<DataFlowNode>(method.getDataFlowNode().getFlow());
+
+        List<DataFlowNode> compact = CompactDataFlow.compact(original);
+
+        assertEquals(original.size(), compact.size());
+        for (int i = 0; i < original.size(); i++) {
+            DataFlowNode o = original.get(i);
+            DataFlowNode c = compact.get(i);
+            assertEquals(i, c.getIndex());
+            assertEquals(o.getLine(), c.getLine());
+            assertSame(o.getNode(), c.getNode());
+            assertSame(compact, c.getFlow());
+            assertEquals(indexes(o.getChildren()), indexes(c.getChildren()));
+            assertEquals(indexes(o.getParents()), indexes(c.getParents()));
+            assertEquals(o.getVariableAccess().toString(), c.getVariableAccess().toString());
+            for (int type = 0; type <= NodeType.THROW_STATEMENT; type++) {
+                assertEquals(o.isType(type), c.isType(type));
+            }
+            if (c.getNode() != null) {
+                assertSame(c, c.getNode().getDataFlowNode());
+            }
+        }
+    }
+
+    @Test
+    public void testVariableAccessesAreShared() throws Throwable {
+        ASTMethodDeclaration method = getOrderedNodes(ASTMethodDeclaration.class, TEST).get(0);
+        List<DataFlowNode> compact = CompactDataFlow.compact(method.getDataFlowNode().getFlow());
+
+        VariableAccess first = null;
+        for (DataFlowNode node : compact) {
+            for (VariableAccess va : node.getVariableAccess()) {
+                if (va.isReference() && va.getVariableName().equals("x")) {
+                    if (first == null) {
+                        first = va;
+                    } else {
+                        assertSame(first, va);
+                    }
+                }
+            }
+        }
+        assertTrue(first != null);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCompactCopyIsReadOnly() throws Throwable {
+        ASTMethodDeclaration method = getOrderedNodes(ASTMethodDeclaration.class, TEST).get(0);
+        List<DataFlowNode> compact = CompactDataFlow.compact(method.getDataFlowNode().getFlow());
+        compact.get(1).addPathToChild(compact.get(2));
+    }
+
+    private static List<Integer> indexes(List<DataFlowNode> nodes) {
+        List<Integer> indexes = new ArrayList<Integer>();
+        for (DataFlowNode node : nodes) {
+            indexes.add(node.getIndex());
+        }
+        return indexes;
+    }
+
+    private static final String TEST =
+            "class Foo {" + PMD.EOL +
+            " int bar(int y) {" + PMD.EOL +
+            "  int x = 0;" + PMD.EOL +
+            "  for (int i = 0; i < y; i++) {" + PMD.EOL +
+            "   if (i > x) {" + PMD.EOL +
+            "    x = i;" + PMD.EOL +
+            "   } else {" + PMD.EOL +
+            "    continue;" + PMD.EOL +
+            "   }" + PMD.EOL +
+            "  }" + PMD.EOL +
+            "  while (x > 0) { x--; }" + PMD.EOL +
+            "  return x;" + PMD.EOL +
+            " }" + PMD.EOL +
+            "}";
+}
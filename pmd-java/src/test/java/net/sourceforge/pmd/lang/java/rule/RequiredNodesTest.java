@@ -0,0 +1,80 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.java.rule;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTAnnotation;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+
+import org.junit.Test;
+
+/**
+ * Rules declaring required nodes are only applied to files containing them.
+ */
+public class RequiredNodesTest {
+
+    private static final String WITHOUT_ANNOTATION = "public class Foo {\n void foo() {}\n}";
+    private static final String WITH_ANNOTATION = "public class Foo {\n @Deprecated void foo() {}\n}";
+
+    @Test
+    public void testRuleIsSkippedWithoutRequiredNodes() throws Exception {
+        CountingRule rule = new CountingRule();
+        rule.addRequiredNode(ASTAnnotation.class);
+        assertEquals(0, process(rule, WITHOUT_ANNOTATION));
+        assertEquals(1, process(rule, WITH_ANNOTATION));
+    }
+
+    @Test
+    public void testRuleChainRuleIsSkippedWithoutRequiredNodes() throws Exception {
+        CountingRule rule = new CountingRule();
+        rule.addRuleChainVisit(ASTMethodDeclaration.class);
+        rule.addRequiredNode(ASTAnnotation.class);
+        assertEquals(0, process(rule, WITHOUT_ANNOTATION));
+        assertEquals(1, process(rule, WITH_ANNOTATION));
+    }
+
+    @Test
+    public void testRuleWithoutRequiredNodes() throws Exception {
+        assertEquals(1, process(new CountingRule(), WITHOUT_ANNOTATION));
+    }
+
+    private static int process(CountingRule rule, String source) throws Exception {
+        rule.setLanguage(LanguageRegistry.getLanguage(JavaLanguageModule.NAME));
+        rule.visits = 0;
+        RuleContext ctx = new RuleContext();
+        ctx.setReport(new Report());
+        ctx.setSourceCodeFilename("n/a");
+        RuleSet ruleSet = new RuleSet();
+        ruleSet.addRule(rule);
+        new PMD().getSourceCodeProcessor().processSourceCode(new StringReader(source), new RuleSets(ruleSet), ctx);
+        return rule.visits;
+    }
+
+    private static class CountingRule extends AbstractJavaRule {
+        private int visits;
+
+        @Override
+        public Object visit(ASTCompilationUnit node, Object data) {
+            visits++;
+            return data;
+        }
+
+        @Override
+        public Object visit(ASTMethodDeclaration node, Object data) {
+            visits++;
+            return data;
+        }
+    }
+}
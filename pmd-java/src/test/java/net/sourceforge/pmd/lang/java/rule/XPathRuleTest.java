@@ -6,6 +6,8 @@ package net.sourceforge.pmd.lang.java.rule;
 import static org.junit.Assert.assertEquals;
 
 import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
@@ -172,6 +174,26 @@ import org.junit.Test;
          assertEquals(5, nodes.get(1).getBeginLine());
      }
 
+     @Test
+     public void testRequiredNodes() {
+         assertEquals(Arrays.asList("MethodDeclaration"), requiredNodes("//ClassOrInterfaceDeclaration//MethodDeclaration[@Public='true']"));
+         assertEquals(Arrays.asList("Name", "Literal"), requiredNodes("//PrimaryPrefix/Name[@Image='x'] | //Literal"));
+         assertEquals(Arrays.asList("Block"), requiredNodes("//Statement[Expression]/ancestor::Block"));
+         assertEquals(Collections.emptyList(), requiredNodes("//Name/.."));
+         assertEquals(Collections.emptyList(), requiredNodes("//Name/@Image"));
+         assertEquals(Collections.emptyList(), requiredNodes("//Name | //*"));
+         assertEquals(Collections.emptyList(), requiredNodes("//Name[@Image = ('a', 'b')]"));
+
+         rule.setVersion(XPathRuleQuery.XPATH_2_0);
+         rule.setXPath("//Annotation[Name/@Image = 'Test']");
+         assertEquals(Arrays.asList("Annotation"), rule.getRequiredNodes());
+     }
+
+     private static List<String> requiredNodes(String xpath) {
+         XPathRule rule = new XPathRule(xpath);
+         return rule.getRequiredNodes();
+     }
+
      private static final String TEST1 =
              "public class Foo {" + PMD.EOL +
              " int a;" + PMD.EOL +
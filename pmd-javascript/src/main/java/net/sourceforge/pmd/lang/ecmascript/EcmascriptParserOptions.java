@@ -57,9 +57,16 @@ public class EcmascriptParserOptions extends ParserOptions {
 	    "Specifies the Rhino Language Version to use for parsing.  Defaults to Rhino default.", VERSION_LABELS,
 	    Version.values(), 0, 5.0f);
 
+    /**
+     * The default maximum file size, from the system property
+     * <code>net.sourceforge.pmd.ecmascript.maxFileSize</code>.
+     */
+    public static final int DEFAULT_MAXIMUM_FILE_SIZE = Integer.getInteger("net.sourceforge.pmd.ecmascript.maxFileSize", 0);
+
     private boolean recordingComments;
     private boolean recordingLocalJsDocComments;
     private Version rhinoLanguageVersion;
+    private int maximumFileSize = DEFAULT_MAXIMUM_FILE_SIZE;
 
     public EcmascriptParserOptions() {
 	this.recordingComments = RECORDING_COMMENTS_DESCRIPTOR.defaultValue().booleanValue();
@@ -99,6 +106,20 @@ public class EcmascriptParserOptions extends ParserOptions {
 	this.rhinoLanguageVersion = rhinoLanguageVersion;
     }
 
+    public int getMaximumFileSize() {
+	return this.maximumFileSize;
+    }
+
+    /**
+     * Files with more characters, like bundled or minified scripts, are not
+     * parsed, but reported as processing errors.
+     *
+     * @param maximumFileSize the maximum number of characters, <code>0</code> for no limit
+     */
+    public void setMaximumFileSize(int maximumFileSize) {
+	this.maximumFileSize = maximumFileSize;
+    }
+
     @Override
     public int hashCode() {
 	final int prime = 31;
@@ -106,6 +127,7 @@ public class EcmascriptParserOptions extends ParserOptions {
 	result = prime * result + (recordingComments ? 1231 : 1237);
 	result = prime * result + (recordingLocalJsDocComments ? 1231 : 1237);
 	result = prime * result + ((rhinoLanguageVersion == null) ? 0 : rhinoLanguageVersion.hashCode());
+	result = prime * result + maximumFileSize;
 	return result;
     }
 
@@ -121,6 +143,7 @@ public class EcmascriptParserOptions extends ParserOptions {
 	return StringUtil.isSame(this.suppressMarker, that.suppressMarker, false, false, false)
 		&& this.recordingComments == that.recordingComments
 		&& this.recordingLocalJsDocComments == that.recordingLocalJsDocComments
-		&& this.rhinoLanguageVersion == that.rhinoLanguageVersion;
+		&& this.rhinoLanguageVersion == that.rhinoLanguageVersion
+		&& this.maximumFileSize == that.maximumFileSize;
     }
 }
@@ -4,6 +4,8 @@
 package net.sourceforge.pmd.lang.ecmascript.ast;
 
 import net.sourceforge.pmd.lang.ast.AbstractNode;
+import net.sourceforge.pmd.lang.ast.SourceCodePositioner;
+import net.sourceforge.pmd.lang.rule.RuleWatchdog;
 
 import org.mozilla.javascript.ast.AstNode;
 
@@ -43,6 +45,7 @@ public abstract class AbstractEcmascriptNode<T extends AstNode> extends Abstract
     public Object childrenAccept(EcmascriptParserVisitor visitor, Object data) {
 	if (children != null) {
 	    for (int i = 0; i < children.length; ++i) {
+		RuleWatchdog.checkCancelled();
 		@SuppressWarnings("unchecked") // we know that the children here are all EcmascriptNodes
 		EcmascriptNode<T> ecmascriptNode = (EcmascriptNode<T>) children[i];
 		ecmascriptNode.jjtAccept(visitor, data);
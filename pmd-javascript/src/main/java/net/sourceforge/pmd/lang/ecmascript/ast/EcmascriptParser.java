@@ -58,6 +58,11 @@ public class EcmascriptParser {
 	try {
 	    final List<ParseProblem> parseProblems = new ArrayList<ParseProblem>();
 	    final String sourceCode = IOUtils.toString(reader);
+	    final int maximumFileSize = parserOptions.getMaximumFileSize();
+	    if (maximumFileSize > 0 && sourceCode.length() > maximumFileSize) {
+		throw new ParseException("Not parsed, the file has " + sourceCode.length()
+			+ " characters, more than the maximum file size of " + maximumFileSize);
+	    }
 	    final AstRoot astRoot = parseEcmascript(sourceCode, parseProblems);
 	    final EcmascriptTreeBuilder treeBuilder = new EcmascriptTreeBuilder(sourceCode, parseProblems);
 	    EcmascriptNode<AstRoot> tree = treeBuilder.build(astRoot);
@@ -3,14 +3,14 @@
  */
 package net.sourceforge.pmd.lang.ecmascript.ast;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.SourceCodePositioner;
 
 import org.mozilla.javascript.ast.ArrayComprehension;
 import org.mozilla.javascript.ast.ArrayComprehensionLoop;
@@ -68,75 +68,331 @@ import org.mozilla.javascript.ast.XmlString;
 
 public final class EcmascriptTreeBuilder implements NodeVisitor {
 
-    private static final Map<Class<? extends AstNode>, Constructor<? extends EcmascriptNode<?>>> NODE_TYPE_TO_NODE_ADAPTER_TYPE = new HashMap<Class<? extends AstNode>, Constructor<? extends EcmascriptNode<?>>>();
+    /**
+     * Creates the adapter for a Rhino node. There is one factory per Rhino
+     * node type, so no reflection is needed to create the adapters.
+     */
+    private abstract static class NodeAdapterFactory<T extends AstNode> {
+	abstract EcmascriptNode<T> create(T node);
+    }
+
+    private static final Map<Class<? extends AstNode>, NodeAdapterFactory<?>> NODE_TYPE_TO_NODE_ADAPTER_FACTORY = new HashMap<Class<? extends AstNode>, NodeAdapterFactory<?>>();
     static {
-	register(ArrayComprehension.class, ASTArrayComprehension.class);
-	register(ArrayComprehensionLoop.class, ASTArrayComprehensionLoop.class);
-	register(ArrayLiteral.class, ASTArrayLiteral.class);
-	register(Assignment.class, ASTAssignment.class);
-	register(AstRoot.class, ASTAstRoot.class);
-	register(Block.class, ASTBlock.class);
-	register(BreakStatement.class, ASTBreakStatement.class);
-	register(CatchClause.class, ASTCatchClause.class);
-	register(Comment.class, ASTComment.class);
-	register(ConditionalExpression.class, ASTConditionalExpression.class);
-	register(ContinueStatement.class, ASTContinueStatement.class);
-	register(DoLoop.class, ASTDoLoop.class);
-	register(ElementGet.class, ASTElementGet.class);
-	register(EmptyExpression.class, ASTEmptyExpression.class);
-	register(EmptyStatement.class, ASTEmptyStatement.class);
-	register(ExpressionStatement.class, ASTExpressionStatement.class);
-	register(ForInLoop.class, ASTForInLoop.class);
-	register(ForLoop.class, ASTForLoop.class);
-	register(FunctionCall.class, ASTFunctionCall.class);
-	register(FunctionNode.class, ASTFunctionNode.class);
-	register(IfStatement.class, ASTIfStatement.class);
-	register(InfixExpression.class, ASTInfixExpression.class);
-	register(KeywordLiteral.class, ASTKeywordLiteral.class);
-	register(Label.class, ASTLabel.class);
-	register(LabeledStatement.class, ASTLabeledStatement.class);
-	register(LetNode.class, ASTLetNode.class);
-	register(Name.class, ASTName.class);
-	register(NewExpression.class, ASTNewExpression.class);
-	register(NumberLiteral.class, ASTNumberLiteral.class);
-	register(ObjectLiteral.class, ASTObjectLiteral.class);
-	register(ObjectProperty.class, ASTObjectProperty.class);
-	register(ParenthesizedExpression.class, ASTParenthesizedExpression.class);
-	register(PropertyGet.class, ASTPropertyGet.class);
-	register(RegExpLiteral.class, ASTRegExpLiteral.class);
-	register(ReturnStatement.class, ASTReturnStatement.class);
-	register(Scope.class, ASTScope.class);
-	register(StringLiteral.class, ASTStringLiteral.class);
-	register(SwitchCase.class, ASTSwitchCase.class);
-	register(SwitchStatement.class, ASTSwitchStatement.class);
-	register(ThrowStatement.class, ASTThrowStatement.class);
-	register(TryStatement.class, ASTTryStatement.class);
-	register(UnaryExpression.class, ASTUnaryExpression.class);
-	register(VariableDeclaration.class, ASTVariableDeclaration.class);
-	register(VariableInitializer.class, ASTVariableInitializer.class);
-	register(WhileLoop.class, ASTWhileLoop.class);
-	register(WithStatement.class, ASTWithStatement.class);
-	register(XmlDotQuery.class, ASTXmlDotQuery.class);
-	register(XmlExpression.class, ASTXmlExpression.class);
-	register(XmlMemberGet.class, ASTXmlMemberGet.class);
-	register(XmlString.class, ASTXmlString.class);
+	register(ArrayComprehension.class, new NodeAdapterFactory<ArrayComprehension>() {
+	    @Override
+	    EcmascriptNode<ArrayComprehension> create(ArrayComprehension node) {
+		return new ASTArrayComprehension(node);
+	    }
+	});
+	register(ArrayComprehensionLoop.class, new NodeAdapterFactory<ArrayComprehensionLoop>() {
+	    @Override
+	    EcmascriptNode<ArrayComprehensionLoop> create(ArrayComprehensionLoop node) {
+		return new ASTArrayComprehensionLoop(node);
+	    }
+	});
+	register(ArrayLiteral.class, new NodeAdapterFactory<ArrayLiteral>() {
+	    @Override
+	    EcmascriptNode<ArrayLiteral> create(ArrayLiteral node) {
+		return new ASTArrayLiteral(node);
+	    }
+	});
+	register(Assignment.class, new NodeAdapterFactory<Assignment>() {
+	    @Override
+	    EcmascriptNode<Assignment> create(Assignment node) {
+		return new ASTAssignment(node);
+	    }
+	});
+	register(AstRoot.class, new NodeAdapterFactory<AstRoot>() {
+	    @Override
+	    EcmascriptNode<AstRoot> create(AstRoot node) {
+		return new ASTAstRoot(node);
+	    }
+	});
+	register(Block.class, new NodeAdapterFactory<Block>() {
+	    @Override
+	    EcmascriptNode<Block> create(Block node) {
+		return new ASTBlock(node);
+	    }
+	});
+	register(BreakStatement.class, new NodeAdapterFactory<BreakStatement>() {
+	    @Override
+	    EcmascriptNode<BreakStatement> create(BreakStatement node) {
+		return new ASTBreakStatement(node);
+	    }
+	});
+	register(CatchClause.class, new NodeAdapterFactory<CatchClause>() {
+	    @Override
+	    EcmascriptNode<CatchClause> create(CatchClause node) {
+		return new ASTCatchClause(node);
+	    }
+	});
+	register(Comment.class, new NodeAdapterFactory<Comment>() {
+	    @Override
+	    EcmascriptNode<Comment> create(Comment node) {
+		return new ASTComment(node);
+	    }
+	});
+	register(ConditionalExpression.class, new NodeAdapterFactory<ConditionalExpression>() {
+	    @Override
+	    EcmascriptNode<ConditionalExpression> create(ConditionalExpression node) {
+		return new ASTConditionalExpression(node);
+	    }
+	});
+	register(ContinueStatement.class, new NodeAdapterFactory<ContinueStatement>() {
+	    @Override
+	    EcmascriptNode<ContinueStatement> create(ContinueStatement node) {
+		return new ASTContinueStatement(node);
+	    }
+	});
+	register(DoLoop.class, new NodeAdapterFactory<DoLoop>() {
+	    @Override
+	    EcmascriptNode<DoLoop> create(DoLoop node) {
+		return new ASTDoLoop(node);
+	    }
+	});
+	register(ElementGet.class, new NodeAdapterFactory<ElementGet>() {
+	    @Override
+	    EcmascriptNode<ElementGet> create(ElementGet node) {
+		return new ASTElementGet(node);
+	    }
+	});
+	register(EmptyExpression.class, new NodeAdapterFactory<EmptyExpression>() {
+	    @Override
+	    EcmascriptNode<EmptyExpression> create(EmptyExpression node) {
+		return new ASTEmptyExpression(node);
+	    }
+	});
+	register(EmptyStatement.class, new NodeAdapterFactory<EmptyStatement>() {
+	    @Override
+	    EcmascriptNode<EmptyStatement> create(EmptyStatement node) {
+		return new ASTEmptyStatement(node);
+	    }
+	});
+	register(ExpressionStatement.class, new NodeAdapterFactory<ExpressionStatement>() {
+	    @Override
+	    EcmascriptNode<ExpressionStatement> create(ExpressionStatement node) {
+		return new ASTExpressionStatement(node);
+	    }
+	});
+	register(ForInLoop.class, new NodeAdapterFactory<ForInLoop>() {
+	    @Override
+	    EcmascriptNode<ForInLoop> create(ForInLoop node) {
+		return new ASTForInLoop(node);
+	    }
+	});
+	register(ForLoop.class, new NodeAdapterFactory<ForLoop>() {
+	    @Override
+	    EcmascriptNode<ForLoop> create(ForLoop node) {
+		return new ASTForLoop(node);
+	    }
+	});
+	register(FunctionCall.class, new NodeAdapterFactory<FunctionCall>() {
+	    @Override
+	    EcmascriptNode<FunctionCall> create(FunctionCall node) {
+		return new ASTFunctionCall(node);
+	    }
+	});
+	register(FunctionNode.class, new NodeAdapterFactory<FunctionNode>() {
+	    @Override
+	    EcmascriptNode<FunctionNode> create(FunctionNode node) {
+		return new ASTFunctionNode(node);
+	    }
+	});
+	register(IfStatement.class, new NodeAdapterFactory<IfStatement>() {
+	    @Override
+	    EcmascriptNode<IfStatement> create(IfStatement node) {
+		return new ASTIfStatement(node);
+	    }
+	});
+	register(InfixExpression.class, new NodeAdapterFactory<InfixExpression>() {
+	    @Override
+	    EcmascriptNode<InfixExpression> create(InfixExpression node) {
+		return new ASTInfixExpression(node);
+	    }
+	});
+	register(KeywordLiteral.class, new NodeAdapterFactory<KeywordLiteral>() {
+	    @Override
+	    EcmascriptNode<KeywordLiteral> create(KeywordLiteral node) {
+		return new ASTKeywordLiteral(node);
+	    }
+	});
+	register(Label.class, new NodeAdapterFactory<Label>() {
+	    @Override
+	    EcmascriptNode<Label> create(Label node) {
+		return new ASTLabel(node);
+	    }
+	});
+	register(LabeledStatement.class, new NodeAdapterFactory<LabeledStatement>() {
+	    @Override
+	    EcmascriptNode<LabeledStatement> create(LabeledStatement node) {
+		return new ASTLabeledStatement(node);
+	    }
+	});
+	register(LetNode.class, new NodeAdapterFactory<LetNode>() {
+	    @Override
+	    EcmascriptNode<LetNode> create(LetNode node) {
+		return new ASTLetNode(node);
+	    }
+	});
+	register(Name.class, new NodeAdapterFactory<Name>() {
+	    @Override
+	    EcmascriptNode<Name> create(Name node) {
+		return new ASTName(node);
+	    }
+	});
+	register(NewExpression.class, new NodeAdapterFactory<NewExpression>() {
+	    @Override
+	    EcmascriptNode<NewExpression> create(NewExpression node) {
+		return new ASTNewExpression(node);
+	    }
+	});
+	register(NumberLiteral.class, new NodeAdapterFactory<NumberLiteral>() {
+	    @Override
+	    EcmascriptNode<NumberLiteral> create(NumberLiteral node) {
+		return new ASTNumberLiteral(node);
+	    }
+	});
+	register(ObjectLiteral.class, new NodeAdapterFactory<ObjectLiteral>() {
+	    @Override
+	    EcmascriptNode<ObjectLiteral> create(ObjectLiteral node) {
+		return new ASTObjectLiteral(node);
+	    }
+	});
+	register(ObjectProperty.class, new NodeAdapterFactory<ObjectProperty>() {
+	    @Override
+	    EcmascriptNode<ObjectProperty> create(ObjectProperty node) {
+		return new ASTObjectProperty(node);
+	    }
+	});
+	register(ParenthesizedExpression.class, new NodeAdapterFactory<ParenthesizedExpression>() {
+	    @Override
+	    EcmascriptNode<ParenthesizedExpression> create(ParenthesizedExpression node) {
+		return new ASTParenthesizedExpression(node);
+	    }
+	});
+	register(PropertyGet.class, new NodeAdapterFactory<PropertyGet>() {
+	    @Override
+	    EcmascriptNode<PropertyGet> create(PropertyGet node) {
+		return new ASTPropertyGet(node);
+	    }
+	});
+	register(RegExpLiteral.class, new NodeAdapterFactory<RegExpLiteral>() {
+	    @Override
+	    EcmascriptNode<RegExpLiteral> create(RegExpLiteral node) {
+		return new ASTRegExpLiteral(node);
+	    }
+	});
+	register(ReturnStatement.class, new NodeAdapterFactory<ReturnStatement>() {
+	    @Override
+	    EcmascriptNode<ReturnStatement> create(ReturnStatement node) {
+		return new ASTReturnStatement(node);
+	    }
+	});
+	register(Scope.class, new NodeAdapterFactory<Scope>() {
+	    @Override
+	    EcmascriptNode<Scope> create(Scope node) {
+		return new ASTScope(node);
+	    }
+	});
+	register(StringLiteral.class, new NodeAdapterFactory<StringLiteral>() {
+	    @Override
+	    EcmascriptNode<StringLiteral> create(StringLiteral node) {
+		return new ASTStringLiteral(node);
+	    }
+	});
+	register(SwitchCase.class, new NodeAdapterFactory<SwitchCase>() {
+	    @Override
+	    EcmascriptNode<SwitchCase> create(SwitchCase node) {
+		return new ASTSwitchCase(node);
+	    }
+	});
+	register(SwitchStatement.class, new NodeAdapterFactory<SwitchStatement>() {
+	    @Override
+	    EcmascriptNode<SwitchStatement> create(SwitchStatement node) {
+		return new ASTSwitchStatement(node);
+	    }
+	});
+	register(ThrowStatement.class, new NodeAdapterFactory<ThrowStatement>() {
+	    @Override
+	    EcmascriptNode<ThrowStatement> create(ThrowStatement node) {
+		return new ASTThrowStatement(node);
+	    }
+	});
+	register(TryStatement.class, new NodeAdapterFactory<TryStatement>() {
+	    @Override
+	    EcmascriptNode<TryStatement> create(TryStatement node) {
+		return new ASTTryStatement(node);
+	    }
+	});
+	register(UnaryExpression.class, new NodeAdapterFactory<UnaryExpression>() {
+	    @Override
+	    EcmascriptNode<UnaryExpression> create(UnaryExpression node) {
+		return new ASTUnaryExpression(node);
+	    }
+	});
+	register(VariableDeclaration.class, new NodeAdapterFactory<VariableDeclaration>() {
+	    @Override
+	    EcmascriptNode<VariableDeclaration> create(VariableDeclaration node) {
+		return new ASTVariableDeclaration(node);
+	    }
+	});
+	register(VariableInitializer.class, new NodeAdapterFactory<VariableInitializer>() {
+	    @Override
+	    EcmascriptNode<VariableInitializer> create(VariableInitializer node) {
+		return new ASTVariableInitializer(node);
+	    }
+	});
+	register(WhileLoop.class, new NodeAdapterFactory<WhileLoop>() {
+	    @Override
+	    EcmascriptNode<WhileLoop> create(WhileLoop node) {
+		return new ASTWhileLoop(node);
+	    }
+	});
+	register(WithStatement.class, new NodeAdapterFactory<WithStatement>() {
+	    @Override
+	    EcmascriptNode<WithStatement> create(WithStatement node) {
+		return new ASTWithStatement(node);
+	    }
+	});
+	register(XmlDotQuery.class, new NodeAdapterFactory<XmlDotQuery>() {
+	    @Override
+	    EcmascriptNode<XmlDotQuery> create(XmlDotQuery node) {
+		return new ASTXmlDotQuery(node);
+	    }
+	});
+	register(XmlExpression.class, new NodeAdapterFactory<XmlExpression>() {
+	    @Override
+	    EcmascriptNode<XmlExpression> create(XmlExpression node) {
+		return new ASTXmlExpression(node);
+	    }
+	});
+	register(XmlMemberGet.class, new NodeAdapterFactory<XmlMemberGet>() {
+	    @Override
+	    EcmascriptNode<XmlMemberGet> create(XmlMemberGet node) {
+		return new ASTXmlMemberGet(node);
+	    }
+	});
+	register(XmlString.class, new NodeAdapterFactory<XmlString>() {
+	    @Override
+	    EcmascriptNode<XmlString> create(XmlString node) {
+		return new ASTXmlString(node);
+	    }
+	});
     }
 
-    private static <T extends AstNode> void register(Class<T> nodeType, Class<? extends EcmascriptNode<T>> nodeAdapterType) {
-	try {
-	    NODE_TYPE_TO_NODE_ADAPTER_TYPE.put(nodeType, nodeAdapterType.getConstructor(nodeType));
-	} catch (SecurityException e) {
-	    throw new RuntimeException(e);
-	} catch (NoSuchMethodException e) {
-	    throw new RuntimeException(e);
-	}
+    private static <T extends AstNode> void register(Class<T> nodeType, NodeAdapterFactory<T> nodeAdapterFactory) {
+	NODE_TYPE_TO_NODE_ADAPTER_FACTORY.put(nodeType, nodeAdapterFactory);
     }
 
+    private static final String TRAILING_COMMA_MESSAGE = "Trailing comma is not legal in an ECMA-262 object initializer";
+
+    // The trailing comma problems.
     private List<ParseProblem> parseProblems;
     private Map<ParseProblem, TrailingCommaNode> parseProblemToNode = new HashMap<ParseProblem, TrailingCommaNode>();
 
-    // The nodes having children built.
-    private Stack<Node> nodes = new Stack<Node>();
+    // The children of the nodes having children built, by depth. The lists are reused.
+    private List<List<Node>> children = new ArrayList<List<Node>>();
+    private int depth;
 
     // The Rhino nodes with children to build.
     private Stack<AstNode> parents = new Stack<AstNode>();
@@ -145,33 +401,28 @@ public final class EcmascriptTreeBuilder implements NodeVisitor {
 
     public EcmascriptTreeBuilder(String sourceCode, List<ParseProblem> parseProblems) {
 	this.sourceCodePositioner = new SourceCodePositioner(sourceCode);
-	this.parseProblems = parseProblems;
+	this.parseProblems = new ArrayList<ParseProblem>();
+	for (ParseProblem parseProblem : parseProblems) {
+	    if (TRAILING_COMMA_MESSAGE.equals(parseProblem.getMessage())) {
+		this.parseProblems.add(parseProblem);
+	    }
+	}
     }
 
     static <T extends AstNode> EcmascriptNode<T> createNodeAdapter(T node) {
-	try {
-	    @SuppressWarnings("unchecked") // the register function makes sure only EcmascriptNode<T> can be added,
-	    // where T is "T extends AstNode".
-	    Constructor<? extends EcmascriptNode<T>> constructor = (Constructor<? extends EcmascriptNode<T>>) NODE_TYPE_TO_NODE_ADAPTER_TYPE.get(node.getClass());
-	    if (constructor == null) {
-		throw new IllegalArgumentException("There is no Node adapter class registered for the Node class: "
-			+ node.getClass());
-	    }
-	    return constructor.newInstance(node);
-	} catch (InstantiationException e) {
-	    throw new RuntimeException(e);
-	} catch (IllegalAccessException e) {
-	    throw new RuntimeException(e);
-	} catch (InvocationTargetException e) {
-	    throw new RuntimeException(e.getTargetException());
+	@SuppressWarnings("unchecked") // the register function makes sure only EcmascriptNode<T> can be added,
+	// where T is "T extends AstNode".
+	NodeAdapterFactory<T> factory = (NodeAdapterFactory<T>) NODE_TYPE_TO_NODE_ADAPTER_FACTORY.get(node.getClass());
+	if (factory == null) {
+	    throw new IllegalArgumentException("There is no Node adapter class registered for the Node class: "
+		    + node.getClass());
 	}
+	return factory.create(node);
     }
 
     public <T extends AstNode> EcmascriptNode<T> build(T astNode) {
 	EcmascriptNode<T> node = buildInternal(astNode);
 
-	calculateLineNumbers(node);
-
 	// Set all the trailing comma nodes
 	for (TrailingCommaNode trailingCommaNode : parseProblemToNode.values()) {
 	    trailingCommaNode.setTrailingComma(true);
@@ -183,23 +434,34 @@ public final class EcmascriptTreeBuilder implements NodeVisitor {
     private <T extends AstNode> EcmascriptNode<T> buildInternal(T astNode) {
 	// Create a Node
 	EcmascriptNode<T> node = createNodeAdapter(astNode);
+	((AbstractEcmascriptNode<?>) node).calculateLineNumbers(sourceCodePositioner);
 
 	// Append to parent
-	Node parent = nodes.isEmpty() ? null : nodes.peek();
-	if (parent != null) {
-	    parent.jjtAddChild(node, parent.jjtGetNumChildren());
-	    node.jjtSetParent(parent);
+	if (depth > 0) {
+	    children.get(depth - 1).add(node);
 	}
-	
+
 	handleParseProblems(node);
 
 	// Build the children...
-	nodes.push(node);
+	if (children.size() == depth) {
+	    children.add(new ArrayList<Node>());
+	}
+	List<Node> nodeChildren = children.get(depth);
+	depth++;
 	parents.push(astNode);
 	astNode.visit(this);
-	nodes.pop();
+	depth--;
 	parents.pop();
 
+	// The last child is added first, so that the array of children is allocated only once.
+	for (int i = nodeChildren.size() - 1; i >= 0; i--) {
+	    Node child = nodeChildren.get(i);
+	    node.jjtAddChild(child, i);
+	    child.jjtSetParent(node);
+	}
+	nodeChildren.clear();
+
 	return node;
     }
 
@@ -222,27 +484,14 @@ public final class EcmascriptTreeBuilder implements NodeVisitor {
 		int problemStart = parseProblem.getFileOffset();
 		int commaPosition = problemStart + parseProblem.getLength() - 1;
 		if (nodeStart <= commaPosition && commaPosition <= nodeEnd) {
-		    if ("Trailing comma is not legal in an ECMA-262 object initializer".equals(parseProblem.getMessage())) {
-			// Report on the shortest code block containing the
-			// problem (i.e. inner most code in nested structures).
-			EcmascriptNode<? extends AstNode> currentNode = (EcmascriptNode<? extends AstNode>) parseProblemToNode.get(parseProblem);
-			if (currentNode == null || node.getNode().getLength() < currentNode.getNode().getLength()) {
-			    parseProblemToNode.put(parseProblem, trailingCommaNode);
-			}
+		    // Report on the shortest code block containing the
+		    // problem (i.e. inner most code in nested structures).
+		    EcmascriptNode<? extends AstNode> currentNode = (EcmascriptNode<? extends AstNode>) parseProblemToNode.get(parseProblem);
+		    if (currentNode == null || node.getNode().getLength() < currentNode.getNode().getLength()) {
+			parseProblemToNode.put(parseProblem, trailingCommaNode);
 		    }
 		}
 	    }
 	}
     }
-
-    private void calculateLineNumbers(EcmascriptNode<?> node) {
-	EcmascriptParserVisitorAdapter visitor = new EcmascriptParserVisitorAdapter() {
-	    @Override
-	    public Object visit(EcmascriptNode node, Object data) {
-	        ((AbstractEcmascriptNode<?>)node).calculateLineNumbers(sourceCodePositioner);
-	        return super.visit(node, data); // also visit the children
-	    }
-	};
-	node.jjtAccept(visitor, null);
-    }
 }
@@ -6,6 +6,7 @@ package net.sourceforge.pmd.lang.ecmascript.ast;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.Reader;
 import java.io.StringReader;
@@ -16,6 +17,7 @@ import java.util.List;
 import net.sourceforge.pmd.PMD;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.ParseException;
 import net.sourceforge.pmd.lang.ecmascript.Ecmascript3Parser;
 import net.sourceforge.pmd.lang.ecmascript.EcmascriptParserOptions;
 import net.sourceforge.pmd.lang.ecmascript.rule.AbstractEcmascriptRule;
@@ -199,4 +201,33 @@ public class EcmascriptParserTest extends EcmascriptParserTestBase {
         ASTAssignment infix = rootNode.getFirstDescendantOfType(ASTAssignment.class);
         assertEquals("^=", infix.getImage());
     }
+
+    @Test
+    public void testChildrenAndParents() {
+        ASTAstRoot rootNode = parse("var a = [1, 2, 3, 4];\nf(a);\n");
+        assertEquals(2, rootNode.jjtGetNumChildren());
+        ASTArrayLiteral array = rootNode.getFirstDescendantOfType(ASTArrayLiteral.class);
+        assertEquals(4, array.jjtGetNumChildren());
+        for (int i = 0; i < array.jjtGetNumChildren(); i++) {
+            assertEquals(String.valueOf(i + 1), array.jjtGetChild(i).getImage());
+            assertEquals(array, array.jjtGetChild(i).jjtGetParent());
+        }
+        ASTFunctionCall call = rootNode.getFirstDescendantOfType(ASTFunctionCall.class);
+        assertEquals(2, call.getBeginLine());
+        assertEquals(1, call.getBeginColumn());
+    }
+
+    @Test
+    public void testMaximumFileSize() {
+        EcmascriptParserOptions parserOptions = new EcmascriptParserOptions();
+        parserOptions.setMaximumFileSize(10);
+        EcmascriptParser parser = new EcmascriptParser(parserOptions);
+        assertEquals(1, parser.parse(new StringReader("var a = 1;")).jjtGetNumChildren());
+        try {
+            parser.parse(new StringReader("var a = 1;\n"));
+            fail("file size limit not applied");
+        } catch (ParseException e) {
+            assertTrue(e.getMessage().contains("11 characters"));
+        }
+    }
 }
@@ -3,27 +3,56 @@
  */
 package net.sourceforge.pmd.cpd;
 
+import java.io.Reader;
 import java.io.StringReader;
 
-import net.sourceforge.pmd.lang.LanguageRegistry;
-import net.sourceforge.pmd.lang.LanguageVersionHandler;
-import net.sourceforge.pmd.lang.TokenManager;
-import net.sourceforge.pmd.lang.jsp.JspLanguageModule;
+import net.sourceforge.pmd.lang.ast.JavaCharStream;
+import net.sourceforge.pmd.lang.jsp.ast.JspParserTokenManager;
 import net.sourceforge.pmd.lang.jsp.ast.Token;
 
 public class JSPTokenizer implements Tokenizer {
 
+    /**
+     * The token manager of the current thread, it is reinitialized for each
+     * file instead of allocating new char stream buffers.
+     */
+    private static final ThreadLocal<ReusableTokenManager> TOKEN_MANAGER = new ThreadLocal<ReusableTokenManager>() {
+	@Override
+	protected ReusableTokenManager initialValue() {
+	    return new ReusableTokenManager(new JavaCharStream(new StringReader("")));
+	}
+    };
+
     public void tokenize(SourceCode sourceCode, Tokens tokenEntries) {
 	StringBuilder buffer = sourceCode.getCodeBuffer();
-	LanguageVersionHandler languageVersionHandler = LanguageRegistry.getLanguage(JspLanguageModule.NAME).getDefaultVersion().getLanguageVersionHandler();
-	TokenManager tokenMgr = languageVersionHandler.getParser(languageVersionHandler.getDefaultParserOptions())
-		.getTokenManager(sourceCode.getFileName(), new StringReader(buffer.toString()));
-	Token currentToken = (Token) tokenMgr.getNextToken();
+	ReusableTokenManager tokenMgr = TOKEN_MANAGER.get();
+	tokenMgr.reset(sourceCode.getFileName(), new StringReader(buffer.toString()));
+	Token currentToken = tokenMgr.getNextToken();
 	while (currentToken.image.length() > 0) {
 	    tokenEntries.add(new TokenEntry(String.valueOf(currentToken.kind), sourceCode.getFileName(),
 		    currentToken.beginLine));
-	    currentToken = (Token) tokenMgr.getNextToken();
+	    currentToken = tokenMgr.getNextToken();
 	}
 	tokenEntries.add(TokenEntry.getEOF());
+	tokenMgr.reset(null, null);
+    }
+
+    /**
+     * A token manager, which keeps its char stream and can be reused for the
+     * next file.
+     */
+    private static class ReusableTokenManager extends JspParserTokenManager {
+	private final JavaCharStream charStream;
+
+	ReusableTokenManager(JavaCharStream charStream) {
+	    super(charStream);
+	    this.charStream = charStream;
+	}
+
+	void reset(String fileName, Reader source) {
+	    charStream.ReInit(source);
+	    ReInit(charStream);
+	    setFileName(fileName);
+	}
     }
 }
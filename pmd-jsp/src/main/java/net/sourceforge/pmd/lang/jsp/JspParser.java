@@ -4,6 +4,7 @@
 package net.sourceforge.pmd.lang.jsp;
 
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,12 +15,24 @@ import net.sourceforge.pmd.lang.ast.AbstractTokenManager;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.ParseException;
 import net.sourceforge.pmd.lang.ast.SimpleCharStream;
+import net.sourceforge.pmd.lang.jsp.ast.ASTCompilationUnit;
 
 /**
  * Adapter for the JspParser.
  */
 public class JspParser extends AbstractParser {
 
+    /**
+     * The parser of the current thread, it is reinitialized for each file
+     * instead of allocating a new token manager and char stream buffers.
+     */
+    private static final ThreadLocal<ReusableParser> PARSER = new ThreadLocal<ReusableParser>() {
+	@Override
+	protected ReusableParser initialValue() {
+	    return new ReusableParser(new SimpleCharStream(new StringReader("")));
+	}
+    };
+
     public JspParser(ParserOptions parserOptions) {
 	super(parserOptions);
     }
@@ -35,10 +48,29 @@ public class JspParser extends AbstractParser {
 
     public Node parse(String fileName, Reader source) throws ParseException {
 	AbstractTokenManager.setFileName(fileName);
-	return new net.sourceforge.pmd.lang.jsp.ast.JspParser(new SimpleCharStream(source)).CompilationUnit();
+	return PARSER.get().parse(source);
     }
 
     public Map<Integer, String> getSuppressMap() {
 	return new HashMap<Integer, String>(); // FIXME
     }
+
+    /**
+     * A parser, which keeps its char stream and can be reused for the next
+     * file.
+     */
+    private static class ReusableParser extends net.sourceforge.pmd.lang.jsp.ast.JspParser {
+	private final SimpleCharStream charStream;
+
+	ReusableParser(SimpleCharStream charStream) {
+	    super(charStream);
+	    this.charStream = charStream;
+	}
+
+	ASTCompilationUnit parse(Reader source) throws ParseException {
+	    charStream.ReInit(source);
+	    reset(charStream);
+	    return CompilationUnit();
+	}
+    }
 }
@@ -4,6 +4,7 @@
 package net.sourceforge.pmd.lang.jsp.ast;
 
 import net.sourceforge.pmd.lang.ast.AbstractNode;
+import net.sourceforge.pmd.lang.rule.RuleWatchdog;
 
 public class AbstractJspNode extends AbstractNode implements JspNode {
 
@@ -34,6 +35,8 @@ public class AbstractJspNode extends AbstractNode implements JspNode {
 	}
 	endLine = parser.token.endLine;
 	endColumn = parser.token.endColumn;
+	// the node is complete, don't keep the parser with its buffers alive
+	parser = null;
     }
 
     /**
@@ -49,6 +52,7 @@ public class AbstractJspNode extends AbstractNode implements JspNode {
     public Object childrenAccept(JspParserVisitor visitor, Object data) {
         if (children != null) {
             for (int i = 0; i < children.length; ++i) {
+                RuleWatchdog.checkCancelled();
                 ((JspNode) children[i]).jjtAccept(visitor, data);
             }
         }
@@ -9,6 +9,7 @@ import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.Parser;
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.jsp.ast.ASTElement;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -28,6 +29,21 @@ public class JspParserTest {
         Assert.assertNotNull(node);
     }
 
+    /**
+     * The parser is reused for the next file, the tags left open in one file
+     * must not be closed by the next one.
+     */
+    @Test
+    public void testOpenTagsOfPreviousFileAreForgotten() {
+        Node node = parse("<a><b>text");
+        ASTElement b = node.findDescendantsOfType(ASTElement.class).get(1);
+        Assert.assertEquals("b", b.getName());
+        Assert.assertFalse(b.isUnclosed());
+
+        parse("<c></a>");
+        Assert.assertFalse(b.isUnclosed());
+    }
+
     private Node parse(String code) {
         LanguageVersionHandler jspLang = LanguageRegistry.getLanguage(JspLanguageModule.NAME).getDefaultVersion().getLanguageVersionHandler();
         Parser parser = jspLang.getParser(jspLang.getDefaultParserOptions());
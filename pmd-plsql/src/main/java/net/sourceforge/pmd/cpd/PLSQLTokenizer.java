@@ -3,6 +3,7 @@
  */
 package net.sourceforge.pmd.cpd;
 
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.Properties;
 import java.util.logging.Level;
@@ -20,6 +21,17 @@ public class PLSQLTokenizer implements Tokenizer{
     public static final String IGNORE_IDENTIFIERS = "ignore_identifiers";
     public static final String IGNORE_LITERALS = "ignore_literals";
 
+    /**
+     * The token manager of the current thread, it is reinitialized for each
+     * file instead of allocating new char stream buffers.
+     */
+    private static final ThreadLocal<ReusableTokenManager> TOKEN_MANAGER = new ThreadLocal<ReusableTokenManager>() {
+        @Override
+        protected ReusableTokenManager initialValue() {
+            return new ReusableTokenManager(new SimpleCharStream(new StringReader("")));
+        }
+    };
+
     private boolean ignoreComments;
     private boolean ignoreIdentifiers;
     private boolean ignoreLiterals;
@@ -66,7 +78,8 @@ public class PLSQLTokenizer implements Tokenizer{
 		String fileName = sourceCode.getFileName();
 		StringBuilder sb = sourceCode.getCodeBuffer();
 
-		PLSQLParserTokenManager tokenMgr = new PLSQLParserTokenManager( new SimpleCharStream( new StringReader(sb.toString()))); 
+		ReusableTokenManager tokenMgr = TOKEN_MANAGER.get();
+		tokenMgr.reset(fileName, new StringReader(sb.toString()));
 		Token currentToken = tokenMgr.getNextToken();
 		while (currentToken.image.length()  > 0)
 		{
@@ -109,6 +122,7 @@ public class PLSQLTokenizer implements Tokenizer{
 			currentToken = tokenMgr.getNextToken();
 		}
 		tokenEntries.add(TokenEntry.getEOF() );
+		tokenMgr.reset(null, null);
 		if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.fine(sourceCode.getFileName() 
                         + ": encountered " + encounteredTokens + " tokens;"
@@ -117,8 +131,24 @@ public class PLSQLTokenizer implements Tokenizer{
 		}
 	}
 
+    /**
+     * A token manager, which keeps its char stream and can be reused for the
+     * next file.
+     */
+    private static class ReusableTokenManager extends PLSQLParserTokenManager {
+        private final SimpleCharStream charStream;
 
+        ReusableTokenManager(SimpleCharStream charStream) {
+            super(charStream);
+            this.charStream = charStream;
+        }
 
+        void reset(String fileName, Reader source) {
+            charStream.ReInit(source);
+            ReInit(charStream);
+            setFileName(fileName);
+        }
+    }
 }
 
 
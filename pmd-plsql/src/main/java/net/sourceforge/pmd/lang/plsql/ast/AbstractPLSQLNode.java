@@ -6,6 +6,7 @@
 /* JavaCCOptions:MULTI=true,NODE_USES_PARSER=true,VISITOR=true,TRACK_TOKENS=true,NODE_PREFIX=AST,NODE_EXTENDS=net.sourceforge.pmd.lang.ast.AbstractNode,NODE_FACTORY= */
 package net.sourceforge.pmd.lang.plsql.ast;
 
+import net.sourceforge.pmd.lang.rule.RuleWatchdog;
 import net.sourceforge.pmd.lang.symboltable.Scope;
 
 public abstract class AbstractPLSQLNode extends net.sourceforge.pmd.lang.ast.AbstractNode implements PLSQLNode {
@@ -38,6 +39,8 @@ public abstract class AbstractPLSQLNode extends net.sourceforge.pmd.lang.ast.Abs
 	}
 	endLine = parser.token.endLine;
 	endColumn = parser.token.endColumn;
+	// the node is complete, don't keep the parser with its buffers alive
+	parser = null;
   }
 
   public void jjtSetValue(Object value) { this.value = value; }
@@ -52,6 +55,7 @@ public Object jjtAccept(PLSQLParserVisitor visitor, Object data) {
 public Object childrenAccept(PLSQLParserVisitor visitor, Object data) {
     if (children != null) {
       for (int i = 0; i < children.length; ++i) {
+        RuleWatchdog.checkCancelled();
         ((PLSQLNode)children[i]).jjtAccept(visitor, data);
       }
     }
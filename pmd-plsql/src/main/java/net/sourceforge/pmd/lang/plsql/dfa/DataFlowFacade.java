@@ -7,6 +7,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import net.sourceforge.pmd.lang.DataFlowHandler;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.dfa.CompactDataFlow;
 import net.sourceforge.pmd.lang.plsql.ast.ASTCompoundTriggerBlock;
 import net.sourceforge.pmd.lang.plsql.ast.ASTInput;
 import net.sourceforge.pmd.lang.plsql.ast.ASTMethodDeclaration;
@@ -48,6 +50,7 @@ public class DataFlowFacade extends PLSQLParserVisitorAdapter {
         super.visit(node, data) ;
         sbf.buildDataFlowFor(node);
         vav.compute(node);
+        compact(node);
         LOGGER.exiting(CLASS_PATH,"visit(ASTMethodDeclaration)");
         return data;
     }
@@ -86,6 +89,7 @@ public class DataFlowFacade extends PLSQLParserVisitorAdapter {
             }
           sbf.buildDataFlowFor(node);
           vav.compute(node);
+          compact(node);
         }
         LOGGER.exiting(CLASS_PATH,"visit(ASTTriggerUnit)");
         return data;
@@ -103,6 +107,7 @@ public class DataFlowFacade extends PLSQLParserVisitorAdapter {
         }
         sbf.buildDataFlowFor(node);
         vav.compute(node);
+        compact(node);
         LOGGER.exiting(CLASS_PATH,"visit(ASTProgramUnit)");
         return data;
     }
@@ -119,6 +124,7 @@ public class DataFlowFacade extends PLSQLParserVisitorAdapter {
         }
         sbf.buildDataFlowFor(node);
         vav.compute(node);
+        compact(node);
         LOGGER.exiting(CLASS_PATH,"visit(ASTProgramUnit)");
         return data;
     }
@@ -135,10 +141,17 @@ public class DataFlowFacade extends PLSQLParserVisitorAdapter {
         }
         sbf.buildDataFlowFor(node);
         vav.compute(node);
+        compact(node);
         LOGGER.exiting(CLASS_PATH,"visit(ASTTypeMethod)");
         return data;
     }
 
+    private void compact(Node node) {
+        if (CompactDataFlow.isEnabled()) {
+            CompactDataFlow.compact(node.getDataFlowNode().getFlow());
+        }
+    }
+
     /*
     public Object visit(ASTConstructorDeclaration node, Object data) {
         sbf.buildDataFlowFor(node);
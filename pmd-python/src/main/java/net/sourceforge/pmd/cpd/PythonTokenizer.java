@@ -6,11 +6,9 @@ package net.sourceforge.pmd.cpd;
 import java.io.Reader;
 import java.io.StringReader;
 
-import net.sourceforge.pmd.lang.LanguageRegistry;
-import net.sourceforge.pmd.lang.LanguageVersionHandler;
-import net.sourceforge.pmd.lang.TokenManager;
+import net.sourceforge.pmd.lang.ast.SimpleCharStream;
 import net.sourceforge.pmd.lang.ast.TokenMgrError;
-import net.sourceforge.pmd.lang.python.PythonLanguageModule;
+import net.sourceforge.pmd.lang.python.ast.PythonParserTokenManager;
 import net.sourceforge.pmd.lang.python.ast.Token;
 import net.sourceforge.pmd.util.IOUtil;
 
@@ -21,21 +19,30 @@ import org.apache.commons.io.IOUtils;
  */
 public class PythonTokenizer implements Tokenizer {
 
+    /**
+     * The token manager of the current thread, it is reinitialized for each
+     * file instead of allocating new char stream buffers.
+     */
+    private static final ThreadLocal<ReusableTokenManager> TOKEN_MANAGER = new ThreadLocal<ReusableTokenManager>() {
+        @Override
+        protected ReusableTokenManager initialValue() {
+            return new ReusableTokenManager(new SimpleCharStream(new StringReader("")));
+        }
+    };
+
     @Override
     public void tokenize(SourceCode sourceCode, Tokens tokenEntries) {
         StringBuilder buffer = sourceCode.getCodeBuffer();
         Reader reader = null;
+        ReusableTokenManager tokenManager = TOKEN_MANAGER.get();
         try {
-            LanguageVersionHandler languageVersionHandler = LanguageRegistry.getLanguage(PythonLanguageModule.NAME)
-                    .getDefaultVersion().getLanguageVersionHandler();
             reader = new StringReader(buffer.toString());
             reader = IOUtil.skipBOM(reader);
-            TokenManager tokenManager = languageVersionHandler.getParser(
-                    languageVersionHandler.getDefaultParserOptions()).getTokenManager(sourceCode.getFileName(), reader);
-            Token currentToken = (Token) tokenManager.getNextToken();
+            tokenManager.reset(sourceCode.getFileName(), reader);
+            Token currentToken = tokenManager.getNextToken();
             while (currentToken.image.length() > 0) {
                 tokenEntries.add(new TokenEntry(currentToken.image, sourceCode.getFileName(), currentToken.beginLine));
-                currentToken = (Token) tokenManager.getNextToken();
+                currentToken = tokenManager.getNextToken();
             }
             tokenEntries.add(TokenEntry.getEOF());
             System.err.println("Added " + sourceCode);
@@ -45,6 +52,26 @@ public class PythonTokenizer implements Tokenizer {
             tokenEntries.add(TokenEntry.getEOF());
         } finally {
             IOUtils.closeQuietly(reader);
+            tokenManager.reset(null, null);
+        }
+    }
+
+    /**
+     * A token manager, which keeps its char stream and can be reused for the
+     * next file.
+     */
+    private static class ReusableTokenManager extends PythonParserTokenManager {
+        private final SimpleCharStream charStream;
+
+        ReusableTokenManager(SimpleCharStream charStream) {
+            super(charStream);
+            this.charStream = charStream;
+        }
+
+        void reset(String fileName, Reader source) {
+            charStream.ReInit(source);
+            ReInit(charStream);
+            setFileName(fileName);
         }
     }
 }
@@ -4,6 +4,7 @@
 package net.sourceforge.pmd.lang.vm;
 
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -13,6 +14,7 @@ import net.sourceforge.pmd.lang.TokenManager;
 import net.sourceforge.pmd.lang.ast.AbstractTokenManager;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.ParseException;
+import net.sourceforge.pmd.lang.vm.ast.ASTprocess;
 import net.sourceforge.pmd.lang.vm.util.VelocityCharStream;
 
 /**
@@ -20,6 +22,17 @@ import net.sourceforge.pmd.lang.vm.util.VelocityCharStream;
  */
 public class VmParser extends AbstractParser {
 
+    /**
+     * The parser of the current thread, it is reinitialized for each template
+     * instead of allocating a new token manager and char stream buffers.
+     */
+    private static final ThreadLocal<ReusableParser> PARSER = new ThreadLocal<ReusableParser>() {
+        @Override
+        protected ReusableParser initialValue() {
+            return new ReusableParser(new VelocityCharStream(new StringReader(""), 1, 1));
+        }
+    };
+
     public VmParser(final ParserOptions parserOptions) {
         super(parserOptions);
     }
@@ -35,10 +48,29 @@ public class VmParser extends AbstractParser {
 
     public Node parse(final String fileName, final Reader source) throws ParseException {
         AbstractTokenManager.setFileName(fileName);
-        return new net.sourceforge.pmd.lang.vm.ast.VmParser(new VelocityCharStream(source, 1, 1)).process();
+        return PARSER.get().parse(source);
     }
 
     public Map<Integer, String> getSuppressMap() {
         return new HashMap<Integer, String>(); // FIXME
     }
+
+    /**
+     * A parser, which keeps its char stream and can be reused for the next
+     * template.
+     */
+    private static class ReusableParser extends net.sourceforge.pmd.lang.vm.ast.VmParser {
+        private final VelocityCharStream charStream;
+
+        ReusableParser(VelocityCharStream charStream) {
+            super(charStream);
+            this.charStream = charStream;
+        }
+
+        ASTprocess parse(Reader source) throws ParseException {
+            charStream.ReInit(source, 1, 1);
+            reset(charStream);
+            return process();
+        }
+    }
 }
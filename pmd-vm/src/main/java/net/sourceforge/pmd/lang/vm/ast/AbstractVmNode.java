@@ -23,6 +23,7 @@ import java.io.PrintWriter;
 import java.io.Writer;
 
 import net.sourceforge.pmd.lang.ast.AbstractNode;
+import net.sourceforge.pmd.lang.rule.RuleWatchdog;
 
 import org.apache.commons.lang3.text.StrBuilder;
 
@@ -133,6 +134,7 @@ public class AbstractVmNode extends AbstractNode implements VmNode {
     public Object childrenAccept(final VmParserVisitor visitor, final Object data) {
         if (children != null) {
             for (int i = 0; i < children.length; ++i) {
+                RuleWatchdog.checkCancelled();
                 ((VmNode) children[i]).jjtAccept(visitor, data);
             }
         }
@@ -360,13 +360,15 @@ implements CharStream
         line = startline;
         column = startcolumn - 1;
 
-        if (buffer == null || buffersize != buffer.length)
+        // keep the buffers, if they are large enough, also when they grew
+        // for an earlier template
+        if (buffer == null || buffersize > buffer.length)
         {
-            available = bufsize = nextBufExpand = buffersize;
             buffer = new char[buffersize];
             bufline = new int[buffersize];
             bufcolumn = new int[buffersize];
         }
+        available = bufsize = nextBufExpand = buffer.length;
         prevCharIsLF = prevCharIsCR = false;
         tokenBegin = inBuf = maxNextCharInd = 0;
         bufpos = -1;
@@ -9,6 +9,8 @@ import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.Parser;
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.ParseException;
+import net.sourceforge.pmd.lang.vm.ast.ASTReference;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -51,6 +53,38 @@ public class VmParserTest {
         Assert.assertNotNull(node);
     }
 
+    /**
+     * The parser is reused for the next template, also after a syntax error.
+     */
+    @Test
+    public void testParseAfterError() {
+        try {
+            parse("#foreach( $mud in $mudsOnSpecial ");
+            Assert.fail("Expected a ParseException");
+        } catch (ParseException e) {
+            // expected
+        }
+        final Node node = parse(SRC3);
+        Assert.assertEquals(1, node.getEndLine());
+    }
+
+    /**
+     * The char stream keeps the buffers, which grew for a large template.
+     */
+    @Test
+    public void testParseAfterLargeTemplate() {
+        final StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            large.append(VM_SRC).append('\n');
+        }
+        parse(large.toString());
+
+        final Node node = parse("Hello\n  $customer.Name");
+        final ASTReference reference = node.getFirstDescendantOfType(ASTReference.class);
+        Assert.assertEquals(2, reference.getBeginLine());
+        Assert.assertEquals(3, reference.getBeginColumn());
+    }
+
     private Node parse(final String code) {
         final LanguageVersionHandler vmLang = LanguageRegistry.getLanguage(VmLanguageModule.NAME).getDefaultVersion().getLanguageVersionHandler();
         final Parser parser = vmLang.getParser(vmLang.getDefaultParserOptions());
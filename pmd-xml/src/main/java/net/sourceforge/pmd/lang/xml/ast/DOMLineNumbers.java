@@ -3,39 +3,37 @@
  */
 package net.sourceforge.pmd.lang.xml.ast;
 
-import java.util.Map;
-import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang3.StringUtils;
-import org.w3c.dom.Document;
+import net.sourceforge.pmd.lang.ast.SourceCodePositioner;
+
 import org.w3c.dom.DocumentType;
 import org.w3c.dom.Entity;
 import org.w3c.dom.EntityReference;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.w3c.dom.ProcessingInstruction;
 
 /**
  *
  */
 class DOMLineNumbers {
-    private final Document document;
+    private final RootXmlNode document;
     private final String xmlString;
-    private Map<Integer, Integer> lines;
+    private SourceCodePositioner positioner;
 
-    public DOMLineNumbers(Document document, String xmlString) {
+    public DOMLineNumbers(RootXmlNode document, String xmlString) {
         this.document = document;
         this.xmlString = xmlString;
     }
     
     public void determine() {
-        calculateLinesMap();
+        positioner = new SourceCodePositioner(xmlString);
         determineLocation(document, 0);
     }
-    private int determineLocation(Node n, int index) {
+    private int determineLocation(XmlNodeWrapper wrapper, int index) {
+        Node n = wrapper.getNode();
         int nextIndex = index;
         if (n.getNodeType() == Node.DOCUMENT_TYPE_NODE) {
             nextIndex = xmlString.indexOf("<!DOCTYPE", nextIndex);
@@ -57,12 +55,9 @@ class DOMLineNumbers {
         } else if (n.getNodeType() == Node.ENTITY_REFERENCE_NODE) {
             nextIndex = xmlString.indexOf("&" + n.getNodeName() + ";", nextIndex);
         }
-        setBeginLocation(n, nextIndex);
-        if (n.hasChildNodes()) {
-            NodeList childs = n.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                nextIndex = determineLocation(childs.item(i), nextIndex);
-            }
+        setBeginLocation(wrapper, nextIndex);
+        for (int i = 0; i < wrapper.jjtGetNumChildren(); i++) {
+            nextIndex = determineLocation((XmlNodeWrapper) wrapper.jjtGetChild(i), nextIndex);
         }
         if (n.getNodeType() == Node.ELEMENT_NODE) {
             nextIndex += 2 + n.getNodeName().length() + 1; // </nodename>
@@ -87,7 +82,7 @@ class DOMLineNumbers {
             ProcessingInstruction pi = (ProcessingInstruction)n;
             nextIndex += "<?".length() + pi.getTarget().length() + "?>".length() + pi.getData().length();
         }
-        setEndLocation(n, nextIndex - 1);
+        setEndLocation(wrapper, nextIndex - 1);
         return nextIndex;
     }
 
@@ -95,11 +90,11 @@ class DOMLineNumbers {
         String result = te;
         DocumentType doctype = n.getOwnerDocument().getDoctype();
         // implicit entities
-        result = result.replaceAll(Matcher.quoteReplacement("&"), "&amp;");
-        result = result.replaceAll(Matcher.quoteReplacement("<"), "&lt;");
-        result = result.replaceAll(Matcher.quoteReplacement(">"), "&gt;");
-        result = result.replaceAll(Matcher.quoteReplacement("\""), "&quot;");
-        result = result.replaceAll(Matcher.quoteReplacement("'"), "&apos;");
+        result = result.replace("&", "&amp;");
+        result = result.replace("<", "&lt;");
+        result = result.replace(">", "&gt;");
+        result = result.replace("\"", "&quot;");
+        result = result.replace("'", "&apos;");
 
         if (doctype != null) {
             NamedNodeMap entities = doctype.getEntities();
@@ -123,49 +118,18 @@ class DOMLineNumbers {
         }
         return result;
     }
-    private void setBeginLocation(Node n, int index) {
-        if (n != null) {
-            n.setUserData(XmlNode.BEGIN_LINE, toLine(index), null);
-            n.setUserData(XmlNode.BEGIN_COLUMN, toColumn(index), null);
-        }
-    }
-    private void setEndLocation(Node n, int index) {
-        if (n != null) {
-            n.setUserData(XmlNode.END_LINE, toLine(index), null);
-            n.setUserData(XmlNode.END_COLUMN, toColumn(index), null);
-        }
+    private void setBeginLocation(XmlNodeWrapper n, int index) {
+        n.setBeginLocation(toLine(index), toColumn(index));
     }
-    
-    private void calculateLinesMap() {
-        lines = new TreeMap<Integer, Integer>();
-        int index = -1;
-        int count = StringUtils.countMatches(xmlString, "\n");
-        for (int line = 1; line <= count; line++) {
-            lines.put(line, index + 1);
-            index = xmlString.indexOf("\n", index + 1);
-        }
-        lines.put(count + 1, index + 1);
+    private void setEndLocation(XmlNodeWrapper n, int index) {
+        n.setEndLocation(toLine(index), toColumn(index));
     }
     
     private int toLine(int index) {
-        int line = 1;
-        for (Map.Entry<Integer, Integer> e : lines.entrySet()) {
-            line = e.getKey();
-            if (e.getValue() > index) {
-                line--;
-                break;
-            }
-        }
-        return line;
+        return positioner.lineNumberFromOffset(index);
     }
     private int toColumn(int index) {
-        int line = toLine(index);
-        Integer lineStart = lines.get(line);
-        if (lineStart == null) {
-            lineStart = lines.get(lines.size() - 1);
-        }
-        int column = index - lineStart;
-        return column + 1;
+        return positioner.columnFromOffset(index);
     }
 
 }
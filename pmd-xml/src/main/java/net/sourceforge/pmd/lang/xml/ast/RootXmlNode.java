@@ -0,0 +1,23 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.xml.ast;
+
+import net.sourceforge.pmd.lang.ast.RootNode;
+
+import org.w3c.dom.Document;
+
+/**
+ * The root of the XML AST, which wraps the DOM document.
+ */
+public class RootXmlNode extends XmlNodeWrapper implements RootNode {
+
+    public RootXmlNode(Document document) {
+        super(document, null);
+    }
+
+    @Override
+    public Document getNode() {
+        return (Document) super.getNode();
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+package net.sourceforge.pmd.lang.xml.ast;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import net.sourceforge.pmd.lang.ast.AbstractNode;
+import net.sourceforge.pmd.lang.ast.xpath.Attribute;
+
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
+
+/**
+ * The XML AST node, which wraps a DOM node. The wrappers of the child nodes
+ * are created together with the wrapper, so navigating the AST doesn't go
+ * through the DOM anymore.
+ * <p>
+ * Like the DOM nodes, the children of the document have no parent.
+ */
+public class XmlNodeWrapper extends AbstractNode implements XmlNode {
+
+    private final Node node;
+    private final String name;
+
+    public XmlNodeWrapper(Node node) {
+        this(node, null);
+    }
+
+    protected XmlNodeWrapper(Node node, XmlNodeWrapper parent) {
+        super(node.getNodeType(), -1, -1, -1, -1);
+        this.node = node;
+        this.name = node.getNodeName().replace("#", "");
+        this.parent = parent;
+        if (node instanceof Text) {
+            setImage(((Text) node).getData());
+        }
+
+        NodeList childNodes = node.getChildNodes();
+        int length = childNodes.getLength();
+        if (length > 0) {
+            XmlNodeWrapper childParent = this instanceof RootXmlNode ? null : this;
+            children = new XmlNodeWrapper[length];
+            for (int i = 0; i < length; i++) {
+                children[i] = new XmlNodeWrapper(childNodes.item(i), childParent);
+            }
+        }
+    }
+
+    public Node getNode() {
+        return node;
+    }
+
+    /**
+     * Exposes the DOM attributes, and for Text/CDATA nodes the text as
+     * <code>Image</code> attribute, like AST Nodes.
+     */
+    public Iterator<Attribute> getAttributeIterator() {
+        NamedNodeMap attributes = node.getAttributes();
+        int length = attributes == null ? 0 : attributes.getLength();
+        List<Attribute> result = new ArrayList<Attribute>(length + 1);
+        for (int i = 0; i < length; i++) {
+            Node attributeNode = attributes.item(i);
+            result.add(new Attribute(this, attributeNode.getNodeName(), attributeNode.getNodeValue()));
+        }
+        if (node instanceof Text) {
+            result.add(new Attribute(this, "Image", getImage()));
+        }
+        return result.iterator();
+    }
+
+    @Override
+    public int getBeginColumn() {
+        return beginColumn;
+    }
+
+    void setBeginLocation(int line, int column) {
+        beginLine = line;
+        beginColumn = column;
+    }
+
+    void setEndLocation(int line, int column) {
+        endLine = line;
+        endColumn = column;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
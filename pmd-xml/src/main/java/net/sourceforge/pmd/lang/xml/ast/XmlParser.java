@@ -6,56 +6,46 @@ package net.sourceforge.pmd.lang.xml.ast;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
-import java.lang.reflect.Proxy;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Set;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import net.sourceforge.pmd.lang.ast.ParseException;
-import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.xml.XmlParserOptions;
 
 import org.apache.commons.io.IOUtils;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 public class XmlParser {
+
+    /**
+     * The DocumentBuilders of the current thread, by the configuration of
+     * their factory. Looking up and configuring a new factory for each file is
+     * expensive.
+     */
+    private static final ThreadLocal<Map<Integer, DocumentBuilder>> DOCUMENT_BUILDERS = new ThreadLocal<Map<Integer, DocumentBuilder>>() {
+        @Override
+        protected Map<Integer, DocumentBuilder> initialValue() {
+            return new HashMap<Integer, DocumentBuilder>();
+        }
+    };
+
     protected final XmlParserOptions parserOptions;
-    protected Map<Node, XmlNode> nodeCache = new HashMap<Node, XmlNode>();
 
     public XmlParser(XmlParserOptions parserOptions) {
         this.parserOptions = parserOptions;
     }
 
-    protected Document parseDocument(Reader reader) throws ParseException {
-        nodeCache.clear();
+    protected Document parseDocument(String xmlData) throws ParseException {
         try {
-            String xmlData = IOUtils.toString(reader);
-
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setNamespaceAware(parserOptions.isNamespaceAware());
-            dbf.setValidating(parserOptions.isValidating());
-            dbf.setIgnoringComments(parserOptions.isIgnoringComments());
-            dbf.setIgnoringElementContentWhitespace(parserOptions.isIgnoringElementContentWhitespace());
-            dbf.setExpandEntityReferences(parserOptions.isExpandEntityReferences());
-            dbf.setCoalescing(parserOptions.isCoalescing());
-            dbf.setXIncludeAware(parserOptions.isXincludeAware());
-            dbf.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            DocumentBuilder documentBuilder = dbf.newDocumentBuilder();
+            DocumentBuilder documentBuilder = getDocumentBuilder();
             documentBuilder.setEntityResolver(parserOptions.getEntityResolver());
-            Document document = documentBuilder.parse(new InputSource(new StringReader(xmlData)));
-            DOMLineNumbers lineNumbers = new DOMLineNumbers(document, xmlData);
-            lineNumbers.determine();
-            return document;
+            return documentBuilder.parse(new InputSource(new StringReader(xmlData)));
         } catch (ParserConfigurationException e) {
             throw new ParseException(e);
         } catch (SAXException e) {
@@ -65,36 +55,63 @@ public class XmlParser {
         }
     }
 
-    public XmlNode parse(Reader reader) {
-        Document document = parseDocument(reader);
-        return createProxy(document);
-    }
-
-    public XmlNode createProxy(Node node) {
-        XmlNode proxy = nodeCache.get(node);
-        if (proxy != null) {
-            return proxy;
+    /**
+     * Returns a DocumentBuilder for the parser options. Validating builders
+     * are not reused, as their default error handler stops reporting after
+     * a number of errors.
+     */
+    private DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+        if (parserOptions.isValidating()) {
+            return createDocumentBuilder();
         }
-
-        // TODO Change Parser interface to take ClassLoader?
-        LinkedHashSet<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
-        interfaces.add(XmlNode.class);
-        if (node instanceof Document) {
-            interfaces.add(RootNode.class);
+        Integer key = Integer.valueOf(factoryConfiguration());
+        Map<Integer, DocumentBuilder> documentBuilders = DOCUMENT_BUILDERS.get();
+        DocumentBuilder documentBuilder = documentBuilders.get(key);
+        if (documentBuilder == null) {
+            documentBuilder = createDocumentBuilder();
+            documentBuilders.put(key, documentBuilder);
+        } else {
+            documentBuilder.reset();
         }
-        addAllInterfaces(interfaces, node.getClass());
+        return documentBuilder;
+    }
 
-        proxy = (XmlNode) Proxy.newProxyInstance(XmlParser.class.getClassLoader(),
-                interfaces.toArray(new Class[interfaces.size()]), new XmlNodeInvocationHandler(this, node));
-        nodeCache.put(node, proxy);
-        return proxy;
+    private int factoryConfiguration() {
+        int configuration = 0;
+        configuration = configuration << 1 | (parserOptions.isNamespaceAware() ? 1 : 0);
+        configuration = configuration << 1 | (parserOptions.isIgnoringComments() ? 1 : 0);
+        configuration = configuration << 1 | (parserOptions.isIgnoringElementContentWhitespace() ? 1 : 0);
+        configuration = configuration << 1 | (parserOptions.isExpandEntityReferences() ? 1 : 0);
+        configuration = configuration << 1 | (parserOptions.isCoalescing() ? 1 : 0);
+        configuration = configuration << 1 | (parserOptions.isXincludeAware() ? 1 : 0);
+        return configuration;
     }
 
-    public void addAllInterfaces(Set<Class<?>> interfaces, Class<?> clazz) {
-        interfaces.addAll(Arrays.asList((Class<?>[]) clazz.getInterfaces()));
-        if (clazz.getSuperclass() != null) {
-            addAllInterfaces(interfaces, clazz.getSuperclass());
-        }
+    private DocumentBuilder createDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(parserOptions.isNamespaceAware());
+        dbf.setValidating(parserOptions.isValidating());
+        dbf.setIgnoringComments(parserOptions.isIgnoringComments());
+        dbf.setIgnoringElementContentWhitespace(parserOptions.isIgnoringElementContentWhitespace());
+        dbf.setExpandEntityReferences(parserOptions.isExpandEntityReferences());
+        dbf.setCoalescing(parserOptions.isCoalescing());
+        dbf.setXIncludeAware(parserOptions.isXincludeAware());
+        dbf.setFeature("http://xml.org/sax/features/external-general-entities", false);
+        dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        return dbf.newDocumentBuilder();
     }
 
+    public XmlNode parse(Reader reader) {
+        String xmlData;
+        try {
+            xmlData = IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new ParseException(e);
+        }
+        Document document = parseDocument(xmlData);
+        RootXmlNode root = new RootXmlNode(document);
+        DOMLineNumbers lineNumbers = new DOMLineNumbers(root, xmlData);
+        lineNumbers.determine();
+        return root;
+    }
 }
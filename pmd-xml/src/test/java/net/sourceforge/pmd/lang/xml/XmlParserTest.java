@@ -15,13 +15,16 @@ import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.Parser;
 import net.sourceforge.pmd.lang.ParserOptions;
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.ast.xpath.Attribute;
 import net.sourceforge.pmd.lang.xml.ast.XmlNode;
+import net.sourceforge.pmd.lang.xml.ast.XmlNodeWrapper;
 import net.sourceforge.pmd.lang.xml.ast.XmlParser;
 import net.sourceforge.pmd.util.StringUtil;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.w3c.dom.Document;
 
 /**
  * Unit test for the {@link XmlParser}.
@@ -117,6 +120,28 @@ public class XmlParserTest {
         assertLineNumbers(rootElement.jjtGetChild(6), 18, 14, 18, 14);
     }
 
+    /**
+     * The AST nodes wrap the DOM nodes, the children of the document have no parent.
+     */
+    @Test
+    public void testNodeStructure() {
+        LanguageVersionHandler xmlVersionHandler = LanguageRegistry.getLanguage(XmlLanguageModule.NAME).getDefaultVersion().getLanguageVersionHandler();
+        Parser parser = xmlVersionHandler.getParser(xmlVersionHandler.getDefaultParserOptions());
+        Node document = parser.parse(null, new StringReader(XML_TEST));
+
+        Assert.assertTrue(document instanceof RootNode);
+        Assert.assertTrue(((XmlNode) document).getNode() instanceof Document);
+        Node rootElement = document.jjtGetChild(1);
+        Assert.assertNull(rootElement.jjtGetParent());
+        Assert.assertSame(((XmlNode) document).getNode().getChildNodes().item(1), ((XmlNode) rootElement).getNode());
+        Assert.assertEquals(org.w3c.dom.Node.ELEMENT_NODE, rootElement.jjtGetId());
+        Node child1 = rootElement.jjtGetChild(3);
+        Assert.assertSame(rootElement, child1.jjtGetParent());
+        Assert.assertSame(child1, child1.jjtGetChild(0).jjtGetParent());
+        Assert.assertSame(child1, rootElement.jjtGetChild(3));
+        Assert.assertEquals(7, rootElement.findChildrenOfType(XmlNodeWrapper.class).size());
+    }
+
     /**
      * Verifies the default parsing behavior of the XML parser.
      */